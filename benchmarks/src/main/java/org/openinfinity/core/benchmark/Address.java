@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.benchmark;
+
+import java.io.Serializable;
+
+/**
+ * Nested benchmark domain object for the property path based argument strategies.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+public class Address implements Serializable {
+
+	private static final long serialVersionUID = 1L;
+
+	private String street;
+
+	public Address(String street) {
+		this.street = street;
+	}
+
+	public String getStreet() {
+		return street;
+	}
+
+	public void setStreet(String street) {
+		this.street = street;
+	}
+
+	@Override
+	public String toString() {
+		return "Address [street=" + street + "]";
+	}
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openinfinity.core.aspect.ArgumentStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the argument gathering aspects (<code>LogAspect</code>, <code>AuditTrailAspect</code> and <code>CryptoAspect</code>) 
+ * for each <code>org.openinfinity.core.aspect.ArgumentStrategy</code> and log level. Allocation rate per operation 
+ * is reported with the GC profiler: <code>java -jar target/benchmarks.jar ArgumentStrategyBenchmark -prof gc</code>.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ArgumentStrategyBenchmark extends AspectBenchmarkSupport {
+
+	@Param({"ALL", "CUSTOM", "NONE"})
+	public ArgumentStrategy argumentStrategy;
+
+	@Benchmark
+	public Customer log() {
+		Customer customer = createCustomer();
+		switch (argumentStrategy) {
+			case ALL : return service.logAll(customer);
+			case CUSTOM : return service.logCustom(customer);
+			default: return service.logNone(customer);
+		}
+	}
+
+	@Benchmark
+	public Customer auditTrail() {
+		Customer customer = createCustomer();
+		switch (argumentStrategy) {
+			case ALL : return service.auditTrailAll(customer);
+			case CUSTOM : return service.auditTrailCustom(customer);
+			default: return service.auditTrailNone(customer);
+		}
+	}
+
+	@Benchmark
+	public Customer encrypt() {
+		Customer customer = createCustomer();
+		switch (argumentStrategy) {
+			case ALL : return service.encryptAll(customer);
+			case CUSTOM : return service.encryptCustom(customer);
+			default: return service.encryptNone(customer);
+		}
+	}
+
+	@Benchmark
+	public Customer decrypt() {
+		Customer customer = createEncryptedCustomer();
+		switch (argumentStrategy) {
+			case ALL : return service.decryptAll(customer);
+			case CUSTOM : return service.decryptCustom(customer);
+			default: return service.decryptNone(customer);
+		}
+	}
+
+}
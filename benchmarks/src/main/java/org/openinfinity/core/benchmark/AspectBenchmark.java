@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openinfinity.core.exception.ApplicationException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures the aspects without argument strategies (<code>MultiTenantAspect</code> and <code>ExceptionTranslatorAspect</code>) 
+ * against the unproxied and the proxied baseline invocations. Allocation rate per operation is reported with the GC 
+ * profiler: <code>java -jar target/benchmarks.jar AspectBenchmark -prof gc</code>.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AspectBenchmark extends AspectBenchmarkSupport {
+
+	@Benchmark
+	public Customer baseline() {
+		return target.passThrough(createCustomer());
+	}
+
+	@Benchmark
+	public Customer proxied() {
+		return service.passThrough(createCustomer());
+	}
+
+	@Benchmark
+	public TenantCustomer multiTenant() {
+		return service.addTenantId(new TenantCustomer());
+	}
+
+	@Benchmark
+	public ApplicationException exceptionTranslation() {
+		try {
+			service.throwLoggedException();
+			return null;
+		} catch (ApplicationException applicationException) {
+			return applicationException;
+		}
+	}
+
+}
@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+
+import org.apache.log4j.LogManager;
+import org.apache.log4j.varia.NullAppender;
+import org.keyczar.KeyczarTool;
+import org.openinfinity.core.aspect.AuditTrailAspect;
+import org.openinfinity.core.aspect.CryptoAspect;
+import org.openinfinity.core.aspect.ExceptionTranslatorAspect;
+import org.openinfinity.core.aspect.LogAspect;
+import org.openinfinity.core.aspect.MultiTenantAspect;
+import org.openinfinity.core.crypto.CryptoSupport;
+import org.openinfinity.core.security.principal.Identity;
+import org.openinfinity.core.security.principal.RolePrincipal;
+import org.openinfinity.core.security.principal.TenantPrincipal;
+import org.openinfinity.core.security.principal.UserPrincipal;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Shared benchmark state. Weaves all core aspects around <code>org.openinfinity.core.benchmark.BenchmarkServiceImpl</code> 
+ * the same way as the Spring AOP auto proxying does, generates symmetric Keyczar keys for the crypto aspect and 
+ * injects an authenticated identity for the audit trail and multi-tenant aspects. Log output is discarded, but 
+ * messages of the enabled levels are still fully rendered.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+@State(Scope.Thread)
+public abstract class AspectBenchmarkSupport {
+
+	static final String NAME = "Open Infinity";
+
+	static final String EMAIL = "core@openinfinity.org";
+
+	static final String STREET = "Rocks";
+
+	/**
+	 * Represents the log4j threshold of the <code>org.openinfinity</code> loggers.
+	 */
+	@Param({"TRACE", "DEBUG", "INFO", "WARN", "ERROR"})
+	public String logLevel;
+
+	/**
+	 * Represents the unproxied service.
+	 */
+	BenchmarkService target;
+
+	/**
+	 * Represents the service woven with the core aspects.
+	 */
+	BenchmarkService service;
+
+	/**
+	 * Represents the encrypted presentation of the name.
+	 */
+	String encryptedName;
+
+	/**
+	 * Represents the encrypted presentation of the email.
+	 */
+	String encryptedEmail;
+
+	private File keyLocation;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		configureLogging();
+		injectIdentityBasedSecurityContext();
+		keyLocation = createSymmetricKeys();
+		CryptoSupport cryptoSupport = new CryptoSupport(keyLocation.getAbsolutePath());
+		target = new BenchmarkServiceImpl();
+		service = weaveAspects(target, cryptoSupport);
+		encryptedName = cryptoSupport.encryptToBase64(NAME);
+		encryptedEmail = cryptoSupport.encryptToBase64(EMAIL);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		SecurityContextHolder.clearContext();
+		FileSystemUtils.deleteRecursively(keyLocation);
+	}
+
+	Customer createCustomer() {
+		return new Customer(NAME, EMAIL, new Address(STREET));
+	}
+
+	Customer createEncryptedCustomer() {
+		return new Customer(encryptedName, encryptedEmail, new Address(STREET));
+	}
+
+	private void configureLogging() {
+		LogManager.resetConfiguration();
+		LogManager.getRootLogger().addAppender(new NullAppender());
+		LogManager.getRootLogger().setLevel(org.apache.log4j.Level.OFF);
+		LogManager.getLogger("org.openinfinity").setLevel(org.apache.log4j.Level.toLevel(logLevel));
+	}
+
+	private void injectIdentityBasedSecurityContext() {
+		Identity identity = new Identity();
+		Collection<RolePrincipal> rolePrincipals = new ArrayList<RolePrincipal>();
+		rolePrincipals.add(new RolePrincipal("benchmark-role"));
+		identity.setUserPrincipal(new UserPrincipal("benchmark-user"));
+		identity.setTenantPrincipal(new TenantPrincipal<String>("benchmark-tenant"));
+		identity.setRolePrincipals(rolePrincipals);
+		identity.setAuthenticated(true);
+		SecurityContextHolder.getContext().setAuthentication(identity);
+	}
+
+	static File createSymmetricKeys() throws IOException {
+		File location = Files.createTempDirectory("open-infinity-core-benchmark-keys").toFile();
+		KeyczarTool.main(new String[] {"create", "--location=" + location.getAbsolutePath(), "--purpose=crypt"});
+		KeyczarTool.main(new String[] {"addkey", "--location=" + location.getAbsolutePath(), "--status=primary"});
+		return location;
+	}
+
+	private BenchmarkService weaveAspects(BenchmarkService target, CryptoSupport cryptoSupport) {
+		AspectJProxyFactory proxyFactory = new AspectJProxyFactory(target);
+		ExceptionTranslatorAspect exceptionTranslatorAspect = new ExceptionTranslatorAspect();
+		exceptionTranslatorAspect.setOrder(1);
+		proxyFactory.addAspect(exceptionTranslatorAspect);
+		LogAspect logAspect = new LogAspect();
+		logAspect.setOrder(2);
+		proxyFactory.addAspect(logAspect);
+		AuditTrailAspect auditTrailAspect = new AuditTrailAspect();
+		auditTrailAspect.setOrder(3);
+		proxyFactory.addAspect(auditTrailAspect);
+		MultiTenantAspect multiTenantAspect = new MultiTenantAspect();
+		multiTenantAspect.setOrder(4);
+		proxyFactory.addAspect(multiTenantAspect);
+		CryptoAspect cryptoAspect = new CryptoAspect();
+		cryptoAspect.setCryptoSupport(cryptoSupport);
+		cryptoAspect.setOrder(5);
+		proxyFactory.addAspect(cryptoAspect);
+		return proxyFactory.getProxy();
+	}
+
+}
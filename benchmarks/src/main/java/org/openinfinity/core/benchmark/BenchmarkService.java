@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.benchmark;
+
+/**
+ * Benchmark service interface which is woven with the core aspects.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+public interface BenchmarkService {
+
+	Customer logAll(Customer customer);
+
+	Customer logCustom(Customer customer);
+
+	Customer logNone(Customer customer);
+
+	Customer auditTrailAll(Customer customer);
+
+	Customer auditTrailCustom(Customer customer);
+
+	Customer auditTrailNone(Customer customer);
+
+	Customer encryptAll(Customer customer);
+
+	Customer encryptCustom(Customer customer);
+
+	Customer encryptNone(Customer customer);
+
+	Customer decryptAll(Customer customer);
+
+	Customer decryptCustom(Customer customer);
+
+	Customer decryptNone(Customer customer);
+
+	TenantCustomer addTenantId(TenantCustomer tenantCustomer);
+
+	Customer passThrough(Customer customer);
+
+	void throwLoggedException();
+
+}
@@ -0,0 +1,123 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.benchmark;
+
+import static org.openinfinity.core.aspect.ArgumentStrategy.ALL;
+import static org.openinfinity.core.aspect.ArgumentStrategy.CUSTOM;
+import static org.openinfinity.core.aspect.ArgumentStrategy.NONE;
+
+import org.openinfinity.core.annotation.AuditTrail;
+import org.openinfinity.core.annotation.Decrypt;
+import org.openinfinity.core.annotation.Encrypt;
+import org.openinfinity.core.annotation.Log;
+import org.openinfinity.core.annotation.MultiTenant;
+import org.openinfinity.core.exception.ApplicationException;
+import org.springframework.stereotype.Service;
+
+/**
+ * Benchmark service implementation. Methods do no work of their own, so measured cost is the cost of the aspects.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+@Service
+public class BenchmarkServiceImpl implements BenchmarkService {
+
+	/**
+	 * Represents the exception which has already been logged and is only rethrown by the exception translator.
+	 */
+	private final ApplicationException loggedException;
+
+	public BenchmarkServiceImpl() {
+		loggedException = new ApplicationException("Benchmark exception.");
+		loggedException.setLogged(true);
+	}
+
+	@Log(argumentStrategy=ALL)
+	public Customer logAll(Customer customer) {
+		return customer;
+	}
+
+	@Log(value={"name", "address/street"}, argumentStrategy=CUSTOM)
+	public Customer logCustom(Customer customer) {
+		return customer;
+	}
+
+	@Log(argumentStrategy=NONE)
+	public Customer logNone(Customer customer) {
+		return customer;
+	}
+
+	@AuditTrail(argumentStrategy=ALL)
+	public Customer auditTrailAll(Customer customer) {
+		return customer;
+	}
+
+	@AuditTrail(value={"name", "address/street"}, argumentStrategy=CUSTOM)
+	public Customer auditTrailCustom(Customer customer) {
+		return customer;
+	}
+
+	@AuditTrail(argumentStrategy=NONE)
+	public Customer auditTrailNone(Customer customer) {
+		return customer;
+	}
+
+	@Encrypt(argumentStrategy=ALL)
+	public Customer encryptAll(Customer customer) {
+		return customer;
+	}
+
+	@Encrypt(value={"name", "email"}, argumentStrategy=CUSTOM)
+	public Customer encryptCustom(Customer customer) {
+		return customer;
+	}
+
+	@Encrypt(argumentStrategy=NONE)
+	public Customer encryptNone(Customer customer) {
+		return customer;
+	}
+
+	@Decrypt(argumentStrategy=ALL)
+	public Customer decryptAll(Customer customer) {
+		return customer;
+	}
+
+	@Decrypt(value={"name", "email"}, argumentStrategy=CUSTOM)
+	public Customer decryptCustom(Customer customer) {
+		return customer;
+	}
+
+	@Decrypt(argumentStrategy=NONE)
+	public Customer decryptNone(Customer customer) {
+		return customer;
+	}
+
+	@MultiTenant
+	public TenantCustomer addTenantId(TenantCustomer tenantCustomer) {
+		return tenantCustomer;
+	}
+
+	public Customer passThrough(Customer customer) {
+		return customer;
+	}
+
+	public void throwLoggedException() {
+		throw loggedException;
+	}
+
+}
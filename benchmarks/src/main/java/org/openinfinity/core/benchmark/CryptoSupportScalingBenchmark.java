@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.benchmark;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+import org.openinfinity.core.crypto.CryptoSupport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.util.FileSystemUtils;
+
+/**
+ * Measures the throughput of <code>org.openinfinity.core.crypto.CryptoSupport</code> text encryption from one to all available 
+ * threads. A single crypter (<code>crypterPoolSize=1</code>) is compared against a crypter per processor (<code>crypterPoolSize=0</code>). 
+ * Contention of the pool is printed after each trial.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CryptoSupportScalingBenchmark {
+
+	/**
+	 * Represents the maximum number of crypters, <code>0</code> for the number of available processors.
+	 */
+	@Param({"1", "0"})
+	public int crypterPoolSize;
+
+	private CryptoSupport cryptoSupport;
+
+	private File keyLocation;
+
+	@Setup(Level.Trial)
+	public void setUp() throws IOException {
+		keyLocation = AspectBenchmarkSupport.createSymmetricKeys();
+		cryptoSupport = new CryptoSupport(keyLocation.getAbsolutePath());
+		if (crypterPoolSize > 0)
+			cryptoSupport.setCrypterPoolSize(crypterPoolSize);
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		System.out.println();
+		System.out.println("Crypters: " + cryptoSupport.getCrypterPool().getCreatedCrypters() 
+				+ ", acquisitions: " + cryptoSupport.getCrypterPool().getAcquisitions() 
+				+ ", contended: " + cryptoSupport.getCrypterPool().getContendedAcquisitions() 
+				+ ", waited: " + TimeUnit.NANOSECONDS.toMillis(cryptoSupport.getCrypterPool().getWaitNanos()) + " ms");
+		FileSystemUtils.deleteRecursively(keyLocation);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public String encrypt01Thread() {
+		return cryptoSupport.encryptToBase64(AspectBenchmarkSupport.EMAIL);
+	}
+
+	@Benchmark
+	@Threads(2)
+	public String encrypt02Threads() {
+		return cryptoSupport.encryptToBase64(AspectBenchmarkSupport.EMAIL);
+	}
+
+	@Benchmark
+	@Threads(4)
+	public String encrypt04Threads() {
+		return cryptoSupport.encryptToBase64(AspectBenchmarkSupport.EMAIL);
+	}
+
+	@Benchmark
+	@Threads(8)
+	public String encrypt08Threads() {
+		return cryptoSupport.encryptToBase64(AspectBenchmarkSupport.EMAIL);
+	}
+
+	@Benchmark
+	@Threads(16)
+	public String encrypt16Threads() {
+		return cryptoSupport.encryptToBase64(AspectBenchmarkSupport.EMAIL);
+	}
+
+	@Benchmark
+	@Threads(32)
+	public String encrypt32Threads() {
+		return cryptoSupport.encryptToBase64(AspectBenchmarkSupport.EMAIL);
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public String encryptMaxThreads() {
+		return cryptoSupport.encryptToBase64(AspectBenchmarkSupport.EMAIL);
+	}
+
+}
@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.benchmark;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.openinfinity.core.async.ExecutionMode;
+import org.openinfinity.core.async.ParallelServiceActivator;
+import org.openinfinity.core.async.ParallelServicePlan;
+import org.openinfinity.core.async.ServiceConcurrencyLimiter;
+import org.openinfinity.core.integration.CrudService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.core.task.support.ExecutorServiceAdapter;
+import org.springframework.scheduling.concurrent.ConcurrentTaskExecutor;
+
+/**
+ * Compares the activation throughput and latency percentiles of <code>org.openinfinity.core.async.ParallelServiceActivator</code> 
+ * in the pooled and the virtual thread execution modes. Each activation fans out calls to a back-end service blocking like 
+ * a JDBC query. The plan is built once and activated concurrently by a single activator. The sample time mode reports 
+ * the p99 latency of the activations. Virtual threads require Java 21 or later, 
+ * on older runtimes both modes execute the calls in the thread pool.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.1.0
+ * @since 3.2.0
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.SampleTime})
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParallelServiceActivatorBenchmark {
+
+	/**
+	 * Represents the execution mode of the calls.
+	 */
+	@Param({"POOLED", "VIRTUAL_THREADS"})
+	public ExecutionMode executionMode;
+
+	/**
+	 * Represents the number of calls per activation.
+	 */
+	@Param({"16", "64"})
+	public int fanOut;
+
+	/**
+	 * Represents the blocking time of a single call in milliseconds.
+	 */
+	@Param({"2"})
+	public int blockingMillis;
+
+	/**
+	 * Represents the size of the thread pool of the pooled mode.
+	 */
+	@Param({"32"})
+	public int poolSize;
+
+	/**
+	 * Represents the maximum number of concurrent calls of the back-end service.
+	 */
+	@Param({"256"})
+	public int maximumConcurrentCalls;
+
+	private ExecutorService executorService;
+
+	private ParallelServiceActivator parallelServiceActivator;
+
+	private ParallelServicePlan parallelServicePlan;
+
+	@Setup(Level.Trial)
+	public void setUp() {
+		executorService = Executors.newFixedThreadPool(poolSize);
+		parallelServiceActivator = new ParallelServiceActivator();
+		parallelServiceActivator.setExecutorServiceAdapter(new ExecutorServiceAdapter(new ConcurrentTaskExecutor(executorService)));
+		parallelServiceActivator.setExecutionMode(executionMode);
+		parallelServiceActivator.setServiceConcurrencyLimiter(new ServiceConcurrencyLimiter(maximumConcurrentCalls));
+		BlockingCrudService blockingCrudService = new BlockingCrudService(blockingMillis);
+		ParallelServicePlan.Builder builder = ParallelServicePlan.builder();
+		for (int i = 0; i < fanOut; i++) {
+			builder.prepareToQueryById(blockingCrudService, i);
+		}
+		parallelServicePlan = builder.build();
+	}
+
+	@TearDown(Level.Trial)
+	public void tearDown() {
+		executorService.shutdownNow();
+	}
+
+	@Benchmark
+	@Threads(8)
+	public Object activate() {
+		return parallelServiceActivator.activate(parallelServicePlan).loadResult(0);
+	}
+
+	/**
+	 * CRUD service blocking each query like a JDBC call.
+	 */
+	private static class BlockingCrudService implements CrudService<String, Integer> {
+
+		private final long blockingMillis;
+
+		BlockingCrudService(long blockingMillis) {
+			this.blockingMillis = blockingMillis;
+		}
+
+		@Override
+		public Integer create(String entity) {
+			return null;
+		}
+
+		@Override
+		public String update(String entity) {
+			return entity;
+		}
+
+		@Override
+		public String queryById(Integer id) {
+			try {
+				Thread.sleep(blockingMillis);
+			} catch (InterruptedException interruptedException) {
+				Thread.currentThread().interrupt();
+			}
+			return String.valueOf(id);
+		}
+
+		@Override
+		public Collection<String> queryAllById(Integer id) {
+			return Collections.singletonList(queryById(id));
+		}
+
+		@Override
+		public void delete(Integer id) {
+		}
+
+		@Override
+		public <K, V> Collection<String> queryByCriteria(Map<K, V> parameters) {
+			return Collections.emptyList();
+		}
+
+	}
+
+}
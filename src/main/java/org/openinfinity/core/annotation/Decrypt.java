@@ -30,7 +30,7 @@ import org.openinfinity.core.aspect.ArgumentStrategy;
  * 
  * 
  * @author Ilkka Leinonen 
- * @version 1.0.0
+ * @version 1.2.0
  * @since 1.3.0
  */
 @Retention(RetentionPolicy.RUNTIME)
@@ -62,5 +62,23 @@ public @interface Decrypt {
 	 * @return ArgumentStrategy - based on the strategy.
 	 */
 	public ArgumentStrategy argumentStrategy() default ArgumentStrategy.ALL;
+	
+	/**
+	 * Defines if the fields are decrypted in parallel with the fork-join pool of <code>org.openinfinity.core.crypto.CryptoSupport</code>. 
+	 * Parallel processing is applied only when the number of fields exceeds the parallel threshold of the crypto support, 
+	 * e.g. when the method receives collections of entities.
+	 * 
+	 * @return boolean - Returns <code>true</code> if parallel processing is allowed.
+	 */
+	public boolean parallel() default false;
+	
+	/**
+	 * Defines if the decrypted values are cached by the <code>org.openinfinity.core.crypto.DecryptionCache</code> of the 
+	 * <code>org.openinfinity.core.aspect.CryptoAspect</code>. Caching should be enabled only for frequently read values, 
+	 * e.g. reference data, since plain texts are kept in memory until evicted or expired.
+	 * 
+	 * @return boolean - Returns <code>true</code> if decrypted values can be cached.
+	 */
+	public boolean cacheable() default false;
 		
 }
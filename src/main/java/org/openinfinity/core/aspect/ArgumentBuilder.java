@@ -16,24 +16,20 @@
 package org.openinfinity.core.aspect;
 
 import java.lang.reflect.Field;
-import java.lang.reflect.Modifier;
-import java.util.HashMap;
 import java.util.Map;
 
-import org.apache.commons.jxpath.JXPathContext;
 import org.aspectj.lang.JoinPoint;
 import org.openinfinity.core.exception.SystemException;
 import org.openinfinity.core.util.ExceptionUtil;
+import org.openinfinity.core.util.PropertyPathUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.util.ReflectionUtils;
-import org.springframework.util.ReflectionUtils.FieldCallback;
 
 /**
  * Builder class for argument information. Can be used with logging and audit trail.
  * 
  * @author Ilkka Leinonen
- * @version 1.2.0
+ * @version 1.3.0
  * @since 1.2.0
  */
 public class ArgumentBuilder {
@@ -52,12 +48,6 @@ public class ArgumentBuilder {
 		this.builder = new StringBuilder();
 	}
 	
-	private static Map<String, Field> FIELD_CACHE;
-	
-	static {
-		FIELD_CACHE = new HashMap<String, Field>();
-	}
-
 	/**
 	 * Executes field callbacks on found and defined attribute names.
 	 * 
@@ -69,14 +59,10 @@ public class ArgumentBuilder {
 		for (String allowedField : allowedFields) {
 			for (Object object : arguments) {
 				try {
-					JXPathContext context = JXPathContext.newContext(object);
-					Object value = context.getValue(allowedField);
+					Object value = PropertyPathUtil.getValue(object, allowedField);
 					String argument = object == null ? "null argument" : object.getClass().getName();
 					generateKeyValueString(builder, object, value, argument);
-					Field field = getField(allowedField, object, argument);
-					if (!field.isAccessible()) {
-						field.setAccessible(true);
-					}
+					Field field = getField(allowedField, object);
 					argumentGatheringCallback.onField(field, object);
 				} catch(Throwable throwable) {
 					LOGGER.warn(ExceptionUtil.getStackTraceString(throwable));
@@ -99,21 +85,14 @@ public class ArgumentBuilder {
 		for (final Object object : objects) {
 			try {
 				if (object != null) {
-					ReflectionUtils.doWithFields(object.getClass(), new FieldCallback() {
-						public void doWith(Field field) {
-							try {
-								if (!field.isAccessible()) {
-									field.setAccessible(Boolean.TRUE);
-								}
-								if (!(Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers()))) {
-									argumentGatheringCallback.onField(field, object);						
-									LOGGER.debug("Accessing field: " + field.getName());
-								}
-							} catch (Throwable e) {
-								LOGGER.error("Failure occurred while accessing object field.", e);
-							} 
-						} 
-					});
+					for (Field field : FieldMetadata.forClass(object.getClass()).getInstanceFields()) {
+						try {
+							argumentGatheringCallback.onField(field, object);
+							LOGGER.debug("Accessing field: {}", field.getName());
+						} catch (Throwable e) {
+							LOGGER.error("Failure occurred while accessing object field.", e);
+						}
+					}
 				}
 			} catch (Throwable throwable) {
 				throw new SystemException(throwable);
@@ -129,13 +108,12 @@ public class ArgumentBuilder {
 		.append("] ");
 	}
 	
-	private Field getField(String allowedField, Object object, String argument) {
-		Field field;
-		LOGGER.debug(object.getClass().getName() + "." + allowedField);
-		field = ReflectionUtils.findField(object.getClass(), allowedField);
-		LOGGER.debug("field name: " + field.getName());
-		field.setAccessible(true);
-		FIELD_CACHE.put(argument, field);
+	private Field getField(String allowedField, Object object) {
+		LOGGER.debug("{}.{}", object.getClass().getName(), allowedField);
+		Field field = FieldMetadata.forClass(object.getClass()).getField(allowedField);
+		if (field == null)
+			throw new IllegalArgumentException("No field [" + allowedField + "] found from class [" + object.getClass().getName() + "].");
+		LOGGER.debug("field name: {}", field.getName());
 		return field;
 	}
 	
@@ -179,13 +157,33 @@ public class ArgumentBuilder {
 	 * @return
 	 */
 	public void extractArgumentInfoByFilteringFields(JoinPoint joinPoint, String[] allowedFields) {
-		Object[] objects = joinPoint.getArgs();
+		appendArgumentInfoByFilteringFields(builder, joinPoint.getArgs(), allowedFields);
+	}	
+
+	/**
+	 * Returns builded argument information.
+	 * 
+	 * @param name
+	 * @param argumentInfo
+	 * @return
+	 */
+	public void extractArgumentInfo(JoinPoint joinPoint) {
+		appendArgumentInfo(builder, joinPoint.getArgs());
+	}
+
+	/**
+	 * Appends argument information based on allowed field names presented by using XPATH to the given builder.
+	 * 
+	 * @param builder Represents the builder where the information is appended.
+	 * @param objects Represents the arguments of the method.
+	 * @param allowedFields Represents the allowed argument's field names.
+	 */
+	static void appendArgumentInfoByFilteringFields(StringBuilder builder, Object[] objects, String[] allowedFields) {
 		if (objects.length > 0) {
 			for (String allowedField : allowedFields) {
 				for (Object object : objects) {
 					try {
-						JXPathContext context = JXPathContext.newContext(object);
-						Object value = context.getValue(allowedField);
+						Object value = PropertyPathUtil.getValue(object, allowedField);
 						builder
 						.append(object==null?"null argument":object.getClass().getName()+"."+allowedField)
 						.append("=[")
@@ -199,17 +197,15 @@ public class ArgumentBuilder {
 		} else {
 			builder.append("without any parameters");
 		}
-	}	
+	}
 
 	/**
-	 * Returns builded argument information.
+	 * Appends information of all arguments to the given builder.
 	 * 
-	 * @param name
-	 * @param argumentInfo
-	 * @return
+	 * @param builder Represents the builder where the information is appended.
+	 * @param objects Represents the arguments of the method.
 	 */
-	public void extractArgumentInfo(JoinPoint joinPoint) {
-		Object[] objects = joinPoint.getArgs();		
+	static void appendArgumentInfo(StringBuilder builder, Object[] objects) {
 		if (objects.length > 0) {		
 			for (Object object : objects) {
 				builder
@@ -223,6 +219,65 @@ public class ArgumentBuilder {
 		}
 	}
 
+	/**
+	 * Puts the values of the allowed fields of the arguments to the given map and appends them to the given builder as 
+	 * with <code>appendArgumentInfoByFilteringFields</code>. Keys of the map are formed from the argument name and the 
+	 * field path, e.g. <code>account.name</code>.
+	 * 
+	 * @param values Represents the map where the values are put.
+	 * @param builder Represents the builder where the information is appended.
+	 * @param objects Represents the arguments of the method.
+	 * @param argumentNames Represents the names of the arguments.
+	 * @param allowedFields Represents the allowed argument's field names.
+	 */
+	static void putArgumentValuesByFilteringFields(Map<String, String> values, StringBuilder builder, Object[] objects, String[] argumentNames, String[] allowedFields) {
+		if (objects.length == 0) {
+			builder.append("without any parameters");
+			return;
+		}
+		for (String allowedField : allowedFields) {
+			for (int i = 0; i < objects.length; i++) {
+				try {
+					Object value = PropertyPathUtil.getValue(objects[i], allowedField);
+					String text = value == null ? null : value.toString();
+					values.put(argumentNames[i] + "." + allowedField, text);
+					builder
+					.append(objects[i]==null?"null argument":objects[i].getClass().getName()+"."+allowedField)
+					.append("=[")
+					.append((text==null?"null value":text))
+					.append("] ");
+				} catch(Throwable throwable) {
+					LOGGER.warn(ExceptionUtil.getStackTraceString(throwable));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Puts the values of all arguments to the given map keyed by the argument names and appends them to the given builder 
+	 * as with <code>appendArgumentInfo</code>.
+	 * 
+	 * @param values Represents the map where the values are put.
+	 * @param builder Represents the builder where the information is appended.
+	 * @param objects Represents the arguments of the method.
+	 * @param argumentNames Represents the names of the arguments.
+	 */
+	static void putArgumentValues(Map<String, String> values, StringBuilder builder, Object[] objects, String[] argumentNames) {
+		if (objects.length == 0) {
+			builder.append("without any parameters");
+			return;
+		}
+		for (int i = 0; i < objects.length; i++) {
+			String text = objects[i] == null ? null : objects[i].toString();
+			values.put(argumentNames[i], text);
+			builder
+			.append(objects[i]==null?"null argument":objects[i].getClass().getName())
+			.append("=[")
+			.append((text==null?"null value":text))
+			.append("] ");
+		}
+	}
+
 	/**
 	 * Appends text to the current builder.
 	 * 
@@ -15,9 +15,9 @@
  */
 package org.openinfinity.core.aspect;
 
-import org.apache.commons.jxpath.JXPathContext;
 import org.aspectj.lang.JoinPoint;
 import org.openinfinity.core.util.ExceptionUtil;
+import org.openinfinity.core.util.PropertyPathUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,7 +25,7 @@ import org.slf4j.LoggerFactory;
  * Base class for gathering argument information from the called methods through aspects.
  * 
  * @author Ilkka Leinonen
- * @version 1.0.0
+ * @version 1.1.0
  * @since 1.0.0
  */
 public abstract class ArgumentGatheringJoinPointInterceptor {
@@ -35,24 +35,6 @@ public abstract class ArgumentGatheringJoinPointInterceptor {
 	 */
 	private static final Logger LOGGER = LoggerFactory.getLogger(ArgumentGatheringJoinPointInterceptor.class);
 	
-	protected String buildArgumentDetails(String name, String argumentInfo) {
-		StringBuilder builder = new StringBuilder();
-		builder.append(name)
-				.append(": ")
-				.append((argumentInfo.length() > 0 ? argumentInfo
-				: "without any parameters"));
-		return builder.toString();
-	}
-
-	protected String buildReturnValueDetails(String name, Object returnValue) {
-		StringBuilder builder = new StringBuilder();
-		builder.append(name)
-				.append(": ")
-				.append((returnValue != null ? returnValue
-				: "without any return value (void)"));
-		return builder.toString();
-	}
-
 	protected String getArgumentInfoByFilteringFields(JoinPoint joinPoint, String[] allowedFields) {
 		StringBuilder builder = new StringBuilder();
 		Object[] objects = joinPoint.getArgs();
@@ -73,8 +55,7 @@ public abstract class ArgumentGatheringJoinPointInterceptor {
 		for (String allowedField : allowedFields) {
 			for (Object object : objects) {
 				try {
-					JXPathContext context = JXPathContext.newContext(object);
-					Object value = context.getValue(allowedField);
+					Object value = PropertyPathUtil.getValue(object, allowedField);
 					builder
 					.append(object==null?"null argument":object.getClass().getName()+"."+allowedField)
 					.append("=[")
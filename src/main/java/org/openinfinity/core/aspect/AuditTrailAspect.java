@@ -15,26 +15,41 @@
  */
 package org.openinfinity.core.aspect;
 
+import java.lang.reflect.Method;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Before;
 import org.aspectj.lang.annotation.Pointcut;
-import org.joda.time.DateTime;
-import org.joda.time.format.DateTimeFormatter;
-import org.joda.time.format.ISODateTimeFormat;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.openinfinity.core.annotation.AuditTrail;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
+import org.openinfinity.core.audit.AuditRecord;
+import org.openinfinity.core.audit.AuditTrailSink;
+import org.openinfinity.core.audit.LoggingAuditTrailSink;
+import org.openinfinity.core.security.principal.Identity;
+import org.springframework.aop.support.AopUtils;
+import org.springframework.core.DefaultParameterNameDiscoverer;
 import org.springframework.core.Ordered;
+import org.springframework.core.ParameterNameDiscoverer;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.context.SecurityContext;
 import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.util.ClassUtils;
 
 /**
- * Class is responsible for creating audit trail information. Audit trail storage system can be defined through Log4j property files (JDBCAppender, FileAppender, JMSAppender etc).
+ * Class is responsible for creating audit trail information. Audit trail storage system can be defined through Log4j property files (JDBCAppender, FileAppender, JMSAppender etc)
+ * or by setting an <code>org.openinfinity.core.audit.AuditTrailSink</code>, e.g. <code>org.openinfinity.core.audit.AsyncAuditTrailSink</code> for batched background writing.
  *  
  * @author Ilkka Leinonen 
  * @version 1.1.0 - Spring Security 3.1.X-modifications.
@@ -44,15 +59,50 @@ import org.springframework.security.core.context.SecurityContextHolder;
 public class AuditTrailAspect implements Ordered {
 
 	/**
-	 * Logger for this class.
+	 * Resolves the argument names of the audited methods.
 	 */
-	private static final Logger LOGGER = LoggerFactory.getLogger(AuditTrailAspect.class);
+	private static final ParameterNameDiscoverer PARAMETER_NAME_DISCOVERER = new DefaultParameterNameDiscoverer();
+	
+	/**
+	 * Represents the argument names of the audited methods. Names are resolved from the implementation of the first 
+	 * audited target, falling back to <code>arg0</code>, <code>arg1</code> etc. when names are not available.
+	 */
+	private final ConcurrentMap<Method, String[]> argumentNames = new ConcurrentHashMap<Method, String[]>();
+	
+	/**
+	 * Represents the storage of the audit trail records.
+	 */
+	private AuditTrailSink auditTrailSink = new LoggingAuditTrailSink();
+	
+	/**
+	 * Represents the clock of the audit trail timestamps. Only the instant of the clock is recorded.
+	 */
+	private Clock clock = Clock.systemUTC();
 	
 	/**
 	 * Represents the execution order of the aspect.
 	 */
 	private int order;
 	
+	/**
+	 * Setter for the clock. By default system UTC clock is used. Only the instant of the clock is recorded; the zone of the 
+	 * clock is ignored and ISO-8601 timestamps are rendered in the default time zone as in the earlier audit trail lines.
+	 * 
+	 * @param clock Represents the clock of the audit trail timestamps.
+	 */
+	public void setClock(Clock clock) {
+		this.clock = clock;
+	}
+	
+	/**
+	 * Setter for the audit trail sink. By default records are written to the logger of this class.
+	 * 
+	 * @param auditTrailSink Represents the storage of the audit trail records.
+	 */
+	public void setAuditTrailSink(AuditTrailSink auditTrailSink) {
+		this.auditTrailSink = auditTrailSink;
+	}
+	
 	/**
 	 * Setter for the order.
 	 * 
@@ -72,7 +122,7 @@ public class AuditTrailAspect implements Ordered {
 	public void auditTrailAnnotatedMethod() {}
 	
 	/**
-	 *  Method prints audit trail information to a Log4j appender.
+	 *  Method writes audit trail record of the invocation to the audit trail sink.
 	 *  Uses <code>org.openinfinity.core.annotation.AuditTrail</code> annotation for the AspectJ's pointcut resolving.
 	 *  <br/><br/>
 	 *  Usage: <br/><br/>
@@ -90,64 +140,77 @@ public class AuditTrailAspect implements Ordered {
 	 */
 	@Before(value="auditTrailAnnotatedMethod() && @annotation(auditTrail)")
 	public void auditTrailedMethod(JoinPoint joinPoint, AuditTrail auditTrail) throws Throwable {
-		ArgumentBuilder builder = new ArgumentBuilder();
-		writeTimestampToAuditTrailIfEnabled(builder, auditTrail);
-		writeMethodToAuditTrailIfEnabled(joinPoint, builder);
+		if (!auditTrailSink.isEnabled())
+			return;
 		SecurityContext securityContext = SecurityContextHolder.getContext();
 		Authentication authentication = securityContext.getAuthentication();
-		writeUsernameToAuditTrailIfEnabled(builder, auditTrail, authentication);
-		writeRolesToAuditTrailIfEnabled(builder, auditTrail, authentication);
-		writeArgumentDetailsToAuditTrailBasedOnDesicionLogic(joinPoint, builder, auditTrail);
-		String auditTrailInformation = builder.toString();
-		LOGGER.info(auditTrailInformation);
+		List<String> authorities = resolveAuthoritiesIfEnabled(auditTrail, authentication);
+		Map<String, String> arguments = new LinkedHashMap<String, String>();
+		StringBuilder renderedArguments = new StringBuilder();
+		resolveArguments(joinPoint, auditTrail, arguments, renderedArguments);
+		AuditRecord auditRecord = new AuditRecord(
+				resolveTimestampIfEnabled(auditTrail),
+				joinPoint.getSignature().getDeclaringTypeName() + "." + joinPoint.getSignature().getName(),
+				resolveUsernameIfEnabled(auditTrail, authentication),
+				authorities,
+				authorities != null && authentication instanceof Identity ? ((Identity) authentication).getRenderedAuthorities() : null,
+				arguments,
+				renderedArguments.toString());
+		auditTrailSink.write(auditRecord);
 	}
 
-	private void writeArgumentDetailsToAuditTrailBasedOnDesicionLogic(JoinPoint joinPoint, ArgumentBuilder builder, AuditTrail auditTrail) {
-		ArgumentStrategy argumentStrategy = auditTrail.argumentStrategy();
-		switch(argumentStrategy) {
-			case ALL : addAllArgumentsToAuditTrail(joinPoint, builder); return;
-			case CUSTOM : addCustomFieldsToAuditTrail(joinPoint, builder, auditTrail); return;
-			case NONE : return;
-			default: return;
-		}
-	}
-	
-	private void addCustomFieldsToAuditTrail(JoinPoint joinPoint, ArgumentBuilder builder, AuditTrail auditTrail) {
-		builder.extractArgumentInfoByFilteringFields(joinPoint, auditTrail.value());
-	}
-
-	private void addAllArgumentsToAuditTrail(JoinPoint joinPoint, ArgumentBuilder builder) {
-		builder.extractArgumentInfo(joinPoint);
+	private long resolveTimestampIfEnabled(AuditTrail auditTrail) {
+		if (!auditTrail.isTimeStampEnabled())
+			return AuditRecord.NO_TIMESTAMP;
+		Instant now = clock.instant();
+		return TimeUnit.SECONDS.toNanos(now.getEpochSecond()) + now.getNano();
 	}
 
-	private void writeMethodToAuditTrailIfEnabled(JoinPoint joinPoint, ArgumentBuilder builder) {
-		builder.append(" Method: [").append(joinPoint.getSignature().getName()).append("] ");
+	private String resolveUsernameIfEnabled(AuditTrail auditTrail, Authentication authentication) {
+		if (!auditTrail.isUsernameEnabled())
+			return null;
+		return authentication != null ? authentication.getName() : "user not authenticated";
 	}
 
-	private void writeRolesToAuditTrailIfEnabled(ArgumentBuilder builder, AuditTrail auditTrail, Authentication authentication) {
-		if (auditTrail.isRolesEnabled() && authentication != null && authentication.getAuthorities() != null) {
-			Collection<? extends GrantedAuthority> grantedAuthorities = authentication.getAuthorities();
-			builder.append(" with granted authorities: [");
-			for (GrantedAuthority grantedAuthority : grantedAuthorities) 
-				builder.append("{" + grantedAuthority.getAuthority() + "}");
-			builder.append("] ");
-		}
+	private List<String> resolveAuthoritiesIfEnabled(AuditTrail auditTrail, Authentication authentication) {
+		if (!auditTrail.isRolesEnabled() || authentication == null || authentication.getAuthorities() == null)
+			return null;
+		if (authentication instanceof Identity)
+			return ((Identity) authentication).getAuthorityNames();
+		Collection<? extends GrantedAuthority> grantedAuthorities = authentication.getAuthorities();
+		List<String> authorities = new ArrayList<String>(grantedAuthorities.size());
+		for (GrantedAuthority grantedAuthority : grantedAuthorities)
+			authorities.add(grantedAuthority.getAuthority());
+		return authorities;
 	}
 
-	private void writeUsernameToAuditTrailIfEnabled(ArgumentBuilder builder, AuditTrail auditTrail, Authentication authentication) {
-		if (auditTrail.isUsernameEnabled()) {	
-			String username = authentication!=null?authentication.getName():"user not authenticated";
-			builder.append(" Username: ").append("[").append(username).append("] ");
+	/**
+	 * Puts the audited arguments keyed by argument name to the given map and appends them in the layout of the audit 
+	 * trail line, keyed by argument class name, to the given builder.
+	 */
+	private void resolveArguments(JoinPoint joinPoint, AuditTrail auditTrail, Map<String, String> arguments, StringBuilder renderedArguments) {
+		switch (auditTrail.argumentStrategy()) {
+			case ALL : ArgumentBuilder.putArgumentValues(arguments, renderedArguments, joinPoint.getArgs(), getArgumentNames(joinPoint)); break;
+			case CUSTOM : ArgumentBuilder.putArgumentValuesByFilteringFields(arguments, renderedArguments, joinPoint.getArgs(), getArgumentNames(joinPoint), auditTrail.value()); break;
+			default: break;
 		}
 	}
 
-	private void writeTimestampToAuditTrailIfEnabled(ArgumentBuilder builder, AuditTrail auditTrail) {
-		if (auditTrail.isTimeStampEnabled()) { 
-			DateTime dateTime = new DateTime();
-			DateTimeFormatter fmt = ISODateTimeFormat.dateTime();
-			String timeStamp = fmt.print(dateTime);
-			builder.append("Timestamp: ").append("[").append(timeStamp).append("] ");
+	private String[] getArgumentNames(JoinPoint joinPoint) {
+		Method method = ((MethodSignature) joinPoint.getSignature()).getMethod();
+		String[] argumentNames = this.argumentNames.get(method);
+		if (argumentNames == null) {
+			Object target = joinPoint.getTarget();
+			Method targetMethod = target != null ? ClassUtils.getMostSpecificMethod(method, AopUtils.getTargetClass(target)) : method;
+			argumentNames = PARAMETER_NAME_DISCOVERER.getParameterNames(targetMethod);
+			if (argumentNames == null) {
+				argumentNames = new String[method.getParameterTypes().length];
+				for (int i = 0; i < argumentNames.length; i++)
+					argumentNames[i] = "arg" + i;
+			}
+			this.argumentNames.putIfAbsent(method, argumentNames);
 		}
+		return argumentNames;
 	}
 
 	@Override
@@ -15,7 +15,17 @@
  */
 package org.openinfinity.core.aspect;
 
-import java.lang.reflect.Field;
+import java.nio.charset.Charset;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
@@ -23,9 +33,12 @@ import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
 import org.openinfinity.core.annotation.Decrypt;
 import org.openinfinity.core.annotation.Encrypt;
+import org.openinfinity.core.aspect.EncryptionPlan.NestedFieldAccessor;
+import org.openinfinity.core.aspect.EncryptionPlan.TextFieldAccessor;
 import org.openinfinity.core.crypto.CryptoSupport;
+import org.openinfinity.core.crypto.DecryptionCache;
+import org.openinfinity.core.exception.SystemException;
 import org.openinfinity.core.util.ExceptionUtil;
-import org.openinfinity.core.util.IOUtil;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.core.Ordered;
@@ -33,7 +46,7 @@ import org.springframework.core.Ordered;
  * Aspect for handling cryptography on method level with entities and their attributes.
  * 
  * @author Ilkka Leinonen
- * @version 1.3.0
+ * @version 1.8.0
  * @since 1.0.0
  */
 @Aspect
@@ -50,15 +63,20 @@ public class CryptoAspect implements Ordered {
 	private static final String DEFAULT_CHARACTER_ENCODING = "ISO-8859-1";
 	
 	/**
-	 * Default character encoding is set to 'ISO-8859-1'.
+	 * Character set of the encrypted text fields, by default 'ISO-8859-1'.
 	 */
-	private String encoding = DEFAULT_CHARACTER_ENCODING;
+	private Charset charset = Charset.forName(DEFAULT_CHARACTER_ENCODING);
 	
 	/**
 	 * Support tool for handling the actual cryptography.
 	 */
 	private CryptoSupport cryptoSupport;
 	
+	/**
+	 * Cache of decrypted values for <code>org.openinfinity.core.annotation.Decrypt</code> annotations with <code>cacheable</code> enabled.
+	 */
+	private DecryptionCache decryptionCache;
+	
 	/**
 	 * Setter for <code>org.openinfinity.core.crypto.CryptoSupport</code> object.
 	 */
@@ -66,13 +84,22 @@ public class CryptoAspect implements Ordered {
 		this.cryptoSupport = cryptoSupport;
 	}
 	
+	/**
+	 * Setter for the decryption cache. Without the cache values are always decrypted.
+	 * 
+	 * @param decryptionCache Represents the cache of decrypted values.
+	 */
+	public void setDecryptionCache(DecryptionCache decryptionCache) {
+		this.decryptionCache = decryptionCache;
+	}
+	
 	/**
 	 * Setter for encoding.
 	 * 
 	 * @param encoding Represents the actual encoding.
 	 */
 	public void setEncoding(String encoding) {
-		this.encoding = encoding;
+		this.charset = Charset.forName(encoding);
 	}
 
 	/**
@@ -112,12 +139,10 @@ public class CryptoAspect implements Ordered {
 	public Object encryptObjectContentAfterMethod(ProceedingJoinPoint joinPoint, final Encrypt encrypt) {
 		LOGGER.debug("Encryption for the object has started.");
 		try {
-			ArgumentBuilder argumentBuilder = new ArgumentBuilder();
-			StringBuilder builder = new StringBuilder();
 			ArgumentStrategy argumentStrategy = encrypt.argumentStrategy();
 			switch (argumentStrategy) {
-				case ALL    : executeGatheringOfAllArguments (joinPoint.getArgs(), encrypt, argumentBuilder, builder); LOGGER.debug("Encryption of the all object fields started."); return joinPoint.proceed(joinPoint.getArgs());
-				case CUSTOM : executeGatheringOfDefinedArguments(joinPoint.getArgs(), encrypt, argumentBuilder, builder); LOGGER.debug("Encryption of defined object fields started."); return joinPoint.proceed(joinPoint.getArgs());
+				case ALL    : transformFields(collectTextFields(joinPoint.getArgs(), null), true, encrypt.parallel()); LOGGER.debug("Encryption of the all object fields started."); return joinPoint.proceed(joinPoint.getArgs());
+				case CUSTOM : transformFields(collectTextFields(joinPoint.getArgs(), encrypt.value()), true, encrypt.parallel()); LOGGER.debug("Encryption of defined object fields started."); return joinPoint.proceed(joinPoint.getArgs());
 				case NONE   : return joinPoint.proceed(joinPoint.getArgs());
 				default: return joinPoint.proceed(joinPoint.getArgs());
 			}
@@ -140,12 +165,10 @@ public class CryptoAspect implements Ordered {
 	public Object decryptObjectContentAfterMethod(ProceedingJoinPoint joinPoint, final Decrypt decrypt) {
 		LOGGER.debug("Decryption for the object has started.");
 		try {
-			ArgumentBuilder argumentBuilder = new ArgumentBuilder();
-			StringBuilder builder = new StringBuilder();
 			ArgumentStrategy argumentStrategy = decrypt.argumentStrategy();
 			switch(argumentStrategy) {
-				case ALL    : executeGatheringOfAllArguments (joinPoint.getArgs(), decrypt, argumentBuilder, builder); return joinPoint.proceed(joinPoint.getArgs());
-				case CUSTOM : executeGatheringOfDefinedArguments(joinPoint.getArgs(), decrypt, argumentBuilder, builder); return joinPoint.proceed(joinPoint.getArgs());
+				case ALL    : decryptFields(collectTextFields(joinPoint.getArgs(), null), decrypt); return joinPoint.proceed(joinPoint.getArgs());
+				case CUSTOM : decryptFields(collectTextFields(joinPoint.getArgs(), decrypt.value()), decrypt); return joinPoint.proceed(joinPoint.getArgs());
 				case NONE   : return joinPoint.proceed(joinPoint.getArgs());
 				default: return joinPoint.proceed(joinPoint.getArgs());
 			}
@@ -157,80 +180,188 @@ public class CryptoAspect implements Ordered {
 		return joinPoint.getArgs();
 	}
 	
-	private void executeGatheringOfDefinedArguments(Object[] arguments, final Decrypt decrypt, ArgumentBuilder argumentBuilder, StringBuilder builder) {
-		argumentBuilder.executeArgumentGatheringCallbackBasedOnDefinedFields(new ArgumentGatheringFieldCallback<Field, Object>() {
-			@Override
-			public void onField(Field field, Object object) {
-				decryptField(field, object);
-
+	/**
+	 * Collects the text fields of the argument object graphs by executing the encryption plans of the visited classes. 
+	 * Collections, values of maps and arrays are traversed on every level. With all fields the nested objects referred 
+	 * by the fields are traversed as well, while defined fields are resolved only from the objects found directly from the 
+	 * arguments and their collections. Objects are visited once by identity, so cycles and shared references are processed once.
+	 * <p>
+	 * Traversal is bounded to the package of the argument object and its sub-packages, so referenced framework objects 
+	 * and injected collaborators are left untouched. Collections and maps are expanded only when implemented by the Java 
+	 * platform, which leaves e.g. lazily loaded persistent collections uninitialized. Proxies are never traversed.
+	 * 
+	 * @param arguments Represents the arguments of the method.
+	 * @param fieldNames Represents the names of the processed fields or <code>null</code> for all text fields.
+	 * @return List<TextField> Represents the text fields containing a value.
+	 */
+	private static List<TextField> collectTextFields(Object[] arguments, String[] fieldNames) {
+		List<TextField> textFields = new ArrayList<TextField>();
+		Set<Object> visitedObjects = Collections.newSetFromMap(new IdentityHashMap<Object, Boolean>());
+		Deque<PendingObject> pendingObjects = new ArrayDeque<PendingObject>();
+		pushObjects(pendingObjects, Arrays.asList(arguments), null);
+		while (!pendingObjects.isEmpty()) {
+			PendingObject pendingObject = pendingObjects.pop();
+			Object object = pendingObject.object;
+			if (object instanceof Collection || object instanceof Map || object instanceof Object[]) {
+				if (!(object instanceof Object[]) && !isPlatformClass(object.getClass())) {
+					LOGGER.debug("Skipping collection of class [{}] outside of the Java platform.", object.getClass().getName());
+				} else if (visitedObjects.add(object)) {
+					pushObjects(pendingObjects, object instanceof Collection ? (Collection<?>) object : object instanceof Map ? ((Map<?, ?>) object).values() : Arrays.asList((Object[]) object), pendingObject.scope);
+				}
+				continue;
 			}
-		}, arguments, decrypt.value());
-	}
-
-	private void executeGatheringOfAllArguments(Object[] arguments, final Decrypt decrypt, ArgumentBuilder argumentBuilder, StringBuilder builder) {
-		argumentBuilder.executeArgumentGatheringCallbackOnAllFields(new ArgumentGatheringFieldCallback<Field, Object>() {
-			@Override
-			public void onField(Field field, final Object object) {
-				decryptField(field, object);
+			EncryptionPlan encryptionPlan = EncryptionPlan.forClass(object.getClass());
+			if (encryptionPlan.isLeaf()) {
+				continue;
 			}
-		}, arguments);
-	}
-
-	private void executeGatheringOfAllArguments(Object[] arguments, final Encrypt encrypt, ArgumentBuilder argumentBuilder, StringBuilder builder) {
-		argumentBuilder.executeArgumentGatheringCallbackOnAllFields(new ArgumentGatheringFieldCallback<Field, Object>() {
-			@Override
-			public void onField(Field field, Object object) {
-				encryptField(field, object);
+			String scope = pendingObject.scope == null ? getPackageName(object.getClass()) : pendingObject.scope;
+			if (!isInScope(object.getClass(), scope)) {
+				LOGGER.debug("Skipping object of class [{}] outside of package [{}].", object.getClass().getName(), scope);
+				continue;
+			}
+			if (!visitedObjects.add(object)) {
+				continue;
+			}
+			if (fieldNames == null) {
+				for (TextFieldAccessor textFieldAccessor : encryptionPlan.getTextFieldAccessors()) {
+					collectTextField(textFields, textFieldAccessor, object);
+				}
+				for (NestedFieldAccessor nestedFieldAccessor : encryptionPlan.getNestedFieldAccessors()) {
+					pushNestedObject(pendingObjects, nestedFieldAccessor, object, scope);
+				}
+			} else {
+				for (String fieldName : fieldNames) {
+					TextFieldAccessor textFieldAccessor = encryptionPlan.getTextFieldAccessor(fieldName);
+					if (textFieldAccessor != null) {
+						collectTextField(textFields, textFieldAccessor, object);
+					} else {
+						LOGGER.debug("No text field [{}] found from class [{}].", fieldName, object.getClass().getName());
+					}
+				}
 			}
-		}, arguments);
+		}
+		return textFields;
 	}
 	
-	private void executeGatheringOfDefinedArguments(Object[] arguments, final Encrypt encrypt, ArgumentBuilder argumentBuilder, StringBuilder builder) {
-		argumentBuilder.executeArgumentGatheringCallbackBasedOnDefinedFields(new ArgumentGatheringFieldCallback<Field, Object>() {
-			@Override
-			public void onField(Field field, Object object) {
-				encryptField(field, object);
+	private static void pushObjects(Deque<PendingObject> pendingObjects, Collection<?> objects, String scope) {
+		for (Object object : objects) {
+			if (object != null) {
+				pendingObjects.push(new PendingObject(object, scope));
 			}
-		}, arguments, encrypt.value());
+		}
 	}
 	
-	private void encryptField(Field field, final Object object) {
-		byte[] plainBytes;
+	private static void pushNestedObject(Deque<PendingObject> pendingObjects, NestedFieldAccessor nestedFieldAccessor, Object object, String scope) {
 		try {
-			plainBytes = IOUtil.getBytes(field.get(object));
-			LOGGER.debug("Encrypting field [" + field.getName() + "] with value [" + new String(plainBytes, encoding) + "]");
-			String encryptedBase64Presentation = cryptoSupport.encryptAndReturnBase64Presentation(plainBytes, encoding);
-			if (encryptedBase64Presentation != null) {
-				LOGGER.debug("Encypted field [" + field.getName() + "] with value [" + encryptedBase64Presentation + "]");
-				injectField(field, object, encryptedBase64Presentation);
+			Object value = nestedFieldAccessor.getValue(object);
+			if (value != null) {
+				pendingObjects.push(new PendingObject(value, scope));
 			}
 		} catch (Throwable throwable) {
 			ExceptionUtil.throwSystemException(throwable.getMessage(), throwable);
 		}
 	}
 	
-	private void decryptField(Field field, final Object object) {
-		byte[] encryptedBytes;
+	private static boolean isPlatformClass(Class<?> type) {
+		return type.getName().startsWith("java.");
+	}
+	
+	private static String getPackageName(Class<?> type) {
+		String name = type.getName();
+		int index = name.lastIndexOf('.');
+		return index < 0 ? "" : name.substring(0, index);
+	}
+	
+	/**
+	 * Returns <code>true</code> if the class belongs to the package or to one of its sub-packages.
+	 */
+	private static boolean isInScope(Class<?> type, String scope) {
+		return scope.isEmpty() || type.getName().startsWith(scope + ".");
+	}
+	
+	private static void collectTextField(List<TextField> textFields, TextFieldAccessor textFieldAccessor, Object object) {
 		try {
-			encryptedBytes = IOUtil.getBytes(field.get(object));
-			LOGGER.debug("Decrypting field [" + field.getName() + "] with value [" + new String(encryptedBytes, encoding) + "]");
-			String decryptedBase64Presentation = cryptoSupport.decryptAndReturnBase64Presentation(encryptedBytes, encoding);
-			if (decryptedBase64Presentation != null) {
-				LOGGER.debug("Decrypted field [" + field.getName() + "] with value [" + decryptedBase64Presentation + "]");
-				injectField(field, object, decryptedBase64Presentation);
+			String value = textFieldAccessor.getText(object);
+			if (value != null) {
+				textFields.add(new TextField(textFieldAccessor, object, value));
 			}
 		} catch (Throwable throwable) {
 			ExceptionUtil.throwSystemException(throwable.getMessage(), throwable);
 		}
 	}
 	
-	private void injectField(Field field, Object object, String textValue) {
+	/**
+	 * Decrypts the collected fields. When caching is enabled for the annotation, cached values are injected directly 
+	 * and only the remaining fields are decrypted and added to the cache.
+	 */
+	private void decryptFields(List<TextField> textFields, Decrypt decrypt) {
+		DecryptionCache decryptionCache = this.decryptionCache;
+		if (!decrypt.cacheable() || decryptionCache == null) {
+			transformFields(textFields, false, decrypt.parallel());
+			return;
+		}
+		List<TextField> uncachedTextFields = new ArrayList<TextField>(textFields.size());
+		for (TextField textField : textFields) {
+			String plainText = decryptionCache.get(textField.value, charset);
+			if (plainText != null) {
+				injectField(textField.textFieldAccessor, textField.object, plainText);
+			} else {
+				uncachedTextFields.add(textField);
+			}
+		}
+		LOGGER.debug("Decryption cache resolved {} of {} fields.", textFields.size() - uncachedTextFields.size(), textFields.size());
+		List<String> plainTexts = transformFields(uncachedTextFields, false, decrypt.parallel());
+		for (int i = 0; i < plainTexts.size(); i++) {
+			String plainText = plainTexts.get(i);
+			if (plainText != null) {
+				decryptionCache.put(uncachedTextFields.get(i).value, charset, plainText);
+			}
+		}
+	}
+	
+	/**
+	 * Encrypts or decrypts the collected fields as a single batch. If the batch fails, fields are processed one by one 
+	 * and failures are logged per field.
+	 * 
+	 * @return List<String> Represents the transformed values in field order, <code>null</code> for the failed fields.
+	 */
+	private List<String> transformFields(List<TextField> textFields, boolean encryption, boolean parallel) {
+		if (textFields.isEmpty()) {
+			return new ArrayList<String>(0);
+		}
+		List<String> values = new ArrayList<String>(textFields.size());
+		for (TextField textField : textFields) {
+			values.add(textField.value);
+		}
+		List<String> transformedValues;
 		try {
-			if (!field.isAccessible()) {
-				field.setAccessible(Boolean.TRUE);
+			transformedValues = encryption ? cryptoSupport.encryptToBase64(values, charset, parallel) : cryptoSupport.decryptFromBase64(values, charset, parallel);
+		} catch (SystemException systemException) {
+			LOGGER.warn("Batch processing of {} fields failed, processing fields one by one: {}", textFields.size(), systemException.getMessage());
+			transformedValues = new ArrayList<String>(textFields.size());
+			for (TextField textField : textFields) {
+				String transformedValue = null;
+				try {
+					transformedValue = encryption ? cryptoSupport.encryptToBase64(textField.value, charset) : cryptoSupport.decryptFromBase64(textField.value, charset);
+					injectField(textField.textFieldAccessor, textField.object, transformedValue);
+				} catch (Throwable throwable) {
+					LOGGER.error("Failure occurred while accessing object field.", throwable);
+				}
+				transformedValues.add(transformedValue);
 			}
-			LOGGER.debug("Setting encrypted field [" + field.getName() + "], bytes [" + textValue + "]" );
-			field.set(object, textValue);	
+			return transformedValues;
+		}
+		for (int i = 0; i < textFields.size(); i++) {
+			TextField textField = textFields.get(i);
+			injectField(textField.textFieldAccessor, textField.object, transformedValues.get(i));
+		}
+		return transformedValues;
+	}
+	
+	private void injectField(TextFieldAccessor textFieldAccessor, Object object, String textValue) {
+		try {
+			LOGGER.debug("Setting encrypted field [{}], bytes [{}]", textFieldAccessor.getName(), textValue);
+			textFieldAccessor.setText(object, textValue);
 		} catch (Throwable throwable) {
 			LOGGER.error("Error occurred while setting bytes to field: " + throwable.getMessage(), throwable);
 		}
@@ -241,4 +372,36 @@ public class CryptoAspect implements Ordered {
 		return order;
 	}
 	
+	/**
+	 * Represents a text field of an argument and its current value.
+	 */
+	private static final class TextField {
+		
+		private final TextFieldAccessor textFieldAccessor;
+		private final Object object;
+		private final String value;
+		
+		TextField(TextFieldAccessor textFieldAccessor, Object object, String value) {
+			this.textFieldAccessor = textFieldAccessor;
+			this.object = object;
+			this.value = value;
+		}
+		
+	}
+	
+	/**
+	 * Represents an object waiting for traversal and the package bounding the traversal.
+	 */
+	private static final class PendingObject {
+		
+		private final Object object;
+		private final String scope;
+		
+		PendingObject(Object object, String scope) {
+			this.object = object;
+			this.scope = scope;
+		}
+		
+	}
+	
 }
\ No newline at end of file
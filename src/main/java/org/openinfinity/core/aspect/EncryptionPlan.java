@@ -0,0 +1,297 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.aspect;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.openinfinity.core.util.ExceptionUtil;
+
+/**
+ * Pre-computed encryption information of a single class used by <code>org.openinfinity.core.aspect.CryptoAspect</code>. 
+ * Plans contain the fields which are able to hold text values and the fields referring to nested objects together with 
+ * their accessors. Plans are resolved once per class and bound to the lifecycle of the class itself. Classes of the Java 
+ * platform, enums, primitives and proxies are leaves of the object graph and have no fields in their plans.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.2.0
+ * @since 3.2.0
+ */
+final class EncryptionPlan {
+
+	/**
+	 * Represents the encryption plan per class.
+	 */
+	private static final ClassValue<EncryptionPlan> ENCRYPTION_PLANS = new ClassValue<EncryptionPlan>() {
+		@Override
+		protected EncryptionPlan computeValue(Class<?> type) {
+			return new EncryptionPlan(type);
+		}
+	};
+
+	/**
+	 * Represents the generic type of the getters.
+	 */
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	/**
+	 * Represents the generic type of the setters.
+	 */
+	private static final MethodType SETTER_TYPE = MethodType.methodType(void.class, Object.class, Object.class);
+
+	/**
+	 * Represents the field metadata of the class.
+	 */
+	private final FieldMetadata fieldMetadata;
+
+	/**
+	 * Represents whether the class is a leaf of the object graph.
+	 */
+	private final boolean leaf;
+
+	/**
+	 * Represents the accessors of the text fields of the class and its super classes.
+	 */
+	private final List<TextFieldAccessor> textFieldAccessors;
+
+	/**
+	 * Represents the names without a text field in the accessors of the text fields found by name.
+	 */
+	private static final TextFieldAccessor NO_TEXT_FIELD = new TextFieldAccessor();
+
+	/**
+	 * Represents the accessors of the text fields found by name. Names without a text field are mapped to <code>NO_TEXT_FIELD</code>.
+	 */
+	private final ConcurrentMap<String, TextFieldAccessor> textFieldAccessorsByName = new ConcurrentHashMap<String, TextFieldAccessor>();
+
+	/**
+	 * Represents the accessors of the fields which may refer to nested objects, collections, maps or arrays.
+	 */
+	private final List<NestedFieldAccessor> nestedFieldAccessors;
+
+	private EncryptionPlan(Class<?> type) {
+		this.leaf = isLeaf(type);
+		this.fieldMetadata = leaf ? null : FieldMetadata.forClass(type);
+		List<TextFieldAccessor> textFieldAccessors = new ArrayList<TextFieldAccessor>();
+		List<NestedFieldAccessor> nestedFieldAccessors = new ArrayList<NestedFieldAccessor>();
+		if (!leaf) {
+			for (Field field : fieldMetadata.getInstanceFields()) {
+				if (isTextField(field)) {
+					TextFieldAccessor textFieldAccessor = new TextFieldAccessor(field);
+					textFieldAccessors.add(textFieldAccessor);
+					textFieldAccessorsByName.putIfAbsent(field.getName(), textFieldAccessor);
+				}
+				if (isNestedField(field)) {
+					nestedFieldAccessors.add(new NestedFieldAccessor(field));
+				}
+			}
+		}
+		this.textFieldAccessors = Collections.unmodifiableList(textFieldAccessors);
+		this.nestedFieldAccessors = Collections.unmodifiableList(nestedFieldAccessors);
+	}
+
+	/**
+	 * Returns the encryption plan of the given class.
+	 *
+	 * @param type Represents the class.
+	 * @return EncryptionPlan Represents the encryption plan of the class.
+	 */
+	static EncryptionPlan forClass(Class<?> type) {
+		return ENCRYPTION_PLANS.get(type);
+	}
+
+	/**
+	 * Returns <code>true</code> if the class is a leaf of the object graph, e.g. a class of the Java platform.
+	 *
+	 * @return boolean Represents whether the class has no processed fields.
+	 */
+	boolean isLeaf() {
+		return leaf;
+	}
+
+	/**
+	 * Returns the accessors of all text fields of the class.
+	 *
+	 * @return List Represents the text field accessors.
+	 */
+	List<TextFieldAccessor> getTextFieldAccessors() {
+		return textFieldAccessors;
+	}
+
+	/**
+	 * Returns the accessor of the text field with the given name.
+	 *
+	 * @param name Represents the name of the field.
+	 * @return TextFieldAccessor Represents the accessor or <code>null</code> if the class has no such text field.
+	 */
+	TextFieldAccessor getTextFieldAccessor(String name) {
+		TextFieldAccessor textFieldAccessor = textFieldAccessorsByName.get(name);
+		if (textFieldAccessor == null && !leaf) {
+			Field field = fieldMetadata.getField(name);
+			textFieldAccessor = field == null || !isTextField(field) ? NO_TEXT_FIELD : new TextFieldAccessor(field);
+			TextFieldAccessor existingTextFieldAccessor = textFieldAccessorsByName.putIfAbsent(name, textFieldAccessor);
+			if (existingTextFieldAccessor != null)
+				textFieldAccessor = existingTextFieldAccessor;
+		}
+		return textFieldAccessor == NO_TEXT_FIELD ? null : textFieldAccessor;
+	}
+
+	/**
+	 * Returns the accessors of the fields which may refer to nested objects.
+	 *
+	 * @return List Represents the nested field accessors.
+	 */
+	List<NestedFieldAccessor> getNestedFieldAccessors() {
+		return nestedFieldAccessors;
+	}
+
+	private static boolean isLeaf(Class<?> type) {
+		String name = type.getName();
+		return type.isPrimitive() || type.isEnum() || type.isArray() || name.startsWith("java.") || name.startsWith("javax.") || isProxy(type);
+	}
+
+	/**
+	 * Returns <code>true</code> if the class is a JDK dynamic proxy or a generated subclass, e.g. a CGLIB, Javassist or ByteBuddy 
+	 * proxy of Spring or Hibernate.
+	 */
+	private static boolean isProxy(Class<?> type) {
+		String name = type.getName();
+		return Proxy.isProxyClass(type) || name.contains("$$") || name.contains("$HibernateProxy$");
+	}
+
+	/**
+	 * Returns <code>true</code> if the field may refer to a nested object, collection, map or array of objects.
+	 */
+	private static boolean isNestedField(Field field) {
+		Class<?> type = field.getType();
+		if (type.isArray())
+			return !type.getComponentType().isPrimitive();
+		return Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type) || type.isInterface() || !isLeaf(type) || type == Object.class;
+	}
+
+	/**
+	 * Returns <code>true</code> if the field is able to hold a text value, e.g. fields of type <code>String</code> or <code>Object</code>.
+	 */
+	private static boolean isTextField(Field field) {
+		return field.getType().isAssignableFrom(String.class);
+	}
+
+	/**
+	 * Reads and writes the value of a single text field with method handles.
+	 */
+	static final class TextFieldAccessor {
+
+		private final Field field;
+
+		private final MethodHandle getter;
+
+		private final MethodHandle setter;
+
+		private TextFieldAccessor() {
+			this.field = null;
+			this.getter = null;
+			this.setter = null;
+		}
+
+		private TextFieldAccessor(Field field) {
+			this.field = field;
+			MethodHandle getter = null;
+			MethodHandle setter = null;
+			try {
+				MethodHandles.Lookup lookup = MethodHandles.lookup();
+				getter = lookup.unreflectGetter(field).asType(GETTER_TYPE);
+				setter = lookup.unreflectSetter(field).asType(SETTER_TYPE);
+			} catch (IllegalAccessException illegalAccessException) {
+				ExceptionUtil.throwSystemException(illegalAccessException.getMessage(), illegalAccessException);
+			}
+			this.getter = getter;
+			this.setter = setter;
+		}
+
+		String getName() {
+			return field.getName();
+		}
+
+		/**
+		 * Returns the text value of the field.
+		 *
+		 * @param object Represents the object of the field.
+		 * @return String Represents the value or <code>null</code> if the field does not contain text.
+		 */
+		String getText(Object object) throws Throwable {
+			Object value = (Object) getter.invokeExact(object);
+			return value instanceof String ? (String) value : null;
+		}
+
+		/**
+		 * Sets the text value of the field.
+		 *
+		 * @param object Represents the object of the field.
+		 * @param text Represents the new value.
+		 */
+		void setText(Object object, String text) throws Throwable {
+			setter.invokeExact(object, (Object) text);
+		}
+
+	}
+
+	/**
+	 * Reads the value of a single field referring to nested objects with a method handle.
+	 */
+	static final class NestedFieldAccessor {
+
+		private final Field field;
+
+		private final MethodHandle getter;
+
+		private NestedFieldAccessor(Field field) {
+			this.field = field;
+			MethodHandle getter = null;
+			try {
+				getter = MethodHandles.lookup().unreflectGetter(field).asType(GETTER_TYPE);
+			} catch (IllegalAccessException illegalAccessException) {
+				ExceptionUtil.throwSystemException(illegalAccessException.getMessage(), illegalAccessException);
+			}
+			this.getter = getter;
+		}
+
+		String getName() {
+			return field.getName();
+		}
+
+		/**
+		 * Returns the value of the field.
+		 *
+		 * @param object Represents the object of the field.
+		 * @return Object Represents the value of the field.
+		 */
+		Object getValue(Object object) throws Throwable {
+			return (Object) getter.invokeExact(object);
+		}
+
+	}
+
+}
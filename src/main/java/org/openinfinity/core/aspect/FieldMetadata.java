@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.aspect;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.util.ReflectionUtils;
+import org.springframework.util.ReflectionUtils.FieldCallback;
+
+/**
+ * Reflective field metadata of a single class. Metadata is resolved once per class and bound to the lifecycle of 
+ * the class itself, so reloaded classes do not leak through the cache. Fields which cannot be made accessible, for 
+ * example fields of JDK classes on module restricted runtimes, are excluded from the metadata.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.2.0
+ * @since 3.2.0
+ */
+final class FieldMetadata {
+
+	/**
+	 * Logger for this class.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(FieldMetadata.class);
+
+	/**
+	 * Represents the field metadata per class.
+	 */
+	private static final ClassValue<FieldMetadata> FIELD_METADATA = new ClassValue<FieldMetadata>() {
+		@Override
+		protected FieldMetadata computeValue(Class<?> type) {
+			return new FieldMetadata(type);
+		}
+	};
+
+	/**
+	 * Represents the fields which are not found or not accessible in the fields found by name.
+	 */
+	private static final Field NO_FIELD = ReflectionUtils.findField(FieldMetadata.class, "type");
+
+	/**
+	 * Represents the class of the metadata.
+	 */
+	private final Class<?> type;
+
+	/**
+	 * Represents the accessible non-static and non-final fields of the class and its super classes.
+	 */
+	private final List<Field> instanceFields;
+
+	/**
+	 * Represents the accessible fields found by name. Names without an accessible field are mapped to <code>NO_FIELD</code>.
+	 */
+	private final ConcurrentMap<String, Field> fields = new ConcurrentHashMap<String, Field>();
+
+	private FieldMetadata(Class<?> type) {
+		this.type = type;
+		final List<Field> instanceFields = new ArrayList<Field>();
+		ReflectionUtils.doWithFields(type, new FieldCallback() {
+			public void doWith(Field field) {
+				if (!(Modifier.isStatic(field.getModifiers()) || Modifier.isFinal(field.getModifiers())) && makeAccessible(field)) {
+					instanceFields.add(field);
+				}
+			}
+		});
+		this.instanceFields = Collections.unmodifiableList(instanceFields);
+	}
+
+	/**
+	 * Returns the field metadata of the given class.
+	 *
+	 * @param type Represents the class.
+	 * @return FieldMetadata Represents the field metadata of the class.
+	 */
+	static FieldMetadata forClass(Class<?> type) {
+		return FIELD_METADATA.get(type);
+	}
+
+	/**
+	 * Returns the accessible non-static and non-final fields of the class.
+	 *
+	 * @return List Represents the instance fields.
+	 */
+	List<Field> getInstanceFields() {
+		return instanceFields;
+	}
+
+	/**
+	 * Returns the accessible field with the given name from the class or its super classes.
+	 *
+	 * @param name Represents the name of the field.
+	 * @return Field Represents the field or <code>null</code> if not found or not accessible.
+	 */
+	Field getField(String name) {
+		Field field = fields.get(name);
+		if (field == null) {
+			field = ReflectionUtils.findField(type, name);
+			if (field == null || !makeAccessible(field))
+				field = NO_FIELD;
+			Field existingField = fields.putIfAbsent(name, field);
+			if (existingField != null)
+				field = existingField;
+		}
+		return field == NO_FIELD ? null : field;
+	}
+
+	private static boolean makeAccessible(Field field) {
+		try {
+			ReflectionUtils.makeAccessible(field);
+			return true;
+		} catch (RuntimeException e) {
+			LOGGER.warn("Failure occurred while making field [" + field.getDeclaringClass().getName() + "." + field.getName() + "] accessible.", e);
+			return false;
+		}
+	}
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.aspect;
+
+import org.openinfinity.core.annotation.Log.LogLevel;
+import org.slf4j.Logger;
+
+/**
+ * Dispatches log statements to the SLF4J logger method matching the <code>org.openinfinity.core.annotation.Log.LogLevel</code>.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.1.0
+ * @since 3.2.0
+ */
+enum LevelLogger {
+
+	TRACE {
+		boolean isEnabled(Logger logger) { return logger.isTraceEnabled(); }
+		void log(Logger logger, String format, Object argument) { logger.trace(format, argument); }
+		void log(Logger logger, String format, Object argument1, Object argument2) { logger.trace(format, argument1, argument2); }
+	},
+	DEBUG {
+		boolean isEnabled(Logger logger) { return logger.isDebugEnabled(); }
+		void log(Logger logger, String format, Object argument) { logger.debug(format, argument); }
+		void log(Logger logger, String format, Object argument1, Object argument2) { logger.debug(format, argument1, argument2); }
+	},
+	INFO {
+		boolean isEnabled(Logger logger) { return logger.isInfoEnabled(); }
+		void log(Logger logger, String format, Object argument) { logger.info(format, argument); }
+		void log(Logger logger, String format, Object argument1, Object argument2) { logger.info(format, argument1, argument2); }
+	},
+	WARN {
+		boolean isEnabled(Logger logger) { return logger.isWarnEnabled(); }
+		void log(Logger logger, String format, Object argument) { logger.warn(format, argument); }
+		void log(Logger logger, String format, Object argument1, Object argument2) { logger.warn(format, argument1, argument2); }
+	},
+	ERROR {
+		boolean isEnabled(Logger logger) { return logger.isErrorEnabled(); }
+		void log(Logger logger, String format, Object argument) { logger.error(format, argument); }
+		void log(Logger logger, String format, Object argument1, Object argument2) { logger.error(format, argument1, argument2); }
+	};
+
+	/**
+	 * Returns <code>true</code> if the level is enabled for the given logger.
+	 *
+	 * @param logger Represents the actual logger.
+	 * @return boolean Represents the state of the level.
+	 */
+	abstract boolean isEnabled(Logger logger);
+
+	/**
+	 * Writes the parameterized message to the given logger with this level.
+	 *
+	 * @param logger Represents the actual logger.
+	 * @param format Represents the SLF4J message format.
+	 * @param argument Represents the argument of the message.
+	 */
+	abstract void log(Logger logger, String format, Object argument);
+
+	/**
+	 * Writes the parameterized message to the given logger with this level.
+	 *
+	 * @param logger Represents the actual logger.
+	 * @param format Represents the SLF4J message format.
+	 * @param argument1 Represents the first argument of the message.
+	 * @param argument2 Represents the second argument of the message.
+	 */
+	abstract void log(Logger logger, String format, Object argument1, Object argument2);
+
+	/**
+	 * Returns the level logger for the annotation based log level.
+	 *
+	 * @param logLevel Represents the log level.
+	 * @return LevelLogger Represents the matching level logger.
+	 */
+	static LevelLogger forLevel(LogLevel logLevel) {
+		switch (logLevel) {
+			case TRACE: return TRACE;
+			case INFO: return INFO;
+			case WARN: return WARN;
+			case ERROR: return ERROR;
+			default: return DEBUG;
+		}
+	}
+
+}
@@ -15,11 +15,16 @@
  */
 package org.openinfinity.core.aspect;
 
+import java.lang.reflect.Method;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
 import org.aspectj.lang.JoinPoint;
 import org.aspectj.lang.ProceedingJoinPoint;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.MethodSignature;
 import org.openinfinity.core.annotation.Log;
 import org.openinfinity.core.annotation.Log.LogLevel;
 import org.openinfinity.core.util.AspectUtil;
@@ -31,7 +36,7 @@ import org.springframework.core.Ordered;
  * This class is responsible of the logging using AOP with annotation <code>org.openinfinity.core.annotation.Log</code>.
  * 
  * @author Ilkka Leinonen
- * @version 1.0.0
+ * @version 1.1.0
  * @since 1.0.0
  */
 @Aspect
@@ -71,6 +76,11 @@ public class LogAspect extends ArgumentGatheringJoinPointInterceptor implements
 	 */
 	private static final Integer LOG_LEVEL_NOT_SET = -1; 
 	
+	/**
+	 * Represents the logged return value of void and null returning methods.
+	 */
+	private static final String NO_RETURN_VALUE = "without any return value (void)";
+	
 	/**
 	 * Represents the default debug level of the application.
 	 */
@@ -81,6 +91,12 @@ public class LogAspect extends ArgumentGatheringJoinPointInterceptor implements
 	 */
 	private int order;
 	
+	/**
+	 * Represents the pre-computed log plans of the accessed methods. With JDK proxies the method is the interface method, 
+	 * so the plans of implementations with different <code>org.openinfinity.core.annotation.Log</code> annotations are chained.
+	 */
+	private final ConcurrentMap<Method, LogPlan> logPlans = new ConcurrentHashMap<Method, LogPlan>();
+	
 	/**
 	 * Setter for the order.
 	 * 
@@ -103,13 +119,15 @@ public class LogAspect extends ArgumentGatheringJoinPointInterceptor implements
 	 */
 	public void setDefaultLogLevel(Integer defaultLogLevel) {
 		this.defaultLogLevel = defaultLogLevel;
+		this.logPlans.clear();
 	}
 
 	/**
 	 * Logs the method information based on the <code>org.openinfinity.core.annotation.Logging</code> annotation.
 	 * Log level will be based on the value setted (debug=1, info=2, warn=3, error=4, trace=5) in the 
 	 * configuration file or by the annotation <code>org.openinfinity.core.annotation.Log.LogLevel</code>.
-	 * Highest level will be the actual log level.
+	 * Highest level will be the actual log level. When the actual log level is not enabled the method 
+	 * is proceeded directly without gathering any information of the invocation.
 	 * 
 	 * @param method Represents the method which has been invoked.
 	 * @return Object Represents the object to be returned.
@@ -117,121 +135,61 @@ public class LogAspect extends ArgumentGatheringJoinPointInterceptor implements
 	 */
 	@Around("loggedMethod() && @annotation(log)")
 	public Object logMethod(ProceedingJoinPoint method, Log log) throws Throwable {
-		LogLevel level = log.level();
-		if (level.getValue() < this.defaultLogLevel)
-			return this.overrideLevelWithAnnotation(method, level, log);
-		else  
-			return this.debugWithDefaultLevel(method, log);	
+		LogPlan logPlan = getLogPlan(method, log);
+		if (!logPlan.getLevelLogger().isEnabled(LOGGER))
+			return method.proceed();
+		return logAndProceed(method, logPlan);
 	}
 	
-	private Object debugWithDefaultLevel(ProceedingJoinPoint method, Log log) throws Throwable{
-		if (this.defaultLogLevel == LOG_LEVEL_TRACE)
-			return logTraceAndProceed(method, log);
-		else if (this.defaultLogLevel == LOG_LEVEL_DEBUG)
-			return logDebugAndProceed(method, log);
-		else if (this.defaultLogLevel == LOG_LEVEL_INFO)
-			return logInfoAndProceed(method, log);
-		else if (this.defaultLogLevel == LOG_LEVEL_ERROR)
-			return logErrorAndProceed(method, log);
-		else if (this.defaultLogLevel == LOG_LEVEL_WARN) 
-			return logWarningAndProceed(method, log);
-		else return logDebugAndProceed(method, log);		
-	}
-
-	private Object overrideLevelWithAnnotation(ProceedingJoinPoint method, LogLevel level, Log log) throws Throwable {
-		switch (level) {
-			case DEBUG: return (LOGGER.isDebugEnabled())?logDebugAndProceed(method, log):method.proceed();
-			case ERROR: return (LOGGER.isErrorEnabled())?logErrorAndProceed(method, log):method.proceed();
-			case INFO: return (LOGGER.isInfoEnabled())?logInfoAndProceed(method, log):method.proceed();
-			case TRACE: return (LOGGER.isTraceEnabled())?logTraceAndProceed(method, log):method.proceed();
-			case WARN: return (LOGGER.isWarnEnabled())?logWarningAndProceed(method, log):method.proceed();
-			default: return (LOGGER.isDebugEnabled())?logDebugAndProceed(method, log):method.proceed();
-		}
-	}
-	
-	private String gatherArgumentDetailsToLogBasedOnDesicionLogic(JoinPoint joinPoint, Log log, String name) {
-		ArgumentBuilder builder = new ArgumentBuilder();
-		ArgumentStrategy argumentStrategy = log.argumentStrategy();
-		switch(argumentStrategy) {
-			case ALL : builder.extractArgumentInfo(joinPoint); return builder.toString(); 
-			case CUSTOM : builder.extractArgumentInfoByFilteringFields(joinPoint, log.value()); return builder.toString();
-			case NONE : return "not showing arguments";
-			default: return getArgumentInfo(joinPoint);
-		}
-	}
-	
-	private Object logWarningAndProceed(ProceedingJoinPoint method, Log log) throws Throwable {
-		String name = AspectUtil.createJoinPointTraceName(method);
-		long startTime = System.currentTimeMillis();
-		try {
-			LOGGER.warn(name + ": initialized");
-			String argumentInfo = gatherArgumentDetailsToLogBasedOnDesicionLogic(method, log, name);
-			LOGGER.warn(buildArgumentDetails(name, argumentInfo));
-			Object o = method.proceed();
-			LOGGER.warn(buildReturnValueDetails(name, o));
-			return o;
-		} finally {
-			LOGGER.warn(name + ": finalized in " + (System.currentTimeMillis()-startTime) + " ms");
+	/**
+	 * Returns the log plan of the invocation, creating it on the first invocation of the method with the annotation.
+	 * 
+	 * @param joinPoint Represents the join point of the invocation.
+	 * @param log Represents the annotation of the invoked method.
+	 * @return LogPlan Represents the plan of the invocation.
+	 */
+	LogPlan getLogPlan(JoinPoint joinPoint, Log log) {
+		Method key = ((MethodSignature) joinPoint.getSignature()).getMethod();
+		while (true) {
+			LogPlan firstLogPlan = logPlans.get(key);
+			LogPlan logPlan = firstLogPlan != null ? firstLogPlan.find(log) : null;
+			if (logPlan != null)
+				return logPlan;
+			logPlan = createLogPlan(joinPoint, log, firstLogPlan);
+			boolean added = firstLogPlan == null ? logPlans.putIfAbsent(key, logPlan) == null : logPlans.replace(key, firstLogPlan, logPlan);
+			if (added)
+				return logPlan;
 		}
 	}
-	
-	private Object logInfoAndProceed(ProceedingJoinPoint method, Log log) throws Throwable {
-		String name = AspectUtil.createJoinPointTraceName(method);
-		long startTime = System.currentTimeMillis();
-		try {
-			LOGGER.info(name + ": initialized");
-			String argumentInfo = gatherArgumentDetailsToLogBasedOnDesicionLogic(method, log, name);
-			LOGGER.info(buildArgumentDetails(name, argumentInfo));
-			Object o = method.proceed();
-			LOGGER.info(buildReturnValueDetails(name, o ));
-			return o;
-		} finally {
-			LOGGER.info(name + ": finalized in " + (System.currentTimeMillis()-startTime) + " ms");
-		}
+
+	private LogPlan createLogPlan(JoinPoint joinPoint, Log log, LogPlan nextLogPlan) {
+		String name = AspectUtil.createJoinPointTraceName(joinPoint);
+		LogLevel level = log.level();
+		boolean annotationLevel = level.getValue() < this.defaultLogLevel;
+		LevelLogger levelLogger = annotationLevel ? LevelLogger.forLevel(level) : resolveDefaultLevelLogger();
+		return new LogPlan(log, name, levelLogger, log.argumentStrategy(), log.value(), nextLogPlan);
 	}
 	
-	private Object logErrorAndProceed(ProceedingJoinPoint method, Log log) throws Throwable {
-		String name = AspectUtil.createJoinPointTraceName(method);
-		long startTime = System.currentTimeMillis();
-		try {
-			LOGGER.error(name + ": initialized");
-			String argumentInfo = gatherArgumentDetailsToLogBasedOnDesicionLogic(method, log, name);
-			LOGGER.error(buildArgumentDetails(name, argumentInfo) );
-			Object o = method.proceed();
-			LOGGER.error(buildReturnValueDetails(name, o));
-			return o;
-		} finally {
-			LOGGER.error(name + ": finalized in " + (System.currentTimeMillis()-startTime) + " ms");
-		}
-	}
-
-	private Object logTraceAndProceed(ProceedingJoinPoint method, Log log) throws Throwable {
-		String name = AspectUtil.createJoinPointTraceName(method);
-		long startTime = System.currentTimeMillis();
-		try {
-			LOGGER.trace(name + ": initialized");
-			String argumentInfo = gatherArgumentDetailsToLogBasedOnDesicionLogic(method, log, name);
-			LOGGER.trace(buildArgumentDetails(name, argumentInfo));
-			Object o = method.proceed();
-			LOGGER.trace(buildReturnValueDetails(name, o));
-			return o;
-		} finally {
-			LOGGER.trace(name + ": finalized in " + (System.currentTimeMillis()-startTime) + " ms");
+	private LevelLogger resolveDefaultLevelLogger() {
+		for (LogLevel level : LogLevel.values()) {
+			if (level.getValue().equals(this.defaultLogLevel))
+				return LevelLogger.forLevel(level);
 		}
+		return LevelLogger.DEBUG;
 	}
 	
-	private Object logDebugAndProceed(ProceedingJoinPoint method, Log log) throws Throwable {
-		String name = AspectUtil.createJoinPointTraceName(method);
+	private Object logAndProceed(ProceedingJoinPoint method, LogPlan logPlan) throws Throwable {
+		LevelLogger levelLogger = logPlan.getLevelLogger();
+		String name = logPlan.getName();
 		long startTime = System.currentTimeMillis();
 		try {
-			LOGGER.debug(name + ": initialized");
-			String argumentInfo = gatherArgumentDetailsToLogBasedOnDesicionLogic(method, log, name);
-			LOGGER.debug(buildArgumentDetails(name, argumentInfo));
+			levelLogger.log(LOGGER, "{}: initialized", name);
+			levelLogger.log(LOGGER, "{}: {}", name, logPlan.argumentDetails(method.getArgs()));
 			Object o = method.proceed();
-			LOGGER.debug(buildReturnValueDetails(name, o));
+			levelLogger.log(LOGGER, "{}: {}", name, o != null ? o : NO_RETURN_VALUE);
 			return o;
 		} finally {
-			LOGGER.debug(name + ": finalized in " + (System.currentTimeMillis()-startTime) + " ms");
+			levelLogger.log(LOGGER, "{}: finalized in {} ms", name, System.currentTimeMillis()-startTime);
 		}
 	}
 
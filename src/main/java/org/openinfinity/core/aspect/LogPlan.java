@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.aspect;
+
+import org.openinfinity.core.annotation.Log;
+
+/**
+ * Pre-computed logging information of a single <code>org.openinfinity.core.annotation.Log</code> annotated method.
+ * Plans are created once per method and annotation by <code>org.openinfinity.core.aspect.LogAspect</code> and reused on every invocation. 
+ * Plans of the same method with different annotations are chained.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.1.0
+ * @since 3.2.0
+ */
+final class LogPlan {
+
+	/**
+	 * Represents the annotation the plan was created for.
+	 */
+	private final Log log;
+
+	/**
+	 * Represents the trace name of the join point.
+	 */
+	private final String name;
+
+	/**
+	 * Represents the effective level of the method.
+	 */
+	private final LevelLogger levelLogger;
+
+	/**
+	 * Represents the argument strategy of the method.
+	 */
+	private final ArgumentStrategy argumentStrategy;
+
+	/**
+	 * Represents the XPATH fields for the <code>ArgumentStrategy.CUSTOM</code> strategy.
+	 */
+	private final String[] fields;
+
+	/**
+	 * Represents the plan of the same method with another annotation or <code>null</code>.
+	 */
+	private final LogPlan next;
+
+	LogPlan(Log log, String name, LevelLogger levelLogger, ArgumentStrategy argumentStrategy, String[] fields, LogPlan next) {
+		this.log = log;
+		this.next = next;
+		this.name = name;
+		this.levelLogger = levelLogger;
+		this.argumentStrategy = argumentStrategy;
+		this.fields = fields;
+	}
+
+	/**
+	 * Returns the plan created for the given annotation from this plan and the chained plans.
+	 *
+	 * @param log Represents the annotation of the invoked method.
+	 * @return LogPlan Represents the plan or <code>null</code> if not found.
+	 */
+	LogPlan find(Log log) {
+		for (LogPlan logPlan = this; logPlan != null; logPlan = logPlan.next) {
+			if (logPlan.log == log)
+				return logPlan;
+		}
+		for (LogPlan logPlan = this; logPlan != null; logPlan = logPlan.next) {
+			if (logPlan.log.equals(log))
+				return logPlan;
+		}
+		return null;
+	}
+
+	String getName() {
+		return name;
+	}
+
+	LevelLogger getLevelLogger() {
+		return levelLogger;
+	}
+
+	/**
+	 * Returns lazily rendered argument information of the invocation. Argument information is rendered only when 
+	 * the message is actually written by the logger.
+	 *
+	 * @param arguments Represents the arguments of the invocation.
+	 * @return Object Represents the argument information rendered by <code>toString()</code>.
+	 */
+	Object argumentDetails(Object[] arguments) {
+		return new ArgumentDetails(this, arguments);
+	}
+
+	/**
+	 * Returns the argument information of the invocation based on the argument strategy of the plan.
+	 *
+	 * @param arguments Represents the arguments of the invocation.
+	 * @return String Represents the argument information.
+	 */
+	String gatherArgumentDetails(Object[] arguments) {
+		StringBuilder builder;
+		switch (argumentStrategy) {
+			case ALL :
+				builder = new StringBuilder();
+				ArgumentBuilder.appendArgumentInfo(builder, arguments);
+				return builder.toString();
+			case CUSTOM :
+				builder = new StringBuilder();
+				ArgumentBuilder.appendArgumentInfoByFilteringFields(builder, arguments, fields);
+				return builder.toString();
+			default: return "not showing arguments";
+		}
+	}
+
+	/**
+	 * Renders the argument information of a single invocation on demand.
+	 */
+	private static final class ArgumentDetails {
+
+		private final LogPlan logPlan;
+
+		private final Object[] arguments;
+
+		ArgumentDetails(LogPlan logPlan, Object[] arguments) {
+			this.logPlan = logPlan;
+			this.arguments = arguments;
+		}
+
+		@Override
+		public String toString() {
+			String argumentInfo = logPlan.gatherArgumentDetails(arguments);
+			return argumentInfo.length() > 0 ? argumentInfo : "without any parameters";
+		}
+
+	}
+
+}
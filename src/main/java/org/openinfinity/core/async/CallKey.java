@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.async;
+
+/**
+ * Represents the identity of a read call of the <code>org.openinfinity.core.async.ParallelServiceActivator</code>. Calls are 
+ * identical when they target the same service instance with the same operation and an equal argument.
+ * 
+ * @author Ilkka Leinonen
+ * @version 1.1.0
+ * @since 3.2.0
+ */
+final class CallKey {
+	
+	/**
+	 * Represents the operations of the CRUD services. Only read operations are identified by call keys.
+	 */
+	enum Operation {
+		QUERY_BY_ID, QUERY_ALL_BY_ID, QUERY_BY_CRITERIA, CREATE, DELETE;
+		
+		boolean isRead() {
+			return this != CREATE && this != DELETE;
+		}
+	}
+
+	private final Object service;
+	
+	private final Operation operation;
+	
+	private final Object argument;
+	
+	private final int hashCode;
+	
+	CallKey(Object service, Operation operation, Object argument) {
+		this.service = service;
+		this.operation = operation;
+		this.argument = argument;
+		this.hashCode = 31 * (31 * System.identityHashCode(service) + operation.hashCode()) + (argument == null ? 0 : argument.hashCode());
+	}
+	
+	@Override
+	public int hashCode() {
+		return hashCode;
+	}
+	
+	@Override
+	public boolean equals(Object object) {
+		if (this == object)
+			return true;
+		if (!(object instanceof CallKey))
+			return false;
+		CallKey callKey = (CallKey) object;
+		return service == callKey.service && operation == callKey.operation && (argument == null ? callKey.argument == null : argument.equals(callKey.argument));
+	}
+	
+}
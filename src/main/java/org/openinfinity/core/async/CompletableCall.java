@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.async;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+
+/**
+ * Represents a prepared call executed by an executor and completing a <code>org.openinfinity.core.async.ResultFuture</code>. 
+ * Cancelling or timing out the result future interrupts the executing thread of the call.
+ * 
+ * @author Ilkka Leinonen
+ * @version 1.2.0
+ * @since 3.2.0
+ */
+final class CompletableCall extends FutureTask<Object> {
+
+	/**
+	 * Represents the future completed with the result of the call.
+	 */
+	private final ResultFuture resultFuture = new ResultFuture(this);
+	
+	CompletableCall(Callable<Object> callable) {
+		super(callable);
+	}
+	
+	/**
+	 * Returns the future completed with the result of the call.
+	 * 
+	 * @return ResultFuture Represents the result of the call.
+	 */
+	ResultFuture getResultFuture() {
+		return resultFuture;
+	}
+	
+	@Override
+	protected void done() {
+		if (isCancelled()) {
+			resultFuture.cancel(false);
+			return;
+		}
+		try {
+			resultFuture.complete(get());
+		} catch (ExecutionException executionException) {
+			resultFuture.completeExceptionally(executionException.getCause());
+		} catch (InterruptedException interruptedException) {
+			Thread.currentThread().interrupt();
+			resultFuture.completeExceptionally(interruptedException);
+		}
+	}
+	
+}
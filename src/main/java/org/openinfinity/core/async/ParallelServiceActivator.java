@@ -15,42 +15,103 @@
  */
 package org.openinfinity.core.async;
 
+import java.lang.reflect.Method;
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
 import java.util.HashMap;
-import java.util.LinkedList;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.ThreadFactory;
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
 
 import org.openinfinity.core.annotation.Log;
 import org.openinfinity.core.exception.ExceptionLevel;
 import org.openinfinity.core.exception.SystemException;
 import org.openinfinity.core.integration.CrudService;
 import org.openinfinity.core.util.ExceptionUtil;
+import org.springframework.aop.support.AopUtils;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.beans.factory.config.ConfigurableBeanFactory;
-import org.springframework.context.annotation.Scope;
 import org.springframework.core.task.support.ExecutorServiceAdapter;
 import org.springframework.stereotype.Component;
 
 /**
  * This class is responsible of high end optimized CRUD service interface integrations by parallel processing. Class can be utilized for service orchestration by parallel processing.
+ * <br/><br/>
+ * Calls are prepared into an immutable <code>org.openinfinity.core.async.ParallelServicePlan</code>, which is built once and 
+ * activated any number of times. Activating a plan is thread-safe, so a single activator bean can be shared by all requests. 
+ * Each activation returns its own <code>org.openinfinity.core.async.ParallelServiceResults</code>, where the results are 
+ * available by the position of the call in the plan and by the result identifier.
+ * <br/><br/>
+ * Calls can also be prepared with the fluent API of a <code>org.openinfinity.core.async.ParallelServiceConversation</code> 
+ * started with <code>newConversation()</code>. The conversation holds the prepared calls and results of a single caller, 
+ * so the activator itself remains stateless. Results without result identifiers are loaded with <code>loadResult()</code> 
+ * in the order of preparation.
+ * <br/><br/>
+ * The fluent API of the earlier releases is still available directly on the activator, but deprecated. The calls prepared 
+ * with it are held by a conversation bound to the activator and the calling thread, so the shared activator bean is not 
+ * mixing the calls of concurrent callers. The calls accumulate into the conversation as in the earlier releases.
+ * <br/><br/>
+ * Prepared calls can be activated either by blocking until all of the calls have been finished with <code>activate()</code> or 
+ * asynchronously with <code>activateAsync()</code>. After asynchronous activation the results are available as futures and 
+ * the result callbacks are fired as soon as each of the calls completes.
+ * <br/><br/>
+ * Each prepared call can have its own timeout defined with <code>withTimeout(long, TimeUnit)</code>. Activation with a deadline 
+ * returns the results which are ready by the deadline. The state of each result can be checked with <code>getResultState(String)</code>.
+ * <br/><br/>
+ * Identical read calls are executed once per activation. Read results can be shared between activations for a short time 
+ * by setting a <code>org.openinfinity.core.async.SharedResultCache</code>.
+ * <br/><br/>
+ * Read calls can depend on the results of previously prepared calls. Dependent calls are started as soon as their dependencies 
+ * have been completed, so the prepared calls are executed as a directed acyclic graph with maximal parallelism.
+ * <br/><br/>
+ * 'Query by id' calls of an activation targeting the same service are merged into a single <code>CrudService.queryByIds(Collection)</code> 
+ * call when the service implements the batch query. Calls with own timeouts and dependent calls are executed separately.
+ * <br/><br/>
+ * By default the calls are executed by the thread pool of the injected executor service. With <code>ExecutionMode.VIRTUAL_THREADS</code> 
+ * each call is executed by a virtual thread of its own when the runtime supports virtual threads, so blocking calls do not 
+ * reserve the threads of the pool. The number of concurrent calls per back-end service can be limited by setting a 
+ * <code>org.openinfinity.core.async.ServiceConcurrencyLimiter</code>.
  * 
  * @author Ilkka Leinonen
  * 
- * @version 1.0.0
+ * @version 2.3.0
  * @since 2.0.0
  */
 @Component
-@Scope(value=ConfigurableBeanFactory.SCOPE_PROTOTYPE)
 public class ParallelServiceActivator {
 
 	/**
-	 * Executor service is responsible of maintaining the actual thread pool. Thread pool can be configured by dependency injection.
+	 * Resolves whether the services implement the batch query instead of inheriting the default implementation.
 	 */
-	@Autowired
+	private static final ClassValue<Boolean> BATCH_QUERY_SUPPORT = new ClassValue<Boolean>() {
+		@Override
+		protected Boolean computeValue(Class<?> type) {
+			try {
+				Method method = type.getMethod("queryByIds", Collection.class);
+				return !method.isDefault();
+			} catch (NoSuchMethodException noSuchMethodException) {
+				return false;
+			}
+		}
+	};
+
+	/**
+	 * Executor service is responsible of maintaining the actual thread pool. Thread pool can be configured by dependency injection. 
+	 * Not required with <code>ExecutionMode.VIRTUAL_THREADS</code> when the runtime supports virtual threads.
+	 */
+	@Autowired(required=false)
 	private ExecutorServiceAdapter executorServiceAdapter;
 	
 	/**
@@ -63,27 +124,88 @@ public class ParallelServiceActivator {
 	}
 
 	/**
-	 * Collection of callable interfaces.
+	 * Sets the cache of read results shared between the activations. Without the cache identical read calls are coalesced 
+	 * only within a single activation.
+	 * 
+	 * @param sharedResultCache Represents the shared result cache.
+	 */
+	public void setSharedResultCache(SharedResultCache sharedResultCache) {
+		this.sharedResultCache = sharedResultCache;
+	}
+	
+	/**
+	 * Sets the execution mode of the calls. By default the calls are executed by the thread pool of the executor service. 
+	 * <code>ExecutionMode.VIRTUAL_THREADS</code> falls back to the thread pool when the runtime does not support virtual threads.
+	 * 
+	 * @param executionMode Represents the execution mode of the calls.
+	 */
+	public void setExecutionMode(ExecutionMode executionMode) {
+		this.executionMode = executionMode;
+	}
+	
+	/**
+	 * Sets the limiter of the concurrent calls per back-end service. Without the limiter the calls are not limited per service.
+	 * 
+	 * @param serviceConcurrencyLimiter Represents the limiter shared by the activators.
+	 */
+	public void setServiceConcurrencyLimiter(ServiceConcurrencyLimiter serviceConcurrencyLimiter) {
+		this.serviceConcurrencyLimiter = serviceConcurrencyLimiter;
+	}
+	
+	/**
+	 * Sets whether 'query by id' calls targeting the same service are merged into batch queries. Enabled by default.
+	 * 
+	 * @param batchQueriesEnabled Represents whether the calls are merged.
+	 */
+	public void setBatchQueriesEnabled(boolean batchQueriesEnabled) {
+		this.batchQueriesEnabled = batchQueriesEnabled;
+	}
+
+	/**
+	 * Optional cache of read results shared between the activations.
+	 */
+	private SharedResultCache sharedResultCache;
+	
+	/**
+	 * Represents the execution mode of the calls.
+	 */
+	private ExecutionMode executionMode = ExecutionMode.POOLED;
+	
+	/**
+	 * Optional limiter of the concurrent calls per back-end service.
 	 */
-	private Collection<Callable<Object>> callables;
+	private ServiceConcurrencyLimiter serviceConcurrencyLimiter;
 	
 	/**
-	 * Result cache of the responses.
+	 * Represents whether 'query by id' calls targeting the same service are merged into batch queries.
 	 */
-	private Map<String, Loadable> resultCache;
+	private boolean batchQueriesEnabled = true;
 	
 	/**
-	 * Result presented as linked list.
+	 * Conversations of the deprecated fluent API of the activator bound to the calling threads.
 	 */
-	private LinkedList<Loadable> resultQueue;
+	private final ThreadLocal<ParallelServiceConversation> conversations = new ThreadLocal<ParallelServiceConversation>() {
+		@Override
+		protected ParallelServiceConversation initialValue() {
+			return newConversation();
+		}
+	};
+	
+	/**
+	 * Starts a new conversation for preparing and activating calls with the fluent API. The prepared calls and the results 
+	 * are held by the conversation, so each caller must start a conversation of its own.
+	 * 
+	 * @return Conversation activated by this activator.
+	 */
+	public ParallelServiceConversation newConversation() {
+		return new ParallelServiceConversation(this);
+	}
 	
 	/**
-	 * Constructor for the class. Initiates collection interfaces of the class.
+	 * Returns the conversation of the deprecated fluent API of the activator bound to the calling thread.
 	 */
-	public ParallelServiceActivator() {
-		this.callables = Collections.checkedCollection(new ArrayList(), Callable.class);
-		this.resultCache = new HashMap<String, Loadable>();
-		this.resultQueue = new LinkedList<Loadable>();
+	private ParallelServiceConversation currentConversation() {
+		return conversations.get();
 	}
 	
 	/**
@@ -92,12 +214,12 @@ public class ParallelServiceActivator {
 	 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
 	 * @param id Represents the actual unique id to be queried.
 	 * @return The type safe collection.
+	 * @deprecated Holds the calls in the activator; use <code>newConversation().prepareToQueryAllById(CrudService, Object)</code> instead.
 	 */
+	@Deprecated
 	@Log
 	public <T, ID extends Object> ParallelServiceActivator prepareToQueryAllById(CrudService<T, ID> crudService, ID id) {
-		GenericCrudServiceQueryAllByIdCallable<T, ID> result = new GenericCrudServiceQueryAllByIdCallable<T, ID>(crudService, id);
-		callables.add(result);
-		this.resultQueue.add(result);
+		currentConversation().prepareToQueryAllById(crudService, id);
 		return this; 
 	}
 	
@@ -107,12 +229,12 @@ public class ParallelServiceActivator {
 	 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
 	 * @param id Represents the actual unique id to be queried.
 	 * @return The type safe collection.
+	 * @deprecated Holds the calls in the activator; use <code>newConversation().prepareToQueryById(CrudService, Object)</code> instead.
 	 */
+	@Deprecated
 	@Log
 	public <T, ID extends Object> ParallelServiceActivator prepareToQueryById(CrudService<T, ID> crudService, ID id) {
-		GenericCrudServiceQueryByIdCallable<T, ID> result = new GenericCrudServiceQueryByIdCallable<T, ID>(crudService, id);
-		callables.add(result);
-		this.resultQueue.push(result);
+		currentConversation().prepareToQueryById(crudService, id);
 		return this; 
 	}
 	
@@ -123,12 +245,12 @@ public class ParallelServiceActivator {
 	 * @param id Represents the actual type of the unique id.
 	 * @param type Represents the actual type safe.
 	 * @return Type safe entity.
+	 * @deprecated Holds the calls in the activator; use <code>newConversation().prepareToCreate(CrudService, Object, Object)</code> instead.
 	 */
+	@Deprecated
 	@Log
 	public <T, ID, TYPE extends Object> ParallelServiceActivator prepareToCreate(CrudService<T, ID> crudService, ID id, TYPE type) {
-		GenericCrudServiceCreateCallable<T, ID, TYPE> result = new GenericCrudServiceCreateCallable(crudService, id, type);
-		callables.add(result);
-		this.resultQueue.push(result);
+		currentConversation().prepareToCreate(crudService, id, type);
 		return this; 
 	}
 	
@@ -138,11 +260,12 @@ public class ParallelServiceActivator {
 	 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
 	 * @param id Represents the actual unique id to be queried.
 	 * @return
+	 * @deprecated Holds the calls in the activator; use <code>newConversation().prepareToDelete(CrudService, Object)</code> instead.
 	 */
+	@Deprecated
 	@Log
 	public <T, ID, TYPE extends Object> ParallelServiceActivator prepareToDelete(CrudService<T, ID> crudService, ID id) {
-		GenericCrudServiceDeleteCallable<T, ID> result = new GenericCrudServiceDeleteCallable(crudService, id);
-		callables.add(result);
+		currentConversation().prepareToDelete(crudService, id);
 		return this; 
 	}
 
@@ -152,12 +275,12 @@ public class ParallelServiceActivator {
 	 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
 	 * @param parameters Represents the query parameters (key, value) for the query interface.
 	 * @return Type safe result of the query.
+	 * @deprecated Holds the calls in the activator; use <code>newConversation().prepareToQueryById(CrudService, Map)</code> instead.
 	 */
+	@Deprecated
 	@Log
 	public <T, ID extends Object> ParallelServiceActivator prepareToQueryById(CrudService<T, ID> crudService, Map<?, ?> parameters) {
-		GenericCrudServiceQueryAllByCriteriaCallable<T, ID> result = new GenericCrudServiceQueryAllByCriteriaCallable<T, ID>(crudService, parameters);
-		callables.add(result);
-		this.resultQueue.add(result);
+		currentConversation().prepareToQueryById(crudService, parameters);
 		return this; 
 	}
 	
@@ -168,12 +291,12 @@ public class ParallelServiceActivator {
 	 * @param id Represents the actual unique id to be queried.
 	 * @param resultIdentifier
 	 * @return
+	 * @deprecated Holds the calls in the activator; use <code>newConversation().prepareToQueryAllById(CrudService, Object, String)</code> instead.
 	 */
+	@Deprecated
 	@Log
 	public <T, ID extends Object> ParallelServiceActivator prepareToQueryAllById(CrudService<T, ID> crudService, ID id, String resultIdentifier) {
-		GenericCrudServiceQueryAllByIdCallable<T, ID> result = new GenericCrudServiceQueryAllByIdCallable<T, ID>(crudService, id);
-		callables.add(result);
-		resultCache.put(resultIdentifier, result);
+		currentConversation().prepareToQueryAllById(crudService, id, resultIdentifier);
 		return this; 
 	}
 	
@@ -184,12 +307,12 @@ public class ParallelServiceActivator {
 	 * @param id Represents the actual unique id to be queried.
 	 * @param resultIdentifier
 	 * @return
+	 * @deprecated Holds the calls in the activator; use <code>newConversation().prepareToQueryById(CrudService, Object, String)</code> instead.
 	 */
+	@Deprecated
 	@Log
 	public <T, ID extends Object> ParallelServiceActivator prepareToQueryById(CrudService<T, ID> crudService, ID id, String resultIdentifier) {
-		GenericCrudServiceQueryByIdCallable<T, ID> result = new GenericCrudServiceQueryByIdCallable<T, ID>(crudService, id);
-		callables.add(result);
-		resultCache.put(resultIdentifier, result);
+		currentConversation().prepareToQueryById(crudService, id, resultIdentifier);
 		return this; 
 	}
 	
@@ -200,31 +323,116 @@ public class ParallelServiceActivator {
 	 * @param parameters
 	 * @param resultIdentifier
 	 * @return
+	 * @deprecated Holds the calls in the activator; use <code>newConversation().prepareToQueryAllByCriteria(CrudService, Map, String)</code> instead.
 	 */
+	@Deprecated
 	@Log
 	public <T, ID extends Object> ParallelServiceActivator prepareToQueryAllByCriteria(CrudService<T, ID> crudService,  Map<?, ?> parameters, String resultIdentifier) {
-		GenericCrudServiceQueryAllByCriteriaCallable<T, ID> result = new GenericCrudServiceQueryAllByCriteriaCallable<T, ID>(crudService, parameters);
-		callables.add(result);
-		resultCache.put(resultIdentifier, result);
+		currentConversation().prepareToQueryAllByCriteria(crudService, parameters, resultIdentifier);
 		return this; 
 	}
 
 	/**
-	 * Activates all prepared queries simultaniously.
+	 * Parallel 'query by id' interface depending on the results of previously prepared calls. The id is resolved from the 
+	 * results of the dependencies when all of them have been completed. The call fails if any of the dependencies is not completed.
 	 * 
 	 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+	 * @param idResolver Represents the function resolving the id from the dependency results keyed by their result identifiers.
+	 * @param resultIdentifier Represents the unique identifier of the result.
+	 * @param dependencyIdentifiers Represents the result identifiers of the dependencies.
+	 * @return Instanse of the service activator.
+	 * @deprecated Holds the calls in the activator; use <code>newConversation().prepareToQueryById(CrudService, Function, String, String...)</code> instead.
+	 */
+	@Deprecated
+	@Log
+	public <T, ID extends Object> ParallelServiceActivator prepareToQueryById(CrudService<T, ID> crudService, Function<Map<String, Object>, ID> idResolver, String resultIdentifier, String... dependencyIdentifiers) {
+		currentConversation().prepareToQueryById(crudService, idResolver, resultIdentifier, dependencyIdentifiers);
+		return this;
+	}
+	
+	/**
+	 * Parallel 'query all by id' interface depending on the results of previously prepared calls. The id is resolved from the 
+	 * results of the dependencies when all of them have been completed. The call fails if any of the dependencies is not completed.
+	 * 
+	 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+	 * @param idResolver Represents the function resolving the id from the dependency results keyed by their result identifiers.
+	 * @param resultIdentifier Represents the unique identifier of the result.
+	 * @param dependencyIdentifiers Represents the result identifiers of the dependencies.
+	 * @return Instanse of the service activator.
+	 * @deprecated Holds the calls in the activator; use <code>newConversation().prepareToQueryAllById(CrudService, Function, String, String...)</code> instead.
+	 */
+	@Deprecated
+	@Log
+	public <T, ID extends Object> ParallelServiceActivator prepareToQueryAllById(CrudService<T, ID> crudService, Function<Map<String, Object>, ID> idResolver, String resultIdentifier, String... dependencyIdentifiers) {
+		currentConversation().prepareToQueryAllById(crudService, idResolver, resultIdentifier, dependencyIdentifiers);
+		return this;
+	}
+	
+	/**
+	 * Parallel 'query by criteria' interface depending on the results of previously prepared calls. The parameters are resolved 
+	 * from the results of the dependencies when all of them have been completed. The call fails if any of the dependencies is not completed.
+	 * 
+	 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+	 * @param parametersResolver Represents the function resolving the query parameters from the dependency results keyed by their result identifiers.
+	 * @param resultIdentifier Represents the unique identifier of the result.
+	 * @param dependencyIdentifiers Represents the result identifiers of the dependencies.
+	 * @return Instanse of the service activator.
+	 * @deprecated Holds the calls in the activator; use <code>newConversation().prepareToQueryAllByCriteria(CrudService, Function, String, String...)</code> instead.
+	 */
+	@Deprecated
+	@Log
+	public <T, ID extends Object> ParallelServiceActivator prepareToQueryAllByCriteria(CrudService<T, ID> crudService, Function<Map<String, Object>, Map<?, ?>> parametersResolver, String resultIdentifier, String... dependencyIdentifiers) {
+		currentConversation().prepareToQueryAllByCriteria(crudService, parametersResolver, resultIdentifier, dependencyIdentifiers);
+		return this;
+	}
+	
+	/**
+	 * Defines the timeout of the latest prepared call. The timeout is measured from the activation. Calls which have not been 
+	 * finished within the timeout are cancelled and their result state is <code>ResultState.TIMED_OUT</code>.
+	 * 
+	 * @param timeout Represents the timeout of the call.
+	 * @param unit Represents the time unit of the timeout.
+	 * @return Instanse of the service activator.
+	 * @deprecated Holds the calls in the activator; use <code>ParallelServiceConversation.withTimeout(long, TimeUnit)</code> instead.
+	 */
+	@Deprecated
+	public ParallelServiceActivator withTimeout(long timeout, TimeUnit unit) {
+		currentConversation().withTimeout(timeout, unit);
+		return this;
+	}
+	
+	/**
+	 * Activates all prepared queries simultaniously without waiting for the results. The results can be accessed as they 
+	 * complete through <code>getResultFuture(String)</code> and <code>onResult(String, AsyncResultCallback)</code>.
+	 * 
+	 * @return Future completed when all of the prepared calls have been finished. Completes exceptionally if any of the calls fails.
+	 * @deprecated Holds the calls in the activator; use <code>ParallelServiceConversation.activateAsync()</code> instead.
+	 */
+	@Deprecated
+	@Log
+	public CompletableFuture<ParallelServiceActivator> activateAsync() {
+		return currentConversation().activateAsync().thenApply(new Function<ParallelServiceConversation, ParallelServiceActivator>() {
+			@Override
+			public ParallelServiceActivator apply(ParallelServiceConversation parallelServiceConversation) {
+				return ParallelServiceActivator.this;
+			}
+		});
+	}
+	
+	/**
+	 * Activates all prepared queries simultaniously and returns the results which are ready by the deadline. Calls which have 
+	 * not been finished in the given time frame are cancelled and their result state is <code>ResultState.TIMED_OUT</code>.
+	 * 
 	 * @param timeout Represents the timeout if activation is not processed in given time frame. 
 	 * @param unit Represents the time unit of the given time frame. 
-	 * @return
+	 * @return Instanse of the service activator.
 	 * @throws SystemException
+	 * @deprecated Holds the calls in the activator; use <code>ParallelServiceConversation.activate(long, TimeUnit)</code> instead.
 	 */
+	@Deprecated
 	@Log
 	public ParallelServiceActivator activate(long timeout, TimeUnit unit) throws SystemException {
-		try {
-			executorServiceAdapter.invokeAll(callables, timeout, unit);
-		} catch (InterruptedException interruptedException) {
-			ExceptionUtil.throwSystemException(interruptedException.getMessage(), interruptedException, ExceptionLevel.ERROR, "unique.exception.system.threading.error");
-		}
+		currentConversation().activate(timeout, unit);
 		return this;
 	}
 	
@@ -233,72 +441,347 @@ public class ParallelServiceActivator {
 	 *
 	 * @return Instanse of the service activator.
 	 * @throws SystemException
+	 * @deprecated Holds the calls in the activator; use <code>ParallelServiceConversation.activate()</code> instead.
 	 */
+	@Deprecated
 	public ParallelServiceActivator activate() throws SystemException {
-		try {
-			executorServiceAdapter.invokeAll(callables);
-		} catch (InterruptedException interruptedException) {
-			ExceptionUtil.throwSystemException(interruptedException.getMessage(), interruptedException, ExceptionLevel.ERROR, "unique.exception.system.threading.error");
-		}
+		currentConversation().activate();
 		return this;
 	}
 	
 	/**
-	 * Loads given result with identifier after parallel execution.
+	 * Returns the future of the given result after asynchronous activation.
+	 * 
+	 * @param resultIdentifier Represents the unique id of the predefined result.
+	 * @return Future of the result.
+	 * @deprecated Holds the results in the activator; use <code>ParallelServiceConversation.getResultFuture(String)</code> instead.
+	 */
+	@Deprecated
+	public <T extends Object> CompletableFuture<T> getResultFuture(String resultIdentifier) {
+		return currentConversation().getResultFuture(resultIdentifier);
+	}
+	
+	/**
+	 * Returns the state of the given result. Results of failed, timed out and cancelled calls are not available.
+	 * 
+	 * @param resultIdentifier Represents the unique id of the predefined result.
+	 * @return State of the result.
+	 * @deprecated Holds the results in the activator; use <code>ParallelServiceConversation.getResultState(String)</code> instead.
+	 */
+	@Deprecated
+	public ResultState getResultState(String resultIdentifier) {
+		return currentConversation().getResultState(resultIdentifier);
+	}
+	
+	/**
+	 * Loads given result with identifier after parallel execution. After asynchronous activation waits until the result has been completed.
 	 * 
 	 * @param resultIdentifier Represents the unique id of the predefined result.
 	 * @return
+	 * @deprecated Holds the results in the activator; use <code>ParallelServiceConversation.loadResult(String)</code> instead.
 	 */
+	@Deprecated
 	public <T extends Object> T loadResult(String resultIdentifier) {
-		if (resultCache.containsKey(resultIdentifier)) {
-			return (T) resultCache.get(resultIdentifier).loadResult();
-		} else {
-			ExceptionUtil.throwSystemException("unique.exception.id.not.found", ExceptionLevel.ERROR, "unique.exception.system.threading.error");
-		}
-		return null;
+		return currentConversation().loadResult(resultIdentifier);
 	}
 	
 	/**
-	 * Loads result from the response queue.
+	 * Loads result from the response queue in the order of preparation. After asynchronous activation waits until the result has been completed.
 	 * 
 	 * @return
+	 * @deprecated Holds the results in the activator; use <code>ParallelServiceConversation.loadResult()</code> instead.
 	 */
+	@Deprecated
 	public <T extends Object> T loadResult() {
-		if (resultQueue.size() > 0) {
-			Loadable loadable = resultQueue.pop();
-			return (T) loadable.loadResult();
-		} else {
-			ExceptionUtil.throwSystemException("unique.exception.id.not.found", ExceptionLevel.ERROR, "unique.exception.system.threading.error");
-		}
-		return null;
+		return currentConversation().loadResult();
 	}
 	
 	/**
-	 * Result callback method for responses.
+	 * Result callback method for responses in the order of preparation. After asynchronous activation the callback is fired when the result completes.
 	 * 
 	 * @param asyncResultCallback Represents the callback interface.
 	 * @return
+	 * @deprecated Holds the results in the activator; use <code>ParallelServiceConversation.onResult(AsyncResultCallback)</code> instead.
 	 */
+	@Deprecated
 	public ParallelServiceActivator onResult(AsyncResultCallback asyncResultCallback) {
-		if (resultQueue.size() > 0) {
-			Loadable loadable = resultQueue.pop();
-			 asyncResultCallback.onResult(loadable.loadResult());
-		} else {
-			ExceptionUtil.throwSystemException("unique.exception.id.not.found", ExceptionLevel.ERROR, "unique.exception.system.threading.error");
-		}
+		currentConversation().onResult(asyncResultCallback);
 		return this;
 	}
 
 	/**
-	 * * Result callback method for response based on result indentifier.
+	 * Result callback method for response based on result indentifier. After asynchronous activation the callback is fired 
+	 * when the result completes.
 	 * 
 	 * @param resultIdentifier Represent the unique identifier of the result.
 	 * @param asyncResultCallback Represent the callback interface for the result.
 	 * @return
+	 * @deprecated Holds the results in the activator; use <code>ParallelServiceConversation.onResult(String, AsyncResultCallback)</code> instead.
 	 */
+	@Deprecated
 	public ParallelServiceActivator onResult(String resultIdentifier, AsyncResultCallback asyncResultCallback) {
-		 asyncResultCallback.onResult(loadResult(resultIdentifier));
-		 return this;
+		currentConversation().onResult(resultIdentifier, asyncResultCallback);
+		return this;
+	}
+	
+	/**
+	 * Activates the calls of the plan simultaniously without waiting for the results. The results can be accessed as they 
+	 * complete through the returned results. The method is thread-safe and the same plan can be activated concurrently.
+	 * <br/><br/>
+	 * Identical read calls, targeting the same service instance with the same operation and an equal argument, are executed 
+	 * once per activation and share the result. With the shared result cache the read calls are shared between activations as well.
+	 * 'Query by id' calls targeting the same service are merged into batch queries.
+	 * 
+	 * @param parallelServicePlan Represents the plan of the calls.
+	 * @return Results of the activation.
+	 */
+	@Log
+	public ParallelServiceResults activateAsync(ParallelServicePlan parallelServicePlan) {
+		List<PlannedCall> plannedCalls = parallelServicePlan.getPlannedCalls();
+		ResultFuture[] resultFutures = new ResultFuture[plannedCalls.size()];
+		Map<CallKey, ResultFuture> activatedReadCalls = new HashMap<CallKey, ResultFuture>();
+		if (batchQueriesEnabled) {
+			activateBatchQueries(plannedCalls, activatedReadCalls);
+		}
+		for (int position = 0; position < resultFutures.length; position++) {
+			PlannedCall plannedCall = plannedCalls.get(position);
+			if (plannedCall.isDependent()) {
+				resultFutures[position] = activateDependent(plannedCall, resultFutures);
+				continue;
+			}
+			CallKey callKey = plannedCall.createCallKey(plannedCall.getArgument());
+			ResultFuture resultFuture = callKey == null ? null : activatedReadCalls.get(callKey);
+			if (resultFuture == null) {
+				resultFuture = execute(plannedCall, plannedCall.getArgument(), callKey, plannedCall.getTimeoutNanos());
+				if (callKey != null) {
+					activatedReadCalls.put(callKey, resultFuture);
+				}
+			}
+			resultFutures[position] = resultFuture;
+		}
+		return new ParallelServiceResults(parallelServicePlan, resultFutures);
+	}
+	
+	/**
+	 * Activates the calls of the plan simultaniously and waits until all of the calls have been finished. The method is 
+	 * thread-safe and the same plan can be activated concurrently.
+	 * 
+	 * @param parallelServicePlan Represents the plan of the calls.
+	 * @return Results of the activation.
+	 * @throws SystemException
+	 */
+	public ParallelServiceResults activate(ParallelServicePlan parallelServicePlan) throws SystemException {
+		ParallelServiceResults results = activateAsync(parallelServicePlan);
+		results.await();
+		return results;
+	}
+	
+	/**
+	 * Activates the calls of the plan simultaniously and returns the results which are ready by the deadline. Calls which have 
+	 * not been finished in the given time frame are cancelled and their result state is <code>ResultState.TIMED_OUT</code>. 
+	 * The method is thread-safe and the same plan can be activated concurrently.
+	 * 
+	 * @param parallelServicePlan Represents the plan of the calls.
+	 * @param timeout Represents the timeout if activation is not processed in given time frame. 
+	 * @param unit Represents the time unit of the given time frame. 
+	 * @return Results of the activation.
+	 * @throws SystemException
+	 */
+	@Log
+	public ParallelServiceResults activate(ParallelServicePlan parallelServicePlan, long timeout, TimeUnit unit) throws SystemException {
+		ParallelServiceResults results = activateAsync(parallelServicePlan);
+		results.await(timeout, unit);
+		return results;
+	}
+	
+	/**
+	 * Starts the dependent call when all of its dependencies have been completed. Dependencies are always prepared before 
+	 * the dependent call, so their result futures exist and the calls form a directed acyclic graph. The timeout of the 
+	 * dependent call covers the waiting of the dependencies.
+	 */
+	private ResultFuture activateDependent(final PlannedCall plannedCall, ResultFuture[] resultFutures) {
+		final ResultFuture resultFuture = new ResultFuture(null);
+		if (plannedCall.getTimeoutNanos() != PlannedCall.NO_TIMEOUT) {
+			scheduleTimeout(resultFuture, plannedCall.getTimeoutNanos());
+		}
+		final Map<String, ResultFuture> dependencyFutures = new LinkedHashMap<String, ResultFuture>();
+		for (Map.Entry<String, Integer> dependency : plannedCall.getDependencies().entrySet()) {
+			dependencyFutures.put(dependency.getKey(), resultFutures[dependency.getValue()]);
+		}
+		CompletableFuture.allOf(dependencyFutures.values().toArray(new CompletableFuture<?>[dependencyFutures.size()])).whenComplete(new BiConsumer<Void, Throwable>() {
+			@Override
+			public void accept(Void ignored, Throwable throwable) {
+				if (resultFuture.isDone()) {
+					return;
+				}
+				Map<String, Object> dependencyResults = new LinkedHashMap<String, Object>();
+				for (Map.Entry<String, ResultFuture> dependencyFuture : dependencyFutures.entrySet()) {
+					ResultState dependencyState = dependencyFuture.getValue().getResultState();
+					if (dependencyState != ResultState.COMPLETED) {
+						resultFuture.completeExceptionally(new SystemException("Dependency [" + dependencyFuture.getKey() + "] of the call was not completed: " + dependencyState));
+						return;
+					}
+					dependencyResults.put(dependencyFuture.getKey(), dependencyFuture.getValue().getResult());
+				}
+				try {
+					Object argument = plannedCall.resolveArgument(dependencyResults);
+					resultFuture.follow(execute(plannedCall, argument, plannedCall.createCallKey(argument), PlannedCall.NO_TIMEOUT), true);
+				} catch (Throwable resolvingThrowable) {
+					resultFuture.completeExceptionally(resolvingThrowable);
+				}
+			}
+		});
+		return resultFuture;
+	}
+	
+	/**
+	 * Merges the 'query by id' calls without own timeouts into a batch query per service implementing the batch query. The 
+	 * result futures of the merged calls are registered as activated read calls, so the calls are resolved from the batch 
+	 * results. Calls shared through the shared result cache are not queried again. The batch query is interrupted when 
+	 * all of its results have been timed out or cancelled.
+	 */
+	private void activateBatchQueries(List<PlannedCall> plannedCalls, Map<CallKey, ResultFuture> activatedReadCalls) {
+		Map<CrudService<?, ?>, Set<Object>> batchedIds = new IdentityHashMap<CrudService<?, ?>, Set<Object>>();
+		for (PlannedCall plannedCall : plannedCalls) {
+			if (plannedCall.getOperation() != CallKey.Operation.QUERY_BY_ID || plannedCall.isDependent() || plannedCall.getTimeoutNanos() != PlannedCall.NO_TIMEOUT) {
+				continue;
+			}
+			Set<Object> ids = batchedIds.get(plannedCall.getCrudService());
+			if (ids == null) {
+				ids = new LinkedHashSet<Object>();
+				batchedIds.put(plannedCall.getCrudService(), ids);
+			}
+			ids.add(plannedCall.getArgument());
+		}
+		for (Map.Entry<CrudService<?, ?>, Set<Object>> batch : batchedIds.entrySet()) {
+			if (batch.getValue().size() > 1 && BATCH_QUERY_SUPPORT.get(AopUtils.getTargetClass(batch.getKey()))) {
+				activateBatchQuery(batch.getKey(), batch.getValue(), activatedReadCalls);
+			}
+		}
+	}
+	
+	@SuppressWarnings({"rawtypes", "unchecked"})
+	private void activateBatchQuery(final CrudService crudService, Set<Object> ids, Map<CallKey, ResultFuture> activatedReadCalls) {
+		SharedResultCache sharedResultCache = this.sharedResultCache;
+		final Map<Object, ResultFuture> queriedResults = new LinkedHashMap<Object, ResultFuture>();
+		for (Object id : ids) {
+			CallKey callKey = new CallKey(crudService, CallKey.Operation.QUERY_BY_ID, id);
+			ResultFuture resultFuture = new ResultFuture(null);
+			if (sharedResultCache == null) {
+				activatedReadCalls.put(callKey, resultFuture);
+			} else {
+				ResultFuture sharedResultFuture = sharedResultCache.share(callKey, resultFuture);
+				activatedReadCalls.put(callKey, ResultFuture.following(sharedResultFuture));
+				if (sharedResultFuture != resultFuture) {
+					continue;
+				}
+			}
+			queriedResults.put(id, resultFuture);
+		}
+		if (queriedResults.isEmpty()) {
+			return;
+		}
+		final Collection<Object> queriedIds = new ArrayList<Object>(queriedResults.keySet());
+		Callable<Object> callable = new Callable<Object>() {
+			@Override
+			public Object call() throws Exception {
+				return crudService.queryByIds(queriedIds);
+			}
+		};
+		ServiceConcurrencyLimiter serviceConcurrencyLimiter = this.serviceConcurrencyLimiter;
+		final CompletableCall completableCall = new CompletableCall(serviceConcurrencyLimiter == null ? callable : serviceConcurrencyLimiter.limit(crudService, callable));
+		final AtomicInteger pendingResults = new AtomicInteger(queriedResults.size());
+		for (Map.Entry<Object, ResultFuture> queriedResult : queriedResults.entrySet()) {
+			queriedResult.getValue().followEntry(completableCall.getResultFuture(), queriedResult.getKey());
+			queriedResult.getValue().whenComplete(new BiConsumer<Object, Throwable>() {
+				@Override
+				public void accept(Object result, Throwable throwable) {
+					if (pendingResults.decrementAndGet() == 0) {
+						completableCall.getResultFuture().cancel(true);
+					}
+				}
+			});
+		}
+		start(completableCall, PlannedCall.NO_TIMEOUT);
+	}
+	
+	/**
+	 * Executes the call or joins the identical call shared through the shared result cache. Shared calls are followed by 
+	 * a result future of this activation, so the deadline of the activation does not cancel calls of other activations. 
+	 * The deadline is therefore scheduled on the following result future instead of the shared one.
+	 */
+	private ResultFuture execute(PlannedCall plannedCall, Object argument, CallKey callKey, long timeoutNanos) {
+		Callable<Object> callable = plannedCall.createCallable(argument);
+		ServiceConcurrencyLimiter serviceConcurrencyLimiter = this.serviceConcurrencyLimiter;
+		CompletableCall completableCall = new CompletableCall(serviceConcurrencyLimiter == null ? callable : serviceConcurrencyLimiter.limit(plannedCall.getCrudService(), callable));
+		SharedResultCache sharedResultCache = this.sharedResultCache;
+		if (callKey == null || sharedResultCache == null) {
+			start(completableCall, timeoutNanos);
+			return completableCall.getResultFuture();
+		}
+		ResultFuture sharedResultFuture = sharedResultCache.share(callKey, completableCall.getResultFuture());
+		if (sharedResultFuture == completableCall.getResultFuture()) {
+			start(completableCall, PlannedCall.NO_TIMEOUT);
+		}
+		ResultFuture resultFuture = ResultFuture.following(sharedResultFuture);
+		if (timeoutNanos != PlannedCall.NO_TIMEOUT) {
+			scheduleTimeout(resultFuture, timeoutNanos);
+		}
+		return resultFuture;
+	}
+	
+	private void start(CompletableCall completableCall, long timeoutNanos) {
+		if (timeoutNanos != PlannedCall.NO_TIMEOUT) {
+			scheduleTimeout(completableCall.getResultFuture(), timeoutNanos);
+		}
+		resolveExecutor().execute(completableCall);
+	}
+	
+	private Executor resolveExecutor() {
+		if (executionMode == ExecutionMode.VIRTUAL_THREADS && VirtualThreads.isSupported()) {
+			return VirtualThreads.getExecutor();
+		}
+		if (executorServiceAdapter == null) {
+			ExceptionUtil.throwSystemException("Executor service is not defined.", ExceptionLevel.ERROR, "unique.exception.system.threading.error");
+		}
+		return executorServiceAdapter;
+	}
+	
+	private static void scheduleTimeout(final ResultFuture resultFuture, long timeoutNanos) {
+		final ScheduledFuture<?> scheduledTimeout = TimeoutScheduler.INSTANCE.schedule(new Runnable() {
+			@Override
+			public void run() {
+				resultFuture.timeout();
+			}
+		}, timeoutNanos, TimeUnit.NANOSECONDS);
+		resultFuture.whenComplete(new BiConsumer<Object, Throwable>() {
+			@Override
+			public void accept(Object result, Throwable throwable) {
+				scheduledTimeout.cancel(false);
+			}
+		});
+	}
+	
+	/**
+	 * Represents the lazily started scheduler of the call timeouts.
+	 */
+	private static final class TimeoutScheduler {
+		
+		private static final ScheduledThreadPoolExecutor INSTANCE = createScheduler();
+		
+		private static ScheduledThreadPoolExecutor createScheduler() {
+			ScheduledThreadPoolExecutor scheduler = new ScheduledThreadPoolExecutor(1, new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "parallel-service-activator-timeout");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+			scheduler.setRemoveOnCancelPolicy(true);
+			return scheduler;
+		}
+		
 	}
 	
 }
@@ -0,0 +1,381 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.async;
+
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openinfinity.core.exception.ExceptionLevel;
+import org.openinfinity.core.exception.SystemException;
+import org.openinfinity.core.integration.CrudService;
+import org.openinfinity.core.util.ExceptionUtil;
+
+/**
+ * Represents a single conversation with the <code>org.openinfinity.core.async.ParallelServiceActivator</code>. Calls are 
+ * prepared with the fluent API of the conversation and activated by the activator which started the conversation, so the 
+ * activator itself holds no state and can be shared. Results without result identifiers are loaded with <code>loadResult()</code> 
+ * in the order of preparation.
+ * <br/><br/>
+ * A conversation holds the prepared calls and the results of a single caller. Instances of this class are not thread-safe 
+ * and must not be shared between threads.
+ * 
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+public final class ParallelServiceConversation {
+	
+	/**
+	 * Represents the activator which started the conversation.
+	 */
+	private final ParallelServiceActivator parallelServiceActivator;
+	
+	/**
+	 * Calls prepared in the conversation.
+	 */
+	private final ParallelServicePlan.Builder preparedCalls;
+	
+	/**
+	 * Positions of the prepared results without result identifiers in the order of preparation.
+	 */
+	private final LinkedList<Integer> resultQueue;
+	
+	/**
+	 * Results of the latest activation of the prepared calls.
+	 */
+	private ParallelServiceResults results;
+	
+	ParallelServiceConversation(ParallelServiceActivator parallelServiceActivator) {
+		this.parallelServiceActivator = parallelServiceActivator;
+		this.preparedCalls = ParallelServicePlan.builder();
+		this.resultQueue = new LinkedList<Integer>();
+	}
+	
+	/**
+	 * Parallel 'query all' interface by id. 
+	 * 
+	 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+	 * @param id Represents the actual unique id to be queried.
+	 * @return The type safe collection.
+	 */
+	public <T, ID extends Object> ParallelServiceConversation prepareToQueryAllById(CrudService<T, ID> crudService, ID id) {
+		preparedCalls.prepareToQueryAllById(crudService, id);
+		return enqueueResult(); 
+	}
+	
+	/**
+	 * Parallel 'query by id' interface by id. 
+	 * 
+	 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+	 * @param id Represents the actual unique id to be queried.
+	 * @return The type safe collection.
+	 */
+	public <T, ID extends Object> ParallelServiceConversation prepareToQueryById(CrudService<T, ID> crudService, ID id) {
+		preparedCalls.prepareToQueryById(crudService, id);
+		return enqueueResult(); 
+	}
+	
+	/**
+	 *  Parallel 'create' interface with type safe entity. 
+	 * 
+	 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+	 * @param id Represents the actual type of the unique id.
+	 * @param type Represents the actual type safe.
+	 * @return Type safe entity.
+	 */
+	public <T, ID, TYPE extends Object> ParallelServiceConversation prepareToCreate(CrudService<T, ID> crudService, ID id, TYPE type) {
+		preparedCalls.prepare(new PlannedCall(crudService, CallKey.Operation.CREATE, type, id), null);
+		return enqueueResult(); 
+	}
+	
+	/**
+	 * Parallel 'delete by id' interface for removing unique entity. 
+	 * 
+	 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+	 * @param id Represents the actual unique id to be queried.
+	 * @return
+	 */
+	public <T, ID, TYPE extends Object> ParallelServiceConversation prepareToDelete(CrudService<T, ID> crudService, ID id) {
+		preparedCalls.prepareToDelete(crudService, id);
+		return this; 
+	}
+
+	/**
+	 * Parallel 'query by id' interface for quering type safe entities. 
+	 * 
+	 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+	 * @param parameters Represents the query parameters (key, value) for the query interface.
+	 * @return Type safe result of the query.
+	 */
+	public <T, ID extends Object> ParallelServiceConversation prepareToQueryById(CrudService<T, ID> crudService, Map<?, ?> parameters) {
+		preparedCalls.prepareToQueryAllByCriteria(crudService, parameters);
+		return enqueueResult(); 
+	}
+	
+	/**
+	 * Parallel 'query all by id' interface for quering type safe entities. 
+	 * 
+	 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+	 * @param id Represents the actual unique id to be queried.
+	 * @param resultIdentifier
+	 * @return
+	 */
+	public <T, ID extends Object> ParallelServiceConversation prepareToQueryAllById(CrudService<T, ID> crudService, ID id, String resultIdentifier) {
+		preparedCalls.prepareToQueryAllById(crudService, id, resultIdentifier);
+		return this; 
+	}
+	
+	/**
+	 * Parallel 'query by id' interface for quering type safe entities. 
+	 * 
+	 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+	 * @param id Represents the actual unique id to be queried.
+	 * @param resultIdentifier
+	 * @return
+	 */
+	public <T, ID extends Object> ParallelServiceConversation prepareToQueryById(CrudService<T, ID> crudService, ID id, String resultIdentifier) {
+		preparedCalls.prepareToQueryById(crudService, id, resultIdentifier);
+		return this; 
+	}
+	
+	/**
+	 * Parallel 'query by id' interface for quering collection of type safe entities. 
+	 * 
+	 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+	 * @param parameters
+	 * @param resultIdentifier
+	 * @return
+	 */
+	public <T, ID extends Object> ParallelServiceConversation prepareToQueryAllByCriteria(CrudService<T, ID> crudService,  Map<?, ?> parameters, String resultIdentifier) {
+		preparedCalls.prepareToQueryAllByCriteria(crudService, parameters, resultIdentifier);
+		return this; 
+	}
+
+	/**
+	 * Parallel 'query by id' interface depending on the results of previously prepared calls. The id is resolved from the 
+	 * results of the dependencies when all of them have been completed. The call fails if any of the dependencies is not completed.
+	 * 
+	 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+	 * @param idResolver Represents the function resolving the id from the dependency results keyed by their result identifiers.
+	 * @param resultIdentifier Represents the unique identifier of the result.
+	 * @param dependencyIdentifiers Represents the result identifiers of the dependencies.
+	 * @return Instance of the conversation.
+	 */
+	public <T, ID extends Object> ParallelServiceConversation prepareToQueryById(CrudService<T, ID> crudService, Function<Map<String, Object>, ID> idResolver, String resultIdentifier, String... dependencyIdentifiers) {
+		preparedCalls.prepareToQueryById(crudService, idResolver, resultIdentifier, dependencyIdentifiers);
+		return this;
+	}
+	
+	/**
+	 * Parallel 'query all by id' interface depending on the results of previously prepared calls. The id is resolved from the 
+	 * results of the dependencies when all of them have been completed. The call fails if any of the dependencies is not completed.
+	 * 
+	 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+	 * @param idResolver Represents the function resolving the id from the dependency results keyed by their result identifiers.
+	 * @param resultIdentifier Represents the unique identifier of the result.
+	 * @param dependencyIdentifiers Represents the result identifiers of the dependencies.
+	 * @return Instance of the conversation.
+	 */
+	public <T, ID extends Object> ParallelServiceConversation prepareToQueryAllById(CrudService<T, ID> crudService, Function<Map<String, Object>, ID> idResolver, String resultIdentifier, String... dependencyIdentifiers) {
+		preparedCalls.prepareToQueryAllById(crudService, idResolver, resultIdentifier, dependencyIdentifiers);
+		return this;
+	}
+	
+	/**
+	 * Parallel 'query by criteria' interface depending on the results of previously prepared calls. The parameters are resolved 
+	 * from the results of the dependencies when all of them have been completed. The call fails if any of the dependencies is not completed.
+	 * 
+	 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+	 * @param parametersResolver Represents the function resolving the query parameters from the dependency results keyed by their result identifiers.
+	 * @param resultIdentifier Represents the unique identifier of the result.
+	 * @param dependencyIdentifiers Represents the result identifiers of the dependencies.
+	 * @return Instance of the conversation.
+	 */
+	public <T, ID extends Object> ParallelServiceConversation prepareToQueryAllByCriteria(CrudService<T, ID> crudService, Function<Map<String, Object>, Map<?, ?>> parametersResolver, String resultIdentifier, String... dependencyIdentifiers) {
+		preparedCalls.prepareToQueryAllByCriteria(crudService, parametersResolver, resultIdentifier, dependencyIdentifiers);
+		return this;
+	}
+	
+	/**
+	 * Defines the timeout of the latest prepared call. The timeout is measured from the activation. Calls which have not been 
+	 * finished within the timeout are cancelled and their result state is <code>ResultState.TIMED_OUT</code>.
+	 * 
+	 * @param timeout Represents the timeout of the call.
+	 * @param unit Represents the time unit of the timeout.
+	 * @return Instance of the conversation.
+	 */
+	public ParallelServiceConversation withTimeout(long timeout, TimeUnit unit) {
+		preparedCalls.withTimeout(timeout, unit);
+		return this;
+	}
+	
+	/**
+	 * Activates all prepared queries simultaniously without waiting for the results. The results can be accessed as they 
+	 * complete through <code>getResultFuture(String)</code> and <code>onResult(String, AsyncResultCallback)</code>.
+	 * <br/><br/>
+	 * Identical read calls, targeting the same service instance with the same operation and an equal argument, are executed 
+	 * once per activation and share the result. With the shared result cache the read calls are shared between activations as well.
+	 * 
+	 * @return Future completed when all of the prepared calls have been finished. Completes exceptionally if any of the calls fails.
+	 */
+	public CompletableFuture<ParallelServiceConversation> activateAsync() {
+		results = parallelServiceActivator.activateAsync(preparedCalls.build());
+		return results.getCompletionFuture().thenApply(new Function<ParallelServiceResults, ParallelServiceConversation>() {
+			@Override
+			public ParallelServiceConversation apply(ParallelServiceResults results) {
+				return ParallelServiceConversation.this;
+			}
+		});
+	}
+	
+	/**
+	 * Activates all prepared queries simultaniously and returns the results which are ready by the deadline. Calls which have 
+	 * not been finished in the given time frame are cancelled and their result state is <code>ResultState.TIMED_OUT</code>.
+	 * 
+	 * @param timeout Represents the timeout if activation is not processed in given time frame. 
+	 * @param unit Represents the time unit of the given time frame. 
+	 * @return Instance of the conversation.
+	 * @throws SystemException
+	 */
+	public ParallelServiceConversation activate(long timeout, TimeUnit unit) throws SystemException {
+		results = parallelServiceActivator.activateAsync(preparedCalls.build());
+		results.await(timeout, unit);
+		return this;
+	}
+	
+	/**
+	 * Activates all prepared queries simultaniously.
+	 *
+	 * @return Instance of the conversation.
+	 * @throws SystemException
+	 */
+	public ParallelServiceConversation activate() throws SystemException {
+		results = parallelServiceActivator.activateAsync(preparedCalls.build());
+		results.await();
+		return this;
+	}
+	
+	/**
+	 * Returns the future of the given result after asynchronous activation.
+	 * 
+	 * @param resultIdentifier Represents the unique id of the predefined result.
+	 * @return Future of the result.
+	 */
+	public <T extends Object> CompletableFuture<T> getResultFuture(String resultIdentifier) {
+		int position = resolvePosition(resultIdentifier);
+		if (!isActivated(position)) {
+			ExceptionUtil.throwSystemException("unique.exception.id.not.found", ExceptionLevel.ERROR, "unique.exception.system.threading.error");
+		}
+		return results.getResultFuture(position);
+	}
+	
+	/**
+	 * Returns the state of the given result. Results of failed, timed out and cancelled calls are not available.
+	 * 
+	 * @param resultIdentifier Represents the unique id of the predefined result.
+	 * @return State of the result.
+	 */
+	public ResultState getResultState(String resultIdentifier) {
+		int position = resolvePosition(resultIdentifier);
+		return isActivated(position) ? results.getResultState(position) : ResultState.PENDING;
+	}
+	
+	/**
+	 * Loads given result with identifier after parallel execution. After asynchronous activation waits until the result has been completed.
+	 * 
+	 * @param resultIdentifier Represents the unique id of the predefined result.
+	 * @return
+	 */
+	public <T extends Object> T loadResult(String resultIdentifier) {
+		return loadResult(resolvePosition(resultIdentifier));
+	}
+	
+	/**
+	 * Loads result from the response queue in the order of preparation. After asynchronous activation waits until the result has been completed.
+	 * 
+	 * @return
+	 */
+	public <T extends Object> T loadResult() {
+		return loadResult(pollResultQueue());
+	}
+	
+	/**
+	 * Result callback method for responses in the order of preparation. After asynchronous activation the callback is fired when the result completes.
+	 * 
+	 * @param asyncResultCallback Represents the callback interface.
+	 * @return
+	 */
+	public ParallelServiceConversation onResult(AsyncResultCallback asyncResultCallback) {
+		fireOnResult(pollResultQueue(), asyncResultCallback);
+		return this;
+	}
+
+	/**
+	 * Result callback method for response based on result indentifier. After asynchronous activation the callback is fired 
+	 * when the result completes.
+	 * 
+	 * @param resultIdentifier Represent the unique identifier of the result.
+	 * @param asyncResultCallback Represent the callback interface for the result.
+	 * @return
+	 */
+	public ParallelServiceConversation onResult(String resultIdentifier, AsyncResultCallback asyncResultCallback) {
+		fireOnResult(resolvePosition(resultIdentifier), asyncResultCallback);
+		return this;
+	}
+	
+	private ParallelServiceConversation enqueueResult() {
+		resultQueue.add(preparedCalls.size() - 1);
+		return this;
+	}
+	
+	private int pollResultQueue() {
+		Integer position = resultQueue.poll();
+		if (position == null) {
+			ExceptionUtil.throwSystemException("unique.exception.id.not.found", ExceptionLevel.ERROR, "unique.exception.system.threading.error");
+		}
+		return position;
+	}
+	
+	private int resolvePosition(String resultIdentifier) {
+		int position = preparedCalls.getPosition(resultIdentifier);
+		if (position < 0) {
+			ExceptionUtil.throwSystemException("unique.exception.id.not.found", ExceptionLevel.ERROR, "unique.exception.system.threading.error");
+		}
+		return position;
+	}
+	
+	private boolean isActivated(int position) {
+		return results != null && position < results.size();
+	}
+	
+	@SuppressWarnings("unchecked")
+	private <T extends Object> T loadResult(int position) {
+		return isActivated(position) ? results.<T>loadResult(position) : (T) preparedCalls.getPlannedCall(position).getPreparedResult();
+	}
+	
+	@SuppressWarnings("unchecked")
+	private void fireOnResult(int position, AsyncResultCallback asyncResultCallback) {
+		if (isActivated(position)) {
+			results.onResult(position, asyncResultCallback);
+		} else {
+			asyncResultCallback.onResult(preparedCalls.getPlannedCall(position).getPreparedResult());
+		}
+	}
+
+}
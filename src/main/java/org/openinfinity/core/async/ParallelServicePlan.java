@@ -0,0 +1,340 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.async;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.openinfinity.core.exception.ExceptionLevel;
+import org.openinfinity.core.integration.CrudService;
+import org.openinfinity.core.util.ExceptionUtil;
+
+/**
+ * Represents an immutable plan of parallel CRUD service calls executed by <code>org.openinfinity.core.async.ParallelServiceActivator</code>. 
+ * A plan is built once, usually at start up, and can be activated any number of times concurrently. Each activation returns 
+ * its own <code>org.openinfinity.core.async.ParallelServiceResults</code>.
+ * <br/><br/>
+ * Each call has a position defined by the order of preparation and optionally a result identifier. Calls can depend on the 
+ * results of previously prepared calls, so the calls of a plan form a directed acyclic graph.
+ * <br/><br/>
+ * Usage: <br/><br/>
+ * <code>
+ * ParallelServicePlan plan = ParallelServicePlan.builder().prepareToQueryById(accountService, id, "account").prepareToQueryAllById(orderService, id, "orders").build();<br/>
+ * ParallelServiceResults results = parallelServiceActivator.activate(plan);
+ * </code>
+ * 
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+public final class ParallelServicePlan {
+	
+	private final List<PlannedCall> plannedCalls;
+	
+	/**
+	 * Represents the positions of the calls keyed by their result identifiers.
+	 */
+	private final Map<String, Integer> positions;
+	
+	private ParallelServicePlan(List<PlannedCall> plannedCalls, Map<String, Integer> positions) {
+		this.plannedCalls = plannedCalls;
+		this.positions = positions;
+	}
+	
+	/**
+	 * Returns a new builder for a plan.
+	 * 
+	 * @return Builder Represents the builder of the plan.
+	 */
+	public static Builder builder() {
+		return new Builder();
+	}
+	
+	/**
+	 * Returns the number of calls in the plan.
+	 * 
+	 * @return int Represents the number of calls.
+	 */
+	public int size() {
+		return plannedCalls.size();
+	}
+	
+	/**
+	 * Returns the position of the call with the given result identifier.
+	 * 
+	 * @param resultIdentifier Represents the unique identifier of the result.
+	 * @return int Represents the position of the call or <code>-1</code> if the identifier is not defined.
+	 */
+	public int getPosition(String resultIdentifier) {
+		Integer position = positions.get(resultIdentifier);
+		return position == null ? -1 : position;
+	}
+	
+	List<PlannedCall> getPlannedCalls() {
+		return plannedCalls;
+	}
+	
+	/**
+	 * Builds the plan of parallel CRUD service calls. Builders are not thread-safe, but the built plans are.
+	 */
+	public static final class Builder {
+		
+		private final List<PlannedCall> plannedCalls = new ArrayList<PlannedCall>();
+		
+		private final Map<String, Integer> positions = new HashMap<String, Integer>();
+		
+		private Builder() {}
+		
+		/**
+		 * Parallel 'query by id' call.
+		 * 
+		 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+		 * @param id Represents the actual unique id to be queried.
+		 * @return Builder Represents the builder of the plan.
+		 */
+		public <T, ID> Builder prepareToQueryById(CrudService<T, ID> crudService, ID id) {
+			return prepare(new PlannedCall(crudService, CallKey.Operation.QUERY_BY_ID, id, null), null);
+		}
+		
+		/**
+		 * Parallel 'query by id' call with result identifier.
+		 * 
+		 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+		 * @param id Represents the actual unique id to be queried.
+		 * @param resultIdentifier Represents the unique identifier of the result.
+		 * @return Builder Represents the builder of the plan.
+		 */
+		public <T, ID> Builder prepareToQueryById(CrudService<T, ID> crudService, ID id, String resultIdentifier) {
+			return prepare(new PlannedCall(crudService, CallKey.Operation.QUERY_BY_ID, id, null), resultIdentifier);
+		}
+		
+		/**
+		 * Parallel 'query all by id' call.
+		 * 
+		 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+		 * @param id Represents the actual unique id to be queried.
+		 * @return Builder Represents the builder of the plan.
+		 */
+		public <T, ID> Builder prepareToQueryAllById(CrudService<T, ID> crudService, ID id) {
+			return prepare(new PlannedCall(crudService, CallKey.Operation.QUERY_ALL_BY_ID, id, null), null);
+		}
+		
+		/**
+		 * Parallel 'query all by id' call with result identifier.
+		 * 
+		 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+		 * @param id Represents the actual unique id to be queried.
+		 * @param resultIdentifier Represents the unique identifier of the result.
+		 * @return Builder Represents the builder of the plan.
+		 */
+		public <T, ID> Builder prepareToQueryAllById(CrudService<T, ID> crudService, ID id, String resultIdentifier) {
+			return prepare(new PlannedCall(crudService, CallKey.Operation.QUERY_ALL_BY_ID, id, null), resultIdentifier);
+		}
+		
+		/**
+		 * Parallel 'query all by criteria' call.
+		 * 
+		 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+		 * @param parameters Represents the query parameters (key, value) for the query interface.
+		 * @return Builder Represents the builder of the plan.
+		 */
+		public <T, ID> Builder prepareToQueryAllByCriteria(CrudService<T, ID> crudService, Map<?, ?> parameters) {
+			return prepare(new PlannedCall(crudService, CallKey.Operation.QUERY_BY_CRITERIA, parameters, null), null);
+		}
+		
+		/**
+		 * Parallel 'query all by criteria' call with result identifier.
+		 * 
+		 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+		 * @param parameters Represents the query parameters (key, value) for the query interface.
+		 * @param resultIdentifier Represents the unique identifier of the result.
+		 * @return Builder Represents the builder of the plan.
+		 */
+		public <T, ID> Builder prepareToQueryAllByCriteria(CrudService<T, ID> crudService, Map<?, ?> parameters, String resultIdentifier) {
+			return prepare(new PlannedCall(crudService, CallKey.Operation.QUERY_BY_CRITERIA, parameters, null), resultIdentifier);
+		}
+		
+		/**
+		 * Parallel 'create' call. The result of the call is the id of the created entity.
+		 * 
+		 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+		 * @param entity Represents the entity to be created.
+		 * @return Builder Represents the builder of the plan.
+		 */
+		public <T, ID> Builder prepareToCreate(CrudService<T, ID> crudService, T entity) {
+			return prepare(new PlannedCall(crudService, CallKey.Operation.CREATE, entity, null), null);
+		}
+		
+		/**
+		 * Parallel 'create' call with result identifier. The result of the call is the id of the created entity.
+		 * 
+		 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+		 * @param entity Represents the entity to be created.
+		 * @param resultIdentifier Represents the unique identifier of the result.
+		 * @return Builder Represents the builder of the plan.
+		 */
+		public <T, ID> Builder prepareToCreate(CrudService<T, ID> crudService, T entity, String resultIdentifier) {
+			return prepare(new PlannedCall(crudService, CallKey.Operation.CREATE, entity, null), resultIdentifier);
+		}
+		
+		/**
+		 * Parallel 'delete by id' call.
+		 * 
+		 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+		 * @param id Represents the actual unique id to be removed.
+		 * @return Builder Represents the builder of the plan.
+		 */
+		public <T, ID> Builder prepareToDelete(CrudService<T, ID> crudService, ID id) {
+			return prepare(new PlannedCall(crudService, CallKey.Operation.DELETE, id, null), null);
+		}
+		
+		/**
+		 * Parallel 'query by id' call depending on the results of previously prepared calls. The id is resolved from the 
+		 * results of the dependencies when all of them have been completed. The call fails if any of the dependencies is not completed.
+		 * 
+		 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+		 * @param idResolver Represents the function resolving the id from the dependency results keyed by their result identifiers.
+		 * @param resultIdentifier Represents the unique identifier of the result.
+		 * @param dependencyIdentifiers Represents the result identifiers of the dependencies.
+		 * @return Builder Represents the builder of the plan.
+		 */
+		public <T, ID> Builder prepareToQueryById(CrudService<T, ID> crudService, Function<Map<String, Object>, ID> idResolver, String resultIdentifier, String... dependencyIdentifiers) {
+			return prepareDependent(crudService, CallKey.Operation.QUERY_BY_ID, idResolver, resultIdentifier, dependencyIdentifiers);
+		}
+		
+		/**
+		 * Parallel 'query all by id' call depending on the results of previously prepared calls. The id is resolved from the 
+		 * results of the dependencies when all of them have been completed. The call fails if any of the dependencies is not completed.
+		 * 
+		 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+		 * @param idResolver Represents the function resolving the id from the dependency results keyed by their result identifiers.
+		 * @param resultIdentifier Represents the unique identifier of the result.
+		 * @param dependencyIdentifiers Represents the result identifiers of the dependencies.
+		 * @return Builder Represents the builder of the plan.
+		 */
+		public <T, ID> Builder prepareToQueryAllById(CrudService<T, ID> crudService, Function<Map<String, Object>, ID> idResolver, String resultIdentifier, String... dependencyIdentifiers) {
+			return prepareDependent(crudService, CallKey.Operation.QUERY_ALL_BY_ID, idResolver, resultIdentifier, dependencyIdentifiers);
+		}
+		
+		/**
+		 * Parallel 'query all by criteria' call depending on the results of previously prepared calls. The parameters are resolved 
+		 * from the results of the dependencies when all of them have been completed. The call fails if any of the dependencies is not completed.
+		 * 
+		 * @param crudService Represents the actual service implement <code>org.openinfinity.core.integration.CrudService</code>.
+		 * @param parametersResolver Represents the function resolving the query parameters from the dependency results keyed by their result identifiers.
+		 * @param resultIdentifier Represents the unique identifier of the result.
+		 * @param dependencyIdentifiers Represents the result identifiers of the dependencies.
+		 * @return Builder Represents the builder of the plan.
+		 */
+		public <T, ID> Builder prepareToQueryAllByCriteria(CrudService<T, ID> crudService, Function<Map<String, Object>, Map<?, ?>> parametersResolver, String resultIdentifier, String... dependencyIdentifiers) {
+			return prepareDependent(crudService, CallKey.Operation.QUERY_BY_CRITERIA, parametersResolver, resultIdentifier, dependencyIdentifiers);
+		}
+		
+		/**
+		 * Defines the timeout of the latest prepared call. The timeout is measured from the activation. Calls which have not been 
+		 * finished within the timeout are cancelled and their result state is <code>ResultState.TIMED_OUT</code>.
+		 * 
+		 * @param timeout Represents the timeout of the call.
+		 * @param unit Represents the time unit of the timeout.
+		 * @return Builder Represents the builder of the plan.
+		 */
+		public Builder withTimeout(long timeout, TimeUnit unit) {
+			if (plannedCalls.isEmpty()) {
+				ExceptionUtil.throwSystemException("unique.exception.id.not.found", ExceptionLevel.ERROR, "unique.exception.system.threading.error");
+			}
+			int lastPosition = plannedCalls.size() - 1;
+			plannedCalls.set(lastPosition, plannedCalls.get(lastPosition).withTimeout(unit.toNanos(timeout)));
+			return this;
+		}
+		
+		/**
+		 * Builds the immutable plan of the prepared calls. The builder can be used further without affecting the built plan.
+		 * 
+		 * @return ParallelServicePlan Represents the plan.
+		 */
+		public ParallelServicePlan build() {
+			return new ParallelServicePlan(Collections.unmodifiableList(new ArrayList<PlannedCall>(plannedCalls)), Collections.unmodifiableMap(new HashMap<String, Integer>(positions)));
+		}
+		
+		/**
+		 * Returns the number of prepared calls.
+		 * 
+		 * @return int Represents the number of prepared calls.
+		 */
+		int size() {
+			return plannedCalls.size();
+		}
+		
+		/**
+		 * Returns the prepared call in the given position.
+		 * 
+		 * @param position Represents the position of the call.
+		 * @return PlannedCall Represents the prepared call.
+		 */
+		PlannedCall getPlannedCall(int position) {
+			return plannedCalls.get(position);
+		}
+		
+		/**
+		 * Returns the position of the call with the given result identifier.
+		 * 
+		 * @param resultIdentifier Represents the unique identifier of the result.
+		 * @return int Represents the position of the call or <code>-1</code> if the identifier is not defined.
+		 */
+		int getPosition(String resultIdentifier) {
+			Integer position = positions.get(resultIdentifier);
+			return position == null ? -1 : position;
+		}
+		
+		/**
+		 * Adds the call to the plan. Later calls with the same result identifier replace the identifier of the earlier calls.
+		 * 
+		 * @param plannedCall Represents the call.
+		 * @param resultIdentifier Represents the unique identifier of the result or <code>null</code>.
+		 * @return Builder Represents the builder of the plan.
+		 */
+		Builder prepare(PlannedCall plannedCall, String resultIdentifier) {
+			if (resultIdentifier != null) {
+				positions.put(resultIdentifier, plannedCalls.size());
+			}
+			plannedCalls.add(plannedCall);
+			return this;
+		}
+		
+		private Builder prepareDependent(CrudService<?, ?> crudService, CallKey.Operation operation, Function<Map<String, Object>, ?> argumentResolver, String resultIdentifier, String... dependencyIdentifiers) {
+			if (dependencyIdentifiers.length == 0) {
+				ExceptionUtil.throwSystemException("unique.exception.id.not.found", ExceptionLevel.ERROR, "unique.exception.system.threading.error");
+			}
+			Map<String, Integer> dependencies = new LinkedHashMap<String, Integer>();
+			for (String dependencyIdentifier : dependencyIdentifiers) {
+				Integer position = positions.get(dependencyIdentifier);
+				if (position == null) {
+					ExceptionUtil.throwSystemException("unique.exception.id.not.found", ExceptionLevel.ERROR, "unique.exception.system.threading.error");
+				}
+				dependencies.put(dependencyIdentifier, position);
+			}
+			return prepare(new PlannedCall(crudService, operation, argumentResolver, dependencies), resultIdentifier);
+		}
+		
+	}
+	
+}
@@ -0,0 +1,227 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.async;
+
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Consumer;
+import java.util.function.Function;
+
+import org.openinfinity.core.exception.ExceptionLevel;
+import org.openinfinity.core.util.ExceptionUtil;
+
+/**
+ * Represents the results of a single activation of a <code>org.openinfinity.core.async.ParallelServicePlan</code>. Results 
+ * can be accessed by the position of the call in the plan or by the result identifier of the call. Instances of this class 
+ * are thread-safe.
+ * 
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+public final class ParallelServiceResults {
+	
+	private final ParallelServicePlan parallelServicePlan;
+	
+	/**
+	 * Represents the result futures in the order of the calls of the plan.
+	 */
+	private final ResultFuture[] resultFutures;
+	
+	/**
+	 * Represents the future completed when all of the calls have been finished.
+	 */
+	private final CompletableFuture<ParallelServiceResults> completionFuture;
+	
+	ParallelServiceResults(ParallelServicePlan parallelServicePlan, ResultFuture[] resultFutures) {
+		this.parallelServicePlan = parallelServicePlan;
+		this.resultFutures = resultFutures;
+		this.completionFuture = CompletableFuture.allOf(resultFutures).thenApply(new Function<Void, ParallelServiceResults>() {
+			@Override
+			public ParallelServiceResults apply(Void result) {
+				return ParallelServiceResults.this;
+			}
+		});
+	}
+	
+	/**
+	 * Returns the number of results.
+	 * 
+	 * @return int Represents the number of results.
+	 */
+	public int size() {
+		return resultFutures.length;
+	}
+	
+	/**
+	 * Returns the future completed when all of the calls have been finished. Completes exceptionally if any of the calls fails.
+	 * 
+	 * @return CompletableFuture Represents the completion of the activation.
+	 */
+	public CompletableFuture<ParallelServiceResults> getCompletionFuture() {
+		return completionFuture;
+	}
+	
+	/**
+	 * Returns the future of the result in the given position.
+	 * 
+	 * @param position Represents the position of the call in the plan.
+	 * @return Future of the result.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Object> CompletableFuture<T> getResultFuture(int position) {
+		return (CompletableFuture<T>) (CompletableFuture<?>) resultFutures[position];
+	}
+	
+	/**
+	 * Returns the future of the given result.
+	 * 
+	 * @param resultIdentifier Represents the unique id of the predefined result.
+	 * @return Future of the result.
+	 */
+	public <T extends Object> CompletableFuture<T> getResultFuture(String resultIdentifier) {
+		return getResultFuture(resolvePosition(resultIdentifier));
+	}
+	
+	/**
+	 * Returns the state of the result in the given position. Results of failed, timed out and cancelled calls are not available.
+	 * 
+	 * @param position Represents the position of the call in the plan.
+	 * @return State of the result.
+	 */
+	public ResultState getResultState(int position) {
+		return resultFutures[position].getResultState();
+	}
+	
+	/**
+	 * Returns the state of the given result. Results of failed, timed out and cancelled calls are not available.
+	 * 
+	 * @param resultIdentifier Represents the unique id of the predefined result.
+	 * @return State of the result.
+	 */
+	public ResultState getResultState(String resultIdentifier) {
+		return getResultState(resolvePosition(resultIdentifier));
+	}
+	
+	/**
+	 * Loads the result in the given position. Waits until the result has been finished.
+	 * 
+	 * @param position Represents the position of the call in the plan.
+	 * @return Result of the call or <code>null</code> if the call was not completed.
+	 */
+	@SuppressWarnings("unchecked")
+	public <T extends Object> T loadResult(int position) {
+		ResultFuture resultFuture = resultFutures[position];
+		try {
+			resultFuture.get();
+		} catch (ExecutionException executionException) {
+			// Failed calls have no result.
+		} catch (CancellationException cancellationException) {
+			// Cancelled calls have no result.
+		} catch (InterruptedException interruptedException) {
+			Thread.currentThread().interrupt();
+			ExceptionUtil.throwSystemException(interruptedException.getMessage(), interruptedException, ExceptionLevel.ERROR, "unique.exception.system.threading.error");
+		}
+		return (T) resultFuture.getResult();
+	}
+	
+	/**
+	 * Loads the given result. Waits until the result has been finished.
+	 * 
+	 * @param resultIdentifier Represents the unique id of the predefined result.
+	 * @return Result of the call or <code>null</code> if the call was not completed.
+	 */
+	public <T extends Object> T loadResult(String resultIdentifier) {
+		return loadResult(resolvePosition(resultIdentifier));
+	}
+	
+	/**
+	 * Result callback method for the result in the given position. The callback is fired when the result completes.
+	 * 
+	 * @param position Represents the position of the call in the plan.
+	 * @param asyncResultCallback Represents the callback interface for the result.
+	 * @return Results of the activation.
+	 */
+	@SuppressWarnings("unchecked")
+	public ParallelServiceResults onResult(int position, final AsyncResultCallback asyncResultCallback) {
+		resultFutures[position].thenAccept(new Consumer<Object>() {
+			@Override
+			public void accept(Object result) {
+				asyncResultCallback.onResult(result);
+			}
+		});
+		return this;
+	}
+	
+	/**
+	 * Result callback method for the given result. The callback is fired when the result completes.
+	 * 
+	 * @param resultIdentifier Represents the unique identifier of the result.
+	 * @param asyncResultCallback Represents the callback interface for the result.
+	 * @return Results of the activation.
+	 */
+	public ParallelServiceResults onResult(String resultIdentifier, AsyncResultCallback asyncResultCallback) {
+		return onResult(resolvePosition(resultIdentifier), asyncResultCallback);
+	}
+	
+	/**
+	 * Waits until all of the calls have been finished.
+	 */
+	void await() {
+		try {
+			completionFuture.get();
+		} catch (ExecutionException executionException) {
+			// Failures are reported per result.
+		} catch (InterruptedException interruptedException) {
+			Thread.currentThread().interrupt();
+			ExceptionUtil.throwSystemException(interruptedException.getMessage(), interruptedException, ExceptionLevel.ERROR, "unique.exception.system.threading.error");
+		}
+	}
+	
+	/**
+	 * Waits until all of the calls have been finished or the deadline expires. Calls which have not been finished by the 
+	 * deadline are timed out.
+	 * 
+	 * @param timeout Represents the time frame of the activation.
+	 * @param unit Represents the time unit of the time frame.
+	 */
+	void await(long timeout, TimeUnit unit) {
+		try {
+			completionFuture.get(timeout, unit);
+		} catch (TimeoutException timeoutException) {
+			for (ResultFuture resultFuture : resultFutures) {
+				resultFuture.timeout();
+			}
+		} catch (ExecutionException executionException) {
+			// Failures are reported per result.
+		} catch (InterruptedException interruptedException) {
+			Thread.currentThread().interrupt();
+			ExceptionUtil.throwSystemException(interruptedException.getMessage(), interruptedException, ExceptionLevel.ERROR, "unique.exception.system.threading.error");
+		}
+	}
+	
+	private int resolvePosition(String resultIdentifier) {
+		int position = parallelServicePlan.getPosition(resultIdentifier);
+		if (position < 0) {
+			ExceptionUtil.throwSystemException("unique.exception.id.not.found", ExceptionLevel.ERROR, "unique.exception.system.threading.error");
+		}
+		return position;
+	}
+	
+}
@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.async;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.function.Function;
+
+import org.openinfinity.core.integration.CrudService;
+
+/**
+ * Represents a single immutable call of a <code>org.openinfinity.core.async.ParallelServicePlan</code>. The actual callables 
+ * are created per activation, so the same planned call can be activated concurrently. The argument of a dependent call is 
+ * resolved from the results of the calls it depends on.
+ * 
+ * @author Ilkka Leinonen
+ * @version 1.1.0
+ * @since 3.2.0
+ */
+@SuppressWarnings({"rawtypes", "unchecked"})
+final class PlannedCall {
+	
+	/**
+	 * Represents a call without a timeout.
+	 */
+	static final long NO_TIMEOUT = -1;
+
+	private final CrudService crudService;
+	
+	private final CallKey.Operation operation;
+	
+	/**
+	 * Represents the argument of the call or <code>null</code> for dependent calls.
+	 */
+	private final Object argument;
+	
+	/**
+	 * Represents the function resolving the argument of a dependent call or <code>null</code> for independent calls.
+	 */
+	private final Function argumentResolver;
+	
+	/**
+	 * Represents the positions of the calls the call depends on, keyed by their result identifiers.
+	 */
+	private final Map<String, Integer> dependencies;
+	
+	/**
+	 * Represents the timeout of the call in nanoseconds.
+	 */
+	private final long timeoutNanos;
+	
+	/**
+	 * Represents the result reported before activation. 'Create' calls of the activator report the id given at preparation.
+	 */
+	private final Object preparedResult;
+	
+	PlannedCall(CrudService crudService, CallKey.Operation operation, Object argument, Object preparedResult) {
+		this(crudService, operation, argument, null, Collections.<String, Integer>emptyMap(), NO_TIMEOUT, preparedResult);
+	}
+	
+	PlannedCall(CrudService crudService, CallKey.Operation operation, Function argumentResolver, Map<String, Integer> dependencies) {
+		this(crudService, operation, null, argumentResolver, Collections.unmodifiableMap(dependencies), NO_TIMEOUT, null);
+	}
+	
+	private PlannedCall(CrudService crudService, CallKey.Operation operation, Object argument, Function argumentResolver, Map<String, Integer> dependencies, long timeoutNanos, Object preparedResult) {
+		this.crudService = crudService;
+		this.operation = operation;
+		this.argument = argument;
+		this.argumentResolver = argumentResolver;
+		this.dependencies = dependencies;
+		this.timeoutNanos = timeoutNanos;
+		this.preparedResult = preparedResult;
+	}
+	
+	/**
+	 * Returns a copy of the call with the given timeout.
+	 * 
+	 * @param timeoutNanos Represents the timeout of the call in nanoseconds.
+	 * @return PlannedCall Represents the call with the timeout.
+	 */
+	PlannedCall withTimeout(long timeoutNanos) {
+		return new PlannedCall(crudService, operation, argument, argumentResolver, dependencies, timeoutNanos, preparedResult);
+	}
+	
+	CrudService getCrudService() {
+		return crudService;
+	}
+	
+	CallKey.Operation getOperation() {
+		return operation;
+	}
+	
+	Object getArgument() {
+		return argument;
+	}
+	
+	boolean isDependent() {
+		return argumentResolver != null;
+	}
+	
+	Map<String, Integer> getDependencies() {
+		return dependencies;
+	}
+	
+	long getTimeoutNanos() {
+		return timeoutNanos;
+	}
+	
+	Object getPreparedResult() {
+		return preparedResult;
+	}
+	
+	/**
+	 * Resolves the argument of a dependent call from the results of the dependencies.
+	 * 
+	 * @param dependencyResults Represents the results of the dependencies keyed by their result identifiers.
+	 * @return Object Represents the argument of the call.
+	 */
+	Object resolveArgument(Map<String, Object> dependencyResults) {
+		return argumentResolver.apply(dependencyResults);
+	}
+	
+	/**
+	 * Creates the actual call with the given argument.
+	 * 
+	 * @param argument Represents the argument of the call.
+	 * @return Callable Represents the actual call.
+	 */
+	Callable<Object> createCallable(Object argument) {
+		switch (operation) {
+			case QUERY_ALL_BY_ID : return new GenericCrudServiceQueryAllByIdCallable(crudService, argument);
+			case QUERY_BY_CRITERIA : return new GenericCrudServiceQueryAllByCriteriaCallable(crudService, (Map<?, ?>) argument);
+			case CREATE : return new GenericCrudServiceCreateCallable(crudService, preparedResult, argument);
+			case DELETE : return new GenericCrudServiceDeleteCallable(crudService, argument);
+			default: return new GenericCrudServiceQueryByIdCallable(crudService, argument);
+		}
+	}
+	
+	/**
+	 * Creates the identity of the actual call with the given argument.
+	 * 
+	 * @param argument Represents the argument of the call.
+	 * @return CallKey Represents the identity of the call or <code>null</code> for calls which are not read calls.
+	 */
+	CallKey createCallKey(Object argument) {
+		return operation.isRead() ? new CallKey(crudService, operation, argument) : null;
+	}
+	
+}
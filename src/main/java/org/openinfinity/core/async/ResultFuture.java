@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.async;
+
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.BiConsumer;
+
+/**
+ * Represents the result of a prepared call together with its <code>org.openinfinity.core.async.ResultState</code>. The state 
+ * is resolved by the first terminal transition, so a timed out result is not reported as cancelled. A result future either 
+ * controls the execution of the call, in which case timing out or cancelling it interrupts the call, or follows the result 
+ * future of a call shared with other activations without affecting it. The execution of a dependent call is attached when 
+ * its dependencies have been completed. The result of a call merged into a batch call follows the entry of the batch result.
+ * 
+ * @author Ilkka Leinonen
+ * @version 1.2.0
+ * @since 3.2.0
+ */
+final class ResultFuture extends CompletableFuture<Object> {
+
+	/**
+	 * Represents the state of the result.
+	 */
+	private final AtomicReference<ResultState> resultState = new AtomicReference<ResultState>(ResultState.PENDING);
+	
+	/**
+	 * Represents the controlled execution of the call or <code>null</code> if the execution is not controlled.
+	 */
+	private volatile Future<?> execution;
+	
+	ResultFuture(Future<?> execution) {
+		this.execution = execution;
+	}
+	
+	/**
+	 * Creates a result future following the given result future.
+	 * 
+	 * @param source Represents the followed result future.
+	 * @return ResultFuture Represents the following result future.
+	 */
+	static ResultFuture following(ResultFuture source) {
+		ResultFuture resultFuture = new ResultFuture(null);
+		resultFuture.follow(source, false);
+		return resultFuture;
+	}
+	
+	/**
+	 * Completes this result future with the state and result of the given result future.
+	 * 
+	 * @param source Represents the followed result future.
+	 * @param controlling Represents whether timing out or cancelling this result future cancels the followed result future.
+	 */
+	void follow(final ResultFuture source, boolean controlling) {
+		if (controlling) {
+			execution = source;
+			if (isDone()) {
+				source.cancel(true);
+			}
+		}
+		attach(source, false, null);
+	}
+	
+	/**
+	 * Completes this result future with the entry of the given key of the map result of the given result future. The state 
+	 * of the given result future is followed without affecting it.
+	 * 
+	 * @param source Represents the followed result future of a batch call.
+	 * @param key Represents the key of the entry in the map result.
+	 */
+	void followEntry(ResultFuture source, Object key) {
+		attach(source, true, key);
+	}
+	
+	private void attach(final ResultFuture source, final boolean selectingEntry, final Object key) {
+		source.whenComplete(new BiConsumer<Object, Throwable>() {
+			@Override
+			public void accept(Object result, Throwable throwable) {
+				switch (source.getResultState()) {
+					case COMPLETED : complete(selectingEntry && result != null ? ((Map<?, ?>) result).get(key) : result); break;
+					case TIMED_OUT : timeout(); break;
+					case CANCELLED : cancel(false); break;
+					default: completeExceptionally(throwable); break;
+				}
+			}
+		});
+	}
+	
+	/**
+	 * Returns the state of the result.
+	 * 
+	 * @return ResultState Represents the state of the result.
+	 */
+	ResultState getResultState() {
+		return resultState.get();
+	}
+	
+	/**
+	 * Returns the result if the call has been completed successfully.
+	 * 
+	 * @return Object Represents the result or <code>null</code> if the result is not available.
+	 */
+	Object getResult() {
+		return getResultState() == ResultState.COMPLETED ? getNow(null) : null;
+	}
+	
+	/**
+	 * Times out the result if it has not been finished. The future completes with <code>java.util.concurrent.TimeoutException</code>.
+	 * 
+	 * @return boolean Returns <code>true</code> if the result was timed out.
+	 */
+	boolean timeout() {
+		if (!resultState.compareAndSet(ResultState.PENDING, ResultState.TIMED_OUT)) {
+			return false;
+		}
+		super.completeExceptionally(new TimeoutException("Call was not finished within the timeout."));
+		interruptExecution();
+		return true;
+	}
+	
+	@Override
+	public boolean complete(Object result) {
+		return resultState.compareAndSet(ResultState.PENDING, ResultState.COMPLETED) && super.complete(result);
+	}
+	
+	@Override
+	public boolean completeExceptionally(Throwable throwable) {
+		if (throwable instanceof CancellationException) {
+			return cancel(false);
+		}
+		return resultState.compareAndSet(ResultState.PENDING, ResultState.FAILED) && super.completeExceptionally(throwable);
+	}
+	
+	@Override
+	public boolean cancel(boolean mayInterruptIfRunning) {
+		if (!resultState.compareAndSet(ResultState.PENDING, ResultState.CANCELLED)) {
+			return false;
+		}
+		boolean cancelled = super.cancel(mayInterruptIfRunning);
+		interruptExecution();
+		return cancelled;
+	}
+	
+	private void interruptExecution() {
+		Future<?> execution = this.execution;
+		if (execution != null) {
+			execution.cancel(true);
+		}
+	}
+	
+}
@@ -0,0 +1,52 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.async;
+
+/**
+ * Represents the state of a prepared call of the <code>org.openinfinity.core.async.ParallelServiceActivator</code>.
+ * 
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+public enum ResultState {
+	
+	/**
+	 * The call has not been activated or has not been finished yet.
+	 */
+	PENDING,
+	
+	/**
+	 * The call has been finished and the result is available.
+	 */
+	COMPLETED,
+	
+	/**
+	 * The call has thrown an exception.
+	 */
+	FAILED,
+	
+	/**
+	 * The call has not been finished within its timeout or the deadline of the activation and has been cancelled.
+	 */
+	TIMED_OUT,
+	
+	/**
+	 * The call has been cancelled.
+	 */
+	CANCELLED
+	
+}
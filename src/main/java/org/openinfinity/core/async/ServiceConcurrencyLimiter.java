@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.async;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+
+import org.openinfinity.core.integration.CrudService;
+
+/**
+ * Limits the number of concurrent calls per back-end service made by <code>org.openinfinity.core.async.ParallelServiceActivator</code> 
+ * instances. Calls exceeding the limit wait for a permit in the executing thread, which is inexpensive with virtual threads. 
+ * Instances of this class are thread-safe and are usually defined as singleton beans shared by the activators.
+ * 
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+public class ServiceConcurrencyLimiter {
+	
+	/**
+	 * Represents the permits per service.
+	 */
+	private final ConcurrentMap<Object, Semaphore> semaphores = new ConcurrentHashMap<Object, Semaphore>();
+	
+	/**
+	 * Represents the default maximum number of concurrent calls per service.
+	 */
+	private final int maximumConcurrentCalls;
+	
+	/**
+	 * Constructor for the limiter.
+	 * 
+	 * @param maximumConcurrentCalls Represents the default maximum number of concurrent calls per service.
+	 */
+	public ServiceConcurrencyLimiter(int maximumConcurrentCalls) {
+		if (maximumConcurrentCalls < 1)
+			throw new IllegalArgumentException("Maximum concurrent calls must be positive.");
+		this.maximumConcurrentCalls = maximumConcurrentCalls;
+	}
+	
+	/**
+	 * Defines the maximum number of concurrent calls of the given service. Should be defined before the service is called.
+	 * 
+	 * @param crudService Represents the back-end service.
+	 * @param maximumConcurrentCalls Represents the maximum number of concurrent calls of the service.
+	 */
+	public void setMaximumConcurrentCalls(CrudService<?, ?> crudService, int maximumConcurrentCalls) {
+		if (maximumConcurrentCalls < 1)
+			throw new IllegalArgumentException("Maximum concurrent calls must be positive.");
+		semaphores.put(crudService, new Semaphore(maximumConcurrentCalls));
+	}
+	
+	/**
+	 * Returns the number of calls of the given service which may currently start without waiting.
+	 * 
+	 * @param crudService Represents the back-end service.
+	 * @return int Represents the available permits.
+	 */
+	public int getAvailablePermits(CrudService<?, ?> crudService) {
+		return semaphoreFor(crudService).availablePermits();
+	}
+	
+	/**
+	 * Returns the call limited by the permits of the given service.
+	 * 
+	 * @param crudService Represents the back-end service.
+	 * @param callable Represents the call of the service.
+	 * @return Callable Represents the limited call.
+	 */
+	Callable<Object> limit(Object crudService, final Callable<Object> callable) {
+		final Semaphore semaphore = semaphoreFor(crudService);
+		return new Callable<Object>() {
+			@Override
+			public Object call() throws Exception {
+				semaphore.acquire();
+				try {
+					return callable.call();
+				} finally {
+					semaphore.release();
+				}
+			}
+		};
+	}
+	
+	private Semaphore semaphoreFor(Object crudService) {
+		Semaphore semaphore = semaphores.get(crudService);
+		if (semaphore == null) {
+			semaphore = new Semaphore(maximumConcurrentCalls);
+			Semaphore existingSemaphore = semaphores.putIfAbsent(crudService, semaphore);
+			if (existingSemaphore != null)
+				semaphore = existingSemaphore;
+		}
+		return semaphore;
+	}
+	
+}
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.async;
+
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Short-lived cache of read call results shared by <code>org.openinfinity.core.async.ParallelServiceActivator</code> instances. 
+ * Identical read calls in flight are executed once and their result is shared by all activations referring to the call 
+ * (single-flight). Completed results are reused until the time to live expires. Failed, timed out and cancelled calls are 
+ * not cached. Instances of this class are thread-safe and are usually defined as singleton beans.
+ * 
+ * @author Ilkka Leinonen
+ * @version 1.1.0
+ * @since 3.2.0
+ */
+public class SharedResultCache {
+	
+	/**
+	 * Number of started calls between the purges of the expired results.
+	 */
+	private static final int PURGE_INTERVAL = 256;
+	
+	private final ConcurrentMap<CallKey, CachedResult> cachedResults = new ConcurrentHashMap<CallKey, CachedResult>();
+	
+	private final long timeToLiveNanos;
+	
+	private final LongAdder hits = new LongAdder();
+	
+	private final LongAdder misses = new LongAdder();
+	
+	/**
+	 * Constructor for the cache.
+	 * 
+	 * @param timeToLive Represents the time to live of the completed results.
+	 * @param unit Represents the time unit of the time to live.
+	 */
+	public SharedResultCache(long timeToLive, TimeUnit unit) {
+		if (timeToLive < 0)
+			throw new IllegalArgumentException("Time to live must not be negative.");
+		this.timeToLiveNanos = unit.toNanos(timeToLive);
+	}
+	
+	/**
+	 * Returns the result future shared for the call. If there is no fresh result for the call, the given result future is 
+	 * registered and returned, in which case the caller is responsible for executing the call and completing the result future.
+	 * 
+	 * @param callKey Represents the identity of the call.
+	 * @param resultFuture Represents the result future of the call executed if the result is not shared.
+	 * @return ResultFuture Represents the shared result future.
+	 */
+	ResultFuture share(CallKey callKey, ResultFuture resultFuture) {
+		while (true) {
+			long now = System.nanoTime();
+			CachedResult cachedResult = cachedResults.get(callKey);
+			if (cachedResult != null && !cachedResult.isExpired(now)) {
+				hits.increment();
+				return cachedResult.resultFuture;
+			}
+			CachedResult candidate = new CachedResult(resultFuture);
+			boolean registered = cachedResult == null ? cachedResults.putIfAbsent(callKey, candidate) == null : cachedResults.replace(callKey, cachedResult, candidate);
+			if (registered) {
+				misses.increment();
+				expireOnCompletion(callKey, candidate);
+				if (misses.sum() % PURGE_INTERVAL == 0) {
+					purgeExpiredResults(now);
+				}
+				return candidate.resultFuture;
+			}
+		}
+	}
+	
+	/**
+	 * Removes all results from the cache.
+	 */
+	public void clear() {
+		cachedResults.clear();
+	}
+	
+	public long getHits() {
+		return hits.sum();
+	}
+	
+	public long getMisses() {
+		return misses.sum();
+	}
+	
+	private void expireOnCompletion(final CallKey callKey, final CachedResult cachedResult) {
+		cachedResult.resultFuture.whenComplete(new BiConsumer<Object, Throwable>() {
+			@Override
+			public void accept(Object result, Throwable throwable) {
+				if (cachedResult.resultFuture.getResultState() == ResultState.COMPLETED) {
+					cachedResult.expiresAtNanos = System.nanoTime() + timeToLiveNanos;
+				} else {
+					cachedResults.remove(callKey, cachedResult);
+				}
+			}
+		});
+	}
+	
+	private void purgeExpiredResults(long now) {
+		Iterator<CachedResult> iterator = cachedResults.values().iterator();
+		while (iterator.hasNext()) {
+			if (iterator.next().isExpired(now)) {
+				iterator.remove();
+			}
+		}
+	}
+	
+	/**
+	 * Represents a result in flight or completed.
+	 */
+	private static final class CachedResult {
+		
+		private final ResultFuture resultFuture;
+		
+		/**
+		 * Represents the expiration time, zero until the completion has been handled.
+		 */
+		private volatile long expiresAtNanos;
+		
+		CachedResult(ResultFuture resultFuture) {
+			this.resultFuture = resultFuture;
+		}
+		
+		boolean isExpired(long now) {
+			if (!resultFuture.isDone())
+				return false;
+			if (resultFuture.getResultState() != ResultState.COMPLETED)
+				return true;
+			long expiresAtNanos = this.expiresAtNanos;
+			return expiresAtNanos != 0 && now - expiresAtNanos >= 0;
+		}
+		
+	}
+	
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.async;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Provides an executor starting a virtual thread per task when the runtime supports virtual threads. The executor is 
+ * resolved reflectively, so the class can be used on runtimes without virtual threads.
+ * 
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+final class VirtualThreads {
+	
+	/**
+	 * Logger for this class.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(VirtualThreads.class);
+	
+	/**
+	 * Represents the shared virtual thread per task executor or <code>null</code> if virtual threads are not supported.
+	 */
+	private static final Executor EXECUTOR = createExecutor();
+	
+	private VirtualThreads() {}
+	
+	/**
+	 * Returns <code>true</code> if the runtime supports virtual threads.
+	 * 
+	 * @return boolean Represents the support of virtual threads.
+	 */
+	static boolean isSupported() {
+		return EXECUTOR != null;
+	}
+	
+	/**
+	 * Returns the shared virtual thread per task executor.
+	 * 
+	 * @return Executor Represents the executor or <code>null</code> if virtual threads are not supported.
+	 */
+	static Executor getExecutor() {
+		return EXECUTOR;
+	}
+	
+	private static Executor createExecutor() {
+		try {
+			Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+			return (Executor) method.invoke(null);
+		} catch (NoSuchMethodException noSuchMethodException) {
+			LOGGER.debug("Virtual threads are not supported by the runtime.");
+		} catch (Throwable throwable) {
+			LOGGER.warn("Virtual threads could not be enabled: {}", throwable.getMessage());
+		}
+		return null;
+	}
+	
+}
@@ -0,0 +1,316 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.audit;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.LockSupport;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Audit trail sink which queues the records to a bounded lock-free ring buffer and writes them in batches to the 
+ * delegate sink on a background thread. Behaviour on a full buffer is defined by <code>org.openinfinity.core.audit.BackPressurePolicy</code>. 
+ * The idle writer thread is parked until the next record is queued.
+ * <br/><br/>
+ * Usage with Spring: <br/><br/>
+ * <code>
+ * &lt;bean id="auditTrailSink" class="org.openinfinity.core.audit.AsyncAuditTrailSink" destroy-method="stop"&gt;
+ *   &lt;constructor-arg&gt;&lt;bean class="org.openinfinity.core.audit.LoggingAuditTrailSink"/&gt;&lt;/constructor-arg&gt;
+ *   &lt;property name="backPressurePolicy" value="DROP_OLDEST"/&gt;
+ * &lt;/bean&gt;
+ * </code>
+ *
+ * @author Ilkka Leinonen
+ * @version 1.2.0
+ * @since 3.2.0
+ */
+public class AsyncAuditTrailSink implements AuditTrailSink {
+
+	/**
+	 * Logger for this class.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(AsyncAuditTrailSink.class);
+
+	/**
+	 * Represents the default capacity of the buffer.
+	 */
+	public static final int DEFAULT_CAPACITY = 8192;
+
+	/**
+	 * Represents the default maximum size of the written batches.
+	 */
+	public static final int DEFAULT_BATCH_SIZE = 256;
+
+	/**
+	 * Represents the default sample rate of the <code>BackPressurePolicy.SAMPLE</code> policy.
+	 */
+	public static final int DEFAULT_SAMPLE_RATE = 10;
+
+	/**
+	 * Represents the pause of the blocked caller thread.
+	 */
+	private static final long BLOCKED_PARK_NANOS = TimeUnit.MICROSECONDS.toNanos(50);
+
+	private final AuditTrailSink delegate;
+
+	private final RingBuffer<AuditRecord> buffer;
+
+	private volatile BackPressurePolicy backPressurePolicy = BackPressurePolicy.BLOCK;
+
+	private volatile int batchSize = DEFAULT_BATCH_SIZE;
+
+	private volatile int sampleRate = DEFAULT_SAMPLE_RATE;
+
+	private volatile boolean running;
+
+	private volatile boolean stopped;
+
+	private volatile Thread writerThread;
+
+	private volatile boolean writerParked;
+
+	private final AtomicLong sampleSequence = new AtomicLong();
+
+	private final AtomicLong enqueuedCount = new AtomicLong();
+
+	private final AtomicLong droppedCount = new AtomicLong();
+
+	private final AtomicLong writtenCount = new AtomicLong();
+
+	private final AtomicLong failedCount = new AtomicLong();
+
+	/**
+	 * Creates sink with the default capacity.
+	 * 
+	 * @param delegate Represents the sink where the batches are written.
+	 */
+	public AsyncAuditTrailSink(AuditTrailSink delegate) {
+		this(delegate, DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates sink with the given capacity.
+	 * 
+	 * @param delegate Represents the sink where the batches are written.
+	 * @param capacity Represents the capacity of the buffer, rounded up to the next power of two.
+	 */
+	public AsyncAuditTrailSink(AuditTrailSink delegate, int capacity) {
+		this.delegate = delegate;
+		this.buffer = new RingBuffer<AuditRecord>(capacity);
+	}
+
+	/**
+	 * Setter for the back-pressure policy.
+	 * 
+	 * @param backPressurePolicy Represents the behaviour on a full buffer.
+	 */
+	public void setBackPressurePolicy(BackPressurePolicy backPressurePolicy) {
+		this.backPressurePolicy = backPressurePolicy;
+	}
+
+	/**
+	 * Setter for the maximum size of the written batches.
+	 * 
+	 * @param batchSize Represents the maximum size of the batch, at least 1.
+	 */
+	public void setBatchSize(int batchSize) {
+		if (batchSize < 1)
+			throw new IllegalArgumentException("Batch size must be positive.");
+		this.batchSize = batchSize;
+	}
+
+	/**
+	 * Setter for the sample rate of the <code>BackPressurePolicy.SAMPLE</code> policy.
+	 * 
+	 * @param sampleRate Represents the rate, e.g. 10 queues every tenth record, at least 1.
+	 */
+	public void setSampleRate(int sampleRate) {
+		if (sampleRate < 1)
+			throw new IllegalArgumentException("Sample rate must be positive.");
+		this.sampleRate = sampleRate;
+	}
+
+	/**
+	 * Starts the writer thread. Called automatically on the first written record.
+	 */
+	public synchronized void start() {
+		if (running || stopped)
+			return;
+		running = true;
+		writerThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				writeBatches();
+			}
+		}, "audit-trail-sink");
+		writerThread.setDaemon(true);
+		writerThread.start();
+	}
+
+	/**
+	 * Stops the writer thread after the queued records have been written. Records written after stopping are 
+	 * written to the delegate sink by the calling thread.
+	 */
+	public void stop() {
+		Thread thread;
+		synchronized (this) {
+			stopped = true;
+			if (!running)
+				return;
+			running = false;
+			thread = writerThread;
+		}
+		LockSupport.unpark(thread);
+		try {
+			thread.join();
+		} catch (InterruptedException interruptedException) {
+			Thread.currentThread().interrupt();
+		}
+		drainBuffer();
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return delegate.isEnabled();
+	}
+
+	@Override
+	public void write(AuditRecord auditRecord) {
+		if (!(running || stopped))
+			start();
+		switch (backPressurePolicy) {
+			case DROP_OLDEST : enqueueDroppingOldest(auditRecord); break;
+			case SAMPLE : enqueueSampled(auditRecord); break;
+			default : enqueueBlocking(auditRecord); break;
+		}
+		if (stopped) {
+			// The record may have been queued after the final drain of the stopped writer.
+			drainBuffer();
+		} else if (writerParked) {
+			LockSupport.unpark(writerThread);
+		}
+	}
+
+	@Override
+	public void write(List<AuditRecord> auditRecords) {
+		for (AuditRecord auditRecord : auditRecords)
+			write(auditRecord);
+	}
+
+	private void enqueueBlocking(AuditRecord auditRecord) {
+		while (!buffer.offer(auditRecord)) {
+			if (stopped) {
+				drainBuffer();
+				continue;
+			}
+			LockSupport.unpark(writerThread);
+			LockSupport.parkNanos(this, BLOCKED_PARK_NANOS);
+		}
+		enqueuedCount.incrementAndGet();
+	}
+
+	private void enqueueDroppingOldest(AuditRecord auditRecord) {
+		while (!buffer.offer(auditRecord)) {
+			if (buffer.poll() != null)
+				droppedCount.incrementAndGet();
+		}
+		enqueuedCount.incrementAndGet();
+	}
+
+	private void enqueueSampled(AuditRecord auditRecord) {
+		boolean aboveHighWaterMark = buffer.size() >= buffer.capacity() - (buffer.capacity() >> 2);
+		if ((aboveHighWaterMark && sampleSequence.incrementAndGet() % sampleRate != 0) || !buffer.offer(auditRecord)) {
+			droppedCount.incrementAndGet();
+			return;
+		}
+		enqueuedCount.incrementAndGet();
+	}
+
+	private void drainBuffer() {
+		List<AuditRecord> batch = new ArrayList<AuditRecord>();
+		while (buffer.drainTo(batch, batchSize) > 0) {
+			writeBatch(batch);
+			batch.clear();
+		}
+	}
+
+	private void writeBatches() {
+		List<AuditRecord> batch = new ArrayList<AuditRecord>();
+		while (running || !buffer.isEmpty()) {
+			if (buffer.drainTo(batch, batchSize) == 0) {
+				// Callers unpark the writer after queueing, so the buffer is checked again after announcing the park.
+				writerParked = true;
+				if (running && buffer.isEmpty())
+					LockSupport.park(this);
+				writerParked = false;
+				continue;
+			}
+			writeBatch(batch);
+			batch.clear();
+		}
+	}
+
+	private void writeBatch(List<AuditRecord> batch) {
+		try {
+			delegate.write(batch);
+			writtenCount.addAndGet(batch.size());
+		} catch (Throwable throwable) {
+			failedCount.addAndGet(batch.size());
+			LOGGER.error("Writing of " + batch.size() + " audit trail records failed.", throwable);
+		}
+	}
+
+	/**
+	 * Returns the amount of the queued records.
+	 * 
+	 * @return long Represents the amount of the queued records.
+	 */
+	public long getEnqueuedCount() {
+		return enqueuedCount.get();
+	}
+
+	/**
+	 * Returns the amount of the records dropped by the back-pressure policy.
+	 * 
+	 * @return long Represents the amount of the dropped records.
+	 */
+	public long getDroppedCount() {
+		return droppedCount.get();
+	}
+
+	/**
+	 * Returns the amount of the records written to the delegate sink.
+	 * 
+	 * @return long Represents the amount of the written records.
+	 */
+	public long getWrittenCount() {
+		return writtenCount.get();
+	}
+
+	/**
+	 * Returns the amount of the records the delegate sink failed to write.
+	 * 
+	 * @return long Represents the amount of the failed records.
+	 */
+	public long getFailedCount() {
+		return failedCount.get();
+	}
+
+}
@@ -0,0 +1,213 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.audit;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Represents a single audit trail entry. Records are immutable snapshots of the audited invocation, so they can be 
+ * handed over to other threads and rendered or stored later without touching the original arguments. Records can be 
+ * serialized with <code>org.openinfinity.core.audit.AuditRecordJsonWriter</code> and <code>org.openinfinity.core.audit.AuditRecordBinaryCodec</code>.
+ * <br/><br/>
+ * The arguments are keyed by argument name or argument name and field path in the serialized forms. The rendered audit 
+ * trail line keeps the layout of the earlier releases, where the method is identified by its name and the arguments by 
+ * their class names.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.3.0
+ * @since 3.2.0
+ */
+public final class AuditRecord {
+
+	/**
+	 * Represents the value of the timestamp when timestamp is not audited.
+	 */
+	public static final long NO_TIMESTAMP = Long.MIN_VALUE;
+
+	/**
+	 * Represents the shared ISO-8601 timestamp formatter.
+	 */
+	private static final CachedTimestampFormatter TIMESTAMP_FORMATTER = new CachedTimestampFormatter();
+
+	/**
+	 * Represents the time of the invocation as nanoseconds since the epoch.
+	 */
+	private final long epochNanos;
+
+	/**
+	 * Represents the invoked method as declaring type name and method name, e.g. <code>org.openinfinity.AccountService.create</code>.
+	 */
+	private final String methodId;
+
+	/**
+	 * Represents the username or <code>null</code> if username is not audited.
+	 */
+	private final String username;
+
+	/**
+	 * Represents the granted authorities or <code>null</code> if authorities are not audited.
+	 */
+	private final List<String> authorities;
+
+	/**
+	 * Represents the pre-rendered authorities in form <code>{authority1}{authority2}</code> or <code>null</code> if not available.
+	 */
+	private final String renderedAuthorities;
+
+	/**
+	 * Represents the audited argument values keyed by argument name or argument name and field path.
+	 */
+	private final Map<String, String> arguments;
+
+	/**
+	 * Represents the arguments rendered in the layout of the audit trail line, e.g. <code>org.openinfinity.Account.name=[Name1] </code>, 
+	 * or <code>null</code> if the arguments are rendered from their keys.
+	 */
+	private final String renderedArguments;
+
+	/**
+	 * Constructor for the audit record.
+	 * 
+	 * @param epochNanos Represents the time of the invocation as nanoseconds since the epoch or <code>NO_TIMESTAMP</code>.
+	 * @param methodId Represents the invoked method.
+	 * @param username Represents the username or <code>null</code> if username is not audited.
+	 * @param authorities Represents the granted authorities or <code>null</code> if authorities are not audited.
+	 * @param arguments Represents the audited argument values.
+	 */
+	public AuditRecord(long epochNanos, String methodId, String username, List<String> authorities, Map<String, String> arguments) {
+		this(epochNanos, methodId, username, authorities, null, arguments);
+	}
+
+	/**
+	 * Constructor for the audit record with pre-rendered authorities, e.g. the rendering cached by 
+	 * <code>org.openinfinity.core.security.principal.Identity</code>.
+	 * 
+	 * @param epochNanos Represents the time of the invocation as nanoseconds since the epoch or <code>NO_TIMESTAMP</code>.
+	 * @param methodId Represents the invoked method.
+	 * @param username Represents the username or <code>null</code> if username is not audited.
+	 * @param authorities Represents the granted authorities or <code>null</code> if authorities are not audited.
+	 * @param renderedAuthorities Represents the authorities rendered in form <code>{authority1}{authority2}</code> or <code>null</code>.
+	 * @param arguments Represents the audited argument values.
+	 */
+	public AuditRecord(long epochNanos, String methodId, String username, List<String> authorities, String renderedAuthorities, Map<String, String> arguments) {
+		this(epochNanos, methodId, username, authorities, renderedAuthorities, arguments, null);
+	}
+
+	/**
+	 * Constructor for the audit record with pre-rendered authorities and arguments. Pre-rendered arguments are used only 
+	 * in the audit trail line.
+	 * 
+	 * @param epochNanos Represents the time of the invocation as nanoseconds since the epoch or <code>NO_TIMESTAMP</code>.
+	 * @param methodId Represents the invoked method.
+	 * @param username Represents the username or <code>null</code> if username is not audited.
+	 * @param authorities Represents the granted authorities or <code>null</code> if authorities are not audited.
+	 * @param renderedAuthorities Represents the authorities rendered in form <code>{authority1}{authority2}</code> or <code>null</code>.
+	 * @param arguments Represents the audited argument values.
+	 * @param renderedArguments Represents the arguments rendered in the layout of the audit trail line or <code>null</code>.
+	 */
+	public AuditRecord(long epochNanos, String methodId, String username, List<String> authorities, String renderedAuthorities, Map<String, String> arguments, String renderedArguments) {
+		this.epochNanos = epochNanos;
+		this.methodId = methodId;
+		this.username = username;
+		this.authorities = authorities == null ? null : Collections.unmodifiableList(authorities);
+		this.renderedAuthorities = authorities == null ? null : renderedAuthorities;
+		this.arguments = arguments == null ? Collections.<String, String>emptyMap() : Collections.unmodifiableMap(new LinkedHashMap<String, String>(arguments));
+		this.renderedArguments = renderedArguments;
+	}
+
+	public long getEpochNanos() {
+		return epochNanos;
+	}
+
+	/**
+	 * Returns the time of the invocation as milliseconds since the epoch.
+	 * 
+	 * @return long Represents the epoch milliseconds or <code>NO_TIMESTAMP</code>.
+	 */
+	public long getEpochMillis() {
+		return epochNanos == NO_TIMESTAMP ? NO_TIMESTAMP : Math.floorDiv(epochNanos, TimeUnit.MILLISECONDS.toNanos(1));
+	}
+
+	public String getMethodId() {
+		return methodId;
+	}
+
+	public String getUsername() {
+		return username;
+	}
+
+	public List<String> getAuthorities() {
+		return authorities;
+	}
+
+	public Map<String, String> getArguments() {
+		return arguments;
+	}
+
+	/**
+	 * Returns the audit trail line of the record with ISO-8601 timestamp.
+	 * 
+	 * @return String Represents the rendered audit trail line.
+	 */
+	@Override
+	public String toString() {
+		return render(TimestampFormat.ISO_8601);
+	}
+
+	/**
+	 * Returns the audit trail line of the record.
+	 * 
+	 * @param timestampFormat Represents the rendering of the timestamp.
+	 * @return String Represents the rendered audit trail line.
+	 */
+	public String render(TimestampFormat timestampFormat) {
+		StringBuilder builder = new StringBuilder();
+		if (epochNanos != NO_TIMESTAMP) {
+			builder.append("Timestamp: [");
+			if (timestampFormat == TimestampFormat.EPOCH_MILLIS)
+				builder.append(getEpochMillis());
+			else
+				builder.append(TIMESTAMP_FORMATTER.format(getEpochMillis()));
+			builder.append("] ");
+		}
+		builder.append(" Method: [").append(methodId.substring(methodId.lastIndexOf('.') + 1)).append("] ");
+		if (username != null)
+			builder.append(" Username: [").append(username).append("] ");
+		if (authorities != null) {
+			builder.append(" with granted authorities: [");
+			if (renderedAuthorities != null)
+				builder.append(renderedAuthorities);
+			else
+				for (String authority : authorities)
+					builder.append('{').append(authority).append('}');
+			builder.append("] ");
+		}
+		if (renderedArguments != null) {
+			builder.append(renderedArguments);
+			return builder.toString();
+		}
+		for (Map.Entry<String, String> argument : arguments.entrySet()) {
+			String value = argument.getValue();
+			builder.append(argument.getKey()).append("=[").append(value == null ? "null value" : value).append("] ");
+		}
+		return builder.toString();
+	}
+
+}
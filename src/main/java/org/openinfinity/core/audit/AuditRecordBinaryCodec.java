@@ -0,0 +1,221 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.audit;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Compact binary form of the audit records for high-volume retention. Records are self-delimiting, so several records 
+ * can be written to the same stream one after another. Codec is thread-safe.
+ * <br/><br/>
+ * Format: version byte, flags byte, optional epoch nanos (8 bytes), method id, optional username, optional authorities 
+ * and arguments. Counts are unsigned variable length integers and strings are UTF-8 bytes prefixed with the variable 
+ * length integer <code>length + 1</code>, where zero represents <code>null</code>.
+ * <br/><br/>
+ * Lengths and counts of the read records are validated before allocating anything for them. Strings longer than 
+ * <code>MAX_STRING_LENGTH</code> bytes and counts above <code>MAX_COUNT</code> are rejected, as well as lengths and counts 
+ * exceeding the remaining bytes when reading with <code>fromBytes(byte[])</code>.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.1.0
+ * @since 3.2.0
+ */
+public class AuditRecordBinaryCodec {
+
+	private static final int VERSION = 1;
+
+	private static final int TIMESTAMP_FLAG = 1;
+
+	private static final int USERNAME_FLAG = 1 << 1;
+
+	private static final int AUTHORITIES_FLAG = 1 << 2;
+
+	/**
+	 * Represents the maximum length of a single string in bytes.
+	 */
+	public static final int MAX_STRING_LENGTH = 16 * 1024 * 1024;
+
+	/**
+	 * Represents the maximum number of authorities or arguments of a single record.
+	 */
+	public static final int MAX_COUNT = 64 * 1024;
+
+	/**
+	 * Writes the record to the output.
+	 * 
+	 * @param auditRecord Represents the audit record.
+	 * @param output Represents the target output.
+	 * @throws IOException Thrown if writing fails.
+	 */
+	public void write(AuditRecord auditRecord, DataOutput output) throws IOException {
+		int flags = 0;
+		if (auditRecord.getEpochNanos() != AuditRecord.NO_TIMESTAMP)
+			flags |= TIMESTAMP_FLAG;
+		if (auditRecord.getUsername() != null)
+			flags |= USERNAME_FLAG;
+		if (auditRecord.getAuthorities() != null)
+			flags |= AUTHORITIES_FLAG;
+		output.writeByte(VERSION);
+		output.writeByte(flags);
+		if ((flags & TIMESTAMP_FLAG) != 0)
+			output.writeLong(auditRecord.getEpochNanos());
+		writeString(auditRecord.getMethodId(), output);
+		if ((flags & USERNAME_FLAG) != 0)
+			writeString(auditRecord.getUsername(), output);
+		if ((flags & AUTHORITIES_FLAG) != 0) {
+			writeVarInt(auditRecord.getAuthorities().size(), output);
+			for (String authority : auditRecord.getAuthorities())
+				writeString(authority, output);
+		}
+		writeVarInt(auditRecord.getArguments().size(), output);
+		for (Map.Entry<String, String> argument : auditRecord.getArguments().entrySet()) {
+			writeString(argument.getKey(), output);
+			writeString(argument.getValue(), output);
+		}
+	}
+
+	/**
+	 * Reads a single record from the input.
+	 * 
+	 * @param input Represents the source input.
+	 * @return AuditRecord Represents the read audit record.
+	 * @throws IOException Thrown if reading fails or the record version is not supported.
+	 */
+	public AuditRecord read(DataInput input) throws IOException {
+		return read(input, null);
+	}
+
+	/**
+	 * Reads a single record from the input. Lengths and counts are bounded by the remaining bytes of the source when available.
+	 */
+	private AuditRecord read(DataInput input, ByteArrayInputStream source) throws IOException {
+		int version = input.readUnsignedByte();
+		if (version != VERSION)
+			throw new IOException("Unsupported audit record version: " + version);
+		int flags = input.readUnsignedByte();
+		long epochNanos = (flags & TIMESTAMP_FLAG) != 0 ? input.readLong() : AuditRecord.NO_TIMESTAMP;
+		String methodId = readString(input, source);
+		String username = (flags & USERNAME_FLAG) != 0 ? readString(input, source) : null;
+		List<String> authorities = null;
+		if ((flags & AUTHORITIES_FLAG) != 0) {
+			int size = readCount(input, source, 1);
+			authorities = new ArrayList<String>(size);
+			for (int i = 0; i < size; i++)
+				authorities.add(readString(input, source));
+		}
+		int size = readCount(input, source, 2);
+		Map<String, String> arguments = new LinkedHashMap<String, String>();
+		for (int i = 0; i < size; i++)
+			arguments.put(readString(input, source), readString(input, source));
+		return new AuditRecord(epochNanos, methodId, username, authorities, arguments);
+	}
+
+	/**
+	 * Returns the binary form of the record.
+	 * 
+	 * @param auditRecord Represents the audit record.
+	 * @return byte[] Represents the binary form of the record.
+	 */
+	public byte[] toBytes(AuditRecord auditRecord) {
+		ByteArrayOutputStream byteArrayOutputStream = new ByteArrayOutputStream(128);
+		try {
+			write(auditRecord, new DataOutputStream(byteArrayOutputStream));
+		} catch (IOException ioException) {
+			throw new IllegalStateException("Writing audit record failed.", ioException);
+		}
+		return byteArrayOutputStream.toByteArray();
+	}
+
+	/**
+	 * Returns the record of the binary form.
+	 * 
+	 * @param bytes Represents the binary form of the record.
+	 * @return AuditRecord Represents the audit record.
+	 * @throws IOException Thrown if the bytes are not a valid audit record.
+	 */
+	public AuditRecord fromBytes(byte[] bytes) throws IOException {
+		ByteArrayInputStream source = new ByteArrayInputStream(bytes);
+		return read(new DataInputStream(source), source);
+	}
+
+	private void writeString(String value, DataOutput output) throws IOException {
+		if (value == null) {
+			writeVarInt(0, output);
+			return;
+		}
+		byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+		writeVarInt(bytes.length + 1, output);
+		output.write(bytes);
+	}
+
+	private String readString(DataInput input, ByteArrayInputStream source) throws IOException {
+		int length = readVarInt(input);
+		if (length == 0)
+			return null;
+		if (length - 1 > MAX_STRING_LENGTH || (source != null && length - 1 > source.available()))
+			throw new IOException("Invalid audit record string length: " + (length - 1));
+		byte[] bytes = new byte[length - 1];
+		input.readFully(bytes);
+		return new String(bytes, StandardCharsets.UTF_8);
+	}
+
+	/**
+	 * Reads a count of elements, where each element takes at least the given number of bytes.
+	 */
+	private int readCount(DataInput input, ByteArrayInputStream source, int minimumElementLength) throws IOException {
+		int count = readVarInt(input);
+		if (count > MAX_COUNT || (source != null && (long) count * minimumElementLength > source.available()))
+			throw new IOException("Invalid audit record element count: " + count);
+		return count;
+	}
+
+	private void writeVarInt(int value, DataOutput output) throws IOException {
+		while ((value & ~0x7F) != 0) {
+			output.writeByte((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		output.writeByte(value);
+	}
+
+	/**
+	 * Reads an unsigned variable length integer. Values above <code>Integer.MAX_VALUE</code> are rejected, so the read 
+	 * lengths and counts are never negative.
+	 */
+	private int readVarInt(DataInput input) throws IOException {
+		int value = 0;
+		for (int shift = 0; shift < 32; shift += 7) {
+			int b = input.readUnsignedByte();
+			if (shift == 28 && (b & 0x7F) > 0x07)
+				break;
+			value |= (b & 0x7F) << shift;
+			if ((b & 0x80) == 0)
+				return value;
+		}
+		throw new IOException("Malformed variable length integer.");
+	}
+
+}
@@ -0,0 +1,150 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.audit;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.util.List;
+import java.util.Map;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+
+/**
+ * Writes audit records as JSON with the Jackson streaming API. Batches are written as newline delimited JSON, one 
+ * record per line. Writer is thread-safe.
+ * <br/><br/>
+ * Format: <br/><br/>
+ * <code>
+ * {"epochNanos":1476000000000000000,"methodId":"org.openinfinity.AccountService.create","username":"user","authorities":["ROLE_USER"],"arguments":{"account.name":"Name1"}}
+ * </code>
+ *
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+public class AuditRecordJsonWriter {
+
+	/**
+	 * Represents the shared JSON factory.
+	 */
+	private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+	/**
+	 * Writes the record to the stream as UTF-8 encoded JSON.
+	 * 
+	 * @param auditRecord Represents the audit record.
+	 * @param outputStream Represents the target stream, which is not closed.
+	 * @throws IOException Thrown if writing fails.
+	 */
+	public void write(AuditRecord auditRecord, OutputStream outputStream) throws IOException {
+		JsonGenerator jsonGenerator = createJsonGenerator(outputStream);
+		writeRecord(auditRecord, jsonGenerator);
+		jsonGenerator.close();
+	}
+
+	/**
+	 * Writes the records to the stream as UTF-8 encoded newline delimited JSON.
+	 * 
+	 * @param auditRecords Represents the audit records.
+	 * @param outputStream Represents the target stream, which is not closed.
+	 * @throws IOException Thrown if writing fails.
+	 */
+	public void write(List<AuditRecord> auditRecords, OutputStream outputStream) throws IOException {
+		JsonGenerator jsonGenerator = createJsonGenerator(outputStream);
+		jsonGenerator.setRootValueSeparator(null);
+		for (AuditRecord auditRecord : auditRecords) {
+			writeRecord(auditRecord, jsonGenerator);
+			jsonGenerator.writeRaw('\n');
+		}
+		jsonGenerator.close();
+	}
+
+	/**
+	 * Returns the record as JSON.
+	 * 
+	 * @param auditRecord Represents the audit record.
+	 * @return String Represents the JSON presentation of the record.
+	 */
+	public String toJson(AuditRecord auditRecord) {
+		StringWriter writer = new StringWriter();
+		try {
+			JsonGenerator jsonGenerator = createJsonGenerator(writer);
+			writeRecord(auditRecord, jsonGenerator);
+			jsonGenerator.close();
+		} catch (IOException ioException) {
+			throw new IllegalStateException("Writing audit record to JSON failed.", ioException);
+		}
+		return writer.toString();
+	}
+
+	/**
+	 * Returns the argument map as JSON object.
+	 * 
+	 * @param arguments Represents the arguments of an audit record.
+	 * @return String Represents the JSON presentation of the arguments.
+	 */
+	public String toJson(Map<String, String> arguments) {
+		StringWriter writer = new StringWriter();
+		try {
+			JsonGenerator jsonGenerator = createJsonGenerator(writer);
+			writeArguments(arguments, jsonGenerator);
+			jsonGenerator.close();
+		} catch (IOException ioException) {
+			throw new IllegalStateException("Writing audit record arguments to JSON failed.", ioException);
+		}
+		return writer.toString();
+	}
+
+	private JsonGenerator createJsonGenerator(OutputStream outputStream) throws IOException {
+		JsonGenerator jsonGenerator = JSON_FACTORY.createGenerator(outputStream, JsonEncoding.UTF8);
+		jsonGenerator.disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+		return jsonGenerator;
+	}
+
+	private JsonGenerator createJsonGenerator(Writer writer) throws IOException {
+		return JSON_FACTORY.createGenerator(writer);
+	}
+
+	private void writeRecord(AuditRecord auditRecord, JsonGenerator jsonGenerator) throws IOException {
+		jsonGenerator.writeStartObject();
+		if (auditRecord.getEpochNanos() != AuditRecord.NO_TIMESTAMP)
+			jsonGenerator.writeNumberField("epochNanos", auditRecord.getEpochNanos());
+		jsonGenerator.writeStringField("methodId", auditRecord.getMethodId());
+		if (auditRecord.getUsername() != null)
+			jsonGenerator.writeStringField("username", auditRecord.getUsername());
+		if (auditRecord.getAuthorities() != null) {
+			jsonGenerator.writeArrayFieldStart("authorities");
+			for (String authority : auditRecord.getAuthorities())
+				jsonGenerator.writeString(authority);
+			jsonGenerator.writeEndArray();
+		}
+		jsonGenerator.writeFieldName("arguments");
+		writeArguments(auditRecord.getArguments(), jsonGenerator);
+		jsonGenerator.writeEndObject();
+	}
+
+	private void writeArguments(Map<String, String> arguments, JsonGenerator jsonGenerator) throws IOException {
+		jsonGenerator.writeStartObject();
+		for (Map.Entry<String, String> argument : arguments.entrySet())
+			jsonGenerator.writeStringField(argument.getKey(), argument.getValue());
+		jsonGenerator.writeEndObject();
+	}
+
+}
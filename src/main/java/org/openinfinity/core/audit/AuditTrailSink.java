@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.audit;
+
+import java.util.List;
+
+/**
+ * Represents the storage of the audit trail records written by <code>org.openinfinity.core.aspect.AuditTrailAspect</code>.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+public interface AuditTrailSink {
+
+	/**
+	 * Returns <code>true</code> if the sink stores records. Audit records are not created for disabled sinks.
+	 * 
+	 * @return boolean Represents the state of the sink.
+	 */
+	boolean isEnabled();
+
+	/**
+	 * Writes a single audit record.
+	 * 
+	 * @param auditRecord Represents the audit record.
+	 */
+	void write(AuditRecord auditRecord);
+
+	/**
+	 * Writes a batch of audit records.
+	 * 
+	 * @param auditRecords Represents the audit records in the order of the invocations.
+	 */
+	void write(List<AuditRecord> auditRecords);
+
+}
@@ -0,0 +1,43 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.audit;
+
+/**
+ * Defines the behaviour of <code>org.openinfinity.core.audit.AsyncAuditTrailSink</code> when records are produced faster than 
+ * they can be written.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+public enum BackPressurePolicy {
+
+	/**
+	 * Caller waits until there is room for the record. No records are lost.
+	 */
+	BLOCK,
+
+	/**
+	 * Oldest queued record is dropped to make room for the new record.
+	 */
+	DROP_OLDEST,
+
+	/**
+	 * Only every n:th record is queued while the buffer is above its high-water mark. Records which do not fit are dropped.
+	 */
+	SAMPLE
+
+}
@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.audit;
+
+import org.joda.time.format.DateTimeFormatter;
+import org.joda.time.format.ISODateTimeFormat;
+
+/**
+ * ISO-8601 timestamp formatter which caches the rendering of the latest millisecond. Audited calls arriving within 
+ * the same millisecond share the same rendered timestamp. Timestamps are rendered in the default time zone of the JVM, 
+ * independent of the zone of the clock the instant was read from. Formatter is thread-safe.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.1.0
+ * @since 3.2.0
+ */
+final class CachedTimestampFormatter {
+
+	private static final DateTimeFormatter ISO_DATE_TIME_FORMATTER = ISODateTimeFormat.dateTime();
+
+	/**
+	 * Represents the latest rendered millisecond.
+	 */
+	private volatile RenderedTimestamp renderedTimestamp = new RenderedTimestamp(Long.MIN_VALUE, null);
+
+	/**
+	 * Returns the ISO-8601 presentation of the epoch milliseconds.
+	 * 
+	 * @param epochMillis Represents the milliseconds since the epoch.
+	 * @return String Represents the ISO-8601 presentation.
+	 */
+	String format(long epochMillis) {
+		RenderedTimestamp current = renderedTimestamp;
+		if (current.epochMillis == epochMillis)
+			return current.text;
+		String text = ISO_DATE_TIME_FORMATTER.print(epochMillis);
+		renderedTimestamp = new RenderedTimestamp(epochMillis, text);
+		return text;
+	}
+
+	private static final class RenderedTimestamp {
+
+		private final long epochMillis;
+
+		private final String text;
+
+		RenderedTimestamp(long epochMillis, String text) {
+			this.epochMillis = epochMillis;
+			this.text = text;
+		}
+
+	}
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.audit;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.util.Assert;
+import org.springframework.util.StringUtils;
+
+/**
+ * Audit trail sink writing the records to a database table with JDBC batch inserts. Usually wrapped with 
+ * <code>org.openinfinity.core.audit.AsyncAuditTrailSink</code> so that batches are written outside of the audited calls.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+public class JdbcAuditTrailSink implements AuditTrailSink {
+
+	/**
+	 * Represents the default insert statement. Parameters are timestamp, method id, username, comma separated authorities and arguments as JSON.
+	 */
+	public static final String DEFAULT_INSERT_SQL = "INSERT INTO AUDIT_TRAIL (TIMESTAMP_COLUMN, METHOD_COLUMN, USERNAME_COLUMN, AUTHORITIES_COLUMN, ARGUMENTS_COLUMN) VALUES (?, ?, ?, ?, ?)";
+
+	private static final long NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+	/**
+	 * Writes the arguments as JSON to the arguments column.
+	 */
+	private final AuditRecordJsonWriter jsonWriter = new AuditRecordJsonWriter();
+
+	/**
+	 * JDBC template for accessing the audit trail database.
+	 */
+	private final JdbcTemplate jdbcTemplate;
+
+	/**
+	 * Represents the insert statement of a single record.
+	 */
+	private String insertSql = DEFAULT_INSERT_SQL;
+
+	/**
+	 * Public constructor for the class.
+	 * 
+	 * @param dataSource Represents the audit trail data source.
+	 */
+	public JdbcAuditTrailSink(DataSource dataSource) {
+		Assert.notNull(dataSource, "Please define data source for writing the audit trail.");
+		this.jdbcTemplate = new JdbcTemplate(dataSource);
+	}
+
+	/**
+	 * Setter for the insert statement.
+	 * 
+	 * @param insertSql Represents the insert statement with timestamp, method, username, authorities and arguments parameters.
+	 */
+	public void setInsertSql(String insertSql) {
+		this.insertSql = insertSql;
+	}
+
+	private Timestamp createTimestamp(AuditRecord auditRecord) {
+		if (auditRecord.getEpochNanos() == AuditRecord.NO_TIMESTAMP)
+			return null;
+		Timestamp timestamp = new Timestamp(auditRecord.getEpochMillis());
+		timestamp.setNanos((int) Math.floorMod(auditRecord.getEpochNanos(), NANOS_PER_SECOND));
+		return timestamp;
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return true;
+	}
+
+	@Override
+	public void write(AuditRecord auditRecord) {
+		write(Collections.singletonList(auditRecord));
+	}
+
+	@Override
+	public void write(final List<AuditRecord> auditRecords) {
+		jdbcTemplate.batchUpdate(insertSql, new BatchPreparedStatementSetter() {
+			@Override
+			public void setValues(PreparedStatement preparedStatement, int index) throws SQLException {
+				AuditRecord auditRecord = auditRecords.get(index);
+				preparedStatement.setTimestamp(1, createTimestamp(auditRecord));
+				preparedStatement.setString(2, auditRecord.getMethodId());
+				preparedStatement.setString(3, auditRecord.getUsername());
+				preparedStatement.setString(4, auditRecord.getAuthorities() == null ? null : StringUtils.collectionToCommaDelimitedString(auditRecord.getAuthorities()));
+				preparedStatement.setString(5, jsonWriter.toJson(auditRecord.getArguments()));
+			}
+
+			@Override
+			public int getBatchSize() {
+				return auditRecords.size();
+			}
+		});
+	}
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.audit;
+
+import java.util.List;
+
+import org.openinfinity.core.aspect.AuditTrailAspect;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Audit trail sink writing the records with INFO level to a logger. The actual storage (file, JDBC, JMS etc.) can be 
+ * defined with the appenders of the logger. By default the logger of <code>org.openinfinity.core.aspect.AuditTrailAspect</code> is used.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+public class LoggingAuditTrailSink implements AuditTrailSink {
+
+	/**
+	 * Represents the audit trail logger.
+	 */
+	private final Logger logger;
+
+	/**
+	 * Represents the rendering of the timestamps.
+	 */
+	private TimestampFormat timestampFormat = TimestampFormat.ISO_8601;
+
+	/**
+	 * Creates sink writing to the logger of <code>org.openinfinity.core.aspect.AuditTrailAspect</code>.
+	 */
+	public LoggingAuditTrailSink() {
+		this(AuditTrailAspect.class.getName());
+	}
+
+	/**
+	 * Creates sink writing to the named logger.
+	 * 
+	 * @param loggerName Represents the name of the audit trail logger.
+	 */
+	public LoggingAuditTrailSink(String loggerName) {
+		this.logger = LoggerFactory.getLogger(loggerName);
+	}
+
+	/**
+	 * Setter for the timestamp format. By default timestamps are rendered as ISO-8601.
+	 * 
+	 * @param timestampFormat Represents the rendering of the timestamps.
+	 */
+	public void setTimestampFormat(TimestampFormat timestampFormat) {
+		this.timestampFormat = timestampFormat;
+	}
+
+	@Override
+	public boolean isEnabled() {
+		return logger.isInfoEnabled();
+	}
+
+	@Override
+	public void write(AuditRecord auditRecord) {
+		if (logger.isInfoEnabled())
+			logger.info(auditRecord.render(timestampFormat));
+	}
+
+	@Override
+	public void write(List<AuditRecord> auditRecords) {
+		for (AuditRecord auditRecord : auditRecords)
+			write(auditRecord);
+	}
+
+}
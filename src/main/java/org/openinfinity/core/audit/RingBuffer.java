@@ -0,0 +1,151 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.audit;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Bounded lock-free multi-producer multi-consumer ring buffer. Each slot carries a sequence number telling whether 
+ * the slot is free for the producer or published for the consumer of the current lap, so producers and consumers 
+ * only contend on their own cursor.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ *
+ * @param <E> Represents the type of the elements.
+ */
+final class RingBuffer<E> {
+
+	private final int mask;
+
+	private final AtomicReferenceArray<E> elements;
+
+	private final AtomicLongArray sequences;
+
+	private final AtomicLong head = new AtomicLong();
+
+	private final AtomicLong tail = new AtomicLong();
+
+	/**
+	 * Creates ring buffer with the given capacity rounded up to the next power of two.
+	 * 
+	 * @param capacity Represents the minimum capacity of the buffer.
+	 */
+	RingBuffer(int capacity) {
+		if (capacity < 1 || capacity > 1 << 30)
+			throw new IllegalArgumentException("Capacity must be between 1 and 2^30: " + capacity);
+		int size = Integer.highestOneBit(capacity);
+		if (size < capacity)
+			size <<= 1;
+		this.mask = size - 1;
+		this.elements = new AtomicReferenceArray<E>(size);
+		this.sequences = new AtomicLongArray(size);
+		for (int i = 0; i < size; i++)
+			sequences.set(i, i);
+	}
+
+	int capacity() {
+		return mask + 1;
+	}
+
+	/**
+	 * Adds the element to the buffer.
+	 * 
+	 * @param element Represents the element to be added.
+	 * @return boolean Returns <code>false</code> if the buffer is full.
+	 */
+	boolean offer(E element) {
+		long position = tail.get();
+		for (;;) {
+			int index = (int) (position & mask);
+			long difference = sequences.get(index) - position;
+			if (difference == 0) {
+				if (tail.compareAndSet(position, position + 1)) {
+					elements.set(index, element);
+					sequences.set(index, position + 1);
+					return true;
+				}
+				position = tail.get();
+			} else if (difference < 0) {
+				return false;
+			} else {
+				position = tail.get();
+			}
+		}
+	}
+
+	/**
+	 * Removes the oldest element from the buffer.
+	 * 
+	 * @return E Returns the oldest element or <code>null</code> if the buffer is empty.
+	 */
+	E poll() {
+		long position = head.get();
+		for (;;) {
+			int index = (int) (position & mask);
+			long difference = sequences.get(index) - (position + 1);
+			if (difference == 0) {
+				if (head.compareAndSet(position, position + 1)) {
+					E element = elements.get(index);
+					elements.set(index, null);
+					sequences.set(index, position + mask + 1);
+					return element;
+				}
+				position = head.get();
+			} else if (difference < 0) {
+				return null;
+			} else {
+				position = head.get();
+			}
+		}
+	}
+
+	/**
+	 * Moves at most the given amount of the oldest elements to the target list.
+	 * 
+	 * @param target Represents the list where the elements are added.
+	 * @param maxElements Represents the maximum amount of the moved elements.
+	 * @return int Returns the amount of the moved elements.
+	 */
+	int drainTo(List<E> target, int maxElements) {
+		int count = 0;
+		E element;
+		while (count < maxElements && (element = poll()) != null) {
+			target.add(element);
+			count++;
+		}
+		return count;
+	}
+
+	/**
+	 * Returns the approximate amount of the elements in the buffer.
+	 * 
+	 * @return int Represents the amount of the elements.
+	 */
+	int size() {
+		long size = tail.get() - head.get();
+		return (int) Math.max(0, Math.min(size, capacity()));
+	}
+
+	boolean isEmpty() {
+		return size() == 0;
+	}
+
+}
@@ -0,0 +1,37 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.audit;
+
+/**
+ * Defines the rendering of the audit record timestamps.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+public enum TimestampFormat {
+
+	/**
+	 * ISO-8601 date time with milliseconds in the default time zone, e.g. <code>2016-10-09T10:40:00.123+03:00</code>.
+	 */
+	ISO_8601,
+
+	/**
+	 * Milliseconds since the epoch, e.g. <code>1476000000123</code>.
+	 */
+	EPOCH_MILLIS
+
+}
@@ -0,0 +1,265 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.crypto;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.security.SecureRandom;
+
+import org.openinfinity.core.util.ExceptionUtil;
+
+/**
+ * Chunked and framed stream encryption on top of <code>org.openinfinity.core.crypto.CryptoSupport</code>. 
+ * The stream starts with a header containing magic number, version, chunk size and random stream id. Each chunk is written as 
+ * a frame of ciphertext length and ciphertext. The encrypted chunk contains the stream id, sequence number and final flag in 
+ * front of the plain data, so that reordered, replayed, spliced or truncated chunks are detected on decryption by the 
+ * authentication of the crypter. Memory usage is bound by the chunk size regardless of the stream size.
+ * <br/><br/>
+ * Decryption sizes its buffers by the frame lengths of the stream, so chunks encrypted with a retired key set whose 
+ * ciphertext overhead differs from the current key set are decrypted as well.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.1.0
+ * @since 3.2.0
+ */
+final class ChunkedStreamCipher {
+
+	/**
+	 * Default size of the plain data in a single chunk.
+	 */
+	static final int DEFAULT_CHUNK_SIZE = 64 * 1024;
+	
+	/**
+	 * Maximum accepted chunk size of the encrypted stream.
+	 */
+	static final int MAX_CHUNK_SIZE = 16 * 1024 * 1024;
+	
+	/**
+	 * Represents the magic number "OICS" of the encrypted stream.
+	 */
+	private static final int MAGIC = 0x4F494353;
+	
+	private static final byte VERSION = 1;
+	
+	private static final int STREAM_ID_LENGTH = 16;
+	
+	private static final int HEADER_LENGTH = 4 + 1 + 4 + STREAM_ID_LENGTH;
+	
+	/**
+	 * Represents the length of the stream id, sequence number and final flag in front of the plain data of a chunk.
+	 */
+	private static final int CHUNK_PREFIX_LENGTH = STREAM_ID_LENGTH + 8 + 1;
+	
+	private static final int FRAME_LENGTH_SIZE = 4;
+	
+	/**
+	 * Represents the maximum accepted ciphertext overhead of a chunk, e.g. key hash, initialization vector, padding and signature.
+	 */
+	private static final int MAX_CIPHERTEXT_OVERHEAD = 4096;
+	
+	private static final SecureRandom SECURE_RANDOM = new SecureRandom();
+	
+	private final CryptoSupport cryptoSupport;
+	
+	private final int chunkSize;
+	
+	ChunkedStreamCipher(CryptoSupport cryptoSupport, int chunkSize) {
+		if (chunkSize <= 0 || chunkSize > MAX_CHUNK_SIZE)
+			throw new IllegalArgumentException("Chunk size must be between 1 and " + MAX_CHUNK_SIZE + " bytes.");
+		this.cryptoSupport = cryptoSupport;
+		this.chunkSize = chunkSize;
+	}
+	
+	/**
+	 * Encrypts the source channel to the target channel.
+	 * 
+	 * @param source Represents the blocking plain source.
+	 * @param target Represents the encrypted target.
+	 * @return long Represents the number of plain bytes encrypted.
+	 * @throws IOException Represents the failure of the channels.
+	 */
+	long encrypt(ReadableByteChannel source, WritableByteChannel target) throws IOException {
+		byte[] streamId = writeHeader(target);
+		ByteBuffer plainBuffer = ByteBuffer.allocate(CHUNK_PREFIX_LENGTH + chunkSize);
+		ByteBuffer cipherBuffer = allocateCipherBuffer();
+		long sequence = 0;
+		long total = 0;
+		boolean last;
+		do {
+			plainBuffer.clear();
+			plainBuffer.position(CHUNK_PREFIX_LENGTH);
+			last = !readFully(source, plainBuffer);
+			total += plainBuffer.position() - CHUNK_PREFIX_LENGTH;
+			writeChunk(target, streamId, sequence++, last, plainBuffer, cipherBuffer);
+		} while (!last);
+		return total;
+	}
+	
+	/**
+	 * Encrypts the source file from its current position. The size of the file is known up front, so the final chunk is 
+	 * detected without reading past the end and each chunk is read with positional reads directly into the plain buffer.
+	 * 
+	 * @param source Represents the plain source file.
+	 * @param target Represents the encrypted target.
+	 * @return long Represents the number of plain bytes encrypted.
+	 * @throws IOException Represents the failure of the channels.
+	 */
+	long encrypt(FileChannel source, WritableByteChannel target) throws IOException {
+		byte[] streamId = writeHeader(target);
+		ByteBuffer plainBuffer = ByteBuffer.allocate(CHUNK_PREFIX_LENGTH + chunkSize);
+		ByteBuffer cipherBuffer = allocateCipherBuffer();
+		long start = source.position();
+		long size = source.size();
+		long position = start;
+		long sequence = 0;
+		boolean last;
+		do {
+			int length = (int) Math.min(chunkSize, Math.max(0, size - position));
+			plainBuffer.clear();
+			plainBuffer.position(CHUNK_PREFIX_LENGTH);
+			plainBuffer.limit(CHUNK_PREFIX_LENGTH + length);
+			while (plainBuffer.hasRemaining()) {
+				if (source.read(plainBuffer, position + plainBuffer.position() - CHUNK_PREFIX_LENGTH) < 0)
+					ExceptionUtil.throwSystemException("Source file was truncated during encryption.");
+			}
+			position += length;
+			last = position >= size;
+			writeChunk(target, streamId, sequence++, last, plainBuffer, cipherBuffer);
+		} while (!last);
+		source.position(position);
+		return position - start;
+	}
+	
+	/**
+	 * Decrypts the source channel to the target channel. Reading stops after the final chunk.
+	 * 
+	 * @param source Represents the blocking encrypted source.
+	 * @param target Represents the plain target.
+	 * @return long Represents the number of plain bytes decrypted.
+	 * @throws IOException Represents the failure of the channels.
+	 */
+	long decrypt(ReadableByteChannel source, WritableByteChannel target) throws IOException {
+		ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+		if (!readFully(source, header))
+			ExceptionUtil.throwSystemException("Encrypted stream header is truncated.");
+		header.flip();
+		if (header.getInt() != MAGIC || header.get() != VERSION)
+			ExceptionUtil.throwSystemException("Unsupported encrypted stream format.");
+		int streamChunkSize = header.getInt();
+		if (streamChunkSize <= 0 || streamChunkSize > MAX_CHUNK_SIZE)
+			ExceptionUtil.throwSystemException("Invalid chunk size [" + streamChunkSize + "] in encrypted stream.");
+		byte[] streamId = new byte[STREAM_ID_LENGTH];
+		header.get(streamId);
+		int maximumPlainLength = CHUNK_PREFIX_LENGTH + streamChunkSize;
+		int maximumCiphertextLength = maximumPlainLength + MAX_CIPHERTEXT_OVERHEAD;
+		int bufferSize = Math.min(Math.max(maximumPlainLength, cryptoSupport.ciphertextSize(maximumPlainLength)), maximumCiphertextLength);
+		ByteBuffer lengthBuffer = ByteBuffer.allocate(FRAME_LENGTH_SIZE);
+		ByteBuffer cipherBuffer = ByteBuffer.allocate(bufferSize);
+		ByteBuffer plainBuffer = ByteBuffer.allocate(bufferSize);
+		long sequence = 0;
+		long total = 0;
+		boolean last = false;
+		while (!last) {
+			lengthBuffer.clear();
+			if (!readFully(source, lengthBuffer))
+				ExceptionUtil.throwSystemException("Encrypted stream is truncated after chunk [" + sequence + "].");
+			int length = lengthBuffer.getInt(0);
+			if (length <= 0 || length > maximumCiphertextLength)
+				ExceptionUtil.throwSystemException("Invalid frame length [" + length + "] in encrypted stream.");
+			if (length > cipherBuffer.capacity()) {
+				// Chunk was encrypted with a key set whose ciphertext is larger than the one of the current key set.
+				cipherBuffer = ByteBuffer.allocate(length);
+				plainBuffer = ByteBuffer.allocate(length);
+			}
+			cipherBuffer.clear();
+			cipherBuffer.limit(length);
+			if (!readFully(source, cipherBuffer))
+				ExceptionUtil.throwSystemException("Encrypted stream is truncated in chunk [" + sequence + "].");
+			cipherBuffer.flip();
+			plainBuffer.clear();
+			cryptoSupport.decrypt(cipherBuffer, plainBuffer);
+			plainBuffer.flip();
+			if (plainBuffer.remaining() < CHUNK_PREFIX_LENGTH || plainBuffer.remaining() > maximumPlainLength)
+				ExceptionUtil.throwSystemException("Invalid chunk [" + sequence + "] in encrypted stream.");
+			for (int i = 0; i < STREAM_ID_LENGTH; i++) {
+				if (plainBuffer.get() != streamId[i])
+					ExceptionUtil.throwSystemException("Chunk [" + sequence + "] does not belong to the encrypted stream.");
+			}
+			if (plainBuffer.getLong() != sequence)
+				ExceptionUtil.throwSystemException("Chunk [" + sequence + "] is out of order in encrypted stream.");
+			last = plainBuffer.get() == 1;
+			sequence++;
+			total += plainBuffer.remaining();
+			writeFully(target, plainBuffer);
+		}
+		return total;
+	}
+	
+	private byte[] writeHeader(WritableByteChannel target) throws IOException {
+		byte[] streamId = new byte[STREAM_ID_LENGTH];
+		SECURE_RANDOM.nextBytes(streamId);
+		ByteBuffer header = ByteBuffer.allocate(HEADER_LENGTH);
+		header.putInt(MAGIC).put(VERSION).putInt(chunkSize).put(streamId);
+		header.flip();
+		writeFully(target, header);
+		return streamId;
+	}
+	
+	private ByteBuffer allocateCipherBuffer() {
+		return ByteBuffer.allocate(FRAME_LENGTH_SIZE + cryptoSupport.ciphertextSize(CHUNK_PREFIX_LENGTH + chunkSize));
+	}
+	
+	/**
+	 * Encrypts the chunk whose plain data is in the buffer after the prefix, up to the current position, and writes it as a frame.
+	 */
+	private void writeChunk(WritableByteChannel target, byte[] streamId, long sequence, boolean last, ByteBuffer plainBuffer, ByteBuffer cipherBuffer) throws IOException {
+		for (int i = 0; i < STREAM_ID_LENGTH; i++) {
+			plainBuffer.put(i, streamId[i]);
+		}
+		plainBuffer.putLong(STREAM_ID_LENGTH, sequence);
+		plainBuffer.put(STREAM_ID_LENGTH + 8, last ? (byte) 1 : (byte) 0);
+		plainBuffer.flip();
+		cipherBuffer.clear();
+		cipherBuffer.position(FRAME_LENGTH_SIZE);
+		cryptoSupport.encrypt(plainBuffer, cipherBuffer);
+		cipherBuffer.putInt(0, cipherBuffer.position() - FRAME_LENGTH_SIZE);
+		cipherBuffer.flip();
+		writeFully(target, cipherBuffer);
+	}
+	
+	/**
+	 * Reads until the buffer is full or the end of the channel is reached.
+	 * 
+	 * @return boolean Returns <code>false</code> if the end of the channel was reached before the buffer was full.
+	 */
+	private static boolean readFully(ReadableByteChannel source, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			if (source.read(buffer) < 0)
+				return false;
+		}
+		return true;
+	}
+	
+	private static void writeFully(WritableByteChannel target, ByteBuffer buffer) throws IOException {
+		while (buffer.hasRemaining()) {
+			target.write(buffer);
+		}
+	}
+	
+}
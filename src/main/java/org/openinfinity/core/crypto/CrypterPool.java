@@ -0,0 +1,197 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.crypto;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.keyczar.Crypter;
+import org.keyczar.exceptions.KeyczarException;
+import org.openinfinity.core.util.ExceptionUtil;
+
+/**
+ * Bounded pool of Keyczar <code>org.keyczar.Crypter</code> instances sharing the same key set. A crypter is used by one 
+ * thread at a time: callers acquire a crypter, use it and release it back to the pool. At most <code>size</code> crypters 
+ * are created; the first one eagerly for validating the keys and the rest lazily on demand. When all crypters are in use 
+ * the caller blocks until one is released, which is recorded as a contended acquisition together with the time waited.
+ * <br/><br/>
+ * The key set is read into memory once when the pool is created and every crypter of the pool is created from that 
+ * snapshot, so later changes to the key files, e.g. key rotations, do not affect the pool.
+ * <br/><br/>
+ * Instances of this class are thread-safe.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.1.0
+ * @since 3.2.0
+ */
+public class CrypterPool {
+
+	/**
+	 * Represents the key set read when the pool was created.
+	 */
+	private final KeySetSnapshot keySetSnapshot;
+	
+	/**
+	 * Represents the maximum number of crypters.
+	 */
+	private final int size;
+	
+	/**
+	 * Represents the crypters available for acquisition. Empty slots are <code>null</code>.
+	 */
+	private final AtomicReferenceArray<Crypter> availableCrypters;
+	
+	/**
+	 * Represents the number of crypters not in use or not yet created.
+	 */
+	private final Semaphore permits;
+	
+	private final AtomicInteger createdCrypters = new AtomicInteger();
+	
+	private final AtomicLong acquisitions = new AtomicLong();
+	
+	private final AtomicLong contendedAcquisitions = new AtomicLong();
+	
+	private final AtomicLong waitNanos = new AtomicLong();
+	
+	/**
+	 * Constructor for the pool.
+	 * 
+	 * @param keyPath Represents the location of the key set.
+	 * @param size Represents the maximum number of crypters.
+	 */
+	public CrypterPool(String keyPath, int size) {
+		if (size <= 0)
+			throw new IllegalArgumentException("Crypter pool size must be positive.");
+		this.keySetSnapshot = readKeySet(keyPath);
+		this.size = size;
+		this.availableCrypters = new AtomicReferenceArray<Crypter>(size);
+		this.permits = new Semaphore(size);
+		this.availableCrypters.set(0, createCrypter());
+	}
+	
+	/**
+	 * Acquires a crypter for exclusive use. The crypter must be released with <code>release(Crypter)</code>.
+	 * 
+	 * @return Crypter Represents the acquired crypter.
+	 */
+	public Crypter acquire() {
+		acquisitions.incrementAndGet();
+		if (!permits.tryAcquire()) {
+			contendedAcquisitions.incrementAndGet();
+			long startTime = System.nanoTime();
+			permits.acquireUninterruptibly();
+			waitNanos.addAndGet(System.nanoTime() - startTime);
+		}
+		int start = probe();
+		for (int i = 0; i < size; i++) {
+			Crypter crypter = availableCrypters.getAndSet((start + i) % size, null);
+			if (crypter != null)
+				return crypter;
+		}
+		try {
+			return createCrypter();
+		} catch (RuntimeException runtimeException) {
+			permits.release();
+			throw runtimeException;
+		}
+	}
+	
+	/**
+	 * Releases the crypter back to the pool.
+	 * 
+	 * @param crypter Represents the crypter acquired from this pool.
+	 */
+	public void release(Crypter crypter) {
+		int start = probe();
+		for (int i = 0; i < size; i++) {
+			if (availableCrypters.compareAndSet((start + i) % size, null, crypter))
+				break;
+		}
+		permits.release();
+	}
+	
+	public int getSize() {
+		return size;
+	}
+	
+	/**
+	 * Returns the number of crypters created so far.
+	 * 
+	 * @return int Represents the number of created crypters.
+	 */
+	public int getCreatedCrypters() {
+		return createdCrypters.get();
+	}
+	
+	/**
+	 * Returns the total number of acquisitions.
+	 * 
+	 * @return long Represents the number of acquisitions.
+	 */
+	public long getAcquisitions() {
+		return acquisitions.get();
+	}
+	
+	/**
+	 * Returns the number of acquisitions which had to wait for a crypter to be released.
+	 * 
+	 * @return long Represents the number of contended acquisitions.
+	 */
+	public long getContendedAcquisitions() {
+		return contendedAcquisitions.get();
+	}
+	
+	/**
+	 * Returns the total time the contended acquisitions have waited.
+	 * 
+	 * @return long Represents the waiting time in nanoseconds.
+	 */
+	public long getWaitNanos() {
+		return waitNanos.get();
+	}
+	
+	/**
+	 * Spreads the threads over the slots to reduce collisions.
+	 */
+	private int probe() {
+		long id = Thread.currentThread().getId();
+		return (int) ((id ^ (id >>> 16)) & Integer.MAX_VALUE) % size;
+	}
+	
+	private static KeySetSnapshot readKeySet(String keyPath) {
+		try {
+			return KeySetSnapshot.read(keyPath);
+		} catch (KeyczarException keyczarException) {
+			ExceptionUtil.throwSystemException("CryptoSupport initialization failed: " + keyczarException.getMessage(), keyczarException);
+		}
+		return null;
+	}
+	
+	private Crypter createCrypter() {
+		try {
+			Crypter crypter = new Crypter(keySetSnapshot);
+			createdCrypters.incrementAndGet();
+			return crypter;
+		} catch (KeyczarException keyczarException) {
+			ExceptionUtil.throwSystemException("CryptoSupport initialization failed: " + keyczarException.getMessage(), keyczarException);
+		}
+		return null;
+	}
+	
+}
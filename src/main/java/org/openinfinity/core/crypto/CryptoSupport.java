@@ -16,38 +16,126 @@
 package org.openinfinity.core.crypto;
 
 import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
+import java.io.OutputStream;
 import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
 import org.apache.commons.codec.binary.Base64;
 import org.keyczar.Crypter;
+import org.keyczar.exceptions.KeyNotFoundException;
 import org.keyczar.exceptions.KeyczarException;
 import org.openinfinity.core.util.ExceptionUtil;
 import org.openinfinity.core.util.IOUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * Object for supporting encryption and decryption of the entity fields. Handles Base64 encoding with <code>java.util.String</code> fields.
+ * Instances are thread-safe. Each operation uses a crypter of the <code>org.openinfinity.core.crypto.CrypterPool</code> exclusively, 
+ * so concurrent callers do not share cipher state. The pool size defaults to the number of available processors.
+ * <br/><br/>
+ * Keys can be rotated at runtime with <code>reloadKeys()</code>, or automatically by watching the key directory with 
+ * <code>startWatchingKeys()</code>. New operations use the new primary key immediately while in-flight operations complete 
+ * with the previous crypters. The previous key sets are retained for decryption of data encrypted before the rotation.
  * 
  * @author Ilkka Leinonen
- * @version 1.1.0 - Added support for symmetric and asymmetric cryptography extensions.
+ * @version 1.6.0 - Added runtime key rotation.
  * @Since 1.3.0
  *
  */
 public class CryptoSupport {
 
+	/**
+	 * Logger for this class.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(CryptoSupport.class);
+
 	/**
 	 * Default character encoding set to 'ISO-8859-1'.
 	 */
 	private static final String DEFAULT_CHARACTER_ENCODING = "ISO-8859-1";
 	
 	/**
-	 * Encrypter for managing encryption functions. 
+	 * Default character set matching the default character encoding.
+	 */
+	private static final Charset DEFAULT_CHARSET = StandardCharsets.ISO_8859_1;
+	
+	/**
+	 * URL safe Base64 encoder without padding, producing the same presentation as <code>Base64.encodeBase64URLSafeString</code>.
+	 */
+	private static final java.util.Base64.Encoder BASE64_ENCODER = java.util.Base64.getUrlEncoder().withoutPadding();
+	
+	/**
+	 * Default minimum number of values for parallel batch processing.
+	 */
+	private static final int DEFAULT_PARALLEL_THRESHOLD = 256;
+	
+	/**
+	 * Minimum number of values processed by a single fork-join task.
+	 */
+	private static final int MINIMUM_CHUNK_SIZE = 16;
+	
+	/**
+	 * Default number of retired key sets kept for decryption.
+	 */
+	private static final int DEFAULT_MAXIMUM_RETIRED_KEY_SETS = 3;
+	
+	/**
+	 * Default quiet period of the key directory before the keys are reloaded.
 	 */
+	private static final long DEFAULT_KEY_WATCH_QUIET_PERIOD_MILLIS = 500;
 	
 	/**
-	 * Crypter for managing decryption functions. 
+	 * Pool of crypters for managing encryption and decryption functions. 
 	 */
-	private Crypter crypter;
+	private volatile CrypterPool crypterPool;
+	
+	/**
+	 * Represents the pools of the previous key sets, newest first. Used for decryption when the current key set does not contain the key.
+	 */
+	private volatile List<CrypterPool> retiredCrypterPools = Collections.emptyList();
+	
+	/**
+	 * Represents the maximum number of crypters per key set.
+	 */
+	private int crypterPoolSize = Runtime.getRuntime().availableProcessors();
+	
+	/**
+	 * Represents the maximum number of retired key sets kept for decryption.
+	 */
+	private int maximumRetiredKeySets = DEFAULT_MAXIMUM_RETIRED_KEY_SETS;
+	
+	/**
+	 * Represents the quiet period of the key directory before the keys are reloaded.
+	 */
+	private long keyWatchQuietPeriodMillis = DEFAULT_KEY_WATCH_QUIET_PERIOD_MILLIS;
+	
+	/**
+	 * Represents the watcher of the key directory or <code>null</code> if keys are not watched.
+	 */
+	private KeyDirectoryWatcher keyDirectoryWatcher;
+	
+	/**
+	 * Represents the location of the key set used by the crypters.
+	 */
+	private String keyPath;
 	
 	/**
 	 * Defines the symmetric public key path.
@@ -64,6 +152,21 @@ public class CryptoSupport {
 	 */
 	private String symmetricKeyPath;
 	
+	/**
+	 * Defines the minimum number of values for parallel batch processing. Smaller batches are processed on the calling thread.
+	 */
+	private int parallelThreshold = DEFAULT_PARALLEL_THRESHOLD;
+	
+	/**
+	 * Represents the pool for parallel batch processing, by default the common pool.
+	 */
+	private ForkJoinPool forkJoinPool = ForkJoinPool.commonPool();
+	
+	/**
+	 * Defines the size of the plain data in a single chunk of the encrypted streams.
+	 */
+	private int streamChunkSize = ChunkedStreamCipher.DEFAULT_CHUNK_SIZE;
+	
 	/**
 	 * Setter for public key path.
 	 * 
@@ -87,6 +190,33 @@ public class CryptoSupport {
 	public void setSymmetricKeyPath(String symmetricKeyPath) {
 		this.symmetricKeyPath = symmetricKeyPath;
 	}
+	
+	/**
+	 * Setter for the minimum number of values for parallel batch processing.
+	 * 
+	 * @param parallelThreshold Represents the minimum batch size for parallel processing.
+	 */
+	public void setParallelThreshold(int parallelThreshold) {
+		this.parallelThreshold = parallelThreshold;
+	}
+	
+	/**
+	 * Setter for the pool used by parallel batch processing.
+	 * 
+	 * @param forkJoinPool Represents the pool for parallel batch processing.
+	 */
+	public void setForkJoinPool(ForkJoinPool forkJoinPool) {
+		this.forkJoinPool = forkJoinPool;
+	}
+	
+	/**
+	 * Setter for the size of the plain data in a single chunk of the encrypted streams. By default 64 KiB.
+	 * 
+	 * @param streamChunkSize Represents the chunk size in bytes.
+	 */
+	public void setStreamChunkSize(int streamChunkSize) {
+		this.streamChunkSize = streamChunkSize;
+	}
 
 	/**
 	 * Constructor with public and private key paths.
@@ -95,13 +225,10 @@ public class CryptoSupport {
 	 * @param rsaPrivateKeyPath Represents the actual private key path.
 	 */
 	public CryptoSupport(String asymmetricPublicKeyPath, String asymmetricPrivateKeyPath) {
-		try {
-			this.asymmetricPublicKeyPath  = asymmetricPublicKeyPath;
-			this.asymmetricPrivateKeyPath = asymmetricPrivateKeyPath;
-			crypter = new Crypter(asymmetricPrivateKeyPath);
-		} catch (KeyczarException keyczarException) {
-			ExceptionUtil.throwSystemException("CryptoSupport initialization failed: " + keyczarException.getMessage(), keyczarException);
-		}
+		this.asymmetricPublicKeyPath  = asymmetricPublicKeyPath;
+		this.asymmetricPrivateKeyPath = asymmetricPrivateKeyPath;
+		this.keyPath = asymmetricPrivateKeyPath;
+		this.crypterPool = new CrypterPool(keyPath, crypterPoolSize);
 	}
 	
 	/**
@@ -110,11 +237,106 @@ public class CryptoSupport {
 	 * @param symmetricKeyPath Represents the actual symmetric key path.
 	 */
 	public CryptoSupport(String symmetricKeyPath) {
+		this.symmetricKeyPath = symmetricKeyPath;
+		this.keyPath = symmetricKeyPath;
+		this.crypterPool = new CrypterPool(keyPath, crypterPoolSize);
+	}
+	
+	/**
+	 * Setter for the maximum number of crypter instances. Replaces the current pool, so it is intended to be set during configuration.
+	 * 
+	 * @param crypterPoolSize Represents the maximum number of crypters used concurrently.
+	 */
+	public synchronized void setCrypterPoolSize(int crypterPoolSize) {
+		this.crypterPool = new CrypterPool(keyPath, crypterPoolSize);
+		this.crypterPoolSize = crypterPoolSize;
+	}
+	
+	/**
+	 * Setter for the maximum number of retired key sets kept for decrypting data encrypted before key rotations. By default 3.
+	 * 
+	 * @param maximumRetiredKeySets Represents the maximum number of retired key sets.
+	 */
+	public synchronized void setMaximumRetiredKeySets(int maximumRetiredKeySets) {
+		this.maximumRetiredKeySets = maximumRetiredKeySets;
+	}
+	
+	/**
+	 * Setter for the quiet period of the watched key directory before the keys are reloaded. By default 500 milliseconds.
+	 * 
+	 * @param keyWatchQuietPeriodMillis Represents the quiet period in milliseconds.
+	 */
+	public void setKeyWatchQuietPeriodMillis(long keyWatchQuietPeriodMillis) {
+		this.keyWatchQuietPeriodMillis = keyWatchQuietPeriodMillis;
+	}
+	
+	/**
+	 * Reloads the key set from the key path and swaps it in for new operations. In-flight operations are not blocked. The previous 
+	 * key set is retained in memory for decryption, so the retired key files can be removed. If the key set cannot be loaded, 
+	 * the current keys stay in use.
+	 * 
+	 * @return boolean Returns <code>true</code> if the keys were reloaded.
+	 */
+	public synchronized boolean reloadKeys() {
+		CrypterPool reloadedCrypterPool;
 		try {
-			crypter = new Crypter(symmetricKeyPath);
-		} catch (KeyczarException keyczarException) {
-			ExceptionUtil.throwSystemException("CryptoSupport initialization failed: " + keyczarException.getMessage(), keyczarException);
+			reloadedCrypterPool = new CrypterPool(keyPath, crypterPoolSize);
+		} catch (RuntimeException runtimeException) {
+			LOGGER.error("Reloading keys from [" + keyPath + "] failed, current keys stay in use.", runtimeException);
+			return false;
+		}
+		List<CrypterPool> retiredCrypterPools = new ArrayList<CrypterPool>(maximumRetiredKeySets);
+		if (maximumRetiredKeySets > 0) {
+			retiredCrypterPools.add(crypterPool);
+			for (CrypterPool retiredCrypterPool : this.retiredCrypterPools) {
+				if (retiredCrypterPools.size() == maximumRetiredKeySets)
+					break;
+				retiredCrypterPools.add(retiredCrypterPool);
+			}
+		}
+		this.retiredCrypterPools = Collections.unmodifiableList(retiredCrypterPools);
+		this.crypterPool = reloadedCrypterPool;
+		LOGGER.info("Keys reloaded from [{}], {} retired key sets kept for decryption.", keyPath, retiredCrypterPools.size());
+		return true;
+	}
+	
+	/**
+	 * Starts watching the key directory and reloads the keys when they change. Can be used as the init method of the bean.
+	 */
+	public synchronized void startWatchingKeys() {
+		if (keyDirectoryWatcher != null)
+			return;
+		KeyDirectoryWatcher keyDirectoryWatcher = new KeyDirectoryWatcher(Paths.get(keyPath), keyWatchQuietPeriodMillis, new Runnable() {
+			@Override
+			public void run() {
+				reloadKeys();
+			}
+		});
+		try {
+			keyDirectoryWatcher.start();
+		} catch (IOException ioException) {
+			ExceptionUtil.throwSystemException("Watching keys in [" + keyPath + "] failed: " + ioException.getMessage(), ioException);
 		}
+		this.keyDirectoryWatcher = keyDirectoryWatcher;
+	}
+	
+	/**
+	 * Stops watching the key directory. Can be used as the destroy method of the bean.
+	 */
+	public synchronized void stopWatchingKeys() {
+		if (keyDirectoryWatcher == null)
+			return;
+		keyDirectoryWatcher.stop();
+		keyDirectoryWatcher = null;
+	}
+	
+	/**
+	 * Returns the pool of crypters, e.g. for monitoring the contention.
+	 * 
+	 * @return CrypterPool Represents the pool of crypters.
+	 */
+	public CrypterPool getCrypterPool() {
+		return crypterPool;
 	}
 	
 	/**
@@ -124,10 +346,14 @@ public class CryptoSupport {
 	 * @param outboundBuffer Represents the actual encrypted outbound buffer.
 	 */
 	public void encrypt(ByteBuffer inboundBuffer, ByteBuffer outboundBuffer) {
+		CrypterPool crypterPool = this.crypterPool;
+		Crypter crypter = crypterPool.acquire();
 		try {
 			crypter.encrypt(inboundBuffer, outboundBuffer);
 		} catch (KeyczarException keyczarException) {
 			ExceptionUtil.throwSystemException("Encryption failed.", keyczarException);
+		} finally {
+			crypterPool.release(crypter);
 		}
 	}
 	
@@ -138,13 +364,154 @@ public class CryptoSupport {
 	 * @param outboundBuffer Represents the actual decrypted outbound buffer.
 	 */
 	public void decrypt(ByteBuffer inboundBuffer, ByteBuffer outboundBuffer) {
+		CrypterPool crypterPool = this.crypterPool;
+		Crypter crypter = crypterPool.acquire();
 		try {
-			crypter.decrypt(inboundBuffer, outboundBuffer);
+			decrypt(crypter, inboundBuffer, outboundBuffer);
 		} catch (KeyczarException keyczarException) {
 			ExceptionUtil.throwSystemException("Decryption failed.", keyczarException);
+		} finally {
+			crypterPool.release(crypter);
 		}
 	}
 	
+	/**
+	 * Encrypts the source stream to the target stream in authenticated chunks. Memory usage is bound by the stream chunk size. 
+	 * Streams are not closed. Intended for symmetric keys, since asymmetric keys can encrypt only small chunks.
+	 * 
+	 * @param inputStream Represents the plain source.
+	 * @param outputStream Represents the encrypted target.
+	 * @return long Represents the number of plain bytes encrypted.
+	 */
+	public long encrypt(InputStream inputStream, OutputStream outputStream) {
+		try {
+			long total = encrypt(Channels.newChannel(inputStream), Channels.newChannel(outputStream));
+			outputStream.flush();
+			return total;
+		} catch (IOException ioException) {
+			ExceptionUtil.throwSystemException("Stream encryption failed: " + ioException.getMessage(), ioException);
+		}
+		return -1;
+	}
+	
+	/**
+	 * Decrypts the source stream encrypted by <code>encrypt(InputStream, OutputStream)</code> to the target stream. Reordered, 
+	 * truncated or modified chunks cause <code>org.openinfinity.core.exception.SystemException</code>. Streams are not closed.
+	 * 
+	 * @param inputStream Represents the encrypted source.
+	 * @param outputStream Represents the plain target.
+	 * @return long Represents the number of plain bytes decrypted.
+	 */
+	public long decrypt(InputStream inputStream, OutputStream outputStream) {
+		try {
+			long total = decrypt(Channels.newChannel(inputStream), Channels.newChannel(outputStream));
+			outputStream.flush();
+			return total;
+		} catch (IOException ioException) {
+			ExceptionUtil.throwSystemException("Stream decryption failed: " + ioException.getMessage(), ioException);
+		}
+		return -1;
+	}
+	
+	/**
+	 * Encrypts the blocking source channel to the target channel in authenticated chunks. Channels are not closed.
+	 * 
+	 * @param source Represents the plain source.
+	 * @param target Represents the encrypted target.
+	 * @return long Represents the number of plain bytes encrypted.
+	 */
+	public long encrypt(ReadableByteChannel source, WritableByteChannel target) {
+		try {
+			return new ChunkedStreamCipher(this, streamChunkSize).encrypt(source, target);
+		} catch (IOException ioException) {
+			ExceptionUtil.throwSystemException("Stream encryption failed: " + ioException.getMessage(), ioException);
+		}
+		return -1;
+	}
+	
+	/**
+	 * Encrypts the source file from its current position to the target channel in authenticated chunks. The source is 
+	 * read with positional reads into a single chunk-sized buffer. Channels are not closed.
+	 * 
+	 * @param source Represents the plain source file.
+	 * @param target Represents the encrypted target.
+	 * @return long Represents the number of plain bytes encrypted.
+	 */
+	public long encrypt(FileChannel source, WritableByteChannel target) {
+		try {
+			return new ChunkedStreamCipher(this, streamChunkSize).encrypt(source, target);
+		} catch (IOException ioException) {
+			ExceptionUtil.throwSystemException("File encryption failed: " + ioException.getMessage(), ioException);
+		}
+		return -1;
+	}
+	
+	/**
+	 * Decrypts the blocking source channel encrypted by the chunked encryption to the target channel. Channels are not closed.
+	 * 
+	 * @param source Represents the encrypted source.
+	 * @param target Represents the plain target.
+	 * @return long Represents the number of plain bytes decrypted.
+	 */
+	public long decrypt(ReadableByteChannel source, WritableByteChannel target) {
+		try {
+			return new ChunkedStreamCipher(this, streamChunkSize).decrypt(source, target);
+		} catch (IOException ioException) {
+			ExceptionUtil.throwSystemException("Stream decryption failed: " + ioException.getMessage(), ioException);
+		}
+		return -1;
+	}
+	
+	/**
+	 * Encrypts the source file to the target file. Existing target file is replaced.
+	 * 
+	 * @param source Represents the plain source file.
+	 * @param target Represents the encrypted target file.
+	 * @return long Represents the number of plain bytes encrypted.
+	 */
+	public long encrypt(Path source, Path target) {
+		try (FileChannel sourceChannel = FileChannel.open(source, StandardOpenOption.READ);
+			 FileChannel targetChannel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			return encrypt(sourceChannel, targetChannel);
+		} catch (IOException ioException) {
+			ExceptionUtil.throwSystemException("File encryption failed: " + ioException.getMessage(), ioException);
+		}
+		return -1;
+	}
+	
+	/**
+	 * Decrypts the source file to the target file. Existing target file is replaced.
+	 * 
+	 * @param source Represents the encrypted source file.
+	 * @param target Represents the plain target file.
+	 * @return long Represents the number of plain bytes decrypted.
+	 */
+	public long decrypt(Path source, Path target) {
+		try (FileChannel sourceChannel = FileChannel.open(source, StandardOpenOption.READ);
+			 FileChannel targetChannel = FileChannel.open(target, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			return decrypt(sourceChannel, targetChannel);
+		} catch (IOException ioException) {
+			ExceptionUtil.throwSystemException("File decryption failed: " + ioException.getMessage(), ioException);
+		}
+		return -1;
+	}
+	
+	/**
+	 * Returns the size of the ciphertext for the given plain text size.
+	 */
+	int ciphertextSize(int plainTextSize) {
+		CrypterPool crypterPool = this.crypterPool;
+		Crypter crypter = crypterPool.acquire();
+		try {
+			return crypter.ciphertextSize(plainTextSize);
+		} catch (KeyczarException keyczarException) {
+			ExceptionUtil.throwSystemException("Resolving ciphertext size failed.", keyczarException);
+		} finally {
+			crypterPool.release(crypter);
+		}
+		return -1;
+	}
+	
 	/**
 	 * Encrypts the given bytes.
 	 * 
@@ -152,10 +519,14 @@ public class CryptoSupport {
 	 * @return byte[] Represents the encrypted bytes.
 	 */
 	public byte[] encrypt(byte[] input) {
+		CrypterPool crypterPool = this.crypterPool;
+		Crypter crypter = crypterPool.acquire();
 		try {
 			return crypter.encrypt(input);
 		} catch (KeyczarException keyczarException) {
 			ExceptionUtil.throwSystemException("Encryption failed.", keyczarException);
+		} finally {
+			crypterPool.release(crypter);
 		}
 		return null;
 	}
@@ -167,21 +538,277 @@ public class CryptoSupport {
 	 * @return byte[] Represents the decrypted bytes.
 	 */
 	public byte[] decrypt(byte[] input) {
+		CrypterPool crypterPool = this.crypterPool;
+		Crypter crypter = crypterPool.acquire();
 		try {
-			return crypter.decrypt(input);
+			return decrypt(crypter, input);
 		} catch (KeyczarException keyczarException) {
 			ExceptionUtil.throwSystemException("Decryption failed.", keyczarException);
+		} finally {
+			crypterPool.release(crypter);
+		}
+		return null;
+	}
+	
+	/**
+	 * Decrypts with the given crypter, falling back to the retired key sets if the current key set does not contain the key.
+	 */
+	private byte[] decrypt(Crypter crypter, byte[] input) throws KeyczarException {
+		try {
+			return crypter.decrypt(input);
+		} catch (KeyNotFoundException keyNotFoundException) {
+			for (CrypterPool retiredCrypterPool : retiredCrypterPools) {
+				Crypter retiredCrypter = retiredCrypterPool.acquire();
+				try {
+					return retiredCrypter.decrypt(input);
+				} catch (KeyNotFoundException retiredKeyNotFoundException) {
+					LOGGER.trace("Key not found from retired key set.");
+				} finally {
+					retiredCrypterPool.release(retiredCrypter);
+				}
+			}
+			throw keyNotFoundException;
+		}
+	}
+	
+	/**
+	 * Decrypts with the given crypter, falling back to the retired key sets if the current key set does not contain the key.
+	 */
+	private void decrypt(Crypter crypter, ByteBuffer inboundBuffer, ByteBuffer outboundBuffer) throws KeyczarException {
+		int inboundPosition = inboundBuffer.position();
+		int outboundPosition = outboundBuffer.position();
+		try {
+			crypter.decrypt(inboundBuffer, outboundBuffer);
+		} catch (KeyNotFoundException keyNotFoundException) {
+			for (CrypterPool retiredCrypterPool : retiredCrypterPools) {
+				Crypter retiredCrypter = retiredCrypterPool.acquire();
+				try {
+					inboundBuffer.position(inboundPosition);
+					outboundBuffer.position(outboundPosition);
+					retiredCrypter.decrypt(inboundBuffer, outboundBuffer);
+					return;
+				} catch (KeyNotFoundException retiredKeyNotFoundException) {
+					LOGGER.trace("Key not found from retired key set.");
+				} finally {
+					retiredCrypterPool.release(retiredCrypter);
+				}
+			}
+			throw keyNotFoundException;
+		}
+	}
+	
+	/**
+	 * Encrypts the given text and returns URL safe Base64 presentation of the encrypted bytes.
+	 * 
+	 * @param plainText Represents the plain text.
+	 * @param charset Represents the character set used for encoding the plain text.
+	 * @return String Represents the Base64 encoded encrypted text.
+	 */
+	public String encryptToBase64(String plainText, Charset charset) {
+		CrypterPool crypterPool = this.crypterPool;
+		Crypter crypter = crypterPool.acquire();
+		try {
+			return encryptToBase64(crypter, plainText, charset);
+		} finally {
+			crypterPool.release(crypter);
+		}
+	}
+	
+	private static String encryptToBase64(Crypter crypter, String plainText, Charset charset) {
+		try {
+			byte[] encryptedBytes = crypter.encrypt(plainText.getBytes(charset));
+			return BASE64_ENCODER.encodeToString(encryptedBytes);
+		} catch (KeyczarException keyczarException) {
+			ExceptionUtil.throwSystemException("Encryption failed: " + keyczarException.getMessage(), keyczarException);
+		}
+		return null;
+	}
+	
+	/**
+	 * Encrypts the given text and returns URL safe Base64 presentation of the encrypted bytes. Uses default character set.
+	 * 
+	 * @param plainText Represents the plain text.
+	 * @return String Represents the Base64 encoded encrypted text.
+	 */
+	public String encryptToBase64(String plainText) {
+		return encryptToBase64(plainText, DEFAULT_CHARSET);
+	}
+	
+	/**
+	 * Base64 decodes and decrypts the given text.
+	 * 
+	 * @param base64Presentation Represents the Base64 presentation of the encrypted bytes.
+	 * @param charset Represents the character set used for decoding the plain text.
+	 * @return String Represents the plain decoded and decrypted text.
+	 */
+	public String decryptFromBase64(String base64Presentation, Charset charset) {
+		CrypterPool crypterPool = this.crypterPool;
+		Crypter crypter = crypterPool.acquire();
+		try {
+			return decryptFromBase64(crypter, base64Presentation, charset);
+		} finally {
+			crypterPool.release(crypter);
+		}
+	}
+	
+	private String decryptFromBase64(Crypter crypter, String base64Presentation, Charset charset) {
+		try {
+			byte[] decryptedBytes = decrypt(crypter, Base64.decodeBase64(base64Presentation));
+			return new String(decryptedBytes, charset);
+		} catch (KeyczarException keyczarException) {
+			ExceptionUtil.throwSystemException("Decryption failed: " + keyczarException.getMessage(), keyczarException);
 		}
 		return null;
 	}
 	
+	/**
+	 * Base64 decodes and decrypts the given text. Uses default character set.
+	 * 
+	 * @param base64Presentation Represents the Base64 presentation of the encrypted bytes.
+	 * @return String Represents the plain decoded and decrypted text.
+	 */
+	public String decryptFromBase64(String base64Presentation) {
+		return decryptFromBase64(base64Presentation, DEFAULT_CHARSET);
+	}
+	
+	/**
+	 * Encrypts the given texts reusing one pooled crypter per chunk and returns URL safe Base64 presentations in the same order. 
+	 * <code>null</code> values are returned as <code>null</code>.
+	 * 
+	 * @param plainTexts Represents the plain texts.
+	 * @param charset Represents the character set used for encoding the plain texts.
+	 * @param parallel Defines if batches exceeding the parallel threshold are processed with the fork-join pool.
+	 * @return List<String> Represents the Base64 encoded encrypted texts.
+	 */
+	public List<String> encryptToBase64(List<String> plainTexts, Charset charset, boolean parallel) {
+		return processBatch(Operation.ENCRYPT, plainTexts, charset, parallel);
+	}
+	
+	/**
+	 * Encrypts the given texts on the calling thread and returns URL safe Base64 presentations in the same order.
+	 * 
+	 * @param plainTexts Represents the plain texts.
+	 * @param charset Represents the character set used for encoding the plain texts.
+	 * @return List<String> Represents the Base64 encoded encrypted texts.
+	 */
+	public List<String> encryptToBase64(List<String> plainTexts, Charset charset) {
+		return processBatch(Operation.ENCRYPT, plainTexts, charset, false);
+	}
+	
+	/**
+	 * Base64 decodes and decrypts the given texts reusing one pooled crypter per chunk and returns the plain texts in the same order. 
+	 * <code>null</code> values are returned as <code>null</code>.
+	 * 
+	 * @param base64Presentations Represents the Base64 presentations of the encrypted bytes.
+	 * @param charset Represents the character set used for decoding the plain texts.
+	 * @param parallel Defines if batches exceeding the parallel threshold are processed with the fork-join pool.
+	 * @return List<String> Represents the plain decoded and decrypted texts.
+	 */
+	public List<String> decryptFromBase64(List<String> base64Presentations, Charset charset, boolean parallel) {
+		return processBatch(Operation.DECRYPT, base64Presentations, charset, parallel);
+	}
+	
+	/**
+	 * Base64 decodes and decrypts the given texts on the calling thread and returns the plain texts in the same order.
+	 * 
+	 * @param base64Presentations Represents the Base64 presentations of the encrypted bytes.
+	 * @param charset Represents the character set used for decoding the plain texts.
+	 * @return List<String> Represents the plain decoded and decrypted texts.
+	 */
+	public List<String> decryptFromBase64(List<String> base64Presentations, Charset charset) {
+		return processBatch(Operation.DECRYPT, base64Presentations, charset, false);
+	}
+	
+	private List<String> processBatch(Operation operation, List<String> values, Charset charset, boolean parallel) {
+		String[] input = values.toArray(new String[values.size()]);
+		String[] output = new String[input.length];
+		if (parallel && input.length >= parallelThreshold && input.length > MINIMUM_CHUNK_SIZE) {
+			int chunkSize = Math.max(MINIMUM_CHUNK_SIZE, input.length / (forkJoinPool.getParallelism() * 4));
+			forkJoinPool.invoke(new BatchTask(this, operation, charset, input, output, 0, input.length, chunkSize));
+		} else {
+			operation.process(this, charset, input, output, 0, input.length);
+		}
+		return Collections.unmodifiableList(Arrays.asList(output));
+	}
+	
+	/**
+	 * Represents the operation applied to the values of a batch.
+	 */
+	private enum Operation {
+		
+		ENCRYPT {
+			String apply(CryptoSupport cryptoSupport, Crypter crypter, String value, Charset charset) { return encryptToBase64(crypter, value, charset); }
+		},
+		DECRYPT {
+			String apply(CryptoSupport cryptoSupport, Crypter crypter, String value, Charset charset) { return cryptoSupport.decryptFromBase64(crypter, value, charset); }
+		};
+		
+		abstract String apply(CryptoSupport cryptoSupport, Crypter crypter, String value, Charset charset);
+		
+		void process(CryptoSupport cryptoSupport, Charset charset, String[] input, String[] output, int from, int to) {
+			CrypterPool crypterPool = cryptoSupport.crypterPool;
+			Crypter crypter = crypterPool.acquire();
+			try {
+				for (int i = from; i < to; i++) {
+					output[i] = input[i] == null ? null : apply(cryptoSupport, crypter, input[i], charset);
+				}
+			} finally {
+				crypterPool.release(crypter);
+			}
+		}
+		
+	}
+	
+	/**
+	 * Fork-join task splitting a batch into chunks of the given size.
+	 */
+	private static final class BatchTask extends RecursiveAction {
+		
+		private static final long serialVersionUID = 1L;
+		
+		private final CryptoSupport cryptoSupport;
+		private final Operation operation;
+		private final Charset charset;
+		private final String[] input;
+		private final String[] output;
+		private final int from;
+		private final int to;
+		private final int chunkSize;
+		
+		BatchTask(CryptoSupport cryptoSupport, Operation operation, Charset charset, String[] input, String[] output, int from, int to, int chunkSize) {
+			this.cryptoSupport = cryptoSupport;
+			this.operation = operation;
+			this.charset = charset;
+			this.input = input;
+			this.output = output;
+			this.from = from;
+			this.to = to;
+			this.chunkSize = chunkSize;
+		}
+		
+		@Override
+		protected void compute() {
+			if (to - from <= chunkSize) {
+				operation.process(cryptoSupport, charset, input, output, from, to);
+				return;
+			}
+			int middle = (from + to) >>> 1;
+			invokeAll(
+				new BatchTask(cryptoSupport, operation, charset, input, output, from, middle, chunkSize), 
+				new BatchTask(cryptoSupport, operation, charset, input, output, middle, to, chunkSize));
+		}
+		
+	}
+	
 	/**
 	 * Encrypts input bytes and encodes Base64 presentation of the encrypted bytes.
 	 * 
-	 * @param input Represents the plain input byte array.
+	 * @param input Represents the serialized <code>java.lang.String</code> as byte array.
 	 * @param encoding Represents the character encoding for byte array.
 	 * @return String Represents the Base64 encoded String.
+	 * @deprecated Deserializes the input; use <code>encryptToBase64(String, Charset)</code> instead.
 	 */
+	@Deprecated
 	public String encryptAndReturnBase64Presentation(byte[] input, String encoding) {
 		ObjectInputStream objectInputStream = null;
 		ByteArrayInputStream byteArrayInputStream = null;
@@ -192,7 +819,7 @@ public class CryptoSupport {
 			if (plainObject instanceof String) {
 				String stringObject = (String) plainObject;
 				byte[] encodedBytes = stringObject.getBytes(encoding);
-				byte[] encryptedBytes = crypter.encrypt(encodedBytes);
+				byte[] encryptedBytes = encrypt(encodedBytes);
 				return Base64.encodeBase64URLSafeString(encryptedBytes);
 			}
 		} catch (Throwable throwable) {
@@ -210,7 +837,9 @@ public class CryptoSupport {
 	 * @param input Represents the Base64 presentation of the encrypted bytes.
 	 * @param encoding Represents the character encoding for byte array.
 	 * @return String Represents the plain decoded and decrypted <code>java.lang.String</code>.
+	 * @deprecated Deserializes the input; use <code>decryptFromBase64(String, Charset)</code> instead.
 	 */
+	@Deprecated
 	public String decryptAndReturnBase64Presentation(byte[] input, String encoding) {
 		ObjectInputStream objectInputStream = null;
 		ByteArrayInputStream byteArrayInputStream = null;
@@ -222,7 +851,7 @@ public class CryptoSupport {
 				String stringObject = (String) plainObject;
 				byte[] encodedBytes = stringObject.getBytes(encoding);
 				byte[] base64Decoded = Base64.decodeBase64(new String(encodedBytes));
-				byte[] decryptedBytes = crypter.decrypt(base64Decoded);
+				byte[] decryptedBytes = decrypt(base64Decoded);
 				return new String(decryptedBytes);
 			}
 		} catch (Throwable throwable) {
@@ -239,7 +868,9 @@ public class CryptoSupport {
 	 * 
 	 * @param input Represents the plain input byte array.
 	 * @return String Represents the Base64 encoded String.
+	 * @deprecated Deserializes the input; use <code>encryptToBase64(String)</code> instead.
 	 */
+	@Deprecated
 	public String encryptAndReturnBase64Presentation(byte[] input) {
 		return encryptAndReturnBase64Presentation(input, DEFAULT_CHARACTER_ENCODING);
 	}
@@ -249,7 +880,9 @@ public class CryptoSupport {
 	 * 
 	 * @param input Represents the Base64 presentation of the encrypted bytes.
 	 * @return String Represents the plain decoded and decrypted <code>java.lang.String</code>.
+	 * @deprecated Deserializes the input; use <code>decryptFromBase64(String)</code> instead.
 	 */
+	@Deprecated
 	public String decryptAndReturnBase64Presentation(byte[] input) {
 		return decryptAndReturnBase64Presentation(input, DEFAULT_CHARACTER_ENCODING);
 	}
@@ -0,0 +1,324 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.crypto;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.openinfinity.core.util.ExceptionUtil;
+
+/**
+ * Bounded cache of decrypted values for repeated decryption of the same ciphertexts. Entries are keyed by the SHA-256 digest 
+ * of the ciphertext and character set, so ciphertexts are not retained. Plain texts are kept as character arrays which are 
+ * overwritten with zeros when the entry is evicted, expires or the cache is cleared. The cache is bound by the estimated 
+ * memory of the entries and evicts the least recently used entries first. Entries expire after the time to live.
+ * <br/><br/>
+ * The cache is split into independently locked segments to reduce contention. Instances of this class are thread-safe.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+public class DecryptionCache {
+
+	/**
+	 * Default maximum estimated memory of the cached entries.
+	 */
+	public static final long DEFAULT_MAXIMUM_BYTES = 16L * 1024 * 1024;
+	
+	/**
+	 * Default time to live of the cached entries.
+	 */
+	public static final long DEFAULT_TIME_TO_LIVE_MILLIS = TimeUnit.MINUTES.toMillis(5);
+	
+	/**
+	 * Estimated memory of an entry excluding the plain text characters.
+	 */
+	private static final int ENTRY_OVERHEAD_BYTES = 128;
+	
+	private static final int SEGMENTS = 16;
+	
+	private static final ThreadLocal<MessageDigest> MESSAGE_DIGEST = new ThreadLocal<MessageDigest>() {
+		@Override
+		protected MessageDigest initialValue() {
+			try {
+				return MessageDigest.getInstance("SHA-256");
+			} catch (NoSuchAlgorithmException noSuchAlgorithmException) {
+				ExceptionUtil.throwSystemException("SHA-256 is not available.", noSuchAlgorithmException);
+			}
+			return null;
+		}
+	};
+	
+	private final Segment[] segments = new Segment[SEGMENTS];
+	
+	private final long maximumBytes;
+	
+	private final long timeToLiveNanos;
+	
+	private final LongAdder hits = new LongAdder();
+	
+	private final LongAdder misses = new LongAdder();
+	
+	private final LongAdder evictions = new LongAdder();
+	
+	private final LongAdder expirations = new LongAdder();
+	
+	/**
+	 * Constructor with default maximum bytes and time to live.
+	 */
+	public DecryptionCache() {
+		this(DEFAULT_MAXIMUM_BYTES, DEFAULT_TIME_TO_LIVE_MILLIS);
+	}
+	
+	/**
+	 * Constructor for the cache.
+	 * 
+	 * @param maximumBytes Represents the maximum estimated memory of the cached entries.
+	 * @param timeToLiveMillis Represents the time to live of the cached entries in milliseconds.
+	 */
+	public DecryptionCache(long maximumBytes, long timeToLiveMillis) {
+		if (maximumBytes <= 0 || timeToLiveMillis <= 0)
+			throw new IllegalArgumentException("Maximum bytes and time to live must be positive.");
+		this.maximumBytes = maximumBytes;
+		this.timeToLiveNanos = TimeUnit.MILLISECONDS.toNanos(timeToLiveMillis);
+		for (int i = 0; i < SEGMENTS; i++) {
+			segments[i] = new Segment(Math.max(1, maximumBytes / SEGMENTS));
+		}
+	}
+	
+	/**
+	 * Returns the cached plain text of the ciphertext.
+	 * 
+	 * @param ciphertext Represents the encrypted presentation.
+	 * @param charset Represents the character set of the plain text.
+	 * @return String Represents the plain text or <code>null</code> if not cached.
+	 */
+	public String get(String ciphertext, Charset charset) {
+		DigestKey digestKey = new DigestKey(ciphertext, charset);
+		String plainText = segmentFor(digestKey).get(digestKey, System.nanoTime());
+		if (plainText == null)
+			misses.increment();
+		else
+			hits.increment();
+		return plainText;
+	}
+	
+	/**
+	 * Caches the plain text of the ciphertext. Values larger than a segment of the cache are not cached.
+	 * 
+	 * @param ciphertext Represents the encrypted presentation.
+	 * @param charset Represents the character set of the plain text.
+	 * @param plainText Represents the decrypted plain text.
+	 */
+	public void put(String ciphertext, Charset charset, String plainText) {
+		DigestKey digestKey = new DigestKey(ciphertext, charset);
+		segmentFor(digestKey).put(digestKey, plainText.toCharArray(), System.nanoTime() + timeToLiveNanos);
+	}
+	
+	/**
+	 * Removes and zeroizes all entries.
+	 */
+	public void clear() {
+		for (Segment segment : segments) {
+			segment.clear();
+		}
+	}
+	
+	public long getHits() {
+		return hits.sum();
+	}
+	
+	public long getMisses() {
+		return misses.sum();
+	}
+	
+	public long getEvictions() {
+		return evictions.sum();
+	}
+	
+	public long getExpirations() {
+		return expirations.sum();
+	}
+	
+	public long getMaximumBytes() {
+		return maximumBytes;
+	}
+	
+	/**
+	 * Returns the estimated memory of the cached entries.
+	 * 
+	 * @return long Represents the estimated bytes.
+	 */
+	public long getBytes() {
+		long bytes = 0;
+		for (Segment segment : segments) {
+			bytes += segment.getBytes();
+		}
+		return bytes;
+	}
+	
+	/**
+	 * Returns the number of cached entries.
+	 * 
+	 * @return int Represents the number of entries.
+	 */
+	public int getSize() {
+		int size = 0;
+		for (Segment segment : segments) {
+			size += segment.getSize();
+		}
+		return size;
+	}
+	
+	private Segment segmentFor(DigestKey digestKey) {
+		return segments[(digestKey.hashCode() >>> 16 ^ digestKey.hashCode()) & (SEGMENTS - 1)];
+	}
+	
+	/**
+	 * Represents the digest of the ciphertext and character set.
+	 */
+	private static final class DigestKey {
+		
+		private final byte[] digest;
+		
+		private final int hashCode;
+		
+		DigestKey(String ciphertext, Charset charset) {
+			MessageDigest messageDigest = MESSAGE_DIGEST.get();
+			messageDigest.update(charset.name().getBytes(StandardCharsets.US_ASCII));
+			messageDigest.update((byte) 0);
+			this.digest = messageDigest.digest(ciphertext.getBytes(StandardCharsets.ISO_8859_1));
+			this.hashCode = Arrays.hashCode(digest);
+		}
+		
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+		
+		@Override
+		public boolean equals(Object object) {
+			return object instanceof DigestKey && Arrays.equals(digest, ((DigestKey) object).digest);
+		}
+		
+	}
+	
+	/**
+	 * Represents a cached plain text.
+	 */
+	private static final class Entry {
+		
+		private final char[] plainText;
+		
+		private final long expiresAtNanos;
+		
+		Entry(char[] plainText, long expiresAtNanos) {
+			this.plainText = plainText;
+			this.expiresAtNanos = expiresAtNanos;
+		}
+		
+		int weight() {
+			return ENTRY_OVERHEAD_BYTES + plainText.length * 2;
+		}
+		
+		void zeroize() {
+			Arrays.fill(plainText, '\0');
+		}
+		
+	}
+	
+	/**
+	 * Least recently used segment of the cache bound by the estimated memory of its entries.
+	 */
+	private final class Segment {
+		
+		private final LinkedHashMap<DigestKey, Entry> entries = new LinkedHashMap<DigestKey, Entry>(16, 0.75f, true);
+		
+		private final long maximumBytes;
+		
+		private long bytes;
+		
+		Segment(long maximumBytes) {
+			this.maximumBytes = maximumBytes;
+		}
+		
+		synchronized String get(DigestKey digestKey, long now) {
+			Entry entry = entries.get(digestKey);
+			if (entry == null)
+				return null;
+			if (now - entry.expiresAtNanos >= 0) {
+				remove(digestKey);
+				expirations.increment();
+				return null;
+			}
+			return new String(entry.plainText);
+		}
+		
+		synchronized void put(DigestKey digestKey, char[] plainText, long expiresAtNanos) {
+			Entry entry = new Entry(plainText, expiresAtNanos);
+			if (entry.weight() > maximumBytes) {
+				entry.zeroize();
+				return;
+			}
+			remove(digestKey);
+			entries.put(digestKey, entry);
+			bytes += entry.weight();
+			Iterator<Map.Entry<DigestKey, Entry>> iterator = entries.entrySet().iterator();
+			while (bytes > maximumBytes && iterator.hasNext()) {
+				Entry eldest = iterator.next().getValue();
+				iterator.remove();
+				bytes -= eldest.weight();
+				eldest.zeroize();
+				evictions.increment();
+			}
+		}
+		
+		synchronized void clear() {
+			for (Entry entry : entries.values()) {
+				entry.zeroize();
+			}
+			entries.clear();
+			bytes = 0;
+		}
+		
+		synchronized long getBytes() {
+			return bytes;
+		}
+		
+		synchronized int getSize() {
+			return entries.size();
+		}
+		
+		private void remove(DigestKey digestKey) {
+			Entry entry = entries.remove(digestKey);
+			if (entry != null) {
+				bytes -= entry.weight();
+				entry.zeroize();
+			}
+		}
+		
+	}
+	
+}
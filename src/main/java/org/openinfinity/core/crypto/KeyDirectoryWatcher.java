@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.crypto;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Watches the key directory with NIO <code>java.nio.file.WatchService</code> and runs the change callback on a background 
+ * thread once the directory has been quiet for the given period. The quiet period coalesces the several file writes of 
+ * a single key rotation into one callback.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+final class KeyDirectoryWatcher implements Runnable {
+
+	/**
+	 * Logger for this class.
+	 */
+	private static final Logger LOGGER = LoggerFactory.getLogger(KeyDirectoryWatcher.class);
+	
+	private final Path directory;
+	
+	private final long quietPeriodMillis;
+	
+	private final Runnable changeCallback;
+	
+	private volatile boolean running;
+	
+	private WatchService watchService;
+	
+	private Thread watcherThread;
+	
+	KeyDirectoryWatcher(Path directory, long quietPeriodMillis, Runnable changeCallback) {
+		this.directory = directory;
+		this.quietPeriodMillis = quietPeriodMillis;
+		this.changeCallback = changeCallback;
+	}
+	
+	synchronized void start() throws IOException {
+		if (running)
+			return;
+		watchService = directory.getFileSystem().newWatchService();
+		directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+		running = true;
+		watcherThread = new Thread(this, "crypto-key-watcher");
+		watcherThread.setDaemon(true);
+		watcherThread.start();
+	}
+	
+	synchronized void stop() {
+		if (!running)
+			return;
+		running = false;
+		try {
+			watchService.close();
+		} catch (IOException ioException) {
+			LOGGER.warn("Closing key directory watch service failed.", ioException);
+		}
+		try {
+			watcherThread.join(TimeUnit.SECONDS.toMillis(5));
+		} catch (InterruptedException interruptedException) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	@Override
+	public void run() {
+		try {
+			while (running) {
+				consume(watchService.take());
+				WatchKey watchKey;
+				while ((watchKey = watchService.poll(quietPeriodMillis, TimeUnit.MILLISECONDS)) != null) {
+					consume(watchKey);
+				}
+				if (running) {
+					LOGGER.info("Keys changed in [{}].", directory);
+					try {
+						changeCallback.run();
+					} catch (RuntimeException runtimeException) {
+						LOGGER.error("Handling changed keys failed.", runtimeException);
+					}
+				}
+			}
+		} catch (ClosedWatchServiceException closedWatchServiceException) {
+			LOGGER.debug("Key directory watch service closed.");
+		} catch (InterruptedException interruptedException) {
+			Thread.currentThread().interrupt();
+		}
+	}
+	
+	private static void consume(WatchKey watchKey) {
+		watchKey.pollEvents();
+		watchKey.reset();
+	}
+	
+}
@@ -0,0 +1,101 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.crypto;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+import org.keyczar.KeyMetadata;
+import org.keyczar.KeyVersion;
+import org.keyczar.KeyczarFileReader;
+import org.keyczar.exceptions.KeyczarException;
+import org.keyczar.interfaces.KeyczarReader;
+
+/**
+ * In-memory snapshot of a Keyczar key set. The metadata and all key versions are read once from the key location, so 
+ * every crypter created from the snapshot carries the same keys regardless of later changes to the key files.
+ * <br/><br/>
+ * Instances of this class are immutable and thread-safe.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+final class KeySetSnapshot implements KeyczarReader {
+
+	/**
+	 * Represents the metadata of the key set.
+	 */
+	private final String metadata;
+	
+	/**
+	 * Represents the version number of the primary key.
+	 */
+	private final int primaryVersion;
+	
+	/**
+	 * Represents the keys by version number.
+	 */
+	private final Map<Integer, String> keys;
+	
+	private KeySetSnapshot(String metadata, int primaryVersion, Map<Integer, String> keys) {
+		this.metadata = metadata;
+		this.primaryVersion = primaryVersion;
+		this.keys = keys;
+	}
+	
+	/**
+	 * Reads the key set from the given location.
+	 * 
+	 * @param keyPath Represents the location of the key set.
+	 * @return KeySetSnapshot Represents the snapshot of the key set.
+	 * @throws KeyczarException Thrown if the metadata or any of the keys can not be read.
+	 */
+	static KeySetSnapshot read(String keyPath) throws KeyczarException {
+		KeyczarReader keyczarReader = new KeyczarFileReader(keyPath);
+		String metadata = keyczarReader.getMetadata();
+		KeyMetadata keyMetadata = KeyMetadata.read(metadata);
+		Map<Integer, String> keys = new HashMap<Integer, String>();
+		for (KeyVersion keyVersion : keyMetadata.getVersions()) {
+			keys.put(keyVersion.getVersionNumber(), keyczarReader.getKey(keyVersion.getVersionNumber()));
+		}
+		KeyVersion primaryKeyVersion = keyMetadata.getPrimaryVersion();
+		int primaryVersion = primaryKeyVersion == null ? -1 : primaryKeyVersion.getVersionNumber();
+		return new KeySetSnapshot(metadata, primaryVersion, Collections.unmodifiableMap(keys));
+	}
+	
+	@Override
+	public String getKey(int version) throws KeyczarException {
+		String key = keys.get(version);
+		if (key == null)
+			throw new KeyczarException("Key version " + version + " not found from the key set snapshot.");
+		return key;
+	}
+	
+	@Override
+	public String getKey() throws KeyczarException {
+		if (primaryVersion < 0)
+			throw new KeyczarException("Primary key not found from the key set snapshot.");
+		return getKey(primaryVersion);
+	}
+	
+	@Override
+	public String getMetadata() {
+		return metadata;
+	}
+
+}
@@ -15,14 +15,20 @@
  */
 package org.openinfinity.core.integration;
 
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
  * CRUD (Create Read Update Delete) interface for domain services.
+ * <br/><br/>
+ * Batch operations fall back to the single entity operations by default. Services should override them to handle 
+ * the whole batch with a single round trip, e.g. with an <code>IN</code> query or a JDBC batch.
  * 
  * @author Ilkka Leinonen
- * @version 1.0.0
+ * @version 1.1.0
  * @since 2.0.0
  * @param <T> Represents the type safe entity.
  * @param <ID> Represents the type of the unique id.
@@ -76,4 +82,60 @@ public interface CrudService<T, ID> {
 	 */
 	public <K, V extends Object> Collection<T> queryByCriteria(Map<K, V> parameters);
 	
+	/**
+	 * Batch query interface with unique ids of the entities. By default queries the entities one by one.
+	 * 
+	 * @param ids Represent the unique ids of the entities to be queried.
+	 * @return Entities keyed by their unique ids. Entities which were not found are not included.
+	 */
+	public default Map<ID, T> queryByIds(Collection<ID> ids) {
+		Map<ID, T> entities = new LinkedHashMap<ID, T>();
+		for (ID id : ids) {
+			T entity = queryById(id);
+			if (entity != null) {
+				entities.put(id, entity);
+			}
+		}
+		return entities;
+	}
+	
+	/**
+	 * Creates new entities and challenges business rules by entity validation. By default creates the entities one by one.
+	 * 
+	 * @param types Represents the type safe entities to be created.
+	 * @return Type safe unique ids of the created domain entities in the order of the given entities.
+	 */
+	public default List<ID> createAll(Collection<T> types) {
+		List<ID> ids = new ArrayList<ID>(types.size());
+		for (T type : types) {
+			ids.add(create(type));
+		}
+		return ids;
+	}
+	
+	/**
+	 * Updates existing entities and challenges business rules by entity validation. By default updates the entities one by one.
+	 * 
+	 * @param types Represents the type safe entities to be updated.
+	 * @return Represents the updated entities in the order of the given entities.
+	 */
+	public default List<T> updateAll(Collection<T> types) {
+		List<T> updatedTypes = new ArrayList<T>(types.size());
+		for (T type : types) {
+			updatedTypes.add(update(type));
+		}
+		return updatedTypes;
+	}
+	
+	/**
+	 * Delete interface for removing entities by ids. By default removes the entities one by one.
+	 * 
+	 * @param ids Represent the unique ids of the entities to be removed.
+	 */
+	public default void deleteAll(Collection<ID> ids) {
+		for (ID id : ids) {
+			delete(id);
+		}
+	}
+	
 }
@@ -0,0 +1,200 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.util;
+
+import java.beans.IntrospectionException;
+import java.beans.Introspector;
+import java.beans.PropertyDescriptor;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Method;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.regex.Pattern;
+
+import org.apache.commons.jxpath.JXPathContext;
+import org.apache.commons.jxpath.JXPathException;
+
+/**
+ * Helper class for reading property values with the paths defined in <code>org.openinfinity.core.annotation.Log</code>, 
+ * <code>org.openinfinity.core.annotation.AuditTrail</code>, <code>org.openinfinity.core.annotation.Encrypt</code> and 
+ * <code>org.openinfinity.core.annotation.Decrypt</code> annotations. Simple property paths like <code>auto/tire/screw</code> 
+ * or <code>auto.tire.screw</code> are compiled once per class and path to getter method handles. A <code>null</code> 
+ * intermediate property resolves the path to <code>null</code>. All other expressions, maps, collections, arrays and 
+ * unresolvable properties are evaluated with JXPath.
+ * 
+ * @author Ilkka Leinonen
+ * @version 1.1.0
+ * @since 3.2.0
+ */
+public final class PropertyPathUtil {
+
+	/**
+	 * Represents the paths which can be compiled to getter chains.
+	 */
+	private static final Pattern SIMPLE_PATH_PATTERN = Pattern.compile("[A-Za-z_$][A-Za-z0-9_$]*([./][A-Za-z_$][A-Za-z0-9_$]*)*");
+
+	/**
+	 * Represents the separators of the simple paths.
+	 */
+	private static final Pattern SEPARATOR_PATTERN = Pattern.compile("[./]");
+
+	/**
+	 * Represents the generic type of the compiled getters.
+	 */
+	private static final MethodType GETTER_TYPE = MethodType.methodType(Object.class, Object.class);
+
+	/**
+	 * Represents the value of a path which must be evaluated with JXPath, because a collection, map or array was reached.
+	 */
+	private static final Object UNRESOLVED = new Object();
+
+	/**
+	 * Represents the path which is always evaluated with JXPath.
+	 */
+	private static final PropertyPath XPATH_PROPERTY_PATH = new PropertyPath(null, null);
+
+	/**
+	 * Represents the compiled paths per class.
+	 */
+	private static final ClassValue<ConcurrentMap<String, PropertyPath>> PROPERTY_PATHS = new ClassValue<ConcurrentMap<String, PropertyPath>>() {
+		@Override
+		protected ConcurrentMap<String, PropertyPath> computeValue(Class<?> type) {
+			return new ConcurrentHashMap<String, PropertyPath>();
+		}
+	};
+
+	private PropertyPathUtil() {}
+
+	/**
+	 * Returns the value of the property path from the given object.
+	 * 
+	 * @param object Represents the root object of the path.
+	 * @param path Represents the property path or XPATH expression.
+	 * @return Object Represents the value of the path.
+	 * @throws org.apache.commons.jxpath.JXPathException Thrown if the path can not be evaluated or a getter fails.
+	 */
+	public static Object getValue(Object object, String path) {
+		if (object != null) {
+			Object value = getPropertyPath(object.getClass(), path).getValue(object);
+			if (value != UNRESOLVED)
+				return value;
+		}
+		return getValueByXPath(object, path);
+	}
+
+	private static Object getValueByXPath(Object object, String path) {
+		JXPathContext context = JXPathContext.newContext(object);
+		String xpath = SIMPLE_PATH_PATTERN.matcher(path).matches() ? path.replace('.', '/') : path;
+		return context.getValue(xpath);
+	}
+
+	private static PropertyPath getPropertyPath(Class<?> type, String path) {
+		ConcurrentMap<String, PropertyPath> propertyPaths = PROPERTY_PATHS.get(type);
+		PropertyPath propertyPath = propertyPaths.get(path);
+		if (propertyPath == null) {
+			propertyPath = compile(type, path);
+			PropertyPath existingPropertyPath = propertyPaths.putIfAbsent(path, propertyPath);
+			if (existingPropertyPath != null)
+				propertyPath = existingPropertyPath;
+		}
+		return propertyPath;
+	}
+
+	private static PropertyPath compile(Class<?> type, String path) {
+		if (!SIMPLE_PATH_PATTERN.matcher(path).matches())
+			return XPATH_PROPERTY_PATH;
+		String[] propertyNames = SEPARATOR_PATTERN.split(path);
+		MethodHandle[] getters = new MethodHandle[propertyNames.length];
+		Class<?> propertyType = type;
+		for (int i = 0; i < propertyNames.length; i++) {
+			if (!isBean(propertyType))
+				return XPATH_PROPERTY_PATH;
+			Method readMethod = findReadMethod(propertyType, propertyNames[i]);
+			if (readMethod == null)
+				return XPATH_PROPERTY_PATH;
+			try {
+				readMethod.setAccessible(true);
+				getters[i] = MethodHandles.lookup().unreflect(readMethod).asType(GETTER_TYPE);
+			} catch (Throwable throwable) {
+				return XPATH_PROPERTY_PATH;
+			}
+			propertyType = readMethod.getReturnType();
+		}
+		return new PropertyPath(path, getters);
+	}
+
+	private static Method findReadMethod(Class<?> type, String propertyName) {
+		try {
+			for (PropertyDescriptor propertyDescriptor : Introspector.getBeanInfo(type).getPropertyDescriptors()) {
+				if (propertyDescriptor.getName().equals(propertyName))
+					return propertyDescriptor.getReadMethod();
+			}
+		} catch (IntrospectionException introspectionException) {
+			return null;
+		}
+		return null;
+	}
+
+	private static boolean isBean(Class<?> type) {
+		return !(type.isPrimitive() || type.isArray() || type.isInterface() || type == Object.class || 
+				Collection.class.isAssignableFrom(type) || Map.class.isAssignableFrom(type));
+	}
+
+	private static boolean isContainer(Object value) {
+		return value instanceof Collection || value instanceof Map || value.getClass().isArray();
+	}
+
+	/**
+	 * Represents the compiled getter chain of a single path.
+	 */
+	private static final class PropertyPath {
+
+		private final String path;
+
+		private final MethodHandle[] getters;
+
+		PropertyPath(String path, MethodHandle[] getters) {
+			this.path = path;
+			this.getters = getters;
+		}
+
+		Object getValue(Object object) {
+			if (getters == null)
+				return UNRESOLVED;
+			Object value = object;
+			for (MethodHandle getter : getters) {
+				if (value == null)
+					return null;
+				if (isContainer(value))
+					return UNRESOLVED;
+				try {
+					value = (Object) getter.invokeExact(value);
+				} catch (Error error) {
+					throw error;
+				} catch (Throwable throwable) {
+					throw new JXPathException("Cannot access property [" + path + "] of class [" + object.getClass().getName() + "].", throwable);
+				}
+			}
+			return value != null && isContainer(value) ? UNRESOLVED : value;
+		}
+
+	}
+
+}
@@ -24,8 +24,12 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
+import lombok.AccessLevel;
 import lombok.Data;
 import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.Setter;
+import lombok.ToString;
 
 import org.apache.commons.codec.digest.DigestUtils;
 import org.springframework.security.core.Authentication;
@@ -33,13 +37,18 @@ import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 /**
  * Class for maintaining the state of the federated identity. Implements <code>org.springframework.security.core.Authentication</code> interface.
+ * Authorities, roles and the rendered authority string are computed once and reused until principals are replaced through the setters 
+ * or the identity is cleared. Every replacement starts a new generation and cached values are only used for the generation they were 
+ * computed in, so a computation racing with a setter never publishes stale authorities. Principals are not expected to be modified in place; 
+ * after such modification the principals must be set again.
  * 
  * @author Ilkka Leinonen
- * @version 1.1.0
+ * @version 1.3.0
  * @since 1.4.0
  */
 @Data
-@EqualsAndHashCode
+@EqualsAndHashCode(doNotUseGetters = true)
+@ToString(exclude = {"cachedAuthorities", "authorityGeneration"})
 public class Identity implements Authentication, Serializable {
 	
 	/**
@@ -74,6 +83,7 @@ public class Identity implements Authentication, Serializable {
 	/**
 	 * Represents the collection of role principals.
 	 */
+	@Getter(AccessLevel.NONE)
 	private Collection<RolePrincipal> rolePrincipals;
 	
 	/**
@@ -86,17 +96,64 @@ public class Identity implements Authentication, Serializable {
 	 */
 	private Map<String, String> userAttributes = new HashMap<String, String>();
 	
+	/**
+	 * Represents the current generation of the principals. Replaced with a new token whenever the principals change.
+	 */
+	@Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+	private transient volatile Object authorityGeneration;
+	
+	/**
+	 * Represents the cached authorities, roles and rendered authority string together with the generation they were computed in.
+	 */
+	@Getter(AccessLevel.NONE) @Setter(AccessLevel.NONE)
+	private transient volatile CachedAuthorities cachedAuthorities;
+	
+	/**
+	 * Returns unmodifiable view of the role principals.
+	 * 
+	 * @return Collection<RolePrincipal> Represents the collection of role principals.
+	 */
+	public Collection<RolePrincipal> getRolePrincipals() {
+		return rolePrincipals == null ? null : Collections.unmodifiableCollection(rolePrincipals);
+	}
+	
+	/**
+	 * Setter for the user principal.
+	 * 
+	 * @param userPrincipal Represents the user principal for the user session.
+	 */
+	public void setUserPrincipal(UserPrincipal userPrincipal) {
+		this.userPrincipal = userPrincipal;
+		invalidateAuthorities();
+	}
+	
+	/**
+	 * Setter for the role principals.
+	 * 
+	 * @param rolePrincipals Represents the collection of role principals.
+	 */
+	public void setRolePrincipals(Collection<RolePrincipal> rolePrincipals) {
+		this.rolePrincipals = rolePrincipals;
+		invalidateAuthorities();
+	}
+	
+	/**
+	 * Setter for the tenant principal.
+	 * 
+	 * @param tenantPrincipal Represents the tenant principal.
+	 */
+	public void setTenantPrincipal(TenantPrincipal<?> tenantPrincipal) {
+		this.tenantPrincipal = tenantPrincipal;
+		invalidateAuthorities();
+	}
+	
 	/**
 	 * Returns all roles associated with the user.
 	 * 
 	 * @return
 	 */
 	public List<String> getRoles() {
-		List<String> roles = new ArrayList<String>();
-		for (RolePrincipal rolePrincipal : rolePrincipals) {
-			roles.add(rolePrincipal.getName());
-		}
-		return Collections.unmodifiableList(roles);
+		return resolveCachedAuthorities().roles;
 	}
 	
 	/**
@@ -125,6 +182,7 @@ public class Identity implements Authentication, Serializable {
 		this.userPrincipal = null;
 		this.tenantPrincipal = null;
 		this.rolePrincipals = null;
+		invalidateAuthorities();
 	}
 	
 	/**
@@ -163,17 +221,52 @@ public class Identity implements Authentication, Serializable {
 	}
 	
 	/**
-	 * Returns collections of GrantedAuthorities for the user.
+	 * Returns unmodifiable collection of GrantedAuthorities for the user.
 	 */
 	public Collection<GrantedAuthority> getAuthorities() {
-		Collection<GrantedAuthority> grantedAuthorities = new ArrayList<GrantedAuthority>();
-		for (Principal principal : getAllPrincipalsForIdentity()) {
-			if (principal != null) {
-				GrantedAuthority grantedAuthority = new SimpleGrantedAuthority(principal.getName());
-				grantedAuthorities.add(grantedAuthority);
-			}
+		return resolveCachedAuthorities().authorities;
+	}
+	
+	/**
+	 * Returns unmodifiable list of the granted authority names for the user.
+	 * 
+	 * @return List<String> Represents the names of the granted authorities.
+	 */
+	public List<String> getAuthorityNames() {
+		return resolveCachedAuthorities().authorityNames;
+	}
+	
+	/**
+	 * Returns the granted authorities rendered in form <code>{authority1}{authority2}</code>.
+	 * 
+	 * @return String Represents the rendered authorities.
+	 */
+	public String getRenderedAuthorities() {
+		return resolveCachedAuthorities().renderedAuthorities;
+	}
+	
+	/**
+	 * Returns the cached authorities of the current generation, computing them if the cache belongs to an earlier generation. 
+	 * The generation is read before the principals, so values computed from principals replaced during the computation are 
+	 * published under an outdated generation and never returned by later calls.
+	 * 
+	 * @return CachedAuthorities Represents the authorities of the current generation.
+	 */
+	private CachedAuthorities resolveCachedAuthorities() {
+		Object generation = authorityGeneration;
+		CachedAuthorities authorities = cachedAuthorities;
+		if (authorities == null || authorities.generation != generation) {
+			authorities = new CachedAuthorities(generation, getAllPrincipalsForIdentity(), rolePrincipals);
+			cachedAuthorities = authorities;
 		}
-		return grantedAuthorities;
+		return authorities;
+	}
+	
+	/**
+	 * Starts a new generation, which discards the cached authorities, roles and the rendered authority string.
+	 */
+	private void invalidateAuthorities() {
+		this.authorityGeneration = new Object();
 	}
 	
 	/**
@@ -227,4 +320,58 @@ public class Identity implements Authentication, Serializable {
 		this.authenticated = isAuthenticated;
 	}
 	
+	/**
+	 * Represents the authorities, roles and rendered authority string computed from one generation of the principals.
+	 */
+	private static final class CachedAuthorities {
+		
+		/**
+		 * Represents the generation of the principals the values were computed from.
+		 */
+		private final Object generation;
+		
+		/**
+		 * Represents the granted authorities of the principals.
+		 */
+		private final Collection<GrantedAuthority> authorities;
+		
+		/**
+		 * Represents the names of the granted authorities.
+		 */
+		private final List<String> authorityNames;
+		
+		/**
+		 * Represents the names of the role principals.
+		 */
+		private final List<String> roles;
+		
+		/**
+		 * Represents the authority string in form <code>{authority1}{authority2}</code>.
+		 */
+		private final String renderedAuthorities;
+		
+		private CachedAuthorities(Object generation, Collection<Principal> principals, Collection<RolePrincipal> rolePrincipals) {
+			this.generation = generation;
+			Collection<GrantedAuthority> grantedAuthorities = new ArrayList<GrantedAuthority>();
+			List<String> names = new ArrayList<String>();
+			StringBuilder builder = new StringBuilder();
+			for (Principal principal : principals) {
+				if (principal != null) {
+					grantedAuthorities.add(new SimpleGrantedAuthority(principal.getName()));
+					names.add(principal.getName());
+					builder.append('{').append(principal.getName()).append('}');
+				}
+			}
+			List<String> roleNames = new ArrayList<String>();
+			for (RolePrincipal rolePrincipal : rolePrincipals) {
+				roleNames.add(rolePrincipal.getName());
+			}
+			this.authorities = Collections.unmodifiableCollection(grantedAuthorities);
+			this.authorityNames = Collections.unmodifiableList(names);
+			this.roles = Collections.unmodifiableList(roleNames);
+			this.renderedAuthorities = builder.toString();
+		}
+		
+	}
+	
 }
\ No newline at end of file
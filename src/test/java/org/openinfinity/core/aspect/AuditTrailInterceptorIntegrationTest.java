@@ -37,7 +37,7 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
  * Integration test for audit trail.
  * 
  * @author Ilkka Leinonen
- * @version 1.0.0
+ * @version 1.1.0
  * @since 1.0.0
  */
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -77,6 +77,18 @@ public class AuditTrailInterceptorIntegrationTest extends AbstractJUnit4SpringCo
 		assertEquals(true, actual.contains("Name1"));
 	}
 
+	@Test
+	public void givenKnownArgumentsWhenAccessingMethodThenAuditTrailLineMustKeepMethodNameAndArgumentClassNames() throws Throwable {
+		String id = "layout" + System.nanoTime();
+		Account account = new Account(id, "Name4");
+		integrationTest.auditMe(account);
+		integrationTest.auditMeWithAllArguments(account);
+		String actual = readLogFileContent(auditTrailFile);
+		assertEquals(true, actual.contains(" Method: [auditMe] " + Account.class.getName() + ".id=[" + id + "] " + Account.class.getName() + ".name=[Name4] "));
+		assertEquals(true, actual.contains(" Method: [auditMeWithAllArguments] "));
+		assertEquals(true, actual.contains(Account.class.getName() + "=[" + account + "] "));
+	}
+	
 	@Test
 	public void givenKnownArgumentsWhenAccessingMethodThenAllArgumentsMustNotBePassedToAuditTrail() throws Throwable {
 		Account account = new Account("2", "Name3");
@@ -15,15 +15,22 @@
  */
 package org.openinfinity.core.aspect;
 
+import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertTrue;
 
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
 import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.junit.runner.RunWith;
+import org.openinfinity.core.common.AccountGroup;
 import org.openinfinity.core.common.IntegrationTest;
 import org.openinfinity.core.common.domain.Account;
+import org.openinfinity.core.crypto.DecryptionCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -35,7 +42,7 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
  * Integration test for cipher aspect behaviour.
  * 
  * @author Ilkka Leinonen
- * @version 1.0.0
+ * @version 1.1.0
  * @since 1.3.0
  */
 @RunWith(SpringJUnit4ClassRunner.class)
@@ -50,8 +57,13 @@ public class CryptoAspectIntegrationTest extends AbstractJUnit4SpringContextTest
 	public static String EXPECTED_NAME = "Infinity";
 	public static String EXPECTED_ADDRESS = "Rocks";
 	
+	private static final int ACCOUNTS_IN_COLLECTION = 500;
+	
 	@Autowired
 	private IntegrationTest integrationTest;
+	
+	@Autowired
+	private DecryptionCache decryptionCache;
 
 	@Before
 	public void setUp() {
@@ -105,9 +117,135 @@ public class CryptoAspectIntegrationTest extends AbstractJUnit4SpringContextTest
 		assertTrue(expected.getAddress().equals(EXPECTED_ADDRESS));
 	}
 	
+	@Test
+	public void givenCollectionOfEntitiesWhenCallingParallelEncryptAndDecryptAnnotatedMethodsThenAllOfTheEntitiesMustBeProcessed() {
+		List<Account> accounts = new ArrayList<Account>();
+		for (int i = 0; i < ACCOUNTS_IN_COLLECTION; i++) {
+			Account account = new Account(EXPECTED_ID + i, EXPECTED_NAME);
+			account.setAddress(EXPECTED_ADDRESS);
+			accounts.add(account);
+		}
+		long startTime = System.currentTimeMillis();
+		List<Account> encryptedAccounts = integrationTest.encryptUsInParallel(accounts);
+		LOGGER.debug("Encryption of " + ACCOUNTS_IN_COLLECTION + " accounts took: " + (System.currentTimeMillis()-startTime) + " ms");
+		for (Account account : encryptedAccounts) {
+			assertFalse(account.getName().equals(EXPECTED_NAME));
+			assertFalse(account.getAddress().equals(EXPECTED_ADDRESS));
+		}
+		List<Account> decryptedAccounts = integrationTest.decryptUsInParallel(encryptedAccounts);
+		for (int i = 0; i < ACCOUNTS_IN_COLLECTION; i++) {
+			assertTrue(decryptedAccounts.get(i).getId().equals(EXPECTED_ID + i));
+			assertTrue(decryptedAccounts.get(i).getName().equals(EXPECTED_NAME));
+			assertTrue(decryptedAccounts.get(i).getAddress().equals(EXPECTED_ADDRESS));
+		}
+	}
+	
+	@Test
+	public void givenCacheableDecryptAnnotatedMethodWhenDecryptingSameValuesTwiceThenSecondDecryptionMustBeServedFromCache() {
+		Account encryptedAccount = integrationTest.encryptMe(EXPECTED_ACCOUNT);
+		Account firstCopy = new Account(encryptedAccount.getId(), encryptedAccount.getName());
+		firstCopy.setAddress(encryptedAccount.getAddress());
+		Account secondCopy = new Account(encryptedAccount.getId(), encryptedAccount.getName());
+		secondCopy.setAddress(encryptedAccount.getAddress());
+		long hitsBefore = decryptionCache.getHits();
+		Account expected = integrationTest.decryptMeWithCache(firstCopy);
+		assertEquals(hitsBefore, decryptionCache.getHits());
+		assertTrue(expected.getName().equals(EXPECTED_NAME));
+		expected = integrationTest.decryptMeWithCache(secondCopy);
+		assertEquals(hitsBefore + 3, decryptionCache.getHits());
+		assertTrue(expected.getId().equals(EXPECTED_ID));
+		assertTrue(expected.getName().equals(EXPECTED_NAME));
+		assertTrue(expected.getAddress().equals(EXPECTED_ADDRESS));
+	}
+	
+	@Test
+	public void givenNestedObjectGraphWithCycleWhenCallingEncryptAndDecryptAnnotatedMethodsThenEachObjectMustBeProcessedOnce() {
+		AccountGroup parent = new AccountGroup(EXPECTED_NAME);
+		AccountGroup accountGroup = new AccountGroup(EXPECTED_NAME);
+		accountGroup.setParent(parent);
+		parent.setParent(accountGroup);
+		Account owner = new Account(EXPECTED_ID, EXPECTED_NAME);
+		owner.setAddress(EXPECTED_ADDRESS);
+		Account member = new Account(EXPECTED_ID + 1, EXPECTED_NAME);
+		Account administrator = new Account(EXPECTED_ID + 2, EXPECTED_NAME);
+		accountGroup.setOwner(owner);
+		accountGroup.getAccounts().add(owner);
+		accountGroup.getAccounts().add(member);
+		accountGroup.getAccountsByRole().put("owner", owner);
+		accountGroup.setAdministrators(new Account[] {administrator, owner});
+		
+		integrationTest.encryptMyGroup(accountGroup);
+		assertFalse(parent.getName().equals(EXPECTED_NAME));
+		assertFalse(accountGroup.getName().equals(EXPECTED_NAME));
+		assertFalse(owner.getAddress().equals(EXPECTED_ADDRESS));
+		assertFalse(member.getId().equals(EXPECTED_ID + 1));
+		assertFalse(administrator.getId().equals(EXPECTED_ID + 2));
+		
+		integrationTest.decryptMyGroup(accountGroup);
+		assertEquals(EXPECTED_NAME, parent.getName());
+		assertEquals(EXPECTED_NAME, accountGroup.getName());
+		assertEquals(EXPECTED_ID, owner.getId());
+		assertEquals(EXPECTED_ADDRESS, owner.getAddress());
+		assertEquals(EXPECTED_ID + 1, member.getId());
+		assertEquals(EXPECTED_ID + 2, administrator.getId());
+	}
+	
+	@Test
+	public void givenReferenceToObjectOutsideOfArgumentPackageWhenCallingEncryptAnnotatedMethodThenReferencedObjectMustBeLeftUntouched() {
+		AccountGroup accountGroup = new AccountGroup(EXPECTED_NAME);
+		ExternalCollaborator externalCollaborator = new ExternalCollaborator();
+		externalCollaborator.name = EXPECTED_NAME;
+		externalCollaborator.account = new Account(EXPECTED_ID, EXPECTED_NAME);
+		accountGroup.setCollaborator(externalCollaborator);
+		
+		integrationTest.encryptMyGroup(accountGroup);
+		assertFalse(accountGroup.getName().equals(EXPECTED_NAME));
+		assertEquals(EXPECTED_NAME, externalCollaborator.name);
+		assertEquals(EXPECTED_ID, externalCollaborator.account.getId());
+		assertEquals(EXPECTED_NAME, externalCollaborator.account.getName());
+	}
+	
+	@Test
+	public void givenLazyCollectionOutsideOfJavaPlatformWhenCallingEncryptAnnotatedMethodThenCollectionMustNotBeIterated() {
+		AccountGroup accountGroup = new AccountGroup(EXPECTED_NAME);
+		LazyAccountList lazyAccountList = new LazyAccountList();
+		lazyAccountList.add(new Account(EXPECTED_ID, EXPECTED_NAME));
+		accountGroup.setCollaborator(lazyAccountList);
+		
+		integrationTest.encryptMyGroup(accountGroup);
+		assertFalse(accountGroup.getName().equals(EXPECTED_NAME));
+		assertFalse(lazyAccountList.initialized);
+	}
+	
 	@After
 	public void tearDown() {
 		LOGGER.debug("Tearing down the integration test.");
 	}
+	
+	/**
+	 * Represents a collaborator outside of the package of the argument, e.g. a framework object.
+	 */
+	static class ExternalCollaborator {
+		
+		private String name;
+		private Account account;
+		
+	}
+	
+	/**
+	 * Represents a lazily initialized collection, e.g. a persistent collection of an ORM framework.
+	 */
+	@SuppressWarnings("serial")
+	static class LazyAccountList extends ArrayList<Account> {
+		
+		private boolean initialized;
+		
+		@Override
+		public Iterator<Account> iterator() {
+			initialized = true;
+			return super.iterator();
+		}
+		
+	}
 
 }
\ No newline at end of file
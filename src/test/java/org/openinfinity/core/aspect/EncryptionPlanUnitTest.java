@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.aspect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Proxy;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+import org.openinfinity.core.aspect.EncryptionPlan.NestedFieldAccessor;
+import org.openinfinity.core.aspect.EncryptionPlan.TextFieldAccessor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Unit test for encryption plan.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.2.0
+ * @since 3.2.0
+ */
+public class EncryptionPlanUnitTest {
+
+	@Test
+	public void givenClassHierarchyWhenResolvingPlanThenOnlyTextFieldsMustBeIncluded() {
+		Set<String> names = new HashSet<String>();
+		for (TextFieldAccessor textFieldAccessor : EncryptionPlan.forClass(Child.class).getTextFieldAccessors()) {
+			names.add(textFieldAccessor.getName());
+		}
+		Set<String> expected = new HashSet<String>();
+		expected.add("parentText");
+		expected.add("childText");
+		expected.add("anyValue");
+		assertEquals(expected, names);
+	}
+
+	@Test
+	public void givenTextFieldAccessorWhenAccessingValuesThenOnlyTextValuesMustBeReturned() throws Throwable {
+		EncryptionPlan encryptionPlan = EncryptionPlan.forClass(Child.class);
+		assertSame(encryptionPlan, EncryptionPlan.forClass(Child.class));
+		Child child = new Child();
+		TextFieldAccessor textFieldAccessor = encryptionPlan.getTextFieldAccessor("parentText");
+		textFieldAccessor.setText(child, "text");
+		assertEquals("text", textFieldAccessor.getText(child));
+		child.anyValue = Integer.valueOf(1);
+		assertNull(encryptionPlan.getTextFieldAccessor("anyValue").getText(child));
+	}
+
+	@Test
+	public void givenNonTextOrUnknownFieldNameWhenResolvingAccessorThenNullMustBeReturned() {
+		EncryptionPlan encryptionPlan = EncryptionPlan.forClass(Child.class);
+		assertNull(encryptionPlan.getTextFieldAccessor("number"));
+		assertNull(encryptionPlan.getTextFieldAccessor("unknownField"));
+	}
+
+	@Test
+	public void givenNonTextOrUnknownFieldNameWhenResolvingAccessorRepeatedlyThenMissMustBeCached() {
+		EncryptionPlan encryptionPlan = EncryptionPlan.forClass(Child.class);
+		assertNull(encryptionPlan.getTextFieldAccessor("builder"));
+		assertNull(encryptionPlan.getTextFieldAccessor("missingField"));
+		Map<?, ?> textFieldAccessorsByName = (Map<?, ?>) ReflectionTestUtils.getField(encryptionPlan, "textFieldAccessorsByName");
+		assertNotNull(textFieldAccessorsByName.get("builder"));
+		assertSame(textFieldAccessorsByName.get("builder"), textFieldAccessorsByName.get("missingField"));
+		assertNull(encryptionPlan.getTextFieldAccessor("missingField"));
+	}
+
+	@Test
+	public void givenClassHierarchyWhenResolvingPlanThenReferencesToNestedObjectsMustBeIncluded() {
+		Set<String> names = new HashSet<String>();
+		for (NestedFieldAccessor nestedFieldAccessor : EncryptionPlan.forClass(Child.class).getNestedFieldAccessors()) {
+			names.add(nestedFieldAccessor.getName());
+		}
+		Set<String> expected = new HashSet<String>();
+		expected.add("anyValue");
+		expected.add("parent");
+		expected.add("children");
+		expected.add("childrenByName");
+		expected.add("siblings");
+		assertEquals(expected, names);
+	}
+
+	@Test
+	public void givenPlatformClassWhenResolvingPlanThenPlanMustBeLeafWithoutFields() {
+		EncryptionPlan encryptionPlan = EncryptionPlan.forClass(StringBuilder.class);
+		assertTrue(encryptionPlan.isLeaf());
+		assertTrue(encryptionPlan.getTextFieldAccessors().isEmpty());
+		assertTrue(encryptionPlan.getNestedFieldAccessors().isEmpty());
+		assertNull(encryptionPlan.getTextFieldAccessor("value"));
+	}
+
+	@Test
+	public void givenProxyClassWhenResolvingPlanThenPlanMustBeLeafWithoutFields() {
+		Class<?> proxyClass = Proxy.getProxyClass(EncryptionPlanUnitTest.class.getClassLoader(), Runnable.class);
+		assertTrue(EncryptionPlan.forClass(proxyClass).isLeaf());
+		EncryptionPlan encryptionPlan = EncryptionPlan.forClass(Child$$EnhancerBySpringCGLIB$$1.class);
+		assertTrue(encryptionPlan.isLeaf());
+		assertTrue(encryptionPlan.getTextFieldAccessors().isEmpty());
+		assertTrue(encryptionPlan.getNestedFieldAccessors().isEmpty());
+	}
+
+	static class Parent {
+
+		static String STATIC_TEXT;
+
+		private String parentText;
+
+		private int number;
+
+	}
+
+	static class Child extends Parent {
+
+		private final String finalText = "final";
+
+		private String childText;
+
+		private Object anyValue;
+
+		private StringBuilder builder;
+
+		private byte[] bytes;
+
+		private Parent parent;
+
+		private List<Child> children;
+
+		private Map<String, Child> childrenByName;
+
+		private Child[] siblings;
+
+	}
+
+	static class Child$$EnhancerBySpringCGLIB$$1 extends Child {
+
+		private String callbackName;
+
+	}
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.aspect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Field;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+/**
+ * Unit test for field metadata.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.1.0
+ * @since 3.2.0
+ */
+public class FieldMetadataUnitTest {
+
+	@Test
+	public void givenClassHierarchyWhenResolvingInstanceFieldsThenStaticAndFinalFieldsMustBeFiltered() {
+		Set<String> names = new HashSet<String>();
+		for (Field field : FieldMetadata.forClass(Child.class).getInstanceFields()) {
+			assertTrue(field.isAccessible());
+			names.add(field.getName());
+		}
+		Set<String> expected = new HashSet<String>();
+		expected.add("parentField");
+		expected.add("childField");
+		assertEquals(expected, names);
+	}
+
+	@Test
+	public void givenSameClassWhenResolvingMetadataThenCachedMetadataMustBeReturned() {
+		FieldMetadata fieldMetadata = FieldMetadata.forClass(Child.class);
+		assertSame(fieldMetadata, FieldMetadata.forClass(Child.class));
+		assertSame(fieldMetadata.getField("parentField"), fieldMetadata.getField("parentField"));
+		assertTrue(fieldMetadata.getField("parentField").isAccessible());
+		assertNull(fieldMetadata.getField("unknownField"));
+	}
+
+	@Test
+	public void givenUnknownFieldNameWhenResolvingFieldRepeatedlyThenMissMustBeCached() {
+		FieldMetadata fieldMetadata = FieldMetadata.forClass(Child.class);
+		assertNull(fieldMetadata.getField("missingField"));
+		Map<?, ?> fields = (Map<?, ?>) ReflectionTestUtils.getField(fieldMetadata, "fields");
+		Object cachedMiss = fields.get("missingField");
+		assertNotNull(cachedMiss);
+		assertNull(fieldMetadata.getField("missingField"));
+		assertSame(cachedMiss, fields.get("missingField"));
+	}
+
+	@Test
+	public void givenJdkTypedArgumentWhenGatheringFieldsThenInaccessibleFieldsMustBeExcluded() {
+		for (Field field : FieldMetadata.forClass(String.class).getInstanceFields()) {
+			assertTrue(field.isAccessible());
+		}
+		Field hashField = FieldMetadata.forClass(String.class).getField("hash");
+		assertTrue(hashField == null || hashField.isAccessible());
+		final Set<String> names = new HashSet<String>();
+		new ArgumentBuilder().executeArgumentGatheringCallbackOnAllFields(new ArgumentGatheringFieldCallback<Field, Object>() {
+			public void onField(Field field, Object object) {
+				names.add(field.getDeclaringClass().getSimpleName() + "." + field.getName());
+			}
+		}, new Object[]{"argument", new Child()});
+		assertTrue(names.contains("Parent.parentField"));
+		assertTrue(names.contains("Child.childField"));
+		assertFalse(names.contains("Child.finalField"));
+	}
+
+	static class Parent {
+
+		static String STATIC_FIELD;
+
+		private String parentField;
+
+	}
+
+	static class Child extends Parent {
+
+		private final String finalField = "final";
+
+		private String childField;
+
+	}
+
+}
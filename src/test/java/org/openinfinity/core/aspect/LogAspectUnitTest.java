@@ -0,0 +1,270 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.aspect;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assume.assumeFalse;
+import static org.junit.Assume.assumeTrue;
+
+import java.lang.management.ManagementFactory;
+import java.lang.reflect.Method;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.Signature;
+import org.aspectj.lang.reflect.MethodSignature;
+import org.aspectj.lang.reflect.SourceLocation;
+import org.aspectj.runtime.internal.AroundClosure;
+import org.junit.Before;
+import org.junit.Test;
+import org.openinfinity.core.annotation.Log;
+import org.openinfinity.core.annotation.Log.LogLevel;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Unit test for log aspect.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+public class LogAspectUnitTest {
+
+	private static final int WARM_UP_INVOCATIONS = 20000;
+
+	private static final int MEASURED_INVOCATIONS = 100000;
+
+	/**
+	 * Allowed allocation for the measurement itself, not per invocation.
+	 */
+	private static final long MEASUREMENT_ALLOCATION_TOLERANCE = 1024;
+
+	private LogAspect logAspect;
+
+	private JoinPointStub joinPoint;
+
+	private Log log;
+
+	@Before
+	public void setUp() throws Exception {
+		logAspect = new LogAspect();
+		logAspect.setDefaultLogLevel(LogAspect.LOG_LEVEL_TRACE);
+		Method method = LoggedService.class.getMethod("execute", String.class);
+		log = method.getAnnotation(Log.class);
+		joinPoint = new JoinPointStub(method, new Object[]{"argument"}, "result");
+	}
+
+	@Test
+	public void givenDisabledLogLevelWhenAccessingMethodThenMethodMustBeProceededDirectly() throws Throwable {
+		assumeFalse(LoggerFactory.getLogger(LogAspect.class).isTraceEnabled());
+		Object actual = logAspect.logMethod(joinPoint, log);
+		assertSame("result", actual);
+		assertEquals(1, joinPoint.proceedCount);
+		assertEquals(0, joinPoint.getArgsCount);
+	}
+
+	@Test
+	public void givenDisabledLogLevelWhenAccessingMethodThenInvocationMustNotAllocateMemory() throws Throwable {
+		assumeFalse(LoggerFactory.getLogger(LogAspect.class).isTraceEnabled());
+		assumeTrue(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean);
+		com.sun.management.ThreadMXBean threadMXBean = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+		assumeTrue(threadMXBean.isThreadAllocatedMemorySupported());
+		threadMXBean.setThreadAllocatedMemoryEnabled(true);
+		long threadId = Thread.currentThread().getId();
+		for (int i = 0; i < WARM_UP_INVOCATIONS; i++) {
+			logAspect.logMethod(joinPoint, log);
+		}
+		long allocatedBytesBefore = threadMXBean.getThreadAllocatedBytes(threadId);
+		for (int i = 0; i < MEASURED_INVOCATIONS; i++) {
+			logAspect.logMethod(joinPoint, log);
+		}
+		long allocatedBytes = threadMXBean.getThreadAllocatedBytes(threadId) - allocatedBytesBefore;
+		assertTrue("Disabled log level allocated " + allocatedBytes + " bytes for " + MEASURED_INVOCATIONS + " invocations.", allocatedBytes < MEASUREMENT_ALLOCATION_TOLERANCE);
+	}
+
+	@Test
+	public void givenImplementationsWithDifferentLogAnnotationsWhenAccessingInterfaceMethodThenEachImplementationMustHaveOwnPlan() throws Exception {
+		Method interfaceMethod = AuditedService.class.getMethod("execute", String.class);
+		Log warnLog = WarnLoggedService.class.getMethod("execute", String.class).getAnnotation(Log.class);
+		Log infoLog = InfoLoggedService.class.getMethod("execute", String.class).getAnnotation(Log.class);
+		JoinPointStub interfaceJoinPoint = new JoinPointStub(interfaceMethod, new Object[]{"argument"}, "result");
+		logAspect.setDefaultLogLevel(LogAspect.LOG_LEVEL_ERROR);
+
+		LogPlan warnLogPlan = logAspect.getLogPlan(interfaceJoinPoint, warnLog);
+		LogPlan infoLogPlan = logAspect.getLogPlan(interfaceJoinPoint, infoLog);
+
+		assertEquals(LevelLogger.WARN, warnLogPlan.getLevelLogger());
+		assertEquals(LevelLogger.INFO, infoLogPlan.getLevelLogger());
+		assertSame(warnLogPlan, logAspect.getLogPlan(interfaceJoinPoint, warnLog));
+		assertSame(infoLogPlan, logAspect.getLogPlan(interfaceJoinPoint, infoLog));
+	}
+
+	public interface AuditedService {
+
+		String execute(String argument);
+
+	}
+
+	public static class WarnLoggedService implements AuditedService {
+
+		@Log(level = LogLevel.WARN)
+		public String execute(String argument) {
+			return argument;
+		}
+
+	}
+
+	public static class InfoLoggedService implements AuditedService {
+
+		@Log(level = LogLevel.INFO)
+		public String execute(String argument) {
+			return argument;
+		}
+
+	}
+
+	public static class LoggedService {
+
+		@Log
+		public String execute(String argument) {
+			return argument;
+		}
+
+	}
+
+	/**
+	 * Join point stub which does not allocate memory on invocation.
+	 */
+	private static class JoinPointStub implements ProceedingJoinPoint {
+
+		private final MethodSignature signature;
+		private final Object[] args;
+		private final Object result;
+		private int proceedCount;
+		private int getArgsCount;
+
+		JoinPointStub(Method method, Object[] args, Object result) {
+			this.signature = new MethodSignatureStub(method);
+			this.args = args;
+			this.result = result;
+		}
+
+		public Object proceed() throws Throwable {
+			proceedCount++;
+			return result;
+		}
+
+		public Object proceed(Object[] args) throws Throwable {
+			return proceed();
+		}
+
+		public void set$AroundClosure(AroundClosure arc) {}
+
+		public String toShortString() {
+			return signature.toShortString();
+		}
+
+		public String toLongString() {
+			return signature.toLongString();
+		}
+
+		public Object getThis() {
+			return null;
+		}
+
+		public Object getTarget() {
+			return null;
+		}
+
+		public Object[] getArgs() {
+			getArgsCount++;
+			return args;
+		}
+
+		public Signature getSignature() {
+			return signature;
+		}
+
+		public SourceLocation getSourceLocation() {
+			return null;
+		}
+
+		public String getKind() {
+			return METHOD_EXECUTION;
+		}
+
+		public StaticPart getStaticPart() {
+			return null;
+		}
+
+	}
+
+	private static class MethodSignatureStub implements MethodSignature {
+
+		private final Method method;
+
+		MethodSignatureStub(Method method) {
+			this.method = method;
+		}
+
+		public Class getReturnType() {
+			return method.getReturnType();
+		}
+
+		public Method getMethod() {
+			return method;
+		}
+
+		public Class[] getParameterTypes() {
+			return method.getParameterTypes();
+		}
+
+		public String[] getParameterNames() {
+			return null;
+		}
+
+		public Class[] getExceptionTypes() {
+			return method.getExceptionTypes();
+		}
+
+		public String toShortString() {
+			return method.getName();
+		}
+
+		public String toLongString() {
+			return method.toString();
+		}
+
+		public String getName() {
+			return method.getName();
+		}
+
+		public int getModifiers() {
+			return method.getModifiers();
+		}
+
+		public Class getDeclaringType() {
+			return method.getDeclaringClass();
+		}
+
+		public String getDeclaringTypeName() {
+			return method.getDeclaringClass().getName();
+		}
+
+	}
+
+}
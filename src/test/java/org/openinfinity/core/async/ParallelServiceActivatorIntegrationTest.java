@@ -16,9 +16,22 @@
 package org.openinfinity.core.async;
 
 import static org.junit.Assert.*;
+import static org.junit.Assume.assumeTrue;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
 
 import org.junit.After;
 import org.junit.Before;
@@ -26,6 +39,7 @@ import org.junit.Test;
 import org.junit.runner.RunWith;
 import org.openinfinity.core.common.IntegrationTest;
 import org.openinfinity.core.common.domain.Account;
+import org.openinfinity.core.integration.CrudService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.core.task.support.ExecutorServiceAdapter;
 import org.springframework.test.context.ContextConfiguration;
@@ -35,7 +49,7 @@ import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
  * Integration test class for parallel processing.
  * 
  * @author Ilkka Leinonen
- * @version 1.1.0
+ * @version 1.5.0
  * @since 1.0.0
  */
 @ContextConfiguration(locations="classpath:META-INF/spring/t-core-integration-test-context.xml")
@@ -51,6 +65,9 @@ public class ParallelServiceActivatorIntegrationTest {
 	@Autowired
 	private ExecutorServiceAdapter executorServiceAdapter;
 	
+	@Autowired
+	private ParallelServiceActivator injectedParallelServiceActivator;
+	
 	@Before
 	public void setUp() {
 	}
@@ -225,6 +242,634 @@ public class ParallelServiceActivatorIntegrationTest {
 		}
 	}
 	
+	@Test
+	public void givenSlowAndFastCrudInterfacesWhenActivatingAsynchronouslyThenFastResultMustBeAvailableBeforeSlowCompletes() throws Exception {
+		ParallelServiceActivator parallelServiceActivator = new ParallelServiceActivator();
+		parallelServiceActivator.setExecutorServiceAdapter(executorServiceAdapter);
+		BlockingCrudService slowService = new BlockingCrudService();
+		final CountDownLatch fastResultLatch = new CountDownLatch(1);
+		
+		CompletableFuture<ParallelServiceActivator> activation = parallelServiceActivator.
+			prepareToQueryById(slowService, "slow", "slow").
+			prepareToQueryById(integrationTestService, "fast", "fast").
+			activateAsync();
+		parallelServiceActivator.onResult("fast", new AsyncResultCallback<Account>() {
+			@Override
+			public void onResult(Account account) {
+				assertEquals("fast", account.getId());
+				fastResultLatch.countDown();
+			}
+		});
+		
+		assertTrue(fastResultLatch.await(5, TimeUnit.SECONDS));
+		Account fastAccount = parallelServiceActivator.<Account>getResultFuture("fast").get(5, TimeUnit.SECONDS);
+		assertEquals("fast", fastAccount.getId());
+		assertFalse(activation.isDone());
+		assertFalse(parallelServiceActivator.getResultFuture("slow").isDone());
+		
+		slowService.release();
+		assertSame(parallelServiceActivator, activation.get(5, TimeUnit.SECONDS));
+		Account slowAccount = parallelServiceActivator.loadResult("slow");
+		assertEquals("slow", slowAccount.getId());
+	}
+	
+	@Test
+	public void givenBlockedCrudInterfaceWhenActivatingWithTimeoutThenUnfinishedCallsMustBeCancelled() {
+		ParallelServiceActivator parallelServiceActivator = new ParallelServiceActivator();
+		parallelServiceActivator.setExecutorServiceAdapter(executorServiceAdapter);
+		BlockingCrudService slowService = new BlockingCrudService();
+		
+		parallelServiceActivator.
+			prepareToQueryById(slowService, "slow", "slow").
+			prepareToQueryById(integrationTestService, "fast", "fast").
+			activate(100, TimeUnit.MILLISECONDS);
+		
+		assertEquals(ResultState.TIMED_OUT, parallelServiceActivator.getResultState("slow"));
+		assertTrue(parallelServiceActivator.getResultFuture("slow").isCompletedExceptionally());
+		assertEquals(ResultState.COMPLETED, parallelServiceActivator.getResultState("fast"));
+		Account fastAccount = parallelServiceActivator.loadResult("fast");
+		assertEquals("fast", fastAccount.getId());
+		assertNull(parallelServiceActivator.loadResult("slow"));
+	}
+	
+	@Test
+	public void givenPerCallTimeoutWhenActivatingThenOnlyTimedOutCallMustBeCancelled() {
+		ParallelServiceActivator parallelServiceActivator = new ParallelServiceActivator();
+		parallelServiceActivator.setExecutorServiceAdapter(executorServiceAdapter);
+		BlockingCrudService slowService = new BlockingCrudService();
+		
+		parallelServiceActivator.
+			prepareToQueryById(slowService, "slow", "slow").withTimeout(100, TimeUnit.MILLISECONDS).
+			prepareToQueryById(integrationTestService, "fast", "fast").withTimeout(5, TimeUnit.SECONDS).
+			prepareToQueryById(slowService, BlockingCrudService.FAILING_ID, "failing").
+			activate();
+		
+		assertEquals(ResultState.TIMED_OUT, parallelServiceActivator.getResultState("slow"));
+		assertEquals(ResultState.COMPLETED, parallelServiceActivator.getResultState("fast"));
+		assertEquals(ResultState.FAILED, parallelServiceActivator.getResultState("failing"));
+		assertNull(parallelServiceActivator.loadResult("failing"));
+	}
+	
+	@Test
+	public void givenPreparedCallsWhenNotActivatedThenResultStateMustBePending() {
+		ParallelServiceActivator parallelServiceActivator = new ParallelServiceActivator();
+		parallelServiceActivator.setExecutorServiceAdapter(executorServiceAdapter);
+		parallelServiceActivator.prepareToQueryById(integrationTestService, "id", "account");
+		assertEquals(ResultState.PENDING, parallelServiceActivator.getResultState("account"));
+	}
+	
+	@Test
+	public void givenIdenticalReadCallsWhenActivatingThenCallsMustBeExecutedOnce() {
+		ParallelServiceActivator parallelServiceActivator = new ParallelServiceActivator();
+		parallelServiceActivator.setExecutorServiceAdapter(executorServiceAdapter);
+		BlockingCrudService service = new BlockingCrudService();
+		service.release();
+		
+		parallelServiceActivator.
+			prepareToQueryById(service, "1", "first").
+			prepareToQueryById(service, "1", "second").
+			prepareToQueryById(service, "2", "third").
+			prepareToQueryAllById(service, "1", "all").
+			activate();
+		
+		assertEquals(3, service.getQueries());
+		Account first = parallelServiceActivator.loadResult("first");
+		Account second = parallelServiceActivator.loadResult("second");
+		Account third = parallelServiceActivator.loadResult("third");
+		Collection<Account> all = parallelServiceActivator.loadResult("all");
+		assertSame(first, second);
+		assertEquals("1", first.getId());
+		assertEquals("2", third.getId());
+		assertEquals(1, all.size());
+		assertEquals(ResultState.COMPLETED, parallelServiceActivator.getResultState("second"));
+	}
+	
+	@Test
+	public void givenSharedResultCacheWhenActivatingIdenticalReadCallsRepeatedlyThenCachedResultMustBeReused() {
+		SharedResultCache sharedResultCache = new SharedResultCache(1, TimeUnit.MINUTES);
+		BlockingCrudService service = new BlockingCrudService();
+		service.release();
+		
+		for (int i = 0; i < 3; i++) {
+			ParallelServiceActivator parallelServiceActivator = new ParallelServiceActivator();
+			parallelServiceActivator.setExecutorServiceAdapter(executorServiceAdapter);
+			parallelServiceActivator.setSharedResultCache(sharedResultCache);
+			parallelServiceActivator.
+				prepareToQueryById(service, "1", "account").
+				prepareToQueryById(service, BlockingCrudService.FAILING_ID, "failing").
+				activate();
+			Account account = parallelServiceActivator.loadResult("account");
+			assertEquals("1", account.getId());
+			assertEquals(ResultState.FAILED, parallelServiceActivator.getResultState("failing"));
+		}
+		
+		assertEquals(4, service.getQueries());
+		assertEquals(2, sharedResultCache.getHits());
+		assertEquals(4, sharedResultCache.getMisses());
+	}
+	
+	@Test
+	public void givenSharedReadCallInFlightWhenDeadlineOfJoiningActivationExpiresThenSharedCallMustNotBeCancelled() throws Exception {
+		SharedResultCache sharedResultCache = new SharedResultCache(1, TimeUnit.MINUTES);
+		BlockingCrudService slowService = new BlockingCrudService();
+		ParallelServiceActivator startingActivator = new ParallelServiceActivator();
+		startingActivator.setExecutorServiceAdapter(executorServiceAdapter);
+		startingActivator.setSharedResultCache(sharedResultCache);
+		CompletableFuture<ParallelServiceActivator> activation = startingActivator.prepareToQueryById(slowService, "slow", "slow").activateAsync();
+		
+		ParallelServiceActivator joiningActivator = new ParallelServiceActivator();
+		joiningActivator.setExecutorServiceAdapter(executorServiceAdapter);
+		joiningActivator.setSharedResultCache(sharedResultCache);
+		joiningActivator.prepareToQueryById(slowService, "slow", "slow").activate(50, TimeUnit.MILLISECONDS);
+		assertEquals(ResultState.TIMED_OUT, joiningActivator.getResultState("slow"));
+		
+		slowService.release();
+		activation.get(5, TimeUnit.SECONDS);
+		assertEquals(ResultState.COMPLETED, startingActivator.getResultState("slow"));
+		assertEquals(1, slowService.getQueries());
+	}
+	
+	@Test
+	public void givenSharedReadCallInFlightWhenPerCallTimeoutOfStartingActivationExpiresThenSharedCallMustNotBeCancelled() throws Exception {
+		SharedResultCache sharedResultCache = new SharedResultCache(1, TimeUnit.MINUTES);
+		BlockingCrudService slowService = new BlockingCrudService();
+		ParallelServiceActivator startingActivator = new ParallelServiceActivator();
+		startingActivator.setExecutorServiceAdapter(executorServiceAdapter);
+		startingActivator.setSharedResultCache(sharedResultCache);
+		CompletableFuture<ParallelServiceActivator> startingActivation = startingActivator.
+			prepareToQueryById(slowService, "slow", "slow").withTimeout(50, TimeUnit.MILLISECONDS).
+			activateAsync();
+		
+		ParallelServiceActivator joiningActivator = new ParallelServiceActivator();
+		joiningActivator.setExecutorServiceAdapter(executorServiceAdapter);
+		joiningActivator.setSharedResultCache(sharedResultCache);
+		CompletableFuture<ParallelServiceActivator> joiningActivation = joiningActivator.prepareToQueryById(slowService, "slow", "slow").activateAsync();
+		
+		try {
+			startingActivation.get(5, TimeUnit.SECONDS);
+			fail("Activation with timed out call must complete exceptionally.");
+		} catch (ExecutionException e) {
+			assertEquals(ResultState.TIMED_OUT, startingActivator.getResultState("slow"));
+		}
+		assertFalse(joiningActivation.isDone());
+		
+		slowService.release();
+		joiningActivation.get(5, TimeUnit.SECONDS);
+		assertEquals(ResultState.COMPLETED, joiningActivator.getResultState("slow"));
+		assertEquals(1, slowService.getQueries());
+	}
+	
+	@Test
+	public void givenDependentCallsWhenActivatingThenCallsMustBeExecutedAsGraph() throws Exception {
+		ParallelServiceActivator parallelServiceActivator = new ParallelServiceActivator();
+		parallelServiceActivator.setExecutorServiceAdapter(executorServiceAdapter);
+		BlockingCrudService slowService = new BlockingCrudService();
+		
+		CompletableFuture<ParallelServiceActivator> activation = parallelServiceActivator.
+			prepareToQueryById(slowService, "slow", "slow").
+			prepareToQueryById(integrationTestService, "order", "order").
+			prepareToQueryById(integrationTestService, new Function<Map<String, Object>, String>() {
+				@Override
+				public String apply(Map<String, Object> results) {
+					return ((Account) results.get("order")).getId() + "-customer";
+				}
+			}, "customer", "order").
+			prepareToQueryAllById(integrationTestService2, new Function<Map<String, Object>, String>() {
+				@Override
+				public String apply(Map<String, Object> results) {
+					return ((Account) results.get("order")).getId() + "/" + ((Account) results.get("customer")).getId();
+				}
+			}, "history", "order", "customer").
+			activateAsync();
+		
+		Account customer = parallelServiceActivator.<Account>getResultFuture("customer").get(5, TimeUnit.SECONDS);
+		assertEquals("order-customer", customer.getId());
+		Collection<Account> history = parallelServiceActivator.<Collection<Account>>getResultFuture("history").get(5, TimeUnit.SECONDS);
+		assertEquals(1, history.size());
+		assertFalse(activation.isDone());
+		
+		slowService.release();
+		activation.get(5, TimeUnit.SECONDS);
+		assertEquals(ResultState.COMPLETED, parallelServiceActivator.getResultState("slow"));
+	}
+	
+	@Test
+	public void givenFailingDependencyWhenActivatingThenDependentCallMustFailWithoutExecution() {
+		ParallelServiceActivator parallelServiceActivator = new ParallelServiceActivator();
+		parallelServiceActivator.setExecutorServiceAdapter(executorServiceAdapter);
+		BlockingCrudService service = new BlockingCrudService();
+		service.release();
+		
+		parallelServiceActivator.
+			prepareToQueryById(service, BlockingCrudService.FAILING_ID, "failing").
+			prepareToQueryById(service, new Function<Map<String, Object>, String>() {
+				@Override
+				public String apply(Map<String, Object> results) {
+					return ((Account) results.get("failing")).getId();
+				}
+			}, "dependent", "failing").
+			activate();
+		
+		assertEquals(ResultState.FAILED, parallelServiceActivator.getResultState("failing"));
+		assertEquals(ResultState.FAILED, parallelServiceActivator.getResultState("dependent"));
+		assertNull(parallelServiceActivator.loadResult("dependent"));
+		assertEquals(1, service.getQueries());
+	}
+	
+	@Test
+	public void givenServiceConcurrencyLimitWhenActivatingThenConcurrentCallsMustNotExceedLimit() throws Exception {
+		ServiceConcurrencyLimiter serviceConcurrencyLimiter = new ServiceConcurrencyLimiter(8);
+		BlockingCrudService slowService = new BlockingCrudService();
+		serviceConcurrencyLimiter.setMaximumConcurrentCalls(slowService, 2);
+		ParallelServiceActivator parallelServiceActivator = new ParallelServiceActivator();
+		parallelServiceActivator.setExecutorServiceAdapter(executorServiceAdapter);
+		parallelServiceActivator.setServiceConcurrencyLimiter(serviceConcurrencyLimiter);
+		for (int i = 0; i < 6; i++) {
+			parallelServiceActivator.prepareToQueryById(slowService, "slow" + i, "slow" + i);
+		}
+		CompletableFuture<ParallelServiceActivator> activation = parallelServiceActivator.activateAsync();
+		
+		slowService.awaitQueries(2);
+		Thread.sleep(50);
+		assertEquals(2, slowService.getQueries());
+		assertEquals(0, serviceConcurrencyLimiter.getAvailablePermits(slowService));
+		
+		slowService.release();
+		activation.get(5, TimeUnit.SECONDS);
+		assertEquals(6, slowService.getQueries());
+		assertEquals(2, slowService.getMaximumConcurrentQueries());
+		assertEquals(2, serviceConcurrencyLimiter.getAvailablePermits(slowService));
+	}
+	
+	@Test
+	public void givenVirtualThreadExecutionModeWhenActivatingThenResultsMustBeExpected() {
+		ParallelServiceActivator parallelServiceActivator = new ParallelServiceActivator();
+		parallelServiceActivator.setExecutorServiceAdapter(executorServiceAdapter);
+		parallelServiceActivator.setExecutionMode(ExecutionMode.VIRTUAL_THREADS);
+		parallelServiceActivator.setServiceConcurrencyLimiter(new ServiceConcurrencyLimiter(4));
+		BlockingCrudService service = new BlockingCrudService();
+		service.release();
+		for (int i = 0; i < 32; i++) {
+			parallelServiceActivator.prepareToQueryById(service, "id" + i, "account" + i);
+		}
+		parallelServiceActivator.activate(5, TimeUnit.SECONDS);
+		
+		for (int i = 0; i < 32; i++) {
+			Account account = parallelServiceActivator.loadResult("account" + i);
+			assertEquals("id" + i, account.getId());
+		}
+		assertTrue(service.getMaximumConcurrentQueries() <= 4);
+	}
+	
+	@Test
+	public void givenVirtualThreadSupportWhenActivatingWithoutExecutorServiceThenCallsMustBeExecutedByVirtualThreads() {
+		assumeTrue(VirtualThreads.isSupported());
+		ParallelServiceActivator parallelServiceActivator = new ParallelServiceActivator();
+		parallelServiceActivator.setExecutionMode(ExecutionMode.VIRTUAL_THREADS);
+		BlockingCrudService service = new BlockingCrudService();
+		service.release();
+		
+		parallelServiceActivator.prepareToQueryById(service, "1", "account").activate();
+		
+		Account account = parallelServiceActivator.loadResult("account");
+		assertEquals("1", account.getId());
+	}
+	
+	@Test
+	public void givenMixedPreparationsWhenLoadingResultsWithoutIdentifiersThenResultsMustBeInOrderOfPreparation() {
+		ParallelServiceActivator parallelServiceActivator = new ParallelServiceActivator();
+		parallelServiceActivator.setExecutorServiceAdapter(executorServiceAdapter);
+		BlockingCrudService service = new BlockingCrudService();
+		service.release();
+		
+		parallelServiceActivator.
+			prepareToQueryById(service, "1").
+			prepareToQueryAllById(service, "2").
+			prepareToCreate(service, "3", new Account("3", "3")).
+			prepareToQueryById(service, "4").
+			activate();
+		
+		Account first = parallelServiceActivator.loadResult();
+		Collection<Account> second = parallelServiceActivator.loadResult();
+		String third = parallelServiceActivator.loadResult();
+		Account fourth = parallelServiceActivator.loadResult();
+		assertEquals("1", first.getId());
+		assertEquals("2", second.iterator().next().getId());
+		assertEquals("3", third);
+		assertEquals("4", fourth.getId());
+	}
+	
+	@Test
+	public void givenInjectedActivatorWhenUsingFluentApiFromTwoThreadsThenEachConversationMustHaveItsOwnResults() throws Exception {
+		final BlockingCrudService service = new BlockingCrudService();
+		service.release();
+		final CountDownLatch startSignal = new CountDownLatch(1);
+		final Collection<Throwable> failures = new ConcurrentLinkedQueue<Throwable>();
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int thread = 0; thread < 2; thread++) {
+			final String id = "thread" + thread;
+			threads.add(new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						startSignal.await();
+						for (int i = 0; i < 50; i++) {
+							ParallelServiceConversation conversation = injectedParallelServiceActivator.newConversation();
+							conversation.
+								prepareToQueryById(service, id + "-" + i, "account").
+								prepareToQueryById(service, id).
+								activate();
+							assertEquals(id + "-" + i, conversation.<Account>loadResult("account").getId());
+							assertEquals(id, conversation.<Account>loadResult().getId());
+						}
+					} catch (Throwable throwable) {
+						failures.add(throwable);
+					}
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		startSignal.countDown();
+		for (Thread thread : threads) {
+			thread.join(TimeUnit.SECONDS.toMillis(10));
+		}
+		assertTrue(failures.toString(), failures.isEmpty());
+		assertEquals(2 * 50 * 2, service.getQueries());
+	}
+	
+	@Test
+	public void givenInjectedActivatorWhenUsingDeprecatedFluentApiFromSeveralThreadsThenEachThreadMustHaveItsOwnResults() throws Exception {
+		final BlockingCrudService service = new BlockingCrudService();
+		service.release();
+		final CountDownLatch startSignal = new CountDownLatch(1);
+		final Collection<Throwable> failures = new ConcurrentLinkedQueue<Throwable>();
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int thread = 0; thread < 4; thread++) {
+			final String id = "thread" + thread;
+			threads.add(new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						startSignal.await();
+						injectedParallelServiceActivator.
+							prepareToQueryById(service, id + "-account", "account").
+							prepareToQueryById(service, id).
+							activate();
+						assertEquals(id + "-account", injectedParallelServiceActivator.<Account>loadResult("account").getId());
+						assertEquals(id, injectedParallelServiceActivator.<Account>loadResult().getId());
+					} catch (Throwable throwable) {
+						failures.add(throwable);
+					}
+				}
+			}));
+		}
+		for (Thread thread : threads) {
+			thread.start();
+		}
+		startSignal.countDown();
+		for (Thread thread : threads) {
+			thread.join(TimeUnit.SECONDS.toMillis(10));
+		}
+		assertTrue(failures.toString(), failures.isEmpty());
+		assertEquals(4 * 2, service.getQueries());
+	}
+	
+	@Test
+	public void givenPlanWhenActivatingConcurrentlyThenEachActivationMustHaveItsOwnResults() throws Exception {
+		final ParallelServiceActivator parallelServiceActivator = new ParallelServiceActivator();
+		parallelServiceActivator.setExecutorServiceAdapter(executorServiceAdapter);
+		BlockingCrudService service = new BlockingCrudService();
+		service.release();
+		final ParallelServicePlan parallelServicePlan = ParallelServicePlan.builder().
+			prepareToQueryById(service, "1").
+			prepareToQueryAllById(service, "2").
+			prepareToCreate(service, new Account("3", "3")).
+			prepareToQueryById(service, "4", "account").
+			prepareToQueryById(service, new Function<Map<String, Object>, String>() {
+				@Override
+				public String apply(Map<String, Object> results) {
+					return ((Account) results.get("account")).getId() + "-dependent";
+				}
+			}, "dependent", "account").
+			build();
+		
+		Collection<CompletableFuture<ParallelServiceResults>> activations = new ArrayList<CompletableFuture<ParallelServiceResults>>();
+		for (int i = 0; i < 32; i++) {
+			activations.add(parallelServiceActivator.activateAsync(parallelServicePlan).getCompletionFuture());
+		}
+		
+		for (CompletableFuture<ParallelServiceResults> activation : activations) {
+			ParallelServiceResults results = activation.get(5, TimeUnit.SECONDS);
+			assertEquals(5, results.size());
+			assertEquals("1", results.<Account>loadResult(0).getId());
+			assertEquals(1, results.<Collection<Account>>loadResult(1).size());
+			assertEquals("3", results.<String>loadResult(2));
+			assertEquals("4", results.<Account>loadResult("account").getId());
+			assertSame(results.loadResult(3), results.loadResult("account"));
+			assertEquals("4-dependent", results.<Account>loadResult("dependent").getId());
+			assertEquals(ResultState.COMPLETED, results.getResultState(4));
+		}
+		assertEquals(32 * 4, service.getQueries());
+	}
+	
+	@Test
+	public void givenPlanWithDeadlineWhenActivatingThenUnfinishedCallsMustBeTimedOut() {
+		ParallelServiceActivator parallelServiceActivator = new ParallelServiceActivator();
+		parallelServiceActivator.setExecutorServiceAdapter(executorServiceAdapter);
+		BlockingCrudService slowService = new BlockingCrudService();
+		ParallelServicePlan parallelServicePlan = ParallelServicePlan.builder().
+			prepareToQueryById(slowService, "slow", "slow").
+			prepareToQueryById(integrationTestService, "fast", "fast").
+			build();
+		
+		ParallelServiceResults results = parallelServiceActivator.activate(parallelServicePlan, 100, TimeUnit.MILLISECONDS);
+		slowService.release();
+		
+		assertEquals(ResultState.TIMED_OUT, results.getResultState("slow"));
+		assertNull(results.loadResult("slow"));
+		assertEquals("fast", results.<Account>loadResult("fast").getId());
+	}
+	
+	@Test
+	public void givenBatchQueryServiceWhenActivatingQueryByIdCallsThenCallsMustBeMergedIntoBatchQuery() {
+		ParallelServiceActivator parallelServiceActivator = new ParallelServiceActivator();
+		parallelServiceActivator.setExecutorServiceAdapter(executorServiceAdapter);
+		BatchQueryCrudService service = new BatchQueryCrudService();
+		service.release();
+		ParallelServicePlan parallelServicePlan = ParallelServicePlan.builder().
+			prepareToQueryById(service, "1").
+			prepareToQueryById(service, "2").
+			prepareToQueryById(service, "1").
+			prepareToQueryById(service, BatchQueryCrudService.MISSING_ID).
+			prepareToQueryById(service, "3").withTimeout(5, TimeUnit.SECONDS).
+			prepareToQueryById(integrationTestService, "4").
+			prepareToQueryById(integrationTestService, "5").
+			build();
+		
+		ParallelServiceResults results = parallelServiceActivator.activate(parallelServicePlan);
+		
+		assertEquals(Collections.singletonList(Arrays.asList("1", "2", BatchQueryCrudService.MISSING_ID)), service.getBatches());
+		assertEquals("1", results.<Account>loadResult(0).getId());
+		assertEquals("2", results.<Account>loadResult(1).getId());
+		assertSame(results.loadResult(0), results.loadResult(2));
+		assertNull(results.loadResult(3));
+		assertEquals(ResultState.COMPLETED, results.getResultState(3));
+		assertEquals("3", results.<Account>loadResult(4).getId());
+		assertEquals("5", results.<Account>loadResult(6).getId());
+		assertEquals(3, service.getQueries());
+	}
+	
+	@Test
+	public void givenSharedResultCacheWhenActivatingBatchQueriesThenSharedResultsMustNotBeQueriedAgain() {
+		ParallelServiceActivator parallelServiceActivator = new ParallelServiceActivator();
+		parallelServiceActivator.setExecutorServiceAdapter(executorServiceAdapter);
+		parallelServiceActivator.setSharedResultCache(new SharedResultCache(1, TimeUnit.MINUTES));
+		BatchQueryCrudService service = new BatchQueryCrudService();
+		service.release();
+		
+		ParallelServiceResults firstResults = parallelServiceActivator.activate(ParallelServicePlan.builder().
+			prepareToQueryById(service, "1").
+			prepareToQueryById(service, "2").
+			build());
+		ParallelServiceResults secondResults = parallelServiceActivator.activate(ParallelServicePlan.builder().
+			prepareToQueryById(service, "1").
+			prepareToQueryById(service, "2").
+			prepareToQueryById(service, "3").
+			prepareToQueryById(service, "4").
+			build());
+		
+		assertEquals(Arrays.asList(Arrays.asList("1", "2"), Arrays.asList("3", "4")), service.getBatches());
+		assertSame(firstResults.loadResult(1), secondResults.loadResult(1));
+		assertEquals("4", secondResults.<Account>loadResult(3).getId());
+	}
+	
+	@Test
+	public void givenFailingBatchQueryWhenActivatingThenMergedCallsMustFail() {
+		ParallelServiceActivator parallelServiceActivator = new ParallelServiceActivator();
+		parallelServiceActivator.setExecutorServiceAdapter(executorServiceAdapter);
+		BatchQueryCrudService service = new BatchQueryCrudService();
+		service.release();
+		
+		ParallelServiceResults results = parallelServiceActivator.activate(ParallelServicePlan.builder().
+			prepareToQueryById(service, "1").
+			prepareToQueryById(service, BlockingCrudService.FAILING_ID).
+			build());
+		
+		assertEquals(ResultState.FAILED, results.getResultState(0));
+		assertEquals(ResultState.FAILED, results.getResultState(1));
+		assertNull(results.loadResult(0));
+	}
+	
+	/**
+	 * CRUD service blocking the queries until released.
+	 */
+	private static class BlockingCrudService implements CrudService<Account, String> {
+		
+		static final String FAILING_ID = "failing";
+		
+		private final CountDownLatch releaseLatch = new CountDownLatch(1);
+		
+		private final AtomicInteger queries = new AtomicInteger();
+		
+		private final AtomicInteger concurrentQueries = new AtomicInteger();
+		
+		private final AtomicInteger maximumConcurrentQueries = new AtomicInteger();
+		
+		void release() {
+			releaseLatch.countDown();
+		}
+		
+		int getQueries() {
+			return queries.get();
+		}
+		
+		int getMaximumConcurrentQueries() {
+			return maximumConcurrentQueries.get();
+		}
+		
+		void awaitQueries(int expectedQueries) throws InterruptedException {
+			long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+			while (queries.get() < expectedQueries && System.nanoTime() < deadline) {
+				Thread.sleep(5);
+			}
+		}
+		
+		@Override
+		public String create(Account account) {
+			return account.getId();
+		}
+		
+		@Override
+		public Account update(Account account) {
+			return account;
+		}
+		
+		@Override
+		public Account queryById(String id) {
+			queries.incrementAndGet();
+			if (FAILING_ID.equals(id)) {
+				throw new IllegalStateException("Query failed.");
+			}
+			int concurrent = concurrentQueries.incrementAndGet();
+			synchronized (maximumConcurrentQueries) {
+				maximumConcurrentQueries.set(Math.max(maximumConcurrentQueries.get(), concurrent));
+			}
+			try {
+				releaseLatch.await();
+			} catch (InterruptedException interruptedException) {
+				Thread.currentThread().interrupt();
+				return null;
+			} finally {
+				concurrentQueries.decrementAndGet();
+			}
+			return new Account(id, id);
+		}
+		
+		@Override
+		public Collection<Account> queryAllById(String id) {
+			return Collections.singletonList(queryById(id));
+		}
+		
+		@Override
+		public void delete(String id) {
+		}
+		
+		@Override
+		public <K, V> Collection<Account> queryByCriteria(Map<K, V> parameters) {
+			return Collections.emptyList();
+		}
+		
+	}
+	
+	/**
+	 * CRUD service implementing the batch query.
+	 */
+	private static class BatchQueryCrudService extends BlockingCrudService {
+		
+		static final String MISSING_ID = "missing";
+		
+		private final List<List<String>> batches = Collections.synchronizedList(new ArrayList<List<String>>());
+		
+		List<List<String>> getBatches() {
+			return batches;
+		}
+		
+		@Override
+		public Map<String, Account> queryByIds(Collection<String> ids) {
+			batches.add(new ArrayList<String>(ids));
+			Map<String, Account> accounts = new LinkedHashMap<String, Account>();
+			for (String id : ids) {
+				if (!MISSING_ID.equals(id)) {
+					accounts.put(id, queryById(id));
+				}
+			}
+			return accounts;
+		}
+		
+	}
+	
 	@After
 	public void tearDown() {
 	}
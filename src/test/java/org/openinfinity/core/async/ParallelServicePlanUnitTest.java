@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.async;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import org.junit.Test;
+import org.openinfinity.core.exception.SystemException;
+import org.openinfinity.core.integration.CrudService;
+
+/**
+ * Unit test for parallel service plan.
+ * 
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+public class ParallelServicePlanUnitTest {
+	
+	private static final CrudService<String, String> SERVICE = new CrudService<String, String>() {
+		
+		@Override
+		public String create(String entity) {
+			return entity;
+		}
+		
+		@Override
+		public String update(String entity) {
+			return entity;
+		}
+		
+		@Override
+		public String queryById(String id) {
+			return id;
+		}
+		
+		@Override
+		public Collection<String> queryAllById(String id) {
+			return Collections.singletonList(id);
+		}
+		
+		@Override
+		public void delete(String id) {
+		}
+		
+		@Override
+		public <K, V> Collection<String> queryByCriteria(Map<K, V> parameters) {
+			return Collections.emptyList();
+		}
+		
+	};
+	
+	private static final Function<Map<String, Object>, String> ID_RESOLVER = new Function<Map<String, Object>, String>() {
+		@Override
+		public String apply(Map<String, Object> results) {
+			return (String) results.get("first");
+		}
+	};
+	
+	@Test
+	public void givenPreparedCallsWhenBuildingPlanThenPositionsMustFollowOrderOfPreparation() {
+		ParallelServicePlan parallelServicePlan = ParallelServicePlan.builder().
+			prepareToQueryById(SERVICE, "1").
+			prepareToQueryAllById(SERVICE, "2", "second").
+			prepareToDelete(SERVICE, "3").
+			prepareToCreate(SERVICE, "4", "fourth").
+			build();
+		
+		assertEquals(4, parallelServicePlan.size());
+		assertEquals(1, parallelServicePlan.getPosition("second"));
+		assertEquals(3, parallelServicePlan.getPosition("fourth"));
+		assertEquals(-1, parallelServicePlan.getPosition("unknown"));
+	}
+	
+	@Test
+	public void givenBuiltPlanWhenPreparingFurtherCallsThenPlanMustNotChange() {
+		ParallelServicePlan.Builder builder = ParallelServicePlan.builder().prepareToQueryById(SERVICE, "1", "first");
+		ParallelServicePlan parallelServicePlan = builder.build();
+		
+		builder.prepareToQueryById(SERVICE, "2", "second").withTimeout(1, TimeUnit.SECONDS);
+		
+		assertEquals(1, parallelServicePlan.size());
+		assertEquals(-1, parallelServicePlan.getPosition("second"));
+		assertEquals(2, builder.build().size());
+	}
+	
+	@Test
+	public void givenDependentCallWhenBuildingPlanThenDependenciesMustBeResolvedToPositions() {
+		ParallelServicePlan parallelServicePlan = ParallelServicePlan.builder().
+			prepareToQueryById(SERVICE, "1").
+			prepareToQueryById(SERVICE, "2", "first").
+			prepareToQueryById(SERVICE, ID_RESOLVER, "dependent", "first").
+			build();
+		
+		PlannedCall dependent = parallelServicePlan.getPlannedCalls().get(parallelServicePlan.getPosition("dependent"));
+		assertEquals(Collections.singletonMap("first", 1), dependent.getDependencies());
+	}
+	
+	@Test(expected = SystemException.class)
+	public void givenUnknownDependencyWhenPreparingDependentCallThenSystemExceptionMustBeThrown() {
+		ParallelServicePlan.builder().prepareToQueryById(SERVICE, ID_RESOLVER, "dependent", "first");
+	}
+	
+	@Test(expected = SystemException.class)
+	public void givenNoPreparedCallsWhenDefiningTimeoutThenSystemExceptionMustBeThrown() {
+		ParallelServicePlan.builder().withTimeout(1, TimeUnit.SECONDS);
+	}
+	
+}
@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.audit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Test;
+
+/**
+ * Unit test for asynchronous audit trail sink.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.1.0
+ * @since 3.2.0
+ */
+public class AsyncAuditTrailSinkUnitTest {
+
+	private AsyncAuditTrailSink asyncAuditTrailSink;
+
+	@After
+	public void tearDown() {
+		if (asyncAuditTrailSink != null)
+			asyncAuditTrailSink.stop();
+	}
+
+	@Test
+	public void givenNonPositiveSampleRateOrBatchSizeWhenConfiguringSinkThenSettingMustBeRejected() {
+		asyncAuditTrailSink = new AsyncAuditTrailSink(new CollectingAuditTrailSink(null), 16);
+		for (int invalid : new int[] {0, -1, Integer.MIN_VALUE}) {
+			try {
+				asyncAuditTrailSink.setSampleRate(invalid);
+				fail("Sample rate " + invalid + " must be rejected.");
+			} catch (IllegalArgumentException illegalArgumentException) {
+			}
+			try {
+				asyncAuditTrailSink.setBatchSize(invalid);
+				fail("Batch size " + invalid + " must be rejected.");
+			} catch (IllegalArgumentException illegalArgumentException) {
+			}
+		}
+		asyncAuditTrailSink.setSampleRate(1);
+		asyncAuditTrailSink.setBatchSize(1);
+	}
+
+	@Test
+	public void givenWrittenRecordsWhenStoppingSinkThenAllRecordsMustBeWrittenInOrder() {
+		CollectingAuditTrailSink collectingAuditTrailSink = new CollectingAuditTrailSink(null);
+		asyncAuditTrailSink = new AsyncAuditTrailSink(collectingAuditTrailSink, 16);
+		asyncAuditTrailSink.setBatchSize(4);
+		for (int i = 0; i < 1000; i++)
+			asyncAuditTrailSink.write(createAuditRecord(i));
+		asyncAuditTrailSink.stop();
+		assertEquals(1000, collectingAuditTrailSink.getAuditRecords().size());
+		for (int i = 0; i < 1000; i++)
+			assertEquals("method" + i, collectingAuditTrailSink.getAuditRecords().get(i).getMethodId());
+		assertEquals(1000, asyncAuditTrailSink.getEnqueuedCount());
+		assertEquals(1000, asyncAuditTrailSink.getWrittenCount());
+		assertEquals(0, asyncAuditTrailSink.getDroppedCount());
+	}
+
+	@Test
+	public void givenFullBufferWithDropOldestPolicyWhenWritingRecordThenOldestQueuedRecordMustBeDropped() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		CollectingAuditTrailSink collectingAuditTrailSink = new CollectingAuditTrailSink(release);
+		asyncAuditTrailSink = new AsyncAuditTrailSink(collectingAuditTrailSink, 2);
+		asyncAuditTrailSink.setBatchSize(1);
+		asyncAuditTrailSink.setBackPressurePolicy(BackPressurePolicy.DROP_OLDEST);
+		asyncAuditTrailSink.write(createAuditRecord(1));
+		assertTrue(collectingAuditTrailSink.awaitWriting());
+		asyncAuditTrailSink.write(createAuditRecord(2));
+		asyncAuditTrailSink.write(createAuditRecord(3));
+		asyncAuditTrailSink.write(createAuditRecord(4));
+		release.countDown();
+		asyncAuditTrailSink.stop();
+		assertEquals(1, asyncAuditTrailSink.getDroppedCount());
+		assertEquals(3, collectingAuditTrailSink.getAuditRecords().size());
+		assertEquals("method1", collectingAuditTrailSink.getAuditRecords().get(0).getMethodId());
+		assertEquals("method3", collectingAuditTrailSink.getAuditRecords().get(1).getMethodId());
+		assertEquals("method4", collectingAuditTrailSink.getAuditRecords().get(2).getMethodId());
+	}
+
+	@Test
+	public void givenFullBufferWithSamplePolicyWhenWritingRecordsThenRecordsMustBeDroppedAndCounted() throws InterruptedException {
+		CountDownLatch release = new CountDownLatch(1);
+		CollectingAuditTrailSink collectingAuditTrailSink = new CollectingAuditTrailSink(release);
+		asyncAuditTrailSink = new AsyncAuditTrailSink(collectingAuditTrailSink, 4);
+		asyncAuditTrailSink.setBatchSize(1);
+		asyncAuditTrailSink.setBackPressurePolicy(BackPressurePolicy.SAMPLE);
+		asyncAuditTrailSink.write(createAuditRecord(0));
+		assertTrue(collectingAuditTrailSink.awaitWriting());
+		for (int i = 1; i <= 100; i++)
+			asyncAuditTrailSink.write(createAuditRecord(i));
+		release.countDown();
+		asyncAuditTrailSink.stop();
+		assertEquals(101, asyncAuditTrailSink.getEnqueuedCount() + asyncAuditTrailSink.getDroppedCount());
+		assertEquals(asyncAuditTrailSink.getEnqueuedCount(), collectingAuditTrailSink.getAuditRecords().size());
+		assertTrue(asyncAuditTrailSink.getDroppedCount() >= 96);
+	}
+
+	@Test
+	public void givenConcurrentWritersWhenStoppingSinkThenNoQueuedRecordMustBeLost() throws InterruptedException {
+		for (int iteration = 0; iteration < 100; iteration++) {
+			CollectingAuditTrailSink collectingAuditTrailSink = new CollectingAuditTrailSink(null);
+			final AsyncAuditTrailSink racedAuditTrailSink = new AsyncAuditTrailSink(collectingAuditTrailSink, 16);
+			racedAuditTrailSink.setBatchSize(4);
+			racedAuditTrailSink.start();
+			final CountDownLatch startSignal = new CountDownLatch(1);
+			List<Thread> writers = new ArrayList<Thread>();
+			for (int writer = 0; writer < 4; writer++) {
+				Thread thread = new Thread(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							startSignal.await();
+						} catch (InterruptedException interruptedException) {
+							Thread.currentThread().interrupt();
+						}
+						for (int i = 0; i < 250; i++)
+							racedAuditTrailSink.write(createAuditRecord(i));
+					}
+				});
+				thread.start();
+				writers.add(thread);
+			}
+			startSignal.countDown();
+			racedAuditTrailSink.stop();
+			for (Thread writer : writers)
+				writer.join();
+			assertEquals(1000, racedAuditTrailSink.getEnqueuedCount());
+			assertEquals(racedAuditTrailSink.getEnqueuedCount(), racedAuditTrailSink.getWrittenCount());
+			assertEquals(1000, collectingAuditTrailSink.getAuditRecords().size());
+		}
+	}
+
+	private AuditRecord createAuditRecord(int index) {
+		return new AuditRecord(AuditRecord.NO_TIMESTAMP, "method" + index, "username", Collections.singletonList("ROLE_USER"), null);
+	}
+
+	/**
+	 * Sink collecting the written records, optionally blocking the first batch until released.
+	 */
+	private static class CollectingAuditTrailSink implements AuditTrailSink {
+
+		private final List<AuditRecord> auditRecords = Collections.synchronizedList(new ArrayList<AuditRecord>());
+
+		private final CountDownLatch writing = new CountDownLatch(1);
+
+		private final CountDownLatch release;
+
+		CollectingAuditTrailSink(CountDownLatch release) {
+			this.release = release;
+		}
+
+		public boolean isEnabled() {
+			return true;
+		}
+
+		public void write(AuditRecord auditRecord) {
+			write(Collections.singletonList(auditRecord));
+		}
+
+		public void write(List<AuditRecord> auditRecords) {
+			writing.countDown();
+			try {
+				if (release != null)
+					release.await();
+			} catch (InterruptedException interruptedException) {
+				Thread.currentThread().interrupt();
+			}
+			this.auditRecords.addAll(auditRecords);
+		}
+
+		boolean awaitWriting() throws InterruptedException {
+			return writing.await(5, TimeUnit.SECONDS);
+		}
+
+		List<AuditRecord> getAuditRecords() {
+			return auditRecords;
+		}
+
+	}
+
+}
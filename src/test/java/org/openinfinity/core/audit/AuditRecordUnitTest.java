@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.audit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.joda.time.format.ISODateTimeFormat;
+import org.junit.Test;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Unit test for audit record rendering and serialization.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.2.0
+ * @since 3.2.0
+ */
+public class AuditRecordUnitTest {
+
+	private static final long EPOCH_NANOS = 1476000000123456789L;
+
+	@Test
+	public void givenAuditRecordWhenWritingJsonThenAllFieldsMustBePresent() throws Exception {
+		String json = new AuditRecordJsonWriter().toJson(createAuditRecord());
+		JsonNode jsonNode = new ObjectMapper().readTree(json);
+		assertEquals(EPOCH_NANOS, jsonNode.get("epochNanos").asLong());
+		assertEquals("org.openinfinity.AccountService.create", jsonNode.get("methodId").asText());
+		assertEquals("test-name", jsonNode.get("username").asText());
+		assertEquals("ROLE_ADMIN", jsonNode.get("authorities").get(1).asText());
+		assertEquals("Name1", jsonNode.get("arguments").get("account.name").asText());
+		assertTrue(jsonNode.get("arguments").get("account.address").isNull());
+	}
+
+	@Test
+	public void givenAuditRecordsWhenWritingJsonBatchThenRecordsMustBeNewlineDelimited() throws Exception {
+		List<AuditRecord> auditRecords = new ArrayList<AuditRecord>();
+		auditRecords.add(createAuditRecord());
+		auditRecords.add(new AuditRecord(AuditRecord.NO_TIMESTAMP, "org.openinfinity.AccountService.delete", null, null, null));
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		new AuditRecordJsonWriter().write(auditRecords, outputStream);
+		String ndjson = new String(outputStream.toByteArray(), "UTF-8");
+		assertTrue(ndjson.endsWith("}\n"));
+		String[] lines = ndjson.split("\n");
+		assertEquals(2, lines.length);
+		for (String line : lines) {
+			assertTrue(line, line.startsWith("{") && line.endsWith("}"));
+		}
+		JsonNode jsonNode = new ObjectMapper().readTree(lines[1]);
+		assertNull(jsonNode.get("epochNanos"));
+		assertNull(jsonNode.get("username"));
+		assertEquals(0, jsonNode.get("arguments").size());
+	}
+
+	@Test
+	public void givenAuditRecordsWhenWritingBinaryFormThenRecordsMustBeReadBackEqually() throws Exception {
+		AuditRecordBinaryCodec auditRecordBinaryCodec = new AuditRecordBinaryCodec();
+		AuditRecord expected = createAuditRecord();
+		AuditRecord empty = new AuditRecord(AuditRecord.NO_TIMESTAMP, "org.openinfinity.AccountService.delete", null, null, null);
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		DataOutputStream dataOutputStream = new DataOutputStream(outputStream);
+		auditRecordBinaryCodec.write(expected, dataOutputStream);
+		auditRecordBinaryCodec.write(empty, dataOutputStream);
+		DataInputStream dataInputStream = new DataInputStream(new ByteArrayInputStream(outputStream.toByteArray()));
+		assertAuditRecordEquals(expected, auditRecordBinaryCodec.read(dataInputStream));
+		assertAuditRecordEquals(empty, auditRecordBinaryCodec.read(dataInputStream));
+		assertEquals(-1, dataInputStream.read());
+	}
+
+	@Test
+	public void givenNegativeLengthWhenReadingBinaryFormThenIOExceptionMustBeThrown() {
+		assertInvalidBinaryForm(new byte[] {1, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x0F});
+	}
+
+	@Test
+	public void givenLengthAboveMaximumWhenReadingBinaryFormThenIOExceptionMustBeThrown() throws Exception {
+		assertInvalidBinaryForm(new byte[] {1, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F, 'a'});
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		outputStream.write(new byte[] {1, 0, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x7F});
+		outputStream.write(new byte[1024]);
+		try {
+			new AuditRecordBinaryCodec().read(new DataInputStream(new ByteArrayInputStream(outputStream.toByteArray())));
+			fail("IOException expected.");
+		} catch (IOException ioException) {
+			assertTrue(ioException.getMessage(), ioException.getMessage().contains("length"));
+		}
+	}
+
+	@Test
+	public void givenLengthsAndCountsAboveRemainingInputWhenReadingBinaryFormThenIOExceptionMustBeThrown() {
+		assertInvalidBinaryForm(new byte[] {1, 0, 11, 'a'});
+		assertInvalidBinaryForm(new byte[] {1, 4, 1, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, (byte) 0xFF, 0x07});
+		assertInvalidBinaryForm(new byte[] {1, 4, 1, 3, 0});
+		assertInvalidBinaryForm(new byte[] {1, 0, 1, 2, 0, 0});
+	}
+
+	@Test
+	public void givenAuditRecordWhenRenderingThenLineMustContainAllFields() {
+		String actual = createAuditRecord().toString();
+		assertTrue(actual.contains(" Method: [create] "));
+		assertTrue(actual.contains(" Username: [test-name] "));
+		assertTrue(actual.contains(" with granted authorities: [{ROLE_USER}{ROLE_ADMIN}] "));
+		assertTrue(actual.contains("account.name=[Name1] account.address=[null value] "));
+	}
+
+	@Test
+	public void givenPreRenderedArgumentsWhenRenderingThenArgumentsMustBeRenderedOnlyInLine() throws Exception {
+		Map<String, String> arguments = new LinkedHashMap<String, String>();
+		arguments.put("account.name", "Name1");
+		AuditRecord auditRecord = new AuditRecord(EPOCH_NANOS, "org.openinfinity.AccountService.create", null, null, null, arguments, "org.openinfinity.Account.name=[Name1] ");
+		String actual = auditRecord.toString();
+		assertTrue(actual.endsWith(" Method: [create] org.openinfinity.Account.name=[Name1] "));
+		JsonNode jsonNode = new ObjectMapper().readTree(new AuditRecordJsonWriter().toJson(auditRecord));
+		assertEquals("Name1", jsonNode.get("arguments").get("account.name").asText());
+		assertNull(jsonNode.get("arguments").get("org.openinfinity.Account.name"));
+	}
+
+	@Test
+	public void givenPreRenderedAuthoritiesWhenRenderingThenPreRenderedAuthoritiesMustBeUsed() {
+		AuditRecord auditRecord = new AuditRecord(EPOCH_NANOS, "org.openinfinity.AccountService.create", "test-name", Arrays.asList("ROLE_USER"), "{ROLE_USER}", null);
+		assertTrue(auditRecord.toString().contains(" with granted authorities: [{ROLE_USER}] "));
+	}
+
+	@Test
+	public void givenEpochMillisTimestampFormatWhenRenderingThenRawMillisecondsMustBeRendered() {
+		String actual = createAuditRecord().render(TimestampFormat.EPOCH_MILLIS);
+		assertTrue(actual.startsWith("Timestamp: [1476000000123] "));
+	}
+
+	@Test
+	public void givenSameMillisecondWhenFormattingTimestampThenCachedRenderingMustBeReturned() {
+		CachedTimestampFormatter cachedTimestampFormatter = new CachedTimestampFormatter();
+		String expected = cachedTimestampFormatter.format(1476000000123L);
+		assertEquals(ISODateTimeFormat.dateTime().print(1476000000123L), expected);
+		assertSame(expected, cachedTimestampFormatter.format(1476000000123L));
+		assertEquals(ISODateTimeFormat.dateTime().print(1476000000124L), cachedTimestampFormatter.format(1476000000124L));
+	}
+
+	private void assertInvalidBinaryForm(byte[] bytes) {
+		try {
+			new AuditRecordBinaryCodec().fromBytes(bytes);
+			fail("IOException expected.");
+		} catch (IOException ioException) {
+			assertTrue(ioException.getMessage(), ioException.getMessage().startsWith("Invalid") || ioException.getMessage().startsWith("Malformed"));
+		}
+	}
+
+	private void assertAuditRecordEquals(AuditRecord expected, AuditRecord actual) {
+		assertEquals(expected.getEpochNanos(), actual.getEpochNanos());
+		assertEquals(expected.getMethodId(), actual.getMethodId());
+		assertEquals(expected.getUsername(), actual.getUsername());
+		assertEquals(expected.getAuthorities(), actual.getAuthorities());
+		assertEquals(expected.getArguments(), actual.getArguments());
+	}
+
+	private AuditRecord createAuditRecord() {
+		Map<String, String> arguments = new LinkedHashMap<String, String>();
+		arguments.put("account.name", "Name1");
+		arguments.put("account.address", null);
+		return new AuditRecord(EPOCH_NANOS, "org.openinfinity.AccountService.create", "test-name", Arrays.asList("ROLE_USER", "ROLE_ADMIN"), arguments);
+	}
+
+}
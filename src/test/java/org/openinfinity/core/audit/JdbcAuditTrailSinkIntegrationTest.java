@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.audit;
+
+import static org.junit.Assert.assertEquals;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabase;
+import org.springframework.jdbc.datasource.embedded.EmbeddedDatabaseBuilder;
+
+/**
+ * Integration test for JDBC audit trail sink.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+public class JdbcAuditTrailSinkIntegrationTest {
+
+	private EmbeddedDatabase dataSource;
+
+	private JdbcTemplate jdbcTemplate;
+
+	@Before
+	public void setUp() {
+		dataSource = new EmbeddedDatabaseBuilder().setName("AUDIT_TRAIL").build();
+		jdbcTemplate = new JdbcTemplate(dataSource);
+		jdbcTemplate.execute("CREATE TABLE AUDIT_TRAIL (TIMESTAMP_COLUMN TIMESTAMP(9), METHOD_COLUMN VARCHAR(255), USERNAME_COLUMN VARCHAR(255), AUTHORITIES_COLUMN VARCHAR(1024), ARGUMENTS_COLUMN VARCHAR(4096))");
+	}
+
+	@After
+	public void tearDown() {
+		dataSource.shutdown();
+	}
+
+	@Test
+	public void givenBatchOfRecordsWhenWritingToSinkThenAllRecordsMustBeInserted() {
+		JdbcAuditTrailSink jdbcAuditTrailSink = new JdbcAuditTrailSink(dataSource);
+		List<AuditRecord> auditRecords = new ArrayList<AuditRecord>();
+		Map<String, String> arguments = new LinkedHashMap<String, String>();
+		arguments.put("account.id", "1");
+		auditRecords.add(new AuditRecord(1476000000123456789L, "createAccount", "test-name", Arrays.asList("ROLE_USER", "ROLE_ADMIN"), arguments));
+		auditRecords.add(new AuditRecord(AuditRecord.NO_TIMESTAMP, "deleteAccount", null, null, null));
+		jdbcAuditTrailSink.write(auditRecords);
+		List<Map<String, Object>> rows = jdbcTemplate.queryForList("SELECT * FROM AUDIT_TRAIL ORDER BY METHOD_COLUMN");
+		assertEquals(2, rows.size());
+		assertEquals("createAccount", rows.get(0).get("METHOD_COLUMN"));
+		assertEquals("test-name", rows.get(0).get("USERNAME_COLUMN"));
+		assertEquals("ROLE_USER,ROLE_ADMIN", rows.get(0).get("AUTHORITIES_COLUMN"));
+		assertEquals("{\"account.id\":\"1\"}", rows.get(0).get("ARGUMENTS_COLUMN"));
+		assertEquals(123456789, ((Timestamp) rows.get(0).get("TIMESTAMP_COLUMN")).getNanos());
+		assertEquals("deleteAccount", rows.get(1).get("METHOD_COLUMN"));
+		assertEquals(null, rows.get(1).get("TIMESTAMP_COLUMN"));
+	}
+
+}
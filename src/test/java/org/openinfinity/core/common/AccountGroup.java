@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.common;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.openinfinity.core.common.domain.Account;
+
+/**
+ * Stub test class representing a nested object graph.
+ * 
+ * @author Ilkka Leinonen
+ * @version 1.1.0
+ * @since 3.2.0
+ */
+public class AccountGroup {
+
+	private String name;
+	private Account owner;
+	private List<Account> accounts = new ArrayList<Account>();
+	private Map<String, Account> accountsByRole = new LinkedHashMap<String, Account>();
+	private Account[] administrators;
+	private AccountGroup parent;
+	private Object collaborator;
+	
+	public AccountGroup(String name) {
+		this.name = name;
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public Account getOwner() {
+		return owner;
+	}
+
+	public void setOwner(Account owner) {
+		this.owner = owner;
+	}
+
+	public List<Account> getAccounts() {
+		return accounts;
+	}
+
+	public Map<String, Account> getAccountsByRole() {
+		return accountsByRole;
+	}
+
+	public Account[] getAdministrators() {
+		return administrators;
+	}
+
+	public void setAdministrators(Account[] administrators) {
+		this.administrators = administrators;
+	}
+
+	public AccountGroup getParent() {
+		return parent;
+	}
+
+	public void setParent(AccountGroup parent) {
+		this.parent = parent;
+	}
+
+	public Object getCollaborator() {
+		return collaborator;
+	}
+
+	public void setCollaborator(Object collaborator) {
+		this.collaborator = collaborator;
+	}
+
+}
@@ -15,6 +15,8 @@
  */
 package org.openinfinity.core.common;
 
+import java.util.List;
+
 import org.openinfinity.core.common.domain.Account;
 import org.openinfinity.core.integration.CrudService;
 
@@ -53,6 +55,16 @@ public interface IntegrationTest extends CrudService<Account, String> {
 
 	public Account decryptMeWithSpecifiedAttributes(Account account);
 	
+	public List<Account> encryptUsInParallel(List<Account> accounts);
+	
+	public List<Account> decryptUsInParallel(List<Account> accounts);
+	
+	public Account decryptMeWithCache(Account account);
+	
+	public AccountGroup encryptMyGroup(AccountGroup accountGroup);
+	
+	public AccountGroup decryptMyGroup(AccountGroup accountGroup);
+	
 	public void auditMeWithPrimitiveFields(String accountId);
 	
 	public void throwSystemException();
@@ -169,6 +169,36 @@ public class IntegrationTestBean implements IntegrationTest {
 		LOGGER.debug("Account: " + account.toString());
 		return account;
 	}
+	
+	@Encrypt(argumentStrategy = ArgumentStrategy.ALL, parallel = true)
+	public List<Account> encryptUsInParallel(List<Account> accounts) {
+		LOGGER.debug("Accounts: " + accounts.size());
+		return accounts;
+	}
+
+	@Decrypt(argumentStrategy = ArgumentStrategy.ALL, parallel = true)
+	public List<Account> decryptUsInParallel(List<Account> accounts) {
+		LOGGER.debug("Accounts: " + accounts.size());
+		return accounts;
+	}
+
+	@Decrypt(argumentStrategy = ArgumentStrategy.ALL, cacheable = true)
+	public Account decryptMeWithCache(Account account) {
+		LOGGER.debug("Account: " + account.toString());
+		return account;
+	}
+
+	@Encrypt(argumentStrategy = ArgumentStrategy.ALL)
+	public AccountGroup encryptMyGroup(AccountGroup accountGroup) {
+		LOGGER.debug("Account group: " + accountGroup.getName());
+		return accountGroup;
+	}
+
+	@Decrypt(argumentStrategy = ArgumentStrategy.ALL)
+	public AccountGroup decryptMyGroup(AccountGroup accountGroup) {
+		LOGGER.debug("Account group: " + accountGroup.getName());
+		return accountGroup;
+	}
 
 	@MultiTenant
 	@Log
@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.crypto;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.openinfinity.core.exception.SystemException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+/**
+ * Unit test for chunked stream encryption.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.1.0
+ * @since 3.2.0
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = "classpath:META-INF/spring/t-core-integration-test-context.xml")
+public class ChunkedStreamCipherUnitTest {
+
+	private static final int CHUNK_SIZE = 1024;
+
+	/**
+	 * Size of the header and the frame length of the first chunk.
+	 */
+	private static final int FIRST_FRAME_OFFSET = 25 + 4;
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Autowired
+	@Qualifier("symmetricCryptoSupport")
+	private CryptoSupport symmetricCryptoSupport;
+
+	@Value("${symmetric.key.path}")
+	private String symmetricKeyPath;
+
+	@Test
+	public void givenPayloadsOfDifferentSizesWhenEncryptingAndDecryptingStreamThenPlainPayloadMustBeReturned() throws Exception {
+		for (int size : new int[]{0, 1, CHUNK_SIZE - 1, CHUNK_SIZE, CHUNK_SIZE * 3, CHUNK_SIZE * 3 + 7}) {
+			byte[] expected = createPayload(size);
+			assertArrayEquals(expected, decrypt(encrypt(expected)));
+		}
+	}
+
+	@Test
+	public void givenFileWhenEncryptingMappedFileAndDecryptingItThenPlainFileMustBeReturned() throws Exception {
+		byte[] expected = createPayload(ChunkedStreamCipher.DEFAULT_CHUNK_SIZE * 2 + 13);
+		File plainFile = temporaryFolder.newFile("plain.bin");
+		File encryptedFile = temporaryFolder.newFile("encrypted.bin");
+		File decryptedFile = temporaryFolder.newFile("decrypted.bin");
+		Files.write(plainFile.toPath(), expected);
+		assertEquals(expected.length, symmetricCryptoSupport.encrypt(plainFile.toPath(), encryptedFile.toPath()));
+		assertEquals(expected.length, symmetricCryptoSupport.decrypt(encryptedFile.toPath(), decryptedFile.toPath()));
+		assertArrayEquals(expected, Files.readAllBytes(decryptedFile.toPath()));
+	}
+
+	@Test
+	public void givenChunksLargerThanCiphertextOfCurrentKeysWhenDecryptingStreamThenPlainPayloadMustBeReturned() throws Exception {
+		byte[] expected = createPayload(CHUNK_SIZE * 2 + 1);
+		CryptoSupport cryptoSupportWithoutOverhead = new CryptoSupport(symmetricKeyPath) {
+			@Override
+			int ciphertextSize(int plainTextSize) {
+				return plainTextSize;
+			}
+		};
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		cryptoSupportWithoutOverhead.decrypt(new ByteArrayInputStream(encrypt(expected)), outputStream);
+		assertArrayEquals(expected, outputStream.toByteArray());
+	}
+
+	@Test(expected = SystemException.class)
+	public void givenTruncatedStreamWhenDecryptingThenExceptionMustBeThrown() throws Exception {
+		byte[] encrypted = encrypt(createPayload(CHUNK_SIZE * 3));
+		decrypt(Arrays.copyOf(encrypted, encrypted.length - 10));
+	}
+
+	@Test(expected = SystemException.class)
+	public void givenStreamWithoutFinalChunkWhenDecryptingThenExceptionMustBeThrown() throws Exception {
+		byte[] encrypted = encrypt(createPayload(CHUNK_SIZE * 2));
+		int frameLength = ByteBuffer.wrap(encrypted, FIRST_FRAME_OFFSET - 4, 4).getInt() + 4;
+		decrypt(Arrays.copyOf(encrypted, FIRST_FRAME_OFFSET - 4 + frameLength));
+	}
+
+	@Test(expected = SystemException.class)
+	public void givenReorderedChunksWhenDecryptingThenExceptionMustBeThrown() throws Exception {
+		byte[] encrypted = encrypt(createPayload(CHUNK_SIZE * 2 + 1));
+		int frameLength = ByteBuffer.wrap(encrypted, FIRST_FRAME_OFFSET - 4, 4).getInt() + 4;
+		byte[] reordered = encrypted.clone();
+		int firstFrame = FIRST_FRAME_OFFSET - 4;
+		System.arraycopy(encrypted, firstFrame + frameLength, reordered, firstFrame, frameLength);
+		System.arraycopy(encrypted, firstFrame, reordered, firstFrame + frameLength, frameLength);
+		decrypt(reordered);
+	}
+
+	@Test(expected = SystemException.class)
+	public void givenChunkFromAnotherStreamWhenDecryptingThenExceptionMustBeThrown() throws Exception {
+		byte[] payload = createPayload(CHUNK_SIZE * 2);
+		byte[] encrypted = encrypt(payload);
+		byte[] another = encrypt(payload);
+		int frameLength = ByteBuffer.wrap(encrypted, FIRST_FRAME_OFFSET - 4, 4).getInt() + 4;
+		System.arraycopy(another, FIRST_FRAME_OFFSET - 4, encrypted, FIRST_FRAME_OFFSET - 4, frameLength);
+		decrypt(encrypted);
+	}
+
+	private byte[] encrypt(byte[] plainBytes) throws Exception {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		new ChunkedStreamCipher(symmetricCryptoSupport, CHUNK_SIZE).encrypt(Channels.newChannel(new ByteArrayInputStream(plainBytes)), Channels.newChannel(outputStream));
+		return outputStream.toByteArray();
+	}
+
+	private byte[] decrypt(byte[] encryptedBytes) {
+		ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+		symmetricCryptoSupport.decrypt(new ByteArrayInputStream(encryptedBytes), outputStream);
+		return outputStream.toByteArray();
+	}
+
+	private static byte[] createPayload(int size) {
+		byte[] payload = new byte[size];
+		new Random(size).nextBytes(payload);
+		return payload;
+	}
+
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.crypto;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+import org.keyczar.Crypter;
+import org.keyczar.KeyczarTool;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.test.context.ContextConfiguration;
+import org.springframework.test.context.junit4.SpringJUnit4ClassRunner;
+
+/**
+ * Unit test for crypter pool.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.1.0
+ * @since 3.2.0
+ */
+@RunWith(SpringJUnit4ClassRunner.class)
+@ContextConfiguration(locations = "classpath:META-INF/spring/t-core-integration-test-context.xml")
+public class CrypterPoolUnitTest {
+
+	private static final byte[] PLAIN_TEXT = "Open Infinity Rocks".getBytes();
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	@Value("${symmetric.key.path}")
+	private String symmetricKeyPath;
+
+	@Test
+	public void givenReleasedCrypterWhenAcquiringThenSameCrypterMustBeReused() {
+		CrypterPool crypterPool = new CrypterPool(symmetricKeyPath, 4);
+		Crypter crypter = crypterPool.acquire();
+		crypterPool.release(crypter);
+		assertSame(crypter, crypterPool.acquire());
+		assertEquals(1, crypterPool.getCreatedCrypters());
+		assertEquals(2, crypterPool.getAcquisitions());
+		assertEquals(0, crypterPool.getContendedAcquisitions());
+	}
+
+	@Test
+	public void givenConcurrentAcquisitionsWhenPoolIsNotExhaustedThenCrypterMustBeCreatedPerCaller() {
+		CrypterPool crypterPool = new CrypterPool(symmetricKeyPath, 2);
+		Crypter first = crypterPool.acquire();
+		Crypter second = crypterPool.acquire();
+		assertNotSame(first, second);
+		assertEquals(2, crypterPool.getCreatedCrypters());
+	}
+
+	@Test
+	public void givenChangedKeyFilesWhenCreatingCrypterOnDemandThenCrypterMustUseKeysOfThePool() throws Exception {
+		File keyLocation = temporaryFolder.newFolder("keys");
+		createKeySet(keyLocation);
+		CrypterPool crypterPool = new CrypterPool(keyLocation.getAbsolutePath(), 2);
+		Crypter first = crypterPool.acquire();
+		byte[] encrypted = first.encrypt(PLAIN_TEXT);
+		for (File file : keyLocation.listFiles())
+			assertTrue(file.delete());
+		createKeySet(keyLocation);
+		Crypter second = crypterPool.acquire();
+		assertEquals(2, crypterPool.getCreatedCrypters());
+		assertArrayEquals(PLAIN_TEXT, second.decrypt(encrypted));
+		assertArrayEquals(PLAIN_TEXT, first.decrypt(second.encrypt(PLAIN_TEXT)));
+	}
+
+	@Test
+	public void givenExhaustedPoolWhenAcquiringThenCallerMustWaitForReleaseAndContentionMustBeRecorded() throws Exception {
+		final CrypterPool crypterPool = new CrypterPool(symmetricKeyPath, 1);
+		final Crypter crypter = crypterPool.acquire();
+		final CountDownLatch acquired = new CountDownLatch(1);
+		Thread thread = new Thread() {
+			@Override
+			public void run() {
+				crypterPool.release(crypterPool.acquire());
+				acquired.countDown();
+			}
+		};
+		thread.start();
+		assertFalse(acquired.await(100, TimeUnit.MILLISECONDS));
+		crypterPool.release(crypter);
+		assertTrue(acquired.await(10, TimeUnit.SECONDS));
+		thread.join();
+		assertEquals(1, crypterPool.getCreatedCrypters());
+		assertEquals(1, crypterPool.getContendedAcquisitions());
+		assertTrue(crypterPool.getWaitNanos() > 0);
+	}
+
+	private void createKeySet(File keyLocation) {
+		KeyczarTool.main(new String[] {"create", "--location=" + keyLocation.getAbsolutePath(), "--purpose=crypt"});
+		KeyczarTool.main(new String[] {"addkey", "--location=" + keyLocation.getAbsolutePath(), "--status=primary"});
+	}
+
+}
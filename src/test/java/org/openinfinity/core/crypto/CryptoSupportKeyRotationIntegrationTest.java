@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.crypto;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CyclicBarrier;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.keyczar.Crypter;
+import org.keyczar.KeyczarTool;
+import org.openinfinity.core.exception.SystemException;
+
+/**
+ * Integration test for key rotation of the crypto support.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.1.0
+ * @since 3.2.0
+ */
+public class CryptoSupportKeyRotationIntegrationTest {
+
+	private static final String EXPECTED_PLAIN_TEXT = "Open Infinity Rocks";
+
+	@Rule
+	public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+	private File keyLocation;
+
+	private CryptoSupport cryptoSupport;
+
+	@Before
+	public void setUp() throws Exception {
+		keyLocation = temporaryFolder.newFolder("keys");
+		createKeySet();
+		cryptoSupport = new CryptoSupport(keyLocation.getAbsolutePath());
+	}
+
+	@After
+	public void tearDown() {
+		cryptoSupport.stopWatchingKeys();
+	}
+
+	@Test
+	public void givenRotatedKeysWhenReloadingThenNewKeysMustEncryptAndRetiredKeysMustDecrypt() throws Exception {
+		String encryptedWithPreviousKeys = cryptoSupport.encryptToBase64(EXPECTED_PLAIN_TEXT);
+		replaceKeySet();
+		assertTrue(cryptoSupport.reloadKeys());
+		String encryptedWithCurrentKeys = cryptoSupport.encryptToBase64(EXPECTED_PLAIN_TEXT);
+		assertEquals(EXPECTED_PLAIN_TEXT, cryptoSupport.decryptFromBase64(encryptedWithPreviousKeys));
+		assertEquals(EXPECTED_PLAIN_TEXT, cryptoSupport.decryptFromBase64(encryptedWithCurrentKeys));
+	}
+
+	@Test
+	public void givenRemovedKeyFilesWhenDecryptingWithRetiredKeysConcurrentlyThenAllDecryptionsMustSucceed() throws Exception {
+		cryptoSupport.setCrypterPoolSize(4);
+		final List<String> encryptedWithPreviousKeys = new ArrayList<String>();
+		for (int i = 0; i < 16; i++)
+			encryptedWithPreviousKeys.add(cryptoSupport.encryptToBase64(EXPECTED_PLAIN_TEXT + i));
+		CrypterPool previousCrypterPool = cryptoSupport.getCrypterPool();
+		replaceKeySet();
+		assertTrue(cryptoSupport.reloadKeys());
+		// Holding the only crypter created up front forces the decryptions to create retired crypters on demand.
+		Crypter heldCrypter = previousCrypterPool.acquire();
+		final CyclicBarrier barrier = new CyclicBarrier(4);
+		final Collection<Throwable> failures = new ConcurrentLinkedQueue<Throwable>();
+		List<Thread> threads = new ArrayList<Thread>();
+		for (int thread = 0; thread < 4; thread++) {
+			threads.add(new Thread() {
+				@Override
+				public void run() {
+					try {
+						barrier.await();
+						for (int round = 0; round < 25; round++) {
+							for (int i = 0; i < encryptedWithPreviousKeys.size(); i++)
+								assertEquals(EXPECTED_PLAIN_TEXT + i, cryptoSupport.decryptFromBase64(encryptedWithPreviousKeys.get(i)));
+						}
+					} catch (Throwable throwable) {
+						failures.add(throwable);
+					}
+				}
+			});
+		}
+		for (Thread thread : threads)
+			thread.start();
+		for (Thread thread : threads)
+			thread.join(TimeUnit.SECONDS.toMillis(30));
+		previousCrypterPool.release(heldCrypter);
+		assertTrue(failures.toString(), failures.isEmpty());
+		assertTrue(previousCrypterPool.getCreatedCrypters() > 1);
+	}
+
+	@Test(expected = SystemException.class)
+	public void givenNoRetiredKeySetsWhenDecryptingWithRotatedKeyThenExceptionMustBeThrown() throws Exception {
+		cryptoSupport.setMaximumRetiredKeySets(0);
+		String encryptedWithPreviousKeys = cryptoSupport.encryptToBase64(EXPECTED_PLAIN_TEXT);
+		replaceKeySet();
+		cryptoSupport.reloadKeys();
+		cryptoSupport.decryptFromBase64(encryptedWithPreviousKeys);
+	}
+
+	@Test
+	public void givenMissingKeysWhenReloadingThenCurrentKeysMustStayInUse() throws Exception {
+		String encrypted = cryptoSupport.encryptToBase64(EXPECTED_PLAIN_TEXT);
+		for (File file : keyLocation.listFiles())
+			assertTrue(file.delete());
+		assertTrue(keyLocation.delete());
+		assertFalse(cryptoSupport.reloadKeys());
+		assertEquals(EXPECTED_PLAIN_TEXT, cryptoSupport.decryptFromBase64(encrypted));
+	}
+
+	@Test
+	public void givenWatchedKeyDirectoryWhenKeysAreRotatedThenKeysMustBeReloaded() throws Exception {
+		cryptoSupport.setKeyWatchQuietPeriodMillis(100);
+		cryptoSupport.startWatchingKeys();
+		CrypterPool previousCrypterPool = cryptoSupport.getCrypterPool();
+		String encryptedWithPreviousKeys = cryptoSupport.encryptToBase64(EXPECTED_PLAIN_TEXT);
+		replaceKeySet();
+		long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+		while (cryptoSupport.getCrypterPool() == previousCrypterPool && System.nanoTime() < deadline)
+			Thread.sleep(50);
+		assertNotSame(previousCrypterPool, cryptoSupport.getCrypterPool());
+		assertEquals(EXPECTED_PLAIN_TEXT, cryptoSupport.decryptFromBase64(encryptedWithPreviousKeys));
+	}
+
+	private void replaceKeySet() {
+		for (File file : keyLocation.listFiles())
+			assertTrue(file.delete());
+		createKeySet();
+	}
+
+	private void createKeySet() {
+		KeyczarTool.main(new String[] {"create", "--location=" + keyLocation.getAbsolutePath(), "--purpose=crypt"});
+		KeyczarTool.main(new String[] {"addkey", "--location=" + keyLocation.getAbsolutePath(), "--status=primary"});
+	}
+
+}
@@ -17,6 +17,11 @@ package org.openinfinity.core.crypto;
 
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
 
 import org.junit.Test;
 import org.junit.runner.RunWith;
@@ -114,4 +119,38 @@ public class CryptoSupportUnitTest {
 		assertEquals(EXPECTED_PLAIN_TEXT, actualPlainText);
 	}
 
+	@Test
+	public void givenSymmetricAESKeyWhenEncryptingTextDirectlyAndDecryptingItThenResultMustBePlainText() {
+		String base64PresentationOfEncryptedBytes = symmetricCryptoSupport.encryptToBase64(EXPECTED_PLAIN_TEXT);
+		assertNotSame(EXPECTED_PLAIN_TEXT, base64PresentationOfEncryptedBytes);
+		assertEquals(EXPECTED_PLAIN_TEXT, symmetricCryptoSupport.decryptFromBase64(base64PresentationOfEncryptedBytes));
+	}
+	
+	@Test
+	public void givenSerializedEncryptionWhenDecryptingTextDirectlyThenResultMustBePlainText() {
+		String base64PresentationOfEncryptedBytes = symmetricCryptoSupport.encryptAndReturnBase64Presentation(IOUtil.getBytes(EXPECTED_PLAIN_TEXT), ENCODING);
+		assertEquals(EXPECTED_PLAIN_TEXT, symmetricCryptoSupport.decryptFromBase64(base64PresentationOfEncryptedBytes));
+	}
+	
+	@Test
+	public void givenNonAsciiTextWhenEncryptingWithCharsetAndDecryptingItThenResultMustBePlainText() {
+		String expected = "\u00c5bo \u00e4\u00f6 \u20ac";
+		String base64PresentationOfEncryptedBytes = asymmetricCryptoSupport.encryptToBase64(expected, StandardCharsets.UTF_8);
+		assertEquals(expected, asymmetricCryptoSupport.decryptFromBase64(base64PresentationOfEncryptedBytes, StandardCharsets.UTF_8));
+	}
+
+	@Test
+	public void givenBatchOfTextsWhenEncryptingInParallelAndDecryptingThenOrderAndNullValuesMustBePreserved() {
+		List<String> plainTexts = new ArrayList<String>();
+		for (int i = 0; i < 1000; i++) {
+			plainTexts.add(i % 100 == 0 ? null : EXPECTED_PLAIN_TEXT + i);
+		}
+		List<String> encryptedTexts = symmetricCryptoSupport.encryptToBase64(plainTexts, StandardCharsets.ISO_8859_1, true);
+		assertEquals(plainTexts.size(), encryptedTexts.size());
+		assertNull(encryptedTexts.get(0));
+		assertEquals(plainTexts.get(1), symmetricCryptoSupport.decryptFromBase64(encryptedTexts.get(1)));
+		assertEquals(plainTexts, symmetricCryptoSupport.decryptFromBase64(encryptedTexts, StandardCharsets.ISO_8859_1));
+		assertEquals(plainTexts, symmetricCryptoSupport.decryptFromBase64(encryptedTexts, StandardCharsets.ISO_8859_1, true));
+	}
+
 }
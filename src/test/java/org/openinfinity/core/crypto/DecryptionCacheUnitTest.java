@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.crypto;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.Test;
+
+/**
+ * Unit test for the decryption cache.
+ * 
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+public class DecryptionCacheUnitTest {
+	
+	private static final Charset CHARSET = StandardCharsets.ISO_8859_1;
+	
+	@Test
+	public void givenCachedValueWhenReadingThenPlainTextMustBeReturnedAndHitCounted() {
+		DecryptionCache decryptionCache = new DecryptionCache();
+		assertNull(decryptionCache.get("ciphertext", CHARSET));
+		decryptionCache.put("ciphertext", CHARSET, "plain text");
+		assertEquals("plain text", decryptionCache.get("ciphertext", CHARSET));
+		assertEquals(1, decryptionCache.getHits());
+		assertEquals(1, decryptionCache.getMisses());
+		assertEquals(1, decryptionCache.getSize());
+	}
+	
+	@Test
+	public void givenCachedValueWhenReadingWithDifferentCharsetThenValueMustNotBeFound() {
+		DecryptionCache decryptionCache = new DecryptionCache();
+		decryptionCache.put("ciphertext", CHARSET, "plain text");
+		assertNull(decryptionCache.get("ciphertext", StandardCharsets.UTF_8));
+	}
+	
+	@Test
+	public void givenExpiredValueWhenReadingThenValueMustBeRemoved() throws InterruptedException {
+		DecryptionCache decryptionCache = new DecryptionCache(DecryptionCache.DEFAULT_MAXIMUM_BYTES, 10);
+		decryptionCache.put("ciphertext", CHARSET, "plain text");
+		Thread.sleep(50);
+		assertNull(decryptionCache.get("ciphertext", CHARSET));
+		assertEquals(1, decryptionCache.getExpirations());
+		assertEquals(0, decryptionCache.getSize());
+		assertEquals(0, decryptionCache.getBytes());
+	}
+	
+	@Test
+	public void givenValuesExceedingMaximumBytesWhenCachingThenLeastRecentlyUsedValuesMustBeEvicted() {
+		DecryptionCache decryptionCache = new DecryptionCache(64 * 1024, DecryptionCache.DEFAULT_TIME_TO_LIVE_MILLIS);
+		for (int i = 0; i < 10000; i++) {
+			decryptionCache.put("ciphertext" + i, CHARSET, "plain text " + i);
+		}
+		assertTrue(decryptionCache.getEvictions() > 0);
+		assertTrue(decryptionCache.getBytes() <= decryptionCache.getMaximumBytes());
+		assertEquals("plain text 9999", decryptionCache.get("ciphertext9999", CHARSET));
+		assertNull(decryptionCache.get("ciphertext0", CHARSET));
+	}
+	
+	@Test
+	public void givenValueLargerThanCacheSegmentWhenCachingThenValueMustNotBeCached() {
+		DecryptionCache decryptionCache = new DecryptionCache(1024, DecryptionCache.DEFAULT_TIME_TO_LIVE_MILLIS);
+		decryptionCache.put("ciphertext", CHARSET, new String(new char[1024]));
+		assertEquals(0, decryptionCache.getSize());
+	}
+	
+	@Test
+	public void givenCachedValuesWhenClearingThenAllValuesMustBeRemoved() {
+		DecryptionCache decryptionCache = new DecryptionCache();
+		decryptionCache.put("ciphertext", CHARSET, "plain text");
+		decryptionCache.clear();
+		assertNull(decryptionCache.get("ciphertext", CHARSET));
+		assertEquals(0, decryptionCache.getBytes());
+	}
+	
+}
@@ -0,0 +1,120 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.integration;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for the default batch operations of the CRUD service.
+ * 
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+public class CrudServiceUnitTest {
+	
+	private InMemoryCrudService crudService;
+	
+	@Before
+	public void setUp() {
+		crudService = new InMemoryCrudService();
+		crudService.create("first");
+		crudService.create("second");
+	}
+	
+	@Test
+	public void givenExistingAndMissingIdsWhenQueryingByIdsThenOnlyFoundEntitiesMustBeReturnedInOrder() {
+		Map<Long, String> entities = crudService.queryByIds(Arrays.asList(2L, 3L, 1L));
+		
+		assertEquals(Arrays.asList(2L, 1L), new ArrayList<Long>(entities.keySet()));
+		assertEquals(Arrays.asList("second", "first"), new ArrayList<String>(entities.values()));
+	}
+	
+	@Test
+	public void givenEntitiesWhenCreatingAllThenIdsMustBeReturnedInOrder() {
+		List<Long> ids = crudService.createAll(Arrays.asList("third", "fourth"));
+		
+		assertEquals(Arrays.asList(3L, 4L), ids);
+		assertEquals("fourth", crudService.queryById(4L));
+	}
+	
+	@Test
+	public void givenEntitiesWhenUpdatingAllThenUpdatedEntitiesMustBeReturnedInOrder() {
+		List<String> entities = crudService.updateAll(Arrays.asList("first", "second"));
+		
+		assertEquals(Arrays.asList("FIRST", "SECOND"), entities);
+	}
+	
+	@Test
+	public void givenIdsWhenDeletingAllThenEntitiesMustBeRemoved() {
+		crudService.deleteAll(Arrays.asList(1L, 2L));
+		
+		assertEquals(Collections.emptyMap(), crudService.queryByIds(Arrays.asList(1L, 2L)));
+	}
+	
+	/**
+	 * CRUD service implementing only the single entity operations.
+	 */
+	private static class InMemoryCrudService implements CrudService<String, Long> {
+		
+		private final Map<Long, String> entities = new LinkedHashMap<Long, String>();
+		
+		@Override
+		public Long create(String entity) {
+			Long id = Long.valueOf(entities.size() + 1);
+			entities.put(id, entity);
+			return id;
+		}
+		
+		@Override
+		public String update(String entity) {
+			return entity.toUpperCase();
+		}
+		
+		@Override
+		public String queryById(Long id) {
+			return entities.get(id);
+		}
+		
+		@Override
+		public Collection<String> queryAllById(Long id) {
+			return Collections.singletonList(queryById(id));
+		}
+		
+		@Override
+		public void delete(Long id) {
+			entities.remove(id);
+		}
+		
+		@Override
+		public <K, V> Collection<String> queryByCriteria(Map<K, V> parameters) {
+			return entities.values();
+		}
+		
+	}
+	
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.security.principal;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Unit test for identity authority caching.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.1.0
+ * @since 3.2.0
+ */
+public class IdentityUnitTest {
+
+	private Identity identity;
+
+	@Before
+	public void setUp() {
+		identity = new Identity();
+		identity.setUserPrincipal(new UserPrincipal("test-name"));
+		identity.setTenantPrincipal(new TenantPrincipal<String>("test-tenant"));
+		identity.setRolePrincipals(createRolePrincipals("ROLE_USER", "ROLE_ADMIN"));
+	}
+
+	@Test
+	public void givenIdentityWhenRenderingAuthoritiesThenAllPrincipalsMustBeRenderedInOrder() {
+		assertEquals(Arrays.asList("test-name", "test-tenant", "ROLE_USER", "ROLE_ADMIN"), identity.getAuthorityNames());
+		assertEquals("{test-name}{test-tenant}{ROLE_USER}{ROLE_ADMIN}", identity.getRenderedAuthorities());
+		assertEquals(Arrays.asList("ROLE_USER", "ROLE_ADMIN"), identity.getRoles());
+		assertEquals(4, identity.getAuthorities().size());
+	}
+
+	@Test
+	public void givenUnchangedIdentityWhenAccessingAuthoritiesThenCachedInstancesMustBeReturned() {
+		assertSame(identity.getAuthorities(), identity.getAuthorities());
+		assertSame(identity.getAuthorityNames(), identity.getAuthorityNames());
+		assertSame(identity.getRoles(), identity.getRoles());
+		assertSame(identity.getRenderedAuthorities(), identity.getRenderedAuthorities());
+	}
+
+	@Test
+	public void givenReplacedRolePrincipalsWhenAccessingAuthoritiesThenAuthoritiesMustBeRecalculated() {
+		String renderedAuthorities = identity.getRenderedAuthorities();
+		identity.setRolePrincipals(createRolePrincipals("ROLE_GUEST"));
+		assertNotSame(renderedAuthorities, identity.getRenderedAuthorities());
+		assertEquals("{test-name}{test-tenant}{ROLE_GUEST}", identity.getRenderedAuthorities());
+		assertEquals(Arrays.asList("ROLE_GUEST"), identity.getRoles());
+	}
+
+	@Test
+	public void givenClearedIdentityWhenSettingPrincipalsThenStaleAuthoritiesMustNotBeReturned() {
+		identity.getRenderedAuthorities();
+		identity.clear();
+		identity.setUserPrincipal(new UserPrincipal("another-name"));
+		identity.setRolePrincipals(createRolePrincipals());
+		assertEquals("{another-name}", identity.getRenderedAuthorities());
+	}
+
+	@Test
+	public void givenIdentitiesWithDifferentCacheStateWhenComparingThenIdentitiesMustBeEqual() {
+		Identity another = new Identity();
+		another.setUserPrincipal(new UserPrincipal("test-name"));
+		another.setTenantPrincipal(new TenantPrincipal<String>("test-tenant"));
+		another.setRolePrincipals(createRolePrincipals("ROLE_USER", "ROLE_ADMIN"));
+		identity.getRenderedAuthorities();
+		assertEquals(identity, another);
+		assertEquals(identity.hashCode(), another.hashCode());
+		assertFalse(identity.toString().contains("cached"));
+	}
+
+	@Test
+	public void givenPrincipalsReplacedDuringCalculationWhenAccessingAuthoritiesThenReplacedPrincipalsMustBeUsed() {
+		Collection<RolePrincipal> rolePrincipals = new ArrayList<RolePrincipal>(createRolePrincipals("ROLE_USER")) {
+			private static final long serialVersionUID = 1L;
+			private boolean replaced;
+			@Override
+			public Iterator<RolePrincipal> iterator() {
+				if (!replaced) {
+					replaced = true;
+					identity.setRolePrincipals(createRolePrincipals("ROLE_GUEST"));
+				}
+				return super.iterator();
+			}
+		};
+		identity.setRolePrincipals(rolePrincipals);
+		identity.getRoles();
+		assertEquals(Arrays.asList("ROLE_GUEST"), identity.getRoles());
+		assertEquals("{test-name}{test-tenant}{ROLE_GUEST}", identity.getRenderedAuthorities());
+	}
+
+	@Test(expected = UnsupportedOperationException.class)
+	public void givenIdentityWhenModifyingRolePrincipalsThenModificationMustBeRejected() {
+		identity.getRolePrincipals().add(new RolePrincipal("ROLE_ADMIN"));
+	}
+
+	private static Collection<RolePrincipal> createRolePrincipals(String... names) {
+		Collection<RolePrincipal> rolePrincipals = new ArrayList<RolePrincipal>();
+		for (String name : names)
+			rolePrincipals.add(new RolePrincipal(name));
+		return rolePrincipals;
+	}
+
+}
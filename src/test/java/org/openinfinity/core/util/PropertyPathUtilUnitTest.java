@@ -0,0 +1,172 @@
+/*
+ * Copyright (c) 2011-2015 the original author or authors.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package org.openinfinity.core.util;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.apache.commons.jxpath.JXPathContext;
+import org.apache.commons.jxpath.JXPathException;
+import org.apache.commons.jxpath.JXPathNotFoundException;
+import org.junit.Test;
+
+/**
+ * Unit test for property path utility.
+ *
+ * @author Ilkka Leinonen
+ * @version 1.0.0
+ * @since 3.2.0
+ */
+public class PropertyPathUtilUnitTest {
+
+	@Test
+	public void givenSimplePathWhenReadingValueThenValueMustMatchJXPath() {
+		Auto auto = new Auto(new Tire("screw", 4), "volvo");
+		assertEquals(JXPathContext.newContext(auto).getValue("brand"), PropertyPathUtil.getValue(auto, "brand"));
+		assertEquals(JXPathContext.newContext(auto).getValue("tire/screw"), PropertyPathUtil.getValue(auto, "tire/screw"));
+		assertEquals(JXPathContext.newContext(auto).getValue("tire/size"), PropertyPathUtil.getValue(auto, "tire/size"));
+		assertEquals(JXPathContext.newContext(auto).getValue("tire/flat"), PropertyPathUtil.getValue(auto, "tire/flat"));
+	}
+
+	@Test
+	public void givenDottedPathWhenReadingValueThenNestedValueMustBeReturned() {
+		Auto auto = new Auto(new Tire("screw", 4), "volvo");
+		assertEquals("screw", PropertyPathUtil.getValue(auto, "tire.screw"));
+	}
+
+	@Test
+	public void givenNullPropertyWhenReadingValueThenNullMustBeReturned() {
+		Auto auto = new Auto(new Tire(null, 4), null);
+		assertNull(PropertyPathUtil.getValue(auto, "brand"));
+		assertNull(PropertyPathUtil.getValue(auto, "tire/screw"));
+	}
+
+	@Test
+	public void givenCollectionPropertyWhenReadingValueThenValueMustMatchJXPath() {
+		Garage garage = new Garage(Arrays.asList(new Auto(new Tire("screw", 4), "volvo"), new Auto(new Tire("bolt", 5), "saab")));
+		assertEquals(JXPathContext.newContext(garage).getValue("autos"), PropertyPathUtil.getValue(garage, "autos"));
+		assertEquals(JXPathContext.newContext(garage).getValue("autos[2]/brand"), PropertyPathUtil.getValue(garage, "autos[2]/brand"));
+	}
+
+	@Test(expected = JXPathNotFoundException.class)
+	public void givenUnknownPropertyWhenReadingValueThenJXPathFailureMustBeThrown() {
+		PropertyPathUtil.getValue(new Auto(new Tire("screw", 4), "volvo"), "engine");
+	}
+
+	@Test
+	public void givenNullIntermediatePropertyWhenReadingValueThenNullMustBeReturned() {
+		assertNull(PropertyPathUtil.getValue(new Auto(null, "volvo"), "tire/screw"));
+		assertNull(PropertyPathUtil.getValue(new Auto(null, "volvo"), "tire.screw"));
+	}
+
+	@Test
+	public void givenFailingGetterWhenReadingValueThenFailureMustBeThrownAfterSingleInvocation() {
+		FailingTire failingTire = new FailingTire();
+		try {
+			PropertyPathUtil.getValue(new Auto(failingTire, "volvo"), "tire/screw");
+			fail("Failing getter must throw.");
+		} catch (JXPathException e) {
+			assertTrue(e.getCause() instanceof IllegalStateException);
+		}
+		assertEquals(1, failingTire.getInvocations());
+	}
+
+	public static class Auto {
+
+		private final Tire tire;
+
+		private final String brand;
+
+		public Auto(Tire tire, String brand) {
+			this.tire = tire;
+			this.brand = brand;
+		}
+
+		public Tire getTire() {
+			return tire;
+		}
+
+		public String getBrand() {
+			return brand;
+		}
+
+	}
+
+	public static class Tire {
+
+		private final String screw;
+
+		private final int size;
+
+		public Tire(String screw, int size) {
+			this.screw = screw;
+			this.size = size;
+		}
+
+		public String getScrew() {
+			return screw;
+		}
+
+		public int getSize() {
+			return size;
+		}
+
+		public boolean isFlat() {
+			return false;
+		}
+
+	}
+
+	public static class FailingTire extends Tire {
+
+		private int invocations;
+
+		public FailingTire() {
+			super("screw", 4);
+		}
+
+		@Override
+		public String getScrew() {
+			invocations++;
+			throw new IllegalStateException("Screw is lost.");
+		}
+
+		public int getInvocations() {
+			return invocations;
+		}
+
+	}
+
+	public static class Garage {
+
+		private final List<Auto> autos;
+
+		public Garage(List<Auto> autos) {
+			this.autos = autos;
+		}
+
+		public List<Auto> getAutos() {
+			return autos;
+		}
+
+	}
+
+}